@@ -0,0 +1,35 @@
+-- =====================================================
+-- Household Query Indexes
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Indexes behind the Households panel, which now pages,
+--              searches and sorts in SQL (model.HouseholdModel.QUERY)
+--              over the maintained summary columns instead of loading
+--              every household. Every sortable column leads an index;
+--              the search box uses the FULLTEXT index, whose column
+--              list must stay identical to QUERY.fullText(...). A
+--              number typed in the search box is a family_no lookup.
+-- =====================================================
+
+USE barangay_biga_db;
+
+ALTER TABLE households
+ADD FULLTEXT INDEX IF NOT EXISTS ft_households_search (head_name, address);
+
+ALTER TABLE households
+ADD INDEX IF NOT EXISTS idx_households_family (family_no, household_id),
+ADD INDEX IF NOT EXISTS idx_households_head_name (head_name, household_id),
+ADD INDEX IF NOT EXISTS idx_households_income (income, household_id),
+ADD INDEX IF NOT EXISTS idx_households_members (member_count, household_id);
+
+-- Verify a sorted page is an index range read
+EXPLAIN
+SELECT household_id, family_no, head_name, address, income, member_count
+FROM households
+WHERE (family_no > 100 OR (family_no = 100 AND household_id > 0))
+ORDER BY family_no, household_id
+LIMIT 200;
+
+-- Rollback
+-- ALTER TABLE households DROP INDEX ft_households_search, DROP INDEX idx_households_family,
+--     DROP INDEX idx_households_head_name, DROP INDEX idx_households_income, DROP INDEX idx_households_members;
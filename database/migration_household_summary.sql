@@ -0,0 +1,49 @@
+-- =====================================================
+-- Maintained Household Summary Migration
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Store member_count and head_name on households (next to
+--              household_head_id) so the Households listing no longer
+--              runs two correlated subqueries per row. The application
+--              keeps these columns current in the same transaction as
+--              every resident insert/update/delete; the UPDATE below
+--              (also run by tools.RebuildHouseholdSummary) recomputes
+--              them from scratch.
+-- =====================================================
+
+USE barangay_biga_db;
+
+-- Step 1: Summary columns
+ALTER TABLE households
+ADD COLUMN IF NOT EXISTS member_count INT(11) NOT NULL DEFAULT 0 AFTER income;
+
+ALTER TABLE households
+ADD COLUMN IF NOT EXISTS head_name VARCHAR(255) NULL AFTER household_head_id;
+
+-- Step 2: Index for the per-household COUNT(*) / MIN(resident_id) lookup
+ALTER TABLE residents
+ADD INDEX IF NOT EXISTS idx_residents_household_member (household_id, resident_id);
+
+-- Step 3: Backfill (head = earliest-added member, as the UI describes it)
+UPDATE households h
+LEFT JOIN (SELECT household_id, COUNT(*) AS member_count, MIN(resident_id) AS head_id
+           FROM residents WHERE household_id IS NOT NULL GROUP BY household_id) m
+       ON m.household_id = h.household_id
+LEFT JOIN residents r ON r.resident_id = m.head_id
+SET h.member_count = COALESCE(m.member_count, 0),
+    h.household_head_id = m.head_id,
+    h.head_name = NULLIF(CONCAT_WS(' ', NULLIF(r.first_name, ''), NULLIF(r.middle_name, ''), NULLIF(r.last_name, '')), ''),
+    h.updated_at = h.updated_at;
+
+-- Step 4: Verify against the old correlated computation (should return no rows)
+SELECT h.household_id, h.member_count,
+       (SELECT COUNT(*) FROM residents r2 WHERE r2.household_id = h.household_id) AS actual_count
+FROM households h
+HAVING h.member_count <> actual_count;
+
+-- =====================================================
+-- Rollback Script (if needed)
+-- =====================================================
+-- ALTER TABLE households DROP COLUMN member_count, DROP COLUMN head_name;
+-- ALTER TABLE residents DROP INDEX idx_residents_household_member;
+-- =====================================================
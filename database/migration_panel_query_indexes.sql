@@ -0,0 +1,58 @@
+-- =====================================================
+-- Panel Query Indexes
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Indexes behind the Projects, Blotter and Financial
+--              panels, which now page, search and sort in SQL
+--              (model.QueryTable). Every sortable column leads an
+--              index so a page is a range read; the search box uses
+--              the FULLTEXT indexes (MATCH ... AGAINST in boolean
+--              mode). The FULLTEXT column lists must stay identical
+--              to QueryTable.fullText(...) in the models.
+-- =====================================================
+
+USE barangay_biga_db;
+
+-- Projects (model.ProjectModel.QUERY)
+ALTER TABLE barangay_projects
+ADD FULLTEXT INDEX IF NOT EXISTS ft_projects_search (project_name, proponent);
+
+ALTER TABLE barangay_projects
+ADD INDEX IF NOT EXISTS idx_projects_name (project_name, project_id),
+ADD INDEX IF NOT EXISTS idx_projects_status (project_status, project_id),
+ADD INDEX IF NOT EXISTS idx_projects_start (start_date, project_id),
+ADD INDEX IF NOT EXISTS idx_projects_end (end_date, project_id);
+
+-- Blotter (model.BlotterModel.QUERY)
+ALTER TABLE blotter_incidents
+ADD FULLTEXT INDEX IF NOT EXISTS ft_blotter_search (case_number, incident_location, complainant_name, respondent_name);
+
+ALTER TABLE blotter_incidents
+ADD INDEX IF NOT EXISTS idx_blotter_date (incident_date, incident_id),
+ADD INDEX IF NOT EXISTS idx_blotter_case (case_number, incident_id),
+ADD INDEX IF NOT EXISTS idx_blotter_type_date (incident_type, incident_date, incident_id),
+ADD INDEX IF NOT EXISTS idx_blotter_status_date (incident_status, incident_date, incident_id),
+ADD INDEX IF NOT EXISTS idx_blotter_complainant (complainant_name),
+ADD INDEX IF NOT EXISTS idx_blotter_respondent (respondent_name);
+
+-- Financial (model.FinancialModel.QUERY)
+ALTER TABLE financial_transactions
+ADD FULLTEXT INDEX IF NOT EXISTS ft_financial_search (category, description);
+
+ALTER TABLE financial_transactions
+ADD INDEX IF NOT EXISTS idx_financial_date (transaction_date, transaction_id),
+ADD INDEX IF NOT EXISTS idx_financial_type_date (transaction_type, transaction_date, transaction_id),
+ADD INDEX IF NOT EXISTS idx_financial_category (category, transaction_id),
+ADD INDEX IF NOT EXISTS idx_financial_amount (amount, transaction_id),
+ADD INDEX IF NOT EXISTS idx_financial_method (payment_method);
+
+-- Verify a filtered, sorted page is an index range read
+EXPLAIN
+SELECT transaction_id, transaction_date FROM financial_transactions
+WHERE transaction_type = 'Income'
+ORDER BY transaction_date DESC, transaction_id DESC
+LIMIT 200;
+
+EXPLAIN
+SELECT project_id FROM barangay_projects
+WHERE MATCH(project_name, proponent) AGAINST ('+road* +repair*' IN BOOLEAN MODE);
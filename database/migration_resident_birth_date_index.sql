@@ -0,0 +1,19 @@
+-- =====================================================
+-- Resident Birth Date Index
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Lets the duplicate-resident check read the residents
+--              born in one year (ResidentModel.findPossibleDuplicates)
+--              as an index range instead of a full table scan
+-- =====================================================
+
+USE barangay_biga_db;
+
+ALTER TABLE residents
+ADD INDEX IF NOT EXISTS idx_residents_birth_date (birth_date);
+
+-- Verify both halves of the candidate query use an index
+EXPLAIN
+SELECT resident_id FROM residents WHERE birth_date BETWEEN '1990-01-01' AND '1990-12-31'
+UNION
+SELECT resident_id FROM residents WHERE last_name LIKE 'Del%';
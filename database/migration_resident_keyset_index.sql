@@ -0,0 +1,22 @@
+-- =====================================================
+-- Resident Keyset Paging Index
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Composite index matching the resident listing order
+--              (last_name, first_name, resident_id) so the Residents
+--              panel can seek page by page instead of reading the
+--              whole table
+-- =====================================================
+
+USE barangay_biga_db;
+
+ALTER TABLE residents
+ADD INDEX IF NOT EXISTS idx_residents_name_keyset (last_name, first_name, resident_id);
+
+-- Verify the index is used for a page seek
+EXPLAIN
+SELECT resident_id, last_name, first_name
+FROM residents
+WHERE (last_name > 'A' OR (last_name = 'A' AND (first_name > 'A' OR (first_name = 'A' AND resident_id > 0))))
+ORDER BY last_name, first_name, resident_id
+LIMIT 200;
@@ -0,0 +1,45 @@
+-- =====================================================
+-- Resident Name Sounds
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Store the sound of each resident's last name and
+--              first name (model.DuplicateResidentFinder's blocking
+--              keys) so the duplicate warning shown before a new
+--              resident is saved reads exactly the residents sharing
+--              a block with it, instead of a whole birth year or
+--              surname prefix cut off at a row limit. The sounds are
+--              computed in Java: the application writes them on every
+--              insert and update, and tools.RebuildResidentNameSounds
+--              fills them in for existing rows.
+-- =====================================================
+
+USE barangay_biga_db;
+
+-- Step 1: Sound columns
+ALTER TABLE residents
+ADD COLUMN IF NOT EXISTS last_name_sound VARCHAR(6) NULL AFTER suffix,
+ADD COLUMN IF NOT EXISTS first_name_sound VARCHAR(6) NULL AFTER last_name_sound;
+
+-- Step 2: One index per block of the candidate query
+ALTER TABLE residents
+ADD INDEX IF NOT EXISTS idx_residents_last_sound_birth (last_name_sound, birth_date),
+ADD INDEX IF NOT EXISTS idx_residents_first_sound_birth (first_name_sound, birth_date),
+ADD INDEX IF NOT EXISTS idx_residents_sounds (last_name_sound, first_name_sound);
+
+-- Step 3: Backfill
+-- java -cp bin;path\to\mysql-connector-java.jar tools.RebuildResidentNameSounds
+
+-- Step 4: Verify each half of the candidate query is an index lookup
+EXPLAIN
+SELECT resident_id FROM residents WHERE last_name_sound = 'dlkrs' AND birth_date BETWEEN '1990-01-01' AND '1990-12-31'
+UNION
+SELECT resident_id FROM residents WHERE first_name_sound = 'hn' AND birth_date = '1990-05-14'
+UNION
+SELECT resident_id FROM residents WHERE last_name_sound = 'dlkrs' AND first_name_sound = 'hn';
+
+-- =====================================================
+-- Rollback Script (if needed)
+-- =====================================================
+-- ALTER TABLE residents
+-- DROP INDEX idx_residents_last_sound_birth, DROP INDEX idx_residents_first_sound_birth,
+-- DROP INDEX idx_residents_sounds, DROP COLUMN last_name_sound, DROP COLUMN first_name_sound;
@@ -0,0 +1,29 @@
+-- =====================================================
+-- Resident Sort Indexes
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: The Residents panel sorts in SQL when a column header
+--              is clicked, paging by keyset on (column, resident_id).
+--              InnoDB appends the primary key to every secondary
+--              index, so one single-column index per sortable column
+--              serves those seeks. household_id and birth_date are
+--              already covered (idx_residents_household_member,
+--              idx_residents_birth_date).
+-- =====================================================
+
+USE barangay_biga_db;
+
+ALTER TABLE residents
+ADD INDEX IF NOT EXISTS idx_residents_last_name (last_name),
+ADD INDEX IF NOT EXISTS idx_residents_first_name (first_name);
+
+-- Verify the index is used for a page seek
+EXPLAIN
+SELECT resident_id, first_name
+FROM residents
+WHERE (first_name > 'A' OR (first_name = 'A' AND resident_id > 0))
+ORDER BY first_name, resident_id
+LIMIT 200;
+
+-- Rollback
+-- ALTER TABLE residents DROP INDEX idx_residents_last_name, DROP INDEX idx_residents_first_name;
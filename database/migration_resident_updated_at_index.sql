@@ -0,0 +1,31 @@
+-- =====================================================
+-- Resident updated_at Index
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: The in-memory resident search index re-reads the
+--              residents changed since its last check
+--              (ResidentSearchIndex.refreshIfStale), so saves made
+--              from other workstations show up in searches. That
+--              query filters on updated_at, which this indexes.
+--              The column is added first on databases created
+--              before it existed.
+-- =====================================================
+
+USE barangay_biga_db;
+
+ALTER TABLE residents
+ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP;
+
+ALTER TABLE residents
+ADD INDEX IF NOT EXISTS idx_residents_updated_at (updated_at);
+
+-- Verify the change query is an index range read
+EXPLAIN
+SELECT resident_id, first_name, middle_name, last_name, suffix, contact_no, email
+FROM residents
+WHERE updated_at >= NOW() - INTERVAL 1 MINUTE;
+
+-- =====================================================
+-- Rollback Script (if needed)
+-- =====================================================
+-- ALTER TABLE residents DROP INDEX idx_residents_updated_at;
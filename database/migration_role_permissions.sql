@@ -0,0 +1,57 @@
+-- =====================================================
+-- Role Permissions
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: roles.permissions used to be free-form text that
+--              nothing read; it is now a list of permission keys
+--              (residents.view, households.*, ...) evaluated by
+--              model.Permissions. This converts the old text:
+--              Administrator and Staff get their usual access
+--              written out as keys, and any other role's text is
+--              moved into its description and the column cleared
+--              (no access until permissions are granted in the
+--              Roles panel). Values made up only of permission
+--              keys and names, or "*" alone, are left alone.
+-- =====================================================
+
+USE barangay_biga_db;
+
+-- A value counts as converted only if it is "*" on its own or every token
+-- is a permission key (residents.view), an area (residents.*) or a name
+-- (DELETE_RESIDENT); free text such as "Can view all residents" is not
+SET @permission_key = CONCAT('(',
+    'residents[.]view|residents[.]edit|residents[.]delete|households[.]view|households[.]edit|households[.]delete|projects[.]view|projects[.]edit|',
+    'financial[.]view|financial[.]edit|officials[.]view|blotter[.]view|users[.]manage|roles[.]manage|logs[.]view|data[.]export|',
+    '(blotter|data|financial|households|logs|officials|projects|residents|roles|users)[.][*]|',
+    'VIEW_RESIDENTS|EDIT_RESIDENT|DELETE_RESIDENT|VIEW_HOUSEHOLDS|EDIT_HOUSEHOLD|DELETE_HOUSEHOLD|VIEW_PROJECTS|EDIT_PROJECTS|',
+    'VIEW_FINANCIAL|EDIT_FINANCIAL|VIEW_OFFICIALS|VIEW_BLOTTER|MANAGE_USERS|MANAGE_ROLES|VIEW_ACTIVITY_LOG|EXPORT_DATA)');
+SET @permission_token = CONCAT('^[[:space:]]*([*]|', @permission_key,
+    '([[:space:],;]+', @permission_key, ')*)[[:space:],;]*$');
+
+-- Keep the old text where someone can still read it
+UPDATE roles
+SET description = CONCAT_WS(' - ', NULLIF(TRIM(description), ''), TRIM(permissions))
+WHERE TRIM(COALESCE(permissions, '')) <> ''
+  AND permissions NOT REGEXP @permission_token;
+
+-- Administrator: everything
+UPDATE roles
+SET permissions = '*'
+WHERE role_id = 1
+  AND (TRIM(COALESCE(permissions, '')) = '' OR permissions NOT REGEXP @permission_token);
+
+-- Staff: residents, projects and financial records, no household changes or administration
+UPDATE roles
+SET permissions = 'residents.*, households.view, projects.*, financial.*, data.export'
+WHERE role_id = 2
+  AND (TRIM(COALESCE(permissions, '')) = '' OR permissions NOT REGEXP @permission_token);
+
+-- Other roles: clear the descriptive text
+UPDATE roles
+SET permissions = ''
+WHERE role_id NOT IN (1, 2)
+  AND TRIM(COALESCE(permissions, '')) <> ''
+  AND permissions NOT REGEXP @permission_token;
+
+-- Verify
+SELECT role_id, role_name, permissions FROM roles ORDER BY role_id;
@@ -0,0 +1,65 @@
+-- =====================================================
+-- User Logs Archival Index and Monthly Partitioning
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Index for the chunked archival job
+--              (model.ActivityLogArchiver / tools.ArchiveActivityLogs),
+--              which reads old rows in (log_time, log_id) order and
+--              deletes them a chunk at a time.
+--
+--              Step 2 is optional: it range-partitions user_logs by
+--              month so the archiver can drop whole months with
+--              DROP PARTITION instead of deleting row by row. The
+--              archiver keeps two months of empty partitions ahead of
+--              the current one by splitting pmax.
+-- =====================================================
+
+USE barangay_biga_db;
+
+-- Step 1: Keyset index for archival (and for browsing by time)
+ALTER TABLE user_logs
+ADD INDEX IF NOT EXISTS idx_user_logs_time_id (log_time, log_id);
+
+-- =====================================================
+-- Step 2 (optional): Monthly partitions
+-- =====================================================
+-- MySQL only partitions tables whose unique keys all include the
+-- partitioning column, and partitioned InnoDB tables cannot have
+-- foreign keys. Check for a foreign key first:
+SELECT CONSTRAINT_NAME
+FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE
+WHERE TABLE_SCHEMA = DATABASE()
+  AND TABLE_NAME = 'user_logs'
+  AND REFERENCED_TABLE_NAME IS NOT NULL;
+
+-- If the query above returned a name, drop it before continuing, e.g.:
+-- ALTER TABLE user_logs DROP FOREIGN KEY user_logs_ibfk_1;
+
+ALTER TABLE user_logs
+DROP PRIMARY KEY,
+ADD PRIMARY KEY (log_id, log_time);
+
+-- Everything before October 2026 starts out in one partition; it is
+-- archived and dropped as a whole once it falls past the cutoff.
+ALTER TABLE user_logs
+PARTITION BY RANGE (TO_DAYS(log_time)) (
+    PARTITION p202609 VALUES LESS THAN (TO_DAYS('2026-10-01')),
+    PARTITION p202610 VALUES LESS THAN (TO_DAYS('2026-11-01')),
+    PARTITION p202611 VALUES LESS THAN (TO_DAYS('2026-12-01')),
+    PARTITION p202612 VALUES LESS THAN (TO_DAYS('2027-01-01')),
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+-- Verify
+SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS
+FROM INFORMATION_SCHEMA.PARTITIONS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_logs'
+ORDER BY PARTITION_ORDINAL_POSITION;
+
+-- =====================================================
+-- Rollback Script (if needed)
+-- =====================================================
+-- ALTER TABLE user_logs REMOVE PARTITIONING;
+-- ALTER TABLE user_logs DROP PRIMARY KEY, ADD PRIMARY KEY (log_id);
+-- ALTER TABLE user_logs DROP INDEX idx_user_logs_time_id;
+-- =====================================================
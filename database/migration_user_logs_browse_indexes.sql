@@ -0,0 +1,41 @@
+-- =====================================================
+-- User Logs Browsing Indexes
+-- =====================================================
+-- Date: October 18, 2026
+-- Description: Indexes for the paged Activity Log browser, which reads
+--              user_logs newest first by (log_time, log_id) and pushes
+--              the user, action prefix and date filters into SQL.
+--              idx_user_logs_time_id (log_time, log_id) comes from
+--              migration_user_logs_archival.sql and serves the
+--              unfiltered and date-filtered pages.
+-- =====================================================
+
+USE barangay_biga_db;
+
+-- In case the archival migration has not been run
+ALTER TABLE user_logs
+ADD INDEX IF NOT EXISTS idx_user_logs_time_id (log_time, log_id);
+
+-- One user's history, already in page order (InnoDB appends log_id)
+ALTER TABLE user_logs
+ADD INDEX IF NOT EXISTS idx_user_logs_user_time (user_id, log_time);
+
+-- Action prefix search (action LIKE 'Updated%')
+ALTER TABLE user_logs
+ADD INDEX IF NOT EXISTS idx_user_logs_action (action(64));
+
+-- Verify a filtered page seek uses idx_user_logs_user_time
+EXPLAIN
+SELECT ul.log_id, ul.user_id, ul.action, ul.log_time
+FROM user_logs ul
+WHERE (ul.log_time < NOW() OR (ul.log_time = NOW() AND ul.log_id < 1000000))
+  AND ul.user_id IN (SELECT user_id FROM users WHERE username = 'admin' OR user_id = 'admin')
+ORDER BY ul.log_time DESC, ul.log_id DESC
+LIMIT 200;
+
+-- =====================================================
+-- Rollback Script (if needed)
+-- =====================================================
+-- ALTER TABLE user_logs DROP INDEX idx_user_logs_user_time;
+-- ALTER TABLE user_logs DROP INDEX idx_user_logs_action;
+-- =====================================================
@@ -1,40 +1,203 @@
 package crypto;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
 import java.util.Base64;
+import javax.crypto.Mac;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
 
+/**
+ * PBKDF2-HMAC-SHA256 password hashing.
+ *
+ * Stored hashes record their cost: "pbkdf2-sha256$<iterations>$<base64 hash>".
+ * A bare Base64 hash (the original format) means LEGACY_ITERATIONS. New
+ * hashes use the current iteration count, which calibrate() can raise to
+ * match a target latency on this machine; needsRehash() tells the login code
+ * when a stored hash should be upgraded.
+ *
+ * The HMAC is computed with a per-thread cached Mac, so a hash costs only the
+ * iterations themselves, no provider lookups or key objects per round.
+ */
 public class PasswordHashing {
 
     private static final int SALT_LENGTH = 16;      // 16 bytes
-    private static final int ITERATIONS = 65536;    // PBKDF2 iterations
+    private static final int LEGACY_ITERATIONS = 65536;
+    private static final int MIN_ITERATIONS = LEGACY_ITERATIONS;
+    private static final int MAX_ITERATIONS = 5_000_000;
     private static final int KEY_LENGTH = 256;      // 256-bit hash
+    private static final String PREFIX = "pbkdf2-sha256$";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance("HmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    });
+
+    // Cost for new hashes; -Dpassword.iterations pins it, otherwise calibrate() may raise it
+    private static volatile int iterations = Math.max(MIN_ITERATIONS,
+        Integer.getInteger("password.iterations", LEGACY_ITERATIONS));
+    private static final boolean PINNED = Integer.getInteger("password.iterations") != null;
 
     // Generate a random salt
     public static String generateSalt() {
-        SecureRandom random = new SecureRandom();
         byte[] salt = new byte[SALT_LENGTH];
-        random.nextBytes(salt);
+        RANDOM.nextBytes(salt);
         return Base64.getEncoder().encodeToString(salt);
     }
 
-    // Hash password with a given salt
+    // Hash password with a given salt, at the current cost
     public static String hashPassword(String password, String salt) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        int cost = iterations;
+        return PREFIX + cost + "$" + Base64.getEncoder().encodeToString(derive(password, salt, cost));
+    }
+
+    // Verify password against a stored hash in either format
+    public static boolean verifyPassword(String password, String salt, String expectedHash) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        int cost = iterationsOf(expectedHash);
+        if (cost <= 0) return false;
+        byte[] expected;
+        try {
+            expected = Base64.getDecoder().decode(hashPart(expectedHash));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] actual = derive(password, salt, cost);
+        // Constant time, so the comparison does not leak how much matched
+        return MessageDigest.isEqual(actual, expected);
+    }
+
+    /**
+     * True when a stored hash uses fewer iterations than new hashes would
+     */
+    public static boolean needsRehash(String storedHash) {
+        return iterationsOf(storedHash) < iterations;
+    }
+
+    /**
+     * Iterations recorded in a stored hash (LEGACY_ITERATIONS for the bare
+     * Base64 format), or -1 if it cannot be parsed
+     */
+    public static int iterationsOf(String storedHash) {
+        if (storedHash == null) return -1;
+        if (!storedHash.startsWith(PREFIX)) return LEGACY_ITERATIONS;
+        int end = storedHash.indexOf('$', PREFIX.length());
+        if (end < 0) return -1;
+        try {
+            return Integer.parseInt(storedHash.substring(PREFIX.length(), end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Time a few hashes and raise the iteration count so one hash takes about
+     * targetMillis on this machine. Never goes below the original 65,536, and
+     * does nothing when -Dpassword.iterations is set.
+     * @return The iteration count now in use
+     */
+    public static int calibrate(long targetMillis) {
+        if (PINNED) return iterations;
+        try {
+            String salt = generateSalt();
+            int probe = 20_000;
+            derive("calibration", salt, probe); // warm up the JIT
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < 3; i++) {
+                long start = System.nanoTime();
+                derive("calibration", salt, probe);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            long perIteration = Math.max(1, best / probe);
+            long target = targetMillis * 1_000_000L / perIteration;
+            // Round down to a multiple of 1,000 to keep stored costs readable
+            int calibrated = (int) Math.min(MAX_ITERATIONS, Math.max(MIN_ITERATIONS, target / 1000 * 1000));
+            iterations = calibrated;
+            return calibrated;
+        } catch (java.security.GeneralSecurityException e) {
+            return iterations;
+        }
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256 (RFC 8018), same output as
+     * SecretKeyFactory "PBKDF2WithHmacSHA256" with a UTF-8 encoded password
+     */
+    private static byte[] derive(String password, String salt, int rounds) throws NoSuchAlgorithmException, InvalidKeySpecException {
         byte[] saltBytes = Base64.getDecoder().decode(salt);
+        byte[] passwordBytes = utf8(password);
+        if (passwordBytes.length == 0) {
+            // HMAC keys cannot be empty; let the JDK implementation handle it
+            return deriveWithFactory(password, saltBytes, rounds);
+        }
 
-        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), saltBytes, ITERATIONS, KEY_LENGTH);
-        SecretKeyFactory skf = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        Mac mac = MAC.get();
+        try {
+            mac.init(new SecretKeySpec(passwordBytes, "HmacSHA256"));
+        } catch (InvalidKeyException e) {
+            throw new InvalidKeySpecException(e);
+        } finally {
+            Arrays.fill(passwordBytes, (byte) 0);
+        }
 
-        byte[] hash = skf.generateSecret(spec).getEncoded();
-        return Base64.getEncoder().encodeToString(hash);
+        int hLen = mac.getMacLength();
+        int dkLen = KEY_LENGTH / 8;
+        byte[] result = new byte[dkLen];
+        byte[] u = new byte[hLen];
+        byte[] block = new byte[hLen];
+        for (int blockIndex = 1, offset = 0; offset < dkLen; blockIndex++, offset += hLen) {
+            mac.update(saltBytes);
+            mac.update(new byte[]{(byte) (blockIndex >>> 24), (byte) (blockIndex >>> 16), (byte) (blockIndex >>> 8), (byte) blockIndex});
+            try {
+                mac.doFinal(u, 0);
+                System.arraycopy(u, 0, block, 0, hLen);
+                for (int r = 1; r < rounds; r++) {
+                    mac.update(u);
+                    mac.doFinal(u, 0);
+                    for (int k = 0; k < hLen; k++) {
+                        block[k] ^= u[k];
+                    }
+                }
+            } catch (javax.crypto.ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            System.arraycopy(block, 0, result, offset, Math.min(hLen, dkLen - offset));
+        }
+        return result;
     }
 
-    // Verify password
-    public static boolean verifyPassword(String password, String salt, String expectedHash) throws NoSuchAlgorithmException, InvalidKeySpecException {
-        String hash = hashPassword(password, salt);
-        return hash.equals(expectedHash);
+    private static byte[] deriveWithFactory(String password, byte[] salt, int rounds) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, KEY_LENGTH);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static byte[] utf8(String s) {
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(CharBuffer.wrap(s));
+        byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    private static String hashPart(String storedHash) {
+        return storedHash.startsWith(PREFIX) ? storedHash.substring(storedHash.lastIndexOf('$') + 1) : storedHash;
     }
 }
@@ -0,0 +1,467 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small bounded JDBC connection pool used behind DbConnection.getConnection().
+ * Callers keep using try-with-resources; close() on the returned connection
+ * hands the physical connection back to the pool instead of closing it.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long validationIntervalMs;
+    private final long leakThresholdMs;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Set<PooledEntry> inUse = ConcurrentHashMap.newKeySet();
+    private int totalConnections = 0;
+    private volatile boolean shutdown = false;
+
+    // Counters
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong creations = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+
+    private final ScheduledExecutorService housekeeper;
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long borrowTimeoutMs, long maxLifetimeMs,
+                          long validationIntervalMs, long leakThresholdMs, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.statementCacheSize = statementCacheSize;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, Math.min(leakThresholdMs > 0 ? leakThresholdMs / 2 : 30000L, 30000L));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout if the pool is exhausted.
+     * @return Logical connection; close() returns it to the pool
+     * @throws SQLException if the pool is shut down, times out, or a new connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        borrows.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        boolean waited = false;
+
+        while (true) {
+            PooledEntry entry = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (entry == null && !create) {
+                    entry = idle.pollFirst();
+                    if (entry == null) {
+                        if (totalConnections < maxSize) {
+                            totalConnections++;
+                            create = true;
+                        } else {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                timeouts.incrementAndGet();
+                                throw new SQLTransientConnectionException(String.format(
+                                    "Timed out after %d ms waiting for a database connection (pool size %d, in use %d)",
+                                    borrowTimeoutMs, maxSize, inUse.size()));
+                            }
+                            if (!waited) {
+                                waited = true;
+                                waits.incrementAndGet();
+                            }
+                            try {
+                                available.awaitNanos(remaining);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new SQLException("Interrupted while waiting for a database connection", e);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    entry = new PooledEntry(DriverManager.getConnection(url, user, password));
+                    creations.incrementAndGet();
+                } catch (SQLException e) {
+                    releaseSlot();
+                    throw e;
+                }
+            } else if (!isUsable(entry)) {
+                destroy(entry);
+                continue;
+            }
+
+            entry.checkout(leakThresholdMs > 0);
+            inUse.add(entry);
+            return entry.newLogicalConnection();
+        }
+    }
+
+    // Expired or failed idle validation -> caller discards and retries
+    private boolean isUsable(PooledEntry entry) {
+        long now = System.currentTimeMillis();
+        if (maxLifetimeMs > 0 && now - entry.createdAt > maxLifetimeMs) {
+            return false;
+        }
+        if (now - entry.lastReturnedAt > validationIntervalMs) {
+            try {
+                return entry.physical.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void giveBack(PooledEntry entry) {
+        inUse.remove(entry);
+        entry.resetState();
+
+        long now = System.currentTimeMillis();
+        boolean expired = maxLifetimeMs > 0 && now - entry.createdAt > maxLifetimeMs;
+        if (shutdown || entry.broken || expired) {
+            destroy(entry);
+            return;
+        }
+
+        entry.lastReturnedAt = now;
+        lock.lock();
+        try {
+            idle.addFirst(entry);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+        entry.closePhysical();
+        destroyed.incrementAndGet();
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Periodic leak report and retirement of idle connections past max lifetime
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            if (leakThresholdMs > 0) {
+                for (PooledEntry entry : inUse) {
+                    if (!entry.leakReported && now - entry.borrowedAt > leakThresholdMs) {
+                        entry.leakReported = true;
+                        leaks.incrementAndGet();
+                        util.Logger.logError(String.format(
+                            "Possible connection leak: connection held for %d ms by thread '%s'",
+                            now - entry.borrowedAt, entry.borrowerThread), entry.borrowTrace);
+                    }
+                }
+            }
+
+            List<PooledEntry> retired = new ArrayList<>();
+            lock.lock();
+            try {
+                idle.removeIf(entry -> {
+                    boolean expired = maxLifetimeMs > 0 && now - entry.createdAt > maxLifetimeMs;
+                    if (expired) retired.add(entry);
+                    return expired;
+                });
+            } finally {
+                lock.unlock();
+            }
+            for (PooledEntry entry : retired) {
+                destroy(entry);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close idle connections and refuse further borrows. Connections still in use
+     * are closed when their borrowers return them.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        List<PooledEntry> drained;
+        lock.lock();
+        try {
+            drained = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledEntry entry : drained) {
+            destroy(entry);
+        }
+    }
+
+    /**
+     * Snapshot of pool counters
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(maxSize, totalConnections, inUse.size(), idle.size(),
+                borrows.get(), waits.get(), creations.get(), timeouts.get(), destroyed.get(), leaks.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Immutable view of the pool counters
+     */
+    public static class Stats {
+        private final int maxSize;
+        private final int total;
+        private final int active;
+        private final int idle;
+        private final long borrows;
+        private final long waits;
+        private final long creations;
+        private final long timeouts;
+        private final long destroyed;
+        private final long leaks;
+
+        Stats(int maxSize, int total, int active, int idle, long borrows, long waits,
+              long creations, long timeouts, long destroyed, long leaks) {
+            this.maxSize = maxSize;
+            this.total = total;
+            this.active = active;
+            this.idle = idle;
+            this.borrows = borrows;
+            this.waits = waits;
+            this.creations = creations;
+            this.timeouts = timeouts;
+            this.destroyed = destroyed;
+            this.leaks = leaks;
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getTotal() { return total; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public long getBorrows() { return borrows; }
+        public long getWaits() { return waits; }
+        public long getCreations() { return creations; }
+        public long getTimeouts() { return timeouts; }
+        public long getDestroyed() { return destroyed; }
+        public long getLeaks() { return leaks; }
+
+        @Override
+        public String toString() {
+            return String.format("pool[max=%d, total=%d, active=%d, idle=%d, borrows=%d, waits=%d, " +
+                "creations=%d, timeouts=%d, destroyed=%d, leaks=%d]",
+                maxSize, total, active, idle, borrows, waits, creations, timeouts, destroyed, leaks);
+        }
+    }
+
+    /**
+     * One physical connection plus its bookkeeping
+     */
+    private class PooledEntry {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastReturnedAt = createdAt;
+        volatile long borrowedAt;
+        volatile String borrowerThread;
+        volatile Exception borrowTrace;
+        volatile boolean leakReported;
+        volatile boolean broken;
+        // Statements opened through the current logical connection, closed on return
+        final List<Statement> openStatements = new ArrayList<>();
+        // Reused prepared statements; null when caching is disabled
+        final StatementCache statementCache;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+        }
+
+        void checkout(boolean captureTrace) {
+            borrowedAt = System.currentTimeMillis();
+            borrowerThread = Thread.currentThread().getName();
+            borrowTrace = captureTrace ? new Exception("Connection borrowed here") : null;
+            leakReported = false;
+        }
+
+        Connection newLogicalConnection() {
+            return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new LogicalConnectionHandler(this));
+        }
+
+        // Undo anything the borrower left behind so the next borrower gets a clean connection
+        void resetState() {
+            if (statementCache != null) {
+                statementCache.releaseAll();
+            }
+            synchronized (openStatements) {
+                for (Statement st : openStatements) {
+                    try {
+                        st.close();
+                    } catch (SQLException ignored) {
+                        // statement already unusable
+                    }
+                }
+                openStatements.clear();
+            }
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                physical.clearWarnings();
+            } catch (SQLException e) {
+                broken = true;
+            }
+        }
+
+        void closePhysical() {
+            if (statementCache != null) {
+                statementCache.closeAll();
+            }
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // nothing left to do with a dead connection
+            }
+        }
+    }
+
+    /**
+     * Forwards calls to the physical connection until the borrower closes it
+     */
+    private class LogicalConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean closed = false;
+
+        LogicalConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        giveBack(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection@" + Integer.toHexString(System.identityHashCode(proxy))
+                        + (closed ? " (closed)" : "");
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+
+            if (entry.statementCache != null && "prepareStatement".equals(name) && isCacheable(method)) {
+                Integer autoKeys = args.length == 2 ? (Integer) args[1] : null;
+                PreparedStatement cached = entry.statementCache.prepare(
+                    entry.physical, (Connection) proxy, (String) args[0], autoKeys);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+
+            try {
+                Object result = method.invoke(entry.physical, args);
+                if (result instanceof Statement) {
+                    synchronized (entry.openStatements) {
+                        entry.openStatements.add((Statement) result);
+                    }
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLNonTransientConnectionException
+                        || cause instanceof SQLRecoverableException) {
+                    entry.broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        // prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys)
+        private boolean isCacheable(Method method) {
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package db;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs JDBC work off the Event Dispatch Thread.
+ * Uses virtual threads when the JVM has them (Java 21+), otherwise a small
+ * fixed pool of daemon threads. Either way at most MAX_CONCURRENT queries run
+ * at once, which keeps demand in line with the connection pool size.
+ */
+public class DataAccessExecutor {
+
+    private static final int MAX_CONCURRENT = Integer.getInteger("db.async.maxConcurrent", 8);
+    private static final int MAX_QUEUED = Integer.getInteger("db.async.maxQueued", 200);
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+    // Only used with virtual threads, where the executor itself is unbounded
+    private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENT + MAX_QUEUED);
+    private static final Semaphore RUNNING = new Semaphore(MAX_CONCURRENT);
+    private static boolean virtualThreads;
+
+    /**
+     * Executor that runs callbacks on the Swing Event Dispatch Thread
+     */
+    public static final Executor EDT = command -> {
+        if (SwingUtilities.isEventDispatchThread()) {
+            command.run();
+        } else {
+            SwingUtilities.invokeLater(command);
+        }
+    };
+
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService vt = (ExecutorService) factory.invoke(null);
+            virtualThreads = true;
+            return vt;
+        } catch (ReflectiveOperationException e) {
+            // Pre-21 JVM: fall back to platform threads
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            MAX_CONCURRENT, MAX_CONCURRENT, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED),
+            r -> {
+                Thread t = new Thread(r, "db-worker-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Run a data-access task in the background.
+     * cancel(true) on the returned future interrupts the task if it is running.
+     * @param task The work to run (typically a model query)
+     * @return Future completed with the task's result or exception
+     */
+    public static <T> CompletableFuture<T> supply(Callable<T> task) {
+        CancellableFuture<T> result = new CancellableFuture<>();
+        Runnable body = () -> {
+            if (result.isDone()) return;
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        };
+
+        try {
+            if (virtualThreads) {
+                if (!PERMITS.tryAcquire()) {
+                    throw new RejectedExecutionException("Too many pending database tasks");
+                }
+                // Released when the future completes, including a cancel before the task ever
+                // starts (the task body would never run to release it)
+                result.whenComplete((value, error) -> PERMITS.release());
+                result.task = EXECUTOR.submit(() -> {
+                    try {
+                        RUNNING.acquire();
+                        try {
+                            body.run();
+                        } finally {
+                            RUNNING.release();
+                        }
+                    } catch (InterruptedException e) {
+                        result.completeExceptionally(new CancellationException("Interrupted before start"));
+                    }
+                });
+            } else {
+                result.task = EXECUTOR.submit(body);
+            }
+        } catch (RejectedExecutionException e) {
+            util.Logger.logWarning("Database task rejected: " + e.getMessage());
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Deliver a background result on the EDT. Cancelled futures are ignored so
+     * superseded loads never overwrite newer data.
+     * @param future The background task
+     * @param onSuccess Called on the EDT with the result
+     * @param onError Called on the EDT with the unwrapped failure
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((value, error) -> {
+            if (future.isCancelled()) return;
+            if (error == null) {
+                onSuccess.accept(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            if (!(cause instanceof CancellationException)) {
+                onError.accept(cause);
+            }
+        }, EDT);
+    }
+
+    /**
+     * True when background tasks run on virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * CompletableFuture whose cancel() also interrupts the underlying task
+     */
+    private static class CancellableFuture<T> extends CompletableFuture<T> {
+        volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> t = task;
+            if (cancelled && t != null) {
+                t.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+    }
+}
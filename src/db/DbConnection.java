@@ -2,10 +2,23 @@ package db;
 import java.sql.*;
 
 public class DbConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/barangay_biga_db";
+    // Server-side prepares so cached statements skip re-parsing on the server too;
+    // rewriteBatchedStatements turns executeBatch() inserts into multi-row INSERTs;
+    // useCursorFetch makes setFetchSize() stream large reads (exports) in chunks
+    private static final String URL = "jdbc:mysql://localhost:3306/barangay_biga_db?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USER = "root";
     private static final String PASSWORD = ""; // default for XAMPP
 
+    // Pool settings (override with -Ddb.pool.maxSize=... etc.)
+    private static final int POOL_MAX_SIZE = Integer.getInteger("db.pool.maxSize", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("db.pool.borrowTimeoutMs", 10_000L);
+    private static final long MAX_LIFETIME_MS = Long.getLong("db.pool.maxLifetimeMs", 30 * 60_000L);
+    private static final long VALIDATION_INTERVAL_MS = Long.getLong("db.pool.validationIntervalMs", 30_000L);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("db.pool.leakThresholdMs", 60_000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("db.pool.statementCacheSize", 64);
+
+    private static final ConnectionPool POOL;
+
     static {
         try {
             // Load MySQL JDBC driver
@@ -14,18 +27,24 @@ public class DbConnection {
             e.printStackTrace();
             System.err.println("❌ MySQL JDBC Driver not found!");
         }
+
+        POOL = new ConnectionPool(URL, USER, PASSWORD, POOL_MAX_SIZE, BORROW_TIMEOUT_MS,
+            MAX_LIFETIME_MS, VALIDATION_INTERVAL_MS, LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
+        util.ShutdownSequence.register(util.ShutdownSequence.Phase.DATABASE, POOL::shutdown);
     }
 
+    /**
+     * Borrow a pooled connection. Always close it (try-with-resources) so it
+     * goes back to the pool.
+     */
     public static Connection getConnection() throws SQLException {
         try {
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            // Only log on first connection or after failures (to avoid log spam)
-            return conn;
+            return POOL.borrow();
         } catch (SQLException e) {
             System.err.println("❌ Database Connection Failed: " + e.getMessage());
             // Log database connection errors
             try {
-                util.Logger.logError("Database Connection", 
+                util.Logger.logError("Database Connection",
                     String.format("Failed to connect to %s", URL), e);
             } catch (Exception logEx) {
                 // Logging failed, but we still need to throw the original exception
@@ -34,4 +53,18 @@ public class DbConnection {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Current pool counters (borrows, waits, creations, leaks, ...)
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * Prepared statement reuse per SQL string, most used first
+     */
+    public static java.util.List<StatementCache.SqlStats> getStatementCacheStats() {
+        return StatementCache.getStats();
+    }
+}
@@ -0,0 +1,139 @@
+package db;
+
+import java.sql.*;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached column layout of the users table. Older databases name the password
+ * columns differently, so the names are looked up in INFORMATION_SCHEMA once
+ * per database (connection URL and catalog) and reused, instead of on every
+ * login. An entry is dropped when a query reports a missing column or table
+ * (invalidateOn) and is re-read after schema.cacheTtlMs in any case, so
+ * columns added while the application runs are picked up.
+ */
+public class SchemaMetadata {
+
+    private static final long TTL_MS = Long.getLong("schema.cacheTtlMs", 10 * 60_000L);
+    private static final String USERS_COLUMNS_SQL =
+        "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'users'";
+
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private static class Entry {
+        final UserColumns columns;
+        final long loadedAt = System.currentTimeMillis();
+
+        Entry(UserColumns columns) {
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * Columns of the users table and which of them hold the password hash and salt
+     */
+    public static class UserColumns {
+        private final Set<String> columns;
+        private final String hashColumn;
+        private final String saltColumn;
+
+        UserColumns(Set<String> columns) {
+            this.columns = Collections.unmodifiableSet(columns);
+            // Preferred names first
+            this.hashColumn = firstExisting(columns, "hashed_password", "password_hash", "passwordHash", "password");
+            this.saltColumn = firstExisting(columns, "salt", "password_salt", "passwordSalt");
+        }
+
+        public Set<String> getColumns() { return columns; }
+        public String getHashColumn() { return hashColumn; }
+        public String getSaltColumn() { return saltColumn; }
+
+        public boolean has(String column) {
+            return columns.contains(column);
+        }
+
+        /** True when both a hash and a salt column exist */
+        public boolean hasPasswordColumns() {
+            return hashColumn != null && saltColumn != null;
+        }
+
+        private static String firstExisting(Set<String> columns, String... candidates) {
+            for (String c : candidates) {
+                if (columns.contains(c)) return c;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Column layout of the users table in the connection's database
+     * @throws SQLException if it has to be read and the query fails
+     */
+    public static UserColumns usersColumns(Connection conn) throws SQLException {
+        String key = keyOf(conn);
+        Entry entry = CACHE.get(key);
+        if (entry != null && System.currentTimeMillis() - entry.loadedAt < TTL_MS) {
+            return entry.columns;
+        }
+
+        Set<String> cols = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement(USERS_COLUMNS_SQL)) {
+            ps.setString(1, conn.getCatalog());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    cols.add(rs.getString(1));
+                }
+            }
+        }
+        UserColumns columns = new UserColumns(cols);
+        // An empty result usually means the wrong catalog; don't keep it around
+        if (!cols.isEmpty()) {
+            CACHE.put(key, new Entry(columns));
+        }
+        return columns;
+    }
+
+    /**
+     * Forget the cached layout for the connection's database if the error
+     * means the schema no longer matches it (unknown column or table)
+     * @return true if the entry was dropped
+     */
+    public static boolean invalidateOn(Connection conn, SQLException e) {
+        if (!isSchemaError(e)) return false;
+        invalidate(conn);
+        return true;
+    }
+
+    /**
+     * Forget the cached layout for the connection's database
+     */
+    public static void invalidate(Connection conn) {
+        try {
+            CACHE.remove(keyOf(conn));
+        } catch (SQLException e) {
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * Forget every cached layout (after running a migration, for example)
+     */
+    public static void invalidateAll() {
+        CACHE.clear();
+    }
+
+    private static boolean isSchemaError(SQLException e) {
+        // 42S02 unknown table, 42S22 unknown column; S0022 is the driver's
+        // "column not found" when reading a result set
+        String state = e.getSQLState();
+        return e instanceof SQLSyntaxErrorException
+            || (state != null && (state.startsWith("42") || state.equals("S0022")));
+    }
+
+    private static String keyOf(Connection conn) throws SQLException {
+        return conn.getMetaData().getURL() + "|" + conn.getCatalog();
+    }
+}
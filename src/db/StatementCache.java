@@ -0,0 +1,294 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one pooled physical connection.
+ * Statements are keyed by SQL text (plus the generated-keys flag); closing the
+ * statement handed to the caller only releases it back to the cache.
+ * Hit/miss counters are shared across all connections so reuse can be
+ * inspected per SQL string; they are kept for the db.pool.statementStatsSize
+ * most recently prepared SQL strings (256), so dynamic SQL cannot grow them
+ * without bound.
+ */
+public class StatementCache {
+
+    private static final int STATS_SIZE = Integer.getInteger("db.pool.statementStatsSize", 256);
+
+    // Hit/miss counters per SQL text, across every pooled connection; least recently used dropped first
+    private static final Map<String, Usage> USAGE = Collections.synchronizedMap(
+        new LinkedHashMap<String, Usage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Usage> eldest) {
+                return size() > STATS_SIZE;
+            }
+        });
+
+    private final int maxSize;
+    private final LinkedHashMap<Key, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return a cached statement for the SQL, preparing and caching it on a miss.
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, or null for the plain overload
+     * @return Logical statement, or null if the cached one is already checked out
+     *         (the caller should then prepare an uncached statement)
+     */
+    synchronized PreparedStatement prepare(Connection physical, Connection logical, String sql,
+                                           Integer autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        Usage usage = USAGE.computeIfAbsent(sql, s -> new Usage());
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.checkedOut) {
+            usage.hits.increment();
+            return cached.checkout(logical);
+        }
+        usage.misses.increment();
+        if (cached != null) {
+            // Same SQL already open on this connection (nested use); don't share it
+            return null;
+        }
+
+        PreparedStatement ps = autoGeneratedKeys == null
+            ? physical.prepareStatement(sql)
+            : physical.prepareStatement(sql, autoGeneratedKeys);
+        cached = new CachedStatement(ps);
+        statements.put(key, cached);
+        evictOverflow();
+        return cached.checkout(logical);
+    }
+
+    // Close least recently used statements that are not currently checked out
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement candidate = it.next();
+            if (!candidate.checkedOut) {
+                it.remove();
+                candidate.closePhysical();
+            }
+        }
+    }
+
+    // Caller closed its handle; drop the statement if it can't be reset
+    private synchronized void release(CachedStatement cached) {
+        if (!cached.release()) {
+            statements.values().remove(cached);
+        }
+    }
+
+    /**
+     * Release every statement the last borrower forgot to close
+     */
+    synchronized void releaseAll() {
+        List<CachedStatement> broken = new ArrayList<>();
+        for (CachedStatement cached : statements.values()) {
+            if (cached.checkedOut && !cached.release()) {
+                broken.add(cached);
+            }
+        }
+        statements.values().removeAll(broken);
+    }
+
+    /**
+     * Close all statements (the physical connection is being closed)
+     */
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closePhysical();
+        }
+        statements.clear();
+    }
+
+    /**
+     * Per-SQL reuse figures, most used first
+     */
+    public static List<SqlStats> getStats() {
+        List<SqlStats> out = new ArrayList<>();
+        synchronized (USAGE) {
+            for (Map.Entry<String, Usage> e : USAGE.entrySet()) {
+                out.add(new SqlStats(e.getKey(), e.getValue().hits.sum(), e.getValue().misses.sum()));
+            }
+        }
+        out.sort((a, b) -> Long.compare(b.getHits() + b.getMisses(), a.getHits() + a.getMisses()));
+        return out;
+    }
+
+    /**
+     * Overall hit ratio across the tracked SQL (0.0 when nothing has been prepared)
+     */
+    public static double getHitRatio() {
+        long hits = 0, misses = 0;
+        synchronized (USAGE) {
+            for (Usage u : USAGE.values()) {
+                hits += u.hits.sum();
+                misses += u.misses.sum();
+            }
+        }
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * Reuse figures for a single SQL string
+     */
+    public static class SqlStats {
+        private final String sql;
+        private final long hits;
+        private final long misses;
+
+        SqlStats(String sql, long hits, long misses) {
+            this.sql = sql;
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        public String getSql() { return sql; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+
+        public double getHitRatio() {
+            return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%5.1f%% (%d hits / %d misses) %s", getHitRatio() * 100, hits, misses, sql);
+        }
+    }
+
+    private static class Usage {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
+
+    private static class Key {
+        final String sql;
+        final Integer autoGeneratedKeys;
+
+        Key(String sql, Integer autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return sql.equals(k.sql) && java.util.Objects.equals(autoGeneratedKeys, k.autoGeneratedKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            return sql.hashCode() * 31 + (autoGeneratedKeys == null ? 0 : autoGeneratedKeys + 1);
+        }
+    }
+
+    /**
+     * A physical statement and the logical handle currently lent out for it
+     */
+    private class CachedStatement {
+        final PreparedStatement physical;
+        boolean checkedOut;
+        LogicalStatementHandler handle;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement checkout(Connection logical) {
+            checkedOut = true;
+            handle = new LogicalStatementHandler(this, logical);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                handle);
+        }
+
+        // Reset for the next caller; false if the statement is no longer usable
+        boolean release() {
+            if (handle != null) {
+                handle.closed = true;
+                handle = null;
+            }
+            checkedOut = false;
+            try {
+                ResultSet open = physical.getResultSet();
+                if (open != null) open.close();
+                physical.clearParameters();
+                physical.clearBatch();
+                return true;
+            } catch (SQLException e) {
+                closePhysical();
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // already gone with its connection
+            }
+        }
+    }
+
+    /**
+     * Forwards to the cached statement until the caller closes it
+     */
+    private class LogicalStatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection logicalConnection;
+        boolean closed = false;
+
+        LogicalStatementHandler(CachedStatement cached, Connection logicalConnection) {
+            this.cached = cached;
+            this.logicalConnection = logicalConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        release(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return logicalConnection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement: " + cached.physical;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(cached.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import db.DbConnection;
+
+/**
+ * Moves old user_logs rows into monthly archive files
+ * (archive/user_logs/user_logs-yyyy-MM.csv.gz) and removes them from the
+ * database a chunk at a time, so no single statement holds locks on a large
+ * part of the table.
+ *
+ * Each chunk is read in (log_time, log_id) order, appended to the month's
+ * file as its own gzip member and synced to disk before the same rows are
+ * deleted, so a crash can at worst leave a row both archived and in the
+ * table, never in neither. When user_logs is range-partitioned by month
+ * (database/migration_user_logs_partitioning.sql), months that are entirely
+ * past the cutoff are archived and then dropped with DROP PARTITION instead.
+ *
+ * Settings (system properties):
+ *   archive.dir        target directory (archive/user_logs)
+ *   archive.chunkSize  rows per read/delete (1000)
+ *   archive.pauseMs    pause between chunks to let other work in (20)
+ */
+public class ActivityLogArchiver {
+
+    private static final String ARCHIVE_DIR = System.getProperty("archive.dir", "archive/user_logs");
+    private static final int CHUNK_SIZE = Integer.getInteger("archive.chunkSize", 1000);
+    private static final long PAUSE_MS = Long.getLong("archive.pauseMs", 20L);
+    private static final int PARTITION_MONTHS_AHEAD = 2;
+
+    // TO_DAYS('1970-01-01'): partition bounds are TO_DAYS values
+    private static final long TO_DAYS_EPOCH = 719528;
+
+    private static final String COLUMNS = "log_id, user_id, action, log_time, ip_address";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM user_logs WHERE log_time < ?";
+    private static final String FIRST_CHUNK_SQL =
+        "SELECT " + COLUMNS + " FROM user_logs WHERE log_time < ? ORDER BY log_time, log_id LIMIT ?";
+    private static final String NEXT_CHUNK_SQL =
+        "SELECT " + COLUMNS + " FROM user_logs WHERE log_time < ? " +
+        "AND (log_time > ? OR (log_time = ? AND log_id > ?)) ORDER BY log_time, log_id LIMIT ?";
+    private static final String PARTITIONS_SQL =
+        "SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS FROM INFORMATION_SCHEMA.PARTITIONS " +
+        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_logs' AND PARTITION_NAME IS NOT NULL " +
+        "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    /**
+     * One monthly partition of user_logs
+     */
+    public static class Partition {
+        private final String name;
+        private final LocalDate end; // exclusive; null for the catch-all MAXVALUE partition
+        private final long estimatedRows;
+
+        public Partition(String name, LocalDate end, long estimatedRows) {
+            this.name = name;
+            this.end = end;
+            this.estimatedRows = estimatedRows;
+        }
+
+        public String getName() { return name; }
+        public LocalDate getEnd() { return end; }
+        public long getEstimatedRows() { return estimatedRows; }
+    }
+
+    /**
+     * Archive and remove every log entry older than the given number of days
+     * @return Total rows archived (progress is reported to the listener as it goes)
+     * @throws InterruptedIOException if the thread is interrupted; rows archived so far stay archived
+     */
+    public static DataExporter.Progress archiveOlderThan(int days, DataExporter.ProgressListener listener)
+            throws SQLException, IOException {
+        LocalDateTime cutoff = LocalDate.now().minusDays(days).atStartOfDay();
+        return archiveBefore(Timestamp.valueOf(cutoff), listener);
+    }
+
+    /**
+     * Archive and remove every log entry with log_time before the cutoff
+     */
+    public static DataExporter.Progress archiveBefore(Timestamp cutoff, DataExporter.ProgressListener listener)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        File dir = new File(ARCHIVE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create archive directory " + dir.getAbsolutePath());
+        }
+
+        long rows = 0;
+        try (Connection conn = DbConnection.getConnection()) {
+            long total = count(conn, cutoff);
+
+            // Whole months past the cutoff: copy out, then drop the partition
+            LocalDate cutoffDay = cutoff.toLocalDateTime().toLocalDate();
+            for (Partition p : getPartitions(conn)) {
+                if (p.end == null || p.end.isAfter(cutoffDay)) continue;
+                rows += copyChunks(conn, Timestamp.valueOf(p.end.atStartOfDay()), dir, false, rows, total, start, listener);
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("ALTER TABLE user_logs DROP PARTITION " + p.name);
+                }
+                util.Logger.logInfo(String.format("Dropped user_logs partition %s", p.name));
+            }
+
+            // What is left (or everything, when the table is not partitioned)
+            rows += copyChunks(conn, cutoff, dir, true, rows, total, start, listener);
+
+            // Keep new months out of the catch-all partition
+            addPartitions(conn, getPartitions(conn), PARTITION_MONTHS_AHEAD);
+        }
+
+        DataExporter.Progress done = new DataExporter.Progress(rows, rows, System.nanoTime() - start);
+        if (listener != null) listener.onProgress(done);
+        util.Logger.logUserActivity("ARCHIVE_LOGS", String.format("Archived %d log entries older than %s to %s",
+            rows, cutoff, dir.getPath()));
+        return done;
+    }
+
+    /**
+     * Read rows before `before` chunk by chunk, append them to the monthly files
+     * and (if delete is set) remove each chunk once it is safely on disk
+     */
+    private static long copyChunks(Connection conn, Timestamp before, File dir, boolean delete,
+                                   long doneSoFar, long total, long start,
+                                   DataExporter.ProgressListener listener) throws SQLException, IOException {
+        long rows = 0;
+        Timestamp lastTime = null;
+        long lastId = 0;
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Log archival cancelled after " + (doneSoFar + rows) + " rows");
+            }
+
+            List<Object[]> chunk = readChunk(conn, before, lastTime, lastId);
+            if (chunk.isEmpty()) break;
+            Object[] last = chunk.get(chunk.size() - 1);
+            lastTime = (Timestamp) last[3];
+            lastId = (Long) last[0];
+
+            appendToArchive(dir, chunk);
+            if (delete) {
+                deleteChunk(conn, chunk);
+            }
+            rows += chunk.size();
+            if (listener != null) {
+                long n = doneSoFar + rows;
+                listener.onProgress(new DataExporter.Progress(n, Math.max(total, n), System.nanoTime() - start));
+            }
+            if (chunk.size() < CHUNK_SIZE) break;
+            if (PAUSE_MS > 0) {
+                try {
+                    Thread.sleep(PAUSE_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static List<Object[]> readChunk(Connection conn, Timestamp before, Timestamp lastTime, long lastId)
+            throws SQLException {
+        List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (PreparedStatement ps = conn.prepareStatement(lastTime == null ? FIRST_CHUNK_SQL : NEXT_CHUNK_SQL)) {
+            int i = 1;
+            ps.setTimestamp(i++, before);
+            if (lastTime != null) {
+                ps.setTimestamp(i++, lastTime);
+                ps.setTimestamp(i++, lastTime);
+                ps.setLong(i++, lastId);
+            }
+            ps.setInt(i, CHUNK_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    chunk.add(new Object[]{
+                        rs.getLong("log_id"),
+                        rs.getString("user_id"),
+                        rs.getString("action"),
+                        rs.getTimestamp("log_time"),
+                        rs.getString("ip_address")
+                    });
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private static void deleteChunk(Connection conn, List<Object[]> chunk) throws SQLException {
+        StringBuilder sql = new StringBuilder("DELETE FROM user_logs WHERE log_id IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                ps.setLong(i + 1, (Long) chunk.get(i)[0]);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Append a chunk to its monthly files, one gzip member per file per chunk.
+     * Concatenated members read back as a single stream with GZIPInputStream / zcat.
+     */
+    private static void appendToArchive(File dir, List<Object[]> chunk) throws IOException {
+        Map<YearMonth, List<Object[]>> byMonth = new LinkedHashMap<>();
+        for (Object[] row : chunk) {
+            YearMonth month = YearMonth.from(((Timestamp) row[3]).toLocalDateTime());
+            byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(row);
+        }
+        for (Map.Entry<YearMonth, List<Object[]>> e : byMonth.entrySet()) {
+            File file = new File(dir, "user_logs-" + e.getKey() + ".csv.gz");
+            boolean isNew = !file.exists() || file.length() == 0;
+            try (FileOutputStream fos = new FileOutputStream(file, true)) {
+                GZIPOutputStream gz = new GZIPOutputStream(fos, 64 * 1024);
+                Writer w = new BufferedWriter(new OutputStreamWriter(gz, StandardCharsets.UTF_8));
+                if (isNew) {
+                    w.write("log_id,user_id,action,log_time,ip_address\r\n");
+                }
+                for (Object[] row : e.getValue()) {
+                    w.write(String.valueOf(row[0]));
+                    for (int i = 1; i < row.length; i++) {
+                        w.write(',');
+                        if (row[i] != null) DataExporter.writeCsv(w, row[i].toString());
+                    }
+                    w.write("\r\n");
+                }
+                w.flush();
+                gz.finish();
+                // Rows are deleted right after this; make sure they are really on disk
+                fos.getFD().sync();
+            }
+        }
+    }
+
+    private static long count(Connection conn, Timestamp cutoff) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(COUNT_SQL)) {
+            ps.setTimestamp(1, cutoff);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Monthly partitions of user_logs, oldest first (empty if the table is not partitioned)
+     */
+    public static List<Partition> getPartitions() throws SQLException {
+        try (Connection conn = DbConnection.getConnection()) {
+            return getPartitions(conn);
+        }
+    }
+
+    static List<Partition> getPartitions(Connection conn) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(PARTITIONS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String description = rs.getString("PARTITION_DESCRIPTION");
+                LocalDate end = "MAXVALUE".equalsIgnoreCase(description)
+                    ? null
+                    : LocalDate.ofEpochDay(Long.parseLong(description.trim()) - TO_DAYS_EPOCH);
+                partitions.add(new Partition(rs.getString("PARTITION_NAME"), end, rs.getLong("TABLE_ROWS")));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Make sure monthly partitions exist up to and including `monthsAhead`
+     * months from now, by splitting the MAXVALUE partition. Does nothing if
+     * user_logs is not partitioned.
+     * @return Number of partitions added
+     */
+    public static int addPartitions(int monthsAhead) throws SQLException {
+        try (Connection conn = DbConnection.getConnection()) {
+            return addPartitions(conn, getPartitions(conn), monthsAhead);
+        }
+    }
+
+    static int addPartitions(Connection conn, List<Partition> partitions, int monthsAhead) throws SQLException {
+        if (partitions.isEmpty()) return 0;
+        Partition catchAll = partitions.get(partitions.size() - 1);
+        if (catchAll.end != null) {
+            throw new SQLException("user_logs has no MAXVALUE partition to split");
+        }
+
+        YearMonth next = YearMonth.now();
+        if (partitions.size() > 1) {
+            next = YearMonth.from(partitions.get(partitions.size() - 2).end);
+        }
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        StringBuilder sql = new StringBuilder();
+        int added = 0;
+        for (YearMonth m = next; !m.isAfter(last); m = m.plusMonths(1)) {
+            sql.append(added == 0 ? "" : ", ")
+               .append(String.format("PARTITION p%d%02d VALUES LESS THAN (TO_DAYS('%s'))",
+                   m.getYear(), m.getMonthValue(), m.plusMonths(1).atDay(1)));
+            added++;
+        }
+        if (added == 0) return 0;
+        sql.append(", PARTITION ").append(catchAll.name).append(" VALUES LESS THAN MAXVALUE");
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("ALTER TABLE user_logs REORGANIZE PARTITION " + catchAll.name + " INTO (" + sql + ")");
+        }
+        util.Logger.logInfo(String.format("Added %d user_logs partition(s) up to %s", added, last));
+        return added;
+    }
+}
@@ -3,6 +3,8 @@ package model;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import db.DbConnection;
 
 /**
@@ -41,103 +43,223 @@ public class ActivityLogModel {
         public String getIpAddress() { return ipAddress; }
     }
     
+    // Paged browsing, newest first: seek past (log_time, log_id), served by
+    // idx_user_logs_time_id and, with a user filter, idx_user_logs_user_time
+    private static final String PAGE_COLUMNS =
+        "SELECT ul.log_id, ul.user_id, u.username, ul.action, ul.log_time, ul.ip_address " +
+        "FROM user_logs ul LEFT JOIN users u ON ul.user_id = u.user_id";
+    private static final String KEYSET_ORDER = " ORDER BY ul.log_time DESC, ul.log_id DESC";
+    private static final String KEYSET_AFTER = "(ul.log_time < ? OR (ul.log_time = ? AND ul.log_id < ?))";
+    private static final String USER_FILTER = "ul.user_id IN (SELECT user_id FROM users WHERE username = ? OR user_id = ?)";
+    private static final String ACTION_FILTER = "ul.action LIKE ?";
+    private static final String FROM_FILTER = "ul.log_time >= ?";
+    private static final String TO_FILTER = "ul.log_time < ?";
+
     /**
-     * Get all activity logs (limited to recent 500)
-     * @return List of ActivityLog objects
+     * Conditions for browsing the log; every field is optional (null or empty to ignore)
      */
-    public static List<ActivityLog> getAllLogs() {
-        List<ActivityLog> logs = new ArrayList<>();
-        
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT ul.log_id, ul.user_id, u.username, ul.action, ul.log_time, ul.ip_address " +
-                        "FROM user_logs ul " +
-                        "LEFT JOIN users u ON ul.user_id = u.user_id " +
-                        "ORDER BY ul.log_time DESC LIMIT 500";
-            
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            while (rs.next()) {
-                String username = rs.getString("username");
-                if (username == null || username.isEmpty()) {
-                    username = "Unknown";
+    public static class LogFilter {
+        private final String user;
+        private final String actionPrefix;
+        private final Timestamp from;
+        private final Timestamp to;
+
+        /**
+         * @param user Username or user ID
+         * @param actionPrefix Start of the action text (case-insensitive)
+         * @param from Earliest log_time (inclusive)
+         * @param to Latest log_time (exclusive)
+         */
+        public LogFilter(String user, String actionPrefix, Timestamp from, Timestamp to) {
+            this.user = user != null && !user.trim().isEmpty() ? user.trim() : null;
+            this.actionPrefix = actionPrefix != null && !actionPrefix.trim().isEmpty() ? actionPrefix.trim() : null;
+            this.from = from;
+            this.to = to;
+        }
+
+        public static LogFilter none() {
+            return new LogFilter(null, null, null, null);
+        }
+
+        public String getUser() { return user; }
+        public String getActionPrefix() { return actionPrefix; }
+        public Timestamp getFrom() { return from; }
+        public Timestamp getTo() { return to; }
+
+        // Appends " AND cond" for every set field
+        private void appendTo(StringBuilder where) {
+            if (user != null) where.append(" AND ").append(USER_FILTER);
+            if (actionPrefix != null) where.append(" AND ").append(ACTION_FILTER);
+            if (from != null) where.append(" AND ").append(FROM_FILTER);
+            if (to != null) where.append(" AND ").append(TO_FILTER);
+        }
+
+        private int bind(PreparedStatement ps, int i) throws SQLException {
+            if (user != null) {
+                ps.setString(i++, user);
+                ps.setString(i++, user);
+            }
+            if (actionPrefix != null) {
+                ps.setString(i++, actionPrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            }
+            if (from != null) ps.setTimestamp(i++, from);
+            if (to != null) ps.setTimestamp(i++, to);
+            return i;
+        }
+    }
+
+    /**
+     * Position in the (log_time DESC, log_id DESC) ordering used for keyset paging
+     */
+    public static class PageKey {
+        private final Timestamp logTime;
+        private final int logId;
+
+        public PageKey(Timestamp logTime, int logId) {
+            this.logTime = logTime;
+            this.logId = logId;
+        }
+
+        public static PageKey of(ActivityLog log) {
+            return new PageKey(log.getLogTime(), log.getLogId());
+        }
+
+        public Timestamp getLogTime() { return logTime; }
+        public int getLogId() { return logId; }
+    }
+
+    /**
+     * Get the next page of log entries, newest first
+     * @param after Key of the last row already shown, or null for the first page
+     * @param filter Conditions applied in SQL
+     * @param limit Page size
+     * @return Up to limit entries following the key
+     * @throws SQLException if the query fails
+     */
+    public static List<ActivityLog> getPageAfter(PageKey after, LogFilter filter, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder(PAGE_COLUMNS).append(" WHERE ");
+        sql.append(after != null ? KEYSET_AFTER : "1=1");
+        filter.appendTo(sql);
+        sql.append(KEYSET_ORDER).append(" LIMIT ?");
+
+        List<ActivityLog> logs = new ArrayList<>(limit);
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            if (after != null) {
+                ps.setTimestamp(i++, after.getLogTime());
+                ps.setTimestamp(i++, after.getLogTime());
+                ps.setInt(i++, after.getLogId());
+            }
+            i = filter.bind(ps, i);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    logs.add(fromRow(rs));
                 }
-                
-                logs.add(new ActivityLog(
-                    rs.getInt("log_id"),
-                    username,
-                    rs.getString("user_id"),
-                    rs.getString("action"),
-                    rs.getTimestamp("log_time"),
-                    rs.getString("ip_address")
-                ));
             }
-        } catch (SQLException e) {
-            util.Logger.logError("ActivityLogModel", "Error loading activity logs", e);
-            throw new RuntimeException("Failed to load activity logs: " + e.getMessage(), e);
         }
-        
         return logs;
     }
-    
+
     /**
-     * Clear old logs (older than 30 days)
-     * @return Number of logs deleted
+     * Key of the entry at a given position, used to jump straight to a page
+     * without reading the pages before it
+     * @return The key, or null if offset is past the end
+     * @throws SQLException if the query fails
      */
-    public static int clearOldLogs() {
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "DELETE FROM user_logs WHERE log_time < DATE_SUB(NOW(), INTERVAL 30 DAY)";
-            Statement st = conn.createStatement();
-            int deleted = st.executeUpdate(sql);
-            
-            util.Logger.logUserActivity("CLEAR_LOGS", 
-                String.format("Deleted %d old log entries", deleted));
-            
-            return deleted;
-        } catch (SQLException e) {
-            util.Logger.logError("ActivityLogModel", "Error clearing old logs", e);
-            return 0;
+    public static PageKey getKeyAt(int offset, LogFilter filter) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT ul.log_time, ul.log_id FROM user_logs ul WHERE 1=1");
+        filter.appendTo(sql);
+        sql.append(KEYSET_ORDER).append(" LIMIT 1 OFFSET ?");
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = filter.bind(ps, 1);
+            ps.setInt(i, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new PageKey(rs.getTimestamp(1), rs.getInt(2));
+                }
+            }
         }
+        return null;
     }
-    
+
     /**
-     * Get logs by user
-     * @param userId User ID to filter by
-     * @return List of ActivityLog objects for specified user
+     * Count log entries matching a filter
+     * @throws SQLException if the query fails
      */
-    public static List<ActivityLog> getLogsByUser(String userId) {
+    public static int getCount(LogFilter filter) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM user_logs ul WHERE 1=1");
+        filter.appendTo(sql);
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            filter.bind(ps, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Entries added after a given log_id, oldest first (primary-key range
+     * scan, so polling with the last ID seen stays cheap however big the table is)
+     * @param afterLogId Highest log_id already shown (0 for none)
+     * @param filter Conditions applied in SQL
+     * @param limit Maximum rows to return
+     * @throws SQLException if the query fails
+     */
+    public static List<ActivityLog> getNewerThan(int afterLogId, LogFilter filter, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder(PAGE_COLUMNS).append(" WHERE ul.log_id > ?");
+        filter.appendTo(sql);
+        sql.append(" ORDER BY ul.log_id LIMIT ?");
+
         List<ActivityLog> logs = new ArrayList<>();
-        
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT ul.log_id, ul.user_id, u.username, ul.action, ul.log_time, ul.ip_address " +
-                        "FROM user_logs ul " +
-                        "LEFT JOIN users u ON ul.user_id = u.user_id " +
-                        "WHERE ul.user_id = ? " +
-                        "ORDER BY ul.log_time DESC";
-            
-            PreparedStatement ps = conn.prepareStatement(sql);
-            ps.setString(1, userId);
-            ResultSet rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                String username = rs.getString("username");
-                if (username == null || username.isEmpty()) {
-                    username = "Unknown";
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            ps.setInt(1, afterLogId);
+            int i = filter.bind(ps, 2);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    logs.add(fromRow(rs));
                 }
-                
-                logs.add(new ActivityLog(
-                    rs.getInt("log_id"),
-                    username,
-                    rs.getString("user_id"),
-                    rs.getString("action"),
-                    rs.getTimestamp("log_time"),
-                    rs.getString("ip_address")
-                ));
             }
-        } catch (SQLException e) {
-            util.Logger.logError("ActivityLogModel", "Error loading logs by user", e);
         }
-        
         return logs;
     }
+
+    private static ActivityLog fromRow(ResultSet rs) throws SQLException {
+        String username = rs.getString("username");
+        if (username == null || username.isEmpty()) {
+            username = "Unknown";
+        }
+        return new ActivityLog(
+            rs.getInt("log_id"),
+            username,
+            rs.getString("user_id"),
+            rs.getString("action"),
+            rs.getTimestamp("log_time"),
+            rs.getString("ip_address")
+        );
+    }
+
+    /**
+     * Clear old logs (older than 30 days). The rows are moved to monthly
+     * archive files in small chunks (see ActivityLogArchiver), not deleted in one statement.
+     * @return Number of logs archived
+     */
+    public static int clearOldLogs() {
+        try {
+            return (int) ActivityLogArchiver.archiveOlderThan(30, null).getRows();
+        } catch (SQLException | java.io.IOException e) {
+            util.Logger.logError("ActivityLogModel", "Error clearing old logs", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Archive logs older than 30 days in the background
+     * @param listener Progress callback (called off the EDT)
+     * @return Future of the final progress; cancel(true) stops after the current chunk
+     */
+    public static CompletableFuture<DataExporter.Progress> clearOldLogsAsync(DataExporter.ProgressListener listener) {
+        return DataAccessExecutor.supply(() -> ActivityLogArchiver.archiveOlderThan(30, listener));
+    }
 }
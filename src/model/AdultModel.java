@@ -1,9 +1,11 @@
 package model;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import db.DbConnection;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 
 /**
  * Model class for Adult data operations
@@ -40,30 +42,19 @@ public class AdultModel {
     }
     
     /**
-     * Get all adults (residents aged 18-59)
+     * Get all adults (residents aged 18-59 by birth date), by last and first name
      * @return List of Adult objects
      */
     public static List<Adult> getAllAdults() {
         List<Adult> adults = new ArrayList<>();
-        
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT resident_id, CONCAT(first_name, ' ', last_name) as name, " +
-                        "age, gender, contact_no, email " +
-                        "FROM residents WHERE age >= 18 AND age < 60 " +
-                        "ORDER BY last_name, first_name";
-            
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            while (rs.next()) {
-                adults.add(new Adult(
-                    rs.getInt("resident_id"),
-                    rs.getString("name"),
-                    rs.getInt("age"),
-                    rs.getString("gender"),
-                    rs.getString("contact_no"),
-                    rs.getString("email")
-                ));
+        try {
+            AgeBracketIndex.getInstance().ensureLoaded();
+            List<AgeBracketIndex.Member> members = AgeBracketIndex.getInstance().members(AgeBracketIndex.Bracket.ADULT);
+            Comparator<String> text = Comparator.nullsFirst(Comparator.naturalOrder());
+            members.sort(Comparator.comparing(AgeBracketIndex.Member::getLastName, text)
+                .thenComparing(AgeBracketIndex.Member::getFirstName, text));
+            for (AgeBracketIndex.Member m : members) {
+                adults.add(new Adult(m.getResidentId(), m.getName(), m.getAge(), m.getGender(), m.getContactNo(), m.getEmail()));
             }
         } catch (SQLException e) {
             util.Logger.logError("AdultModel", "Error loading adults", e);
@@ -72,20 +63,23 @@ public class AdultModel {
         
         return adults;
     }
+
+    /**
+     * Load all adults without blocking the caller
+     * @return Future of getAllAdults()
+     */
+    public static CompletableFuture<List<Adult>> getAllAdultsAsync() {
+        return DataAccessExecutor.supply(AdultModel::getAllAdults);
+    }
     
     /**
      * Get total count of adults
      * @return Number of adults in the system
      */
     public static int getAdultsCount() {
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT COUNT(*) as count FROM residents WHERE age >= 18 AND age < 60";
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
+        try {
+            AgeBracketIndex.getInstance().ensureLoaded();
+            return AgeBracketIndex.getInstance().count(AgeBracketIndex.Bracket.ADULT);
         } catch (SQLException e) {
             util.Logger.logError("AdultModel", "Error getting adults count", e);
         }
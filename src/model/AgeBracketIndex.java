@@ -0,0 +1,637 @@
+package model;
+
+import db.DataAccessExecutor;
+import db.DbConnection;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Residents grouped into age brackets (children 0-17, adults 18-59, seniors
+ * 60+) by their birth_date, kept in memory for the Children, Adults and
+ * Senior Citizens panels and the dashboard counts. The stored residents.age
+ * column is not used: it is only refreshed when a row is saved again.
+ *
+ * The index is built from one scan of residents. Birth dates become epoch
+ * days and then year and month-day integers, so working out an age is plain
+ * integer arithmetic with no Calendar or date objects per resident.
+ *
+ * A resident only changes bracket on a birthday. At midnight, and on the
+ * first read after a missed midnight, only residents whose birthday falls on
+ * the new day are looked at and moved. Someone born on 29 February has the
+ * birthday on 1 March in other years. ResidentModel keeps the index current
+ * on create, update and delete. Residents without a birth date are in no
+ * bracket.
+ *
+ * Saves made from other workstations are picked up by refresh(): rows whose
+ * updated_at moved since the last check are re-read, and deletions are found
+ * by comparing counts. The dashboard refreshes before every statistics load,
+ * and ensureLoaded() refreshes once the last check is older than the
+ * dashboard's TTL, so the panels and the dashboard counts stay in step.
+ */
+public class AgeBracketIndex {
+
+    private static final String LOAD_SQL =
+        "SELECT resident_id, household_id, first_name, last_name, birth_date, gender, contact_no, email FROM residents";
+    private static final String DELTA_SQL = LOAD_SQL + " WHERE updated_at >= ?";
+    private static final String CHECK_SQL = "SELECT CURRENT_TIMESTAMP, COUNT(*) FROM residents";
+    private static final String IDS_SQL = "SELECT resident_id FROM residents";
+    private static final int FETCH_SIZE = 5000;
+    // Changes are re-read from this far before the last check, for saves committed late
+    private static final long REFRESH_OVERLAP_MS = 60_000L;
+    // A gap longer than this (a very long sleep) is handled by recomputing every bracket
+    private static final int MAX_CATCH_UP_DAYS = 366;
+    private static final byte NONE = -1;
+
+    /** Age ranges, youngest first */
+    public enum Bracket {
+        CHILD(0), ADULT(18), SENIOR(60);
+
+        private final int minAge;
+
+        Bracket(int minAge) {
+            this.minAge = minAge;
+        }
+
+        public int getMinAge() { return minAge; }
+
+        static byte of(int age) {
+            return (byte) (age >= SENIOR.minAge ? SENIOR.ordinal() : age >= ADULT.minAge ? ADULT.ordinal() : CHILD.ordinal());
+        }
+    }
+
+    /**
+     * A resident in a bracket, with the age as of today
+     */
+    public static class Member {
+        private final int residentId;
+        private final Integer householdId;
+        private final String firstName;
+        private final String lastName;
+        private final int age;
+        private final String gender;
+        private final String contactNo;
+        private final String email;
+
+        Member(int residentId, Integer householdId, String firstName, String lastName, int age,
+               String gender, String contactNo, String email) {
+            this.residentId = residentId;
+            this.householdId = householdId;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.age = age;
+            this.gender = gender;
+            this.contactNo = contactNo;
+            this.email = email;
+        }
+
+        public int getResidentId() { return residentId; }
+        public Integer getHouseholdId() { return householdId; }
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+        /** "First Last", as the bracket panels show it */
+        public String getName() { return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""); }
+        public int getAge() { return age; }
+        public String getGender() { return gender; }
+        public String getContactNo() { return contactNo; }
+        public String getEmail() { return email; }
+    }
+
+    private static final AgeBracketIndex INSTANCE = new AgeBracketIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadLock = new Object();
+    // Slot arrays; a removed resident's slot keeps bracket NONE until the next load
+    private int slotCount;
+    private int[] ids = new int[0];
+    private int[] householdIds = new int[0];
+    private int[] birthYears = new int[0];
+    // Month * 100 + day, 0 when the birth date is unknown
+    private int[] birthMonthDays = new int[0];
+    private byte[] brackets = new byte[0];
+    private String[][] details = new String[0][];
+    private Map<Integer, Integer> slotById = new HashMap<>();
+    private final int[] counts = new int[Bracket.values().length];
+    // Day the brackets are correct for
+    private int day;
+    private int year;
+    private int monthDay;
+    private boolean ready;
+    private List<Runnable> pending;
+    private ScheduledExecutorService midnight;
+    // Database time of the last load or refresh, and when it ran here
+    private volatile Timestamp checkedAt;
+    private volatile long checkedAtMillis;
+
+    private AgeBracketIndex() {}
+
+    public static AgeBracketIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the index if it has not been built, off the calling thread
+     */
+    public CompletableFuture<Void> loadAsync() {
+        return DataAccessExecutor.supply(() -> {
+            ensureLoaded();
+            return null;
+        });
+    }
+
+    /**
+     * Build the index if it has not been built yet, or refresh it if the last
+     * check is older than the dashboard TTL, on this thread (callers that
+     * arrive during a load wait for it)
+     * @throws SQLException if reading residents fails
+     */
+    public void ensureLoaded() throws SQLException {
+        boolean loaded;
+        lock.readLock().lock();
+        try {
+            loaded = ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (loaded) {
+            if (System.currentTimeMillis() - checkedAtMillis > DashboardStatsService.TTL_MS) refresh();
+            return;
+        }
+        synchronized (loadLock) {
+            if (ready) return;
+            lock.writeLock().lock();
+            try {
+                // Saves made while residents are read are replayed afterwards
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long start = System.nanoTime();
+            try {
+                load();
+            } catch (SQLException | RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            util.Logger.logInfo("Age brackets built: " + slotCount + " residents in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+            scheduleMidnight();
+        }
+    }
+
+    /**
+     * Apply saves made from other workstations since the last load or
+     * refresh (does nothing before the first load)
+     * @throws SQLException if the changes could not be read
+     */
+    public void refresh() throws SQLException {
+        synchronized (loadLock) {
+            Timestamp since = checkedAt;
+            if (since == null) return;
+            Object[] check = check();
+            int changed = 0;
+            try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(DELTA_SQL)) {
+                ps.setTimestamp(1, new Timestamp(since.getTime() - REFRESH_OVERLAP_MS));
+                ps.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int residentId = rs.getInt(1);
+                        int householdId = rs.getInt(2);
+                        int birth = parseDate(rs.getString(5));
+                        String[] detail = {rs.getString(3), rs.getString(4), rs.getString(6), rs.getString(7), rs.getString(8)};
+                        lock.writeLock().lock();
+                        try {
+                            putLocked(residentId, householdId, birth, detail);
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                        changed++;
+                    }
+                }
+            }
+            // Rows deleted elsewhere leave no trace in updated_at; only look for them when the counts differ
+            int removed = 0;
+            int indexed;
+            lock.readLock().lock();
+            try {
+                indexed = slotById.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (indexed != (Long) check[1]) {
+                removed = removeMissing();
+            }
+            checkedAt = (Timestamp) check[0];
+            checkedAtMillis = System.currentTimeMillis();
+            if (changed > 0 || removed > 0) {
+                util.Logger.logInfo("Age brackets refreshed: " + changed + " changed, " + removed + " removed");
+            }
+        }
+    }
+
+    /**
+     * Number of residents in a bracket
+     */
+    public int count(Bracket bracket) {
+        catchUp();
+        lock.readLock().lock();
+        try {
+            return counts[bracket.ordinal()];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Residents in a bracket (in no particular order)
+     */
+    public List<Member> members(Bracket bracket) {
+        catchUp();
+        lock.readLock().lock();
+        try {
+            List<Member> members = new ArrayList<>(counts[bracket.ordinal()]);
+            byte b = (byte) bracket.ordinal();
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (brackets[slot] == b) members.add(member(slot));
+            }
+            return members;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * "First Last" of one resident aged 18 or over per household, for the
+     * guardian column of the Children panel
+     */
+    public Map<Integer, String> adultNameByHousehold() {
+        catchUp();
+        lock.readLock().lock();
+        try {
+            Map<Integer, String> names = new HashMap<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                byte b = brackets[slot];
+                if (householdIds[slot] != 0 && b != NONE && b != Bracket.CHILD.ordinal()) {
+                    names.putIfAbsent(householdIds[slot], member(slot).getName());
+                }
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a resident (after it was saved)
+     */
+    public void put(ResidentModel resident) {
+        int birth = resident.getBirthDate() != null ? civil(epochDay(resident.getBirthDate().toLocalDate())) : 0;
+        String[] detail = {resident.getFirstName(), resident.getLastName(), resident.getGender(),
+            resident.getContactNo(), resident.getEmail()};
+        int residentId = resident.getResidentId();
+        int householdId = resident.getHouseholdId() != null ? resident.getHouseholdId() : 0;
+        lock.writeLock().lock();
+        try {
+            Runnable change = () -> putLocked(residentId, householdId, birth, detail);
+            if (pending != null) pending.add(change);
+            if (ready) change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a resident (after it was deleted)
+     */
+    public void remove(int residentId) {
+        lock.writeLock().lock();
+        try {
+            Runnable change = () -> removeLocked(residentId);
+            if (pending != null) pending.add(change);
+            if (ready) change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whole years between a birth date and a day, both as epoch days
+     */
+    public static int age(int birthDay, int onDay) {
+        int birth = civil(birthDay);
+        int on = civil(onDay);
+        return age(birth / 10000, birth % 10000, on / 10000, on % 10000);
+    }
+
+    private static int age(int birthYear, int birthMonthDay, int year, int monthDay) {
+        return year - birthYear - (monthDay < birthMonthDay ? 1 : 0);
+    }
+
+    private void load() throws SQLException {
+        Timestamp startedAt = (Timestamp) check()[0];
+        int today = today();
+        int todayCivil = civil(today);
+        int capacity = 1024;
+        int n = 0;
+        int[] loadedIds = new int[capacity];
+        int[] loadedHouseholds = new int[capacity];
+        int[] loadedYears = new int[capacity];
+        int[] loadedMonthDays = new int[capacity];
+        String[][] loadedDetails = new String[capacity][];
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(LOAD_SQL)) {
+            ps.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (n == capacity) {
+                        capacity = capacity * 3 / 2;
+                        loadedIds = Arrays.copyOf(loadedIds, capacity);
+                        loadedHouseholds = Arrays.copyOf(loadedHouseholds, capacity);
+                        loadedYears = Arrays.copyOf(loadedYears, capacity);
+                        loadedMonthDays = Arrays.copyOf(loadedMonthDays, capacity);
+                        loadedDetails = Arrays.copyOf(loadedDetails, capacity);
+                    }
+                    loadedIds[n] = rs.getInt(1);
+                    loadedHouseholds[n] = rs.getInt(2);
+                    int birth = parseDate(rs.getString(5));
+                    loadedYears[n] = birth / 10000;
+                    loadedMonthDays[n] = birth % 10000;
+                    loadedDetails[n] = new String[]{rs.getString(3), rs.getString(4), rs.getString(6), rs.getString(7), rs.getString(8)};
+                    n++;
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            slotCount = n;
+            ids = loadedIds;
+            householdIds = loadedHouseholds;
+            birthYears = loadedYears;
+            birthMonthDays = loadedMonthDays;
+            details = loadedDetails;
+            brackets = new byte[capacity];
+            slotById = new HashMap<>(n * 2);
+            for (int slot = 0; slot < n; slot++) {
+                Integer previous = slotById.put(ids[slot], slot);
+                if (previous != null) birthMonthDays[previous] = 0;
+            }
+            day = today;
+            year = todayCivil / 10000;
+            monthDay = todayCivil % 10000;
+            recomputeAll();
+            ready = true;
+            checkedAt = startedAt;
+            checkedAtMillis = System.currentTimeMillis();
+            List<Runnable> changes = pending;
+            pending = null;
+            if (changes != null) changes.forEach(Runnable::run);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recomputeAll() {
+        Arrays.fill(counts, 0);
+        for (int slot = 0; slot < slotCount; slot++) {
+            brackets[slot] = bracketOf(slot);
+            if (brackets[slot] != NONE) counts[brackets[slot]]++;
+        }
+    }
+
+    private byte bracketOf(int slot) {
+        if (birthMonthDays[slot] == 0) return NONE;
+        int age = age(birthYears[slot], birthMonthDays[slot], year, monthDay);
+        return age < 0 ? NONE : Bracket.of(age);
+    }
+
+    // birth is year * 10000 + month * 100 + day, 0 when unknown
+    private void putLocked(int residentId, int householdId, int birth, String[] detail) {
+        Integer existing = slotById.get(residentId);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            if (brackets[slot] != NONE) counts[brackets[slot]]--;
+        } else {
+            if (slotCount == ids.length) grow();
+            slot = slotCount++;
+            slotById.put(residentId, slot);
+        }
+        ids[slot] = residentId;
+        householdIds[slot] = householdId;
+        birthYears[slot] = birth / 10000;
+        birthMonthDays[slot] = birth % 10000;
+        details[slot] = detail;
+        brackets[slot] = bracketOf(slot);
+        if (brackets[slot] != NONE) counts[brackets[slot]]++;
+    }
+
+    private void removeLocked(int residentId) {
+        Integer slot = slotById.remove(residentId);
+        if (slot == null) return;
+        if (brackets[slot] != NONE) counts[brackets[slot]]--;
+        brackets[slot] = NONE;
+        birthMonthDays[slot] = 0;
+    }
+
+    // Database time and resident count
+    private static Object[] check() throws SQLException {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(CHECK_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return new Object[] {rs.getTimestamp(1), rs.getLong(2)};
+        }
+    }
+
+    // Drop residents that are no longer in the table
+    private int removeMissing() throws SQLException {
+        Set<Integer> present = new HashSet<>();
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(IDS_SQL)) {
+            ps.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) present.add(rs.getInt(1));
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            List<Integer> missing = new ArrayList<>();
+            for (Integer id : slotById.keySet()) {
+                if (!present.contains(id)) missing.add(id);
+            }
+            for (int id : missing) {
+                removeLocked(id);
+            }
+            return missing.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, ids.length * 3 / 2);
+        ids = Arrays.copyOf(ids, capacity);
+        householdIds = Arrays.copyOf(householdIds, capacity);
+        birthYears = Arrays.copyOf(birthYears, capacity);
+        birthMonthDays = Arrays.copyOf(birthMonthDays, capacity);
+        brackets = Arrays.copyOf(brackets, capacity);
+        details = Arrays.copyOf(details, capacity);
+    }
+
+    private Member member(int slot) {
+        String[] d = details[slot];
+        int age = age(birthYears[slot], birthMonthDays[slot], year, monthDay);
+        return new Member(ids[slot], householdIds[slot] != 0 ? householdIds[slot] : null, d[0], d[1], age, d[2], d[3], d[4]);
+    }
+
+    // Move the brackets forward to today if a midnight has passed
+    private void catchUp() {
+        int today = today();
+        lock.readLock().lock();
+        try {
+            if (!ready || day >= today) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (day >= today) return;
+            if (today - day > MAX_CATCH_UP_DAYS) {
+                int todayCivil = civil(today);
+                day = today;
+                year = todayCivil / 10000;
+                monthDay = todayCivil % 10000;
+                recomputeAll();
+                return;
+            }
+            int moved = 0;
+            while (day < today) {
+                moved += advanceOneDay();
+            }
+            if (moved > 0) {
+                util.Logger.logInfo("Age brackets rolled over: " + moved + " resident(s) changed bracket");
+                DashboardStatsService.getInstance().invalidate();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Birthdays between yesterday's month-day (exclusive) and today's (inclusive); 29 Feb falls
+    // in the 28 Feb - 1 Mar step of a common year
+    private int advanceOneDay() {
+        int previousMonthDay = monthDay;
+        int next = civil(++day);
+        year = next / 10000;
+        monthDay = next % 10000;
+        boolean wraps = monthDay < previousMonthDay;
+        int moved = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int md = birthMonthDays[slot];
+            if (md == 0) continue;
+            boolean birthday = wraps ? md > previousMonthDay || md <= monthDay : md > previousMonthDay && md <= monthDay;
+            if (!birthday) continue;
+            byte now = bracketOf(slot);
+            if (now != brackets[slot]) {
+                if (brackets[slot] != NONE) counts[brackets[slot]]--;
+                if (now != NONE) counts[now]++;
+                brackets[slot] = now;
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private synchronized void scheduleMidnight() {
+        if (midnight == null) {
+            midnight = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "age-bracket-midnight");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().plusDays(1).atStartOfDay();
+        long delayMs = java.time.Duration.between(now, next).toMillis() + 1000;
+        midnight.schedule(() -> {
+            try {
+                catchUp();
+            } finally {
+                scheduleMidnight();
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static int today() {
+        return (int) LocalDate.now(ZoneId.systemDefault()).toEpochDay();
+    }
+
+    private static int epochDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * Epoch day of a civil date (days since 1970-01-01, proleptic Gregorian)
+     */
+    static int epochDay(int y, int m, int d) {
+        y -= m <= 2 ? 1 : 0;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * Civil date of an epoch day as year * 10000 + month * 100 + day
+     */
+    static int civil(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int d = doy - (153 * mp + 2) / 5 + 1;
+        int m = mp < 10 ? mp + 3 : mp - 9;
+        int y = yoe + era * 400 + (m <= 2 ? 1 : 0);
+        return y * 10000 + m * 100 + d;
+    }
+
+    // "yyyy-MM-dd" as year * 10000 + month * 100 + day, going through the epoch day
+    // so an impossible date is rolled to a real one; 0 for null or a zero date
+    private static int parseDate(String value) {
+        if (value == null || value.length() < 10) return 0;
+        int y = digits(value, 0, 4);
+        int m = digits(value, 5, 7);
+        int d = digits(value, 8, 10);
+        if (y <= 0 || m < 1 || m > 12 || d < 1 || d > 31) return 0;
+        return civil(epochDay(y, m, d));
+    }
+
+    private static int digits(String s, int from, int to) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+}
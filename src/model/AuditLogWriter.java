@@ -0,0 +1,382 @@
+package model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import db.DbConnection;
+
+/**
+ * Writes user_logs rows in the background. log() only queues a record; a single daemon thread inserts them in batches of BATCH_SIZE, or
+ * whatever has arrived after FLUSH_INTERVAL_MS, with one executeBatch (sent
+ * as a multi-row INSERT thanks to rewriteBatchedStatements). A batch that
+ * fails on bad data or a constraint is stored row by row instead, so only
+ * the offending records are dropped to error.log.
+ *
+ * Settings (system properties):
+ *   audit.capacity        records held in memory before callers wait (10000)
+ *   audit.batchSize       rows per INSERT (200)
+ *   audit.flushIntervalMs longest a record waits before being written (1000)
+ *   audit.offerTimeoutMs  how long a caller waits on a full queue before the
+ *                         record is dropped to error.log instead (250)
+ */
+public class AuditLogWriter {
+
+    private static final int CAPACITY = Integer.getInteger("audit.capacity", 10_000);
+    private static final int BATCH_SIZE = Integer.getInteger("audit.batchSize", 200);
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("audit.flushIntervalMs", 1000L);
+    private static final long OFFER_TIMEOUT_MS = Long.getLong("audit.offerTimeoutMs", 250L);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO user_logs (user_id, action, ip_address, log_time) VALUES (?, ?, ?, ?)";
+    private static final String USERNAME_BY_ID_SQL = "SELECT username FROM users WHERE user_id = ?";
+
+    // Queued in front of a flush() so the writer stops waiting for a full batch
+    private static final Record FLUSH = new Record(null, null, null, 0);
+
+    private static final AuditLogWriter INSTANCE = new AuditLogWriter();
+
+    public static AuditLogWriter getInstance() {
+        return INSTANCE;
+    }
+
+    private static final class Record {
+        final String userId;
+        final String action;
+        final String ipAddress;
+        final long time;
+
+        Record(String userId, String action, String ipAddress, long time) {
+            this.userId = userId;
+            this.action = action;
+            this.ipAddress = ipAddress;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Counters since startup
+     */
+    public static class Stats {
+        private final long queued;
+        private final long written;
+        private final long dropped;
+        private final long waits;
+        private final long batches;
+        private final int pending;
+        private final int highWater;
+
+        Stats(long queued, long written, long dropped, long waits, long batches, int pending, int highWater) {
+            this.queued = queued;
+            this.written = written;
+            this.dropped = dropped;
+            this.waits = waits;
+            this.batches = batches;
+            this.pending = pending;
+            this.highWater = highWater;
+        }
+
+        public long getQueued() { return queued; }
+        public long getWritten() { return written; }
+        /** Records that could not be queued or inserted (they are kept in error.log) */
+        public long getDropped() { return dropped; }
+        /** Times a caller found the queue full and had to wait */
+        public long getWaits() { return waits; }
+        public long getBatches() { return batches; }
+        public int getPending() { return pending; }
+        public int getHighWater() { return highWater; }
+
+        @Override
+        public String toString() {
+            return String.format("queued=%d written=%d dropped=%d waits=%d batches=%d pending=%d highWater=%d",
+                queued, written, dropped, waits, batches, pending, highWater);
+        }
+    }
+
+    private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final Map<String, String> usernames = new ConcurrentHashMap<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int highWater;
+    // Records queued so far / records the writer has finished with (written or dropped)
+    private final AtomicLong accepted = new AtomicLong();
+    private long completed;
+    private final Object completedLock = new Object();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private AuditLogWriter() {
+        thread = new Thread(this::run, "audit-writer");
+        thread.setDaemon(true);
+        thread.start();
+        // Drains before DbConnection closes the pool (see ShutdownSequence)
+        util.ShutdownSequence.register(util.ShutdownSequence.Phase.AUDIT, () -> shutdown(5000));
+    }
+
+    /**
+     * Queue an activity record. Returns immediately unless the queue is full,
+     * in which case the caller waits up to audit.offerTimeoutMs.
+     * @return false if the record could not be queued
+     */
+    public boolean log(String userId, String action, String ipAddress) {
+        Record record = new Record(userId, action, ipAddress, System.currentTimeMillis());
+        boolean ok = running && queue.offer(record);
+        if (!ok && running) {
+            waits.incrementAndGet();
+            try {
+                ok = queue.offer(record, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!ok) {
+            dropped.incrementAndGet();
+            util.Logger.logWarning(String.format("Audit record dropped (queue full): user_id=%s action=%s ip=%s",
+                userId, action, ipAddress));
+            return false;
+        }
+        accepted.incrementAndGet();
+        int size = queue.size();
+        if (size > highWater) highWater = size;
+        return true;
+    }
+
+    /**
+     * Wait until every record queued so far is in the database (bounded wait)
+     * @return true if everything was written within the timeout
+     */
+    public boolean flush(long timeoutMs) {
+        long target = accepted.get();
+        if (!running) return completedAtLeast(target);
+        queue.offer(FLUSH);
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (completedLock) {
+            while (completed < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                try {
+                    completedLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public Stats getStats() {
+        return new Stats(accepted.get(), written.get(), dropped.get(), waits.get(), batches.get(),
+            queue.size(), highWater);
+    }
+
+    private boolean completedAtLeast(long target) {
+        synchronized (completedLock) {
+            return completed >= target;
+        }
+    }
+
+    private void run() {
+        List<Record> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                boolean flushNow = fill(batch);
+                if (!batch.isEmpty() && (flushNow || batch.size() >= BATCH_SIZE || !running)) {
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // Not expected (shutdown wakes the thread with a FLUSH); drain and stop
+                running = false;
+            }
+        }
+        if (!batch.isEmpty()) write(batch);
+    }
+
+    /**
+     * Collect records until the batch is full, a flush is requested or the
+     * oldest record has waited FLUSH_INTERVAL_MS
+     * @return true if the batch should be written now
+     */
+    private boolean fill(List<Record> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MS;
+        while (batch.size() < BATCH_SIZE) {
+            Record record = batch.isEmpty()
+                ? queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS)
+                : queue.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            if (record == null) {
+                return !batch.isEmpty();
+            }
+            if (record == FLUSH) {
+                return true;
+            }
+            if (batch.isEmpty()) {
+                deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MS;
+            }
+            batch.add(record);
+        }
+        return true;
+    }
+
+    private void write(List<Record> batch) {
+        SQLException error = store(batch);
+        if (error == null) {
+            saved(batch);
+        } else if (batch.size() > 1 && isPermanent(error)) {
+            // One bad record fails the whole INSERT; store the others one by one
+            List<Record> saved = new ArrayList<>(batch.size());
+            for (Record r : batch) {
+                List<Record> single = Collections.singletonList(r);
+                SQLException rowError = store(single);
+                if (rowError == null) {
+                    saved.add(r);
+                } else {
+                    drop(single, rowError);
+                }
+            }
+            if (!saved.isEmpty()) saved(saved);
+        } else {
+            drop(batch, error);
+        }
+        complete(batch.size());
+    }
+
+    // Insert with retries; null on success, else the last failure (not retried when permanent)
+    private SQLException store(List<Record> batch) {
+        SQLException last = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                insert(batch);
+                return null;
+            } catch (SQLException e) {
+                last = e;
+                if (isPermanent(e)) break;
+                try {
+                    Thread.sleep(200L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return last;
+    }
+
+    private void saved(List<Record> records) {
+        written.addAndGet(records.size());
+        batches.incrementAndGet();
+        logToFile(records);
+    }
+
+    // Keep what could not be stored so nothing disappears silently
+    private void drop(List<Record> records, SQLException error) {
+        util.Logger.logDatabaseError(INSERT_SQL, error);
+        for (Record r : records) {
+            util.Logger.logWarning(String.format("Audit record not saved: user_id=%s action=%s ip=%s time=%tF %<tT",
+                r.userId, r.action, r.ipAddress, r.time));
+        }
+        dropped.addAndGet(records.size());
+    }
+
+    // Bad data (SQLSTATE 22xxx) or a constraint violation (23xxx): retrying the same rows cannot help
+    private static boolean isPermanent(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLIntegrityConstraintViolationException || t instanceof SQLDataException) return true;
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) return true;
+                SQLException next = ((SQLException) t).getNextException();
+                if (next != null && next != t.getCause() && isPermanent(next)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(List<Record> batch) throws SQLException {
+        try (Connection conn = DbConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                for (Record r : batch) {
+                    ps.setString(1, r.userId);
+                    ps.setString(2, r.action);
+                    ps.setString(3, r.ipAddress);
+                    // Event time, not insert time: a record may sit in the queue for a while
+                    ps.setTimestamp(4, new Timestamp(r.time));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    // Mirror each stored record in user.log, as the synchronous insert used to
+    private void logToFile(List<Record> batch) {
+        for (Record r : batch) {
+            util.Logger.logUserActivity(username(r.userId), r.action, "IP: " + r.ipAddress);
+        }
+    }
+
+    // Only found usernames are cached; after a failed lookup the next record tries again
+    private String username(String userId) {
+        if (userId == null) return null;
+        String username = usernames.get(userId);
+        if (username == null) {
+            username = lookupUsername(userId);
+            if (username == null) return userId;
+            usernames.put(userId, username);
+        }
+        return username;
+    }
+
+    /**
+     * @return The username, or null if the user was not found or the lookup failed
+     */
+    private String lookupUsername(String userId) {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(USERNAME_BY_ID_SQL)) {
+            ps.setString(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return rs.getString("username");
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private void complete(int n) {
+        synchronized (completedLock) {
+            completed += n;
+            completedLock.notifyAll();
+        }
+    }
+
+    /**
+     * Stop accepting records and write out everything still queued
+     */
+    public void shutdown(long timeoutMs) {
+        if (!running) return;
+        running = false;
+        queue.offer(FLUSH);
+        try {
+            thread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,6 +3,8 @@ package model;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import db.DbConnection;
 
 /**
@@ -10,6 +12,18 @@ import db.DbConnection;
  * Handles all CRUD operations for blotter incidents
  */
 public class BlotterModel {
+
+    /**
+     * Incidents as the Blotter panel browses them, a page at a time
+     * (indexes and FULLTEXT from migration_panel_query_indexes.sql)
+     */
+    public static final QueryTable QUERY = new QueryTable("blotter_incidents", "incident_id",
+            "incident_id", "case_number", "incident_type", "incident_date", "incident_time", "incident_location",
+            "complainant_name", "respondent_name", "incident_status")
+        .filterable("incident_type", "incident_status", "incident_date")
+        .sortable("case_number", "incident_type", "incident_date", "incident_status")
+        .fullText("case_number", "incident_location", "complainant_name", "respondent_name")
+        .prefixSearch("case_number", "complainant_name", "respondent_name");
     
     /**
      * Data class representing a blotter incident
@@ -63,8 +77,8 @@ public class BlotterModel {
                         "incident_time, incident_location, complainant_name, respondent_name, incident_status " +
                         "FROM blotter_incidents ORDER BY incident_date DESC";
             
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
                 incidents.add(new Incident(
@@ -86,6 +100,14 @@ public class BlotterModel {
         
         return incidents;
     }
+
+    /**
+     * Load all incidents without blocking the caller
+     * @return Future of getAllIncidents()
+     */
+    public static CompletableFuture<List<Incident>> getAllIncidentsAsync() {
+        return DataAccessExecutor.supply(BlotterModel::getAllIncidents);
+    }
     
     /**
      * Get incident by ID
@@ -1,9 +1,12 @@
 package model;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import db.DbConnection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 
 /**
  * Model class for Children data operations
@@ -34,28 +37,20 @@ public class ChildrenModel {
     }
     
     /**
-     * Get all children (residents under 18)
+     * Get all children (residents under 18 by birth date), youngest first
      * @return List of Child objects
      */
     public static List<Child> getAllChildren() {
         List<Child> children = new ArrayList<>();
-        
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT r.resident_id, CONCAT(r.first_name, ' ', r.last_name) as name, r.age, " +
-                        "(SELECT CONCAT(h.first_name, ' ', h.last_name) FROM residents h " +
-                        "WHERE h.household_id = r.household_id AND h.age >= 18 LIMIT 1) as guardian " +
-                        "FROM residents r WHERE r.age < 18 ORDER BY r.age";
-            
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            while (rs.next()) {
-                children.add(new Child(
-                    rs.getInt("resident_id"),
-                    rs.getString("name"),
-                    rs.getInt("age"),
-                    rs.getString("guardian")
-                ));
+        try {
+            AgeBracketIndex index = AgeBracketIndex.getInstance();
+            index.ensureLoaded();
+            Map<Integer, String> guardians = index.adultNameByHousehold();
+            List<AgeBracketIndex.Member> members = index.members(AgeBracketIndex.Bracket.CHILD);
+            members.sort(Comparator.comparingInt(AgeBracketIndex.Member::getAge));
+            for (AgeBracketIndex.Member m : members) {
+                children.add(new Child(m.getResidentId(), m.getName(), m.getAge(),
+                    m.getHouseholdId() != null ? guardians.get(m.getHouseholdId()) : null));
             }
         } catch (SQLException e) {
             util.Logger.logError("ChildrenModel", "Error loading children", e);
@@ -64,20 +59,23 @@ public class ChildrenModel {
         
         return children;
     }
+
+    /**
+     * Load all children without blocking the caller
+     * @return Future of getAllChildren()
+     */
+    public static CompletableFuture<List<Child>> getAllChildrenAsync() {
+        return DataAccessExecutor.supply(ChildrenModel::getAllChildren);
+    }
     
     /**
      * Get total count of children
      * @return Number of children in the system
      */
     public static int getChildrenCount() {
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT COUNT(*) as count FROM residents WHERE age < 18";
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
+        try {
+            AgeBracketIndex.getInstance().ensureLoaded();
+            return AgeBracketIndex.getInstance().count(AgeBracketIndex.Bracket.CHILD);
         } catch (SQLException e) {
             util.Logger.logError("ChildrenModel", "Error getting children count", e);
         }
@@ -0,0 +1,193 @@
+package model;
+
+import java.sql.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import db.DataAccessExecutor;
+import db.DbConnection;
+
+/**
+ * Computes the home-screen statistics in a single round trip and caches the
+ * result. The snapshot is refreshed in the background once it is older than
+ * the TTL; listeners are notified on the EDT whenever fresh numbers arrive.
+ * Periodic refresh only runs while a listener (the home panel) is attached.
+ */
+public class DashboardStatsService {
+
+    // AgeBracketIndex refreshes on the same period
+    static final long TTL_MS = Long.getLong("dashboard.stats.ttlMs", 60_000L);
+
+    // One aggregate per table, joined so everything comes back as a single row.
+    // Age brackets come from AgeBracketIndex (birth_date), not the stored age column.
+    private static final String STATS_SQL =
+        "SELECT r.total_residents, h.total_households, " +
+        "p.total_projects, p.active_projects, u.active_users, o.active_officials FROM " +
+        "(SELECT COUNT(*) AS total_residents FROM residents) r " +
+        "CROSS JOIN (SELECT COUNT(*) AS total_households FROM households) h " +
+        "CROSS JOIN (SELECT COUNT(*) AS total_projects, " +
+        "        COALESCE(SUM(project_status IN ('In Progress', 'Active')), 0) AS active_projects " +
+        "        FROM barangay_projects) p " +
+        "CROSS JOIN (SELECT COALESCE(SUM(status = 'Active'), 0) AS active_users FROM users) u " +
+        "CROSS JOIN (SELECT COALESCE(SUM(is_active = 'Yes'), 0) AS active_officials FROM barangay_officials) o";
+
+    private static final DashboardStatsService INSTANCE = new DashboardStatsService();
+
+    private volatile Snapshot snapshot;
+    private CompletableFuture<Snapshot> inFlight;
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService refresher;
+
+    private DashboardStatsService() {}
+
+    public static DashboardStatsService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Immutable set of dashboard counts
+     */
+    public static class Snapshot {
+        private final int totalResidents;
+        private final int totalHouseholds;
+        private final int children;
+        private final int adults;
+        private final int seniors;
+        private final int totalProjects;
+        private final int activeProjects;
+        private final int activeUsers;
+        private final int activeOfficials;
+        private final long loadedAt;
+
+        public Snapshot(int totalResidents, int totalHouseholds, int children, int adults, int seniors,
+                        int totalProjects, int activeProjects, int activeUsers, int activeOfficials,
+                        long loadedAt) {
+            this.totalResidents = totalResidents;
+            this.totalHouseholds = totalHouseholds;
+            this.children = children;
+            this.adults = adults;
+            this.seniors = seniors;
+            this.totalProjects = totalProjects;
+            this.activeProjects = activeProjects;
+            this.activeUsers = activeUsers;
+            this.activeOfficials = activeOfficials;
+            this.loadedAt = loadedAt;
+        }
+
+        public int getTotalResidents() { return totalResidents; }
+        public int getTotalHouseholds() { return totalHouseholds; }
+        public int getChildren() { return children; }
+        public int getAdults() { return adults; }
+        public int getSeniors() { return seniors; }
+        public int getTotalProjects() { return totalProjects; }
+        public int getActiveProjects() { return activeProjects; }
+        public int getActiveUsers() { return activeUsers; }
+        public int getActiveOfficials() { return activeOfficials; }
+        public long getLoadedAt() { return loadedAt; }
+
+        public boolean isStale() {
+            return System.currentTimeMillis() - loadedAt > TTL_MS;
+        }
+    }
+
+    /**
+     * Last computed snapshot (possibly stale), or null if none has loaded yet.
+     * Triggers a background refresh when the snapshot is missing or older than the TTL.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || current.isStale()) {
+            refreshAsync();
+        }
+        return current;
+    }
+
+    /**
+     * Recompute the statistics in the background. Concurrent callers share one query.
+     * @return Future of the fresh snapshot
+     */
+    public synchronized CompletableFuture<Snapshot> refreshAsync() {
+        if (inFlight != null && !inFlight.isDone()) {
+            return inFlight;
+        }
+        CompletableFuture<Snapshot> future = DataAccessExecutor.supply(DashboardStatsService::loadSnapshot);
+        inFlight = future;
+        DataAccessExecutor.onEdt(future, fresh -> {
+            snapshot = fresh;
+            for (Consumer<Snapshot> l : listeners) {
+                l.accept(fresh);
+            }
+        }, error -> util.Logger.logError("DashboardStatsService", "Failed to load dashboard statistics",
+            error instanceof Exception ? (Exception) error : new Exception(error)));
+        return future;
+    }
+
+    /**
+     * Mark the snapshot stale so the next read recomputes it (e.g. after a CRUD change)
+     */
+    public void invalidate() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            snapshot = new Snapshot(current.totalResidents, current.totalHouseholds, current.children,
+                current.adults, current.seniors, current.totalProjects, current.activeProjects,
+                current.activeUsers, current.activeOfficials, 0L);
+        }
+    }
+
+    /**
+     * Register a listener called on the EDT with every fresh snapshot.
+     * The first listener starts periodic background refresh.
+     */
+    public synchronized void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+        if (refresher == null) {
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dashboard-stats-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(this::refreshAsync, TTL_MS, TTL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Remove a listener; periodic refresh stops when none are left
+     */
+    public synchronized void removeListener(Consumer<Snapshot> listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    private static Snapshot loadSnapshot() throws SQLException {
+        // Bring the brackets up to date first so they add up with total_residents
+        AgeBracketIndex brackets = AgeBracketIndex.getInstance();
+        brackets.ensureLoaded();
+        brackets.refresh();
+        try (Connection conn = DbConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(STATS_SQL); ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Dashboard statistics query returned no row");
+                }
+                return new Snapshot(
+                    rs.getInt("total_residents"),
+                    rs.getInt("total_households"),
+                    brackets.count(AgeBracketIndex.Bracket.CHILD),
+                    brackets.count(AgeBracketIndex.Bracket.ADULT),
+                    brackets.count(AgeBracketIndex.Bracket.SENIOR),
+                    rs.getInt("total_projects"),
+                    rs.getInt("active_projects"),
+                    rs.getInt("active_users"),
+                    rs.getInt("active_officials"),
+                    System.currentTimeMillis()
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.zip.GZIPOutputStream;
+import db.DbConnection;
+
+/**
+ * Streams whole tables to CSV or JSON Lines without loading them into memory.
+ * Rows are pulled through a forward-only, read-only server cursor in
+ * FETCH_SIZE chunks and written straight to a buffered (optionally gzipped)
+ * stream, so memory use stays flat however large the table is.
+ */
+public class DataExporter {
+
+    private static final int FETCH_SIZE = Integer.getInteger("export.fetchSize", 2000);
+    private static final int PROGRESS_EVERY = 5000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Exportable tables, each read in primary-key order
+     */
+    public enum Dataset {
+        RESIDENTS("residents", "resident_id", Permission.VIEW_RESIDENTS),
+        HOUSEHOLDS("households", "household_id", Permission.VIEW_HOUSEHOLDS),
+        FINANCIAL_TRANSACTIONS("financial_transactions", "transaction_id", Permission.VIEW_FINANCIAL),
+        BLOTTER_INCIDENTS("blotter_incidents", "incident_id", Permission.VIEW_BLOTTER);
+
+        private final String table;
+        private final String key;
+        private final Permission viewPermission;
+
+        Dataset(String table, String key, Permission viewPermission) {
+            this.table = table;
+            this.key = key;
+            this.viewPermission = viewPermission;
+        }
+
+        public String getTable() { return table; }
+
+        /** Permission needed to see the table's panel, and so to export it */
+        public Permission getViewPermission() { return viewPermission; }
+
+        /**
+         * Look up a dataset by table name (case-insensitive, '-' or '_')
+         */
+        public static Dataset fromName(String name) {
+            String normalized = name.trim().replace('-', '_');
+            for (Dataset d : values()) {
+                if (d.table.equalsIgnoreCase(normalized) || d.name().equalsIgnoreCase(normalized)) {
+                    return d;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dataset: " + name);
+        }
+
+        @Override
+        public String toString() {
+            return table;
+        }
+    }
+
+    public enum Format {
+        CSV("csv"), JSONL("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() { return extension; }
+    }
+
+    /**
+     * Rows written so far, out of an estimated total
+     */
+    public static class Progress {
+        private final long rows;
+        private final long totalRows;
+        private final long elapsedNanos;
+
+        public Progress(long rows, long totalRows, long elapsedNanos) {
+            this.rows = rows;
+            this.totalRows = totalRows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRows() { return rows; }
+        public long getTotalRows() { return totalRows; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? rows * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    public interface ProgressListener {
+        /** Called from the exporting thread every few thousand rows and once at the end */
+        void onProgress(Progress progress);
+    }
+
+    /**
+     * Export a table to a file; gzip-compressed when the name ends in ".gz"
+     * @return Final progress (row count and elapsed time)
+     * @throws InterruptedIOException if the exporting thread is interrupted (the file is removed)
+     */
+    public static Progress export(Dataset dataset, Format format, File target, ProgressListener listener)
+            throws SQLException, IOException {
+        boolean gzip = target.getName().toLowerCase().endsWith(".gz");
+        boolean complete = false;
+        try (OutputStream file = new FileOutputStream(target)) {
+            OutputStream out = gzip ? new GZIPOutputStream(file, BUFFER_SIZE) : file;
+            Progress result = export(dataset, format, out, listener);
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
+            }
+            complete = true;
+            return result;
+        } finally {
+            // Don't leave a truncated export behind
+            if (!complete) target.delete();
+        }
+    }
+
+    /**
+     * Export a table to a stream. The stream is flushed but not closed.
+     */
+    public static Progress export(Dataset dataset, Format format, OutputStream out, ProgressListener listener)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        try (Connection conn = DbConnection.getConnection()) {
+            long total = countRows(conn, dataset);
+            String sql = "SELECT * FROM " + dataset.table + " ORDER BY " + dataset.key;
+            try (PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData md = rs.getMetaData();
+                    int columns = md.getColumnCount();
+                    String[] names = new String[columns];
+                    boolean[] numeric = new boolean[columns];
+                    for (int i = 0; i < columns; i++) {
+                        names[i] = md.getColumnLabel(i + 1);
+                        numeric[i] = isNumeric(md.getColumnType(i + 1));
+                    }
+                    if (format == Format.CSV) {
+                        for (int i = 0; i < columns; i++) {
+                            if (i > 0) writer.write(',');
+                            writeCsv(writer, names[i]);
+                        }
+                        writer.write("\r\n");
+                    }
+
+                    long rows = 0;
+                    while (rs.next()) {
+                        if (format == Format.CSV) {
+                            writeCsvRow(writer, rs, columns);
+                        } else {
+                            writeJsonRow(writer, rs, names, numeric);
+                        }
+                        rows++;
+                        if (rows % PROGRESS_EVERY == 0) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedIOException("Export of " + dataset + " cancelled after " + rows + " rows");
+                            }
+                            if (listener != null) {
+                                listener.onProgress(new Progress(rows, Math.max(total, rows), System.nanoTime() - start));
+                            }
+                        }
+                    }
+                    writer.flush();
+                    Progress done = new Progress(rows, rows, System.nanoTime() - start);
+                    if (listener != null) {
+                        listener.onProgress(done);
+                    }
+                    return done;
+                }
+            }
+        }
+    }
+
+    private static long countRows(Connection conn, Dataset dataset) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM " + dataset.table);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void writeCsvRow(Writer w, ResultSet rs, int columns) throws SQLException, IOException {
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) w.write(',');
+            String value = rs.getString(i);
+            if (value != null) writeCsv(w, value);
+        }
+        w.write("\r\n");
+    }
+
+    static void writeCsv(Writer w, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            w.write(value);
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') w.write('"');
+            w.write(c);
+        }
+        w.write('"');
+    }
+
+    private static void writeJsonRow(Writer w, ResultSet rs, String[] names, boolean[] numeric) throws SQLException, IOException {
+        w.write('{');
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) w.write(',');
+            writeJsonString(w, names[i]);
+            w.write(':');
+            String value = rs.getString(i + 1);
+            if (value == null) {
+                w.write("null");
+            } else if (numeric[i]) {
+                w.write(value);
+            } else {
+                writeJsonString(w, value);
+            }
+        }
+        w.write("}\n");
+    }
+
+    private static void writeJsonString(Writer w, String value) throws IOException {
+        w.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': w.write("\\\""); break;
+                case '\\': w.write("\\\\"); break;
+                case '\n': w.write("\\n"); break;
+                case '\r': w.write("\\r"); break;
+                case '\t': w.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        w.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        w.write(c);
+                    }
+            }
+        }
+        w.write('"');
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT: case Types.SMALLINT: case Types.INTEGER: case Types.BIGINT:
+            case Types.DECIMAL: case Types.NUMERIC: case Types.FLOAT: case Types.REAL: case Types.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Finds residents that were probably registered twice (variant spellings,
+ * a missing middle name, a suffix typed differently).
+ *
+ * Comparing every pair is O(n²), so residents are first grouped into blocks
+ * that a duplicate almost always shares with its original:
+ *  - sound of the last name + birth year
+ *  - sound of the first name + full birth date (last name misspelled or changed)
+ *  - sound of the last name + sound of the first name (birth date mistyped)
+ * Only pairs inside a block are scored, and the blocks are scored in
+ * parallel on the common fork-join pool. A pair sharing several blocks is
+ * scored once, in the first of them that is not skipped for its size.
+ *
+ * The two name sounds are also stored on each resident (last_name_sound,
+ * first_name_sound), so the check of a single new record can read exactly
+ * the residents sharing one of its blocks.
+ *
+ * Scores run from 0 to 100: first and last names compared with Jaro-Winkler,
+ * middle names by initial when one of them is only an initial, the birth
+ * date, then lowered for a different suffix or gender and raised for the
+ * same contact number or email.
+ */
+public class DuplicateResidentFinder {
+
+    /** Pairs scoring below this are not reported */
+    public static final int MIN_SCORE = Integer.getInteger("resident.duplicateMinScore", 85);
+    // A block this large is a name too common to compare exhaustively; it is skipped
+    private static final int MAX_BLOCK = Integer.getInteger("resident.duplicateMaxBlock", 1000);
+    private static final int KEY_LENGTH = 6;
+
+    /**
+     * Two residents that may be the same person
+     */
+    public static class Match {
+        private final ResidentModel first;
+        private final ResidentModel second;
+        private final int score;
+
+        Match(ResidentModel first, ResidentModel second, int score) {
+            this.first = first;
+            this.second = second;
+            this.score = score;
+        }
+
+        public ResidentModel getFirst() { return first; }
+        public ResidentModel getSecond() { return second; }
+        public int getScore() { return score; }
+    }
+
+    /** Normalized fields and blocking keys of one resident */
+    private static final class Entry {
+        final ResidentModel resident;
+        final String first;
+        final String middle;
+        final String last;
+        final String suffix;
+        final LocalDate birth;
+        final String contact;
+        final String email;
+        final String[] keys;
+
+        Entry(ResidentModel r) {
+            resident = r;
+            first = firstName(r.getFirstName());
+            middle = ResidentSearchIndex.normalize(r.getMiddleName());
+            last = ResidentSearchIndex.normalize(r.getLastName()).replace(" ", "");
+            suffix = suffixKey(r.getSuffix());
+            birth = r.getBirthDate() != null ? r.getBirthDate().toLocalDate() : null;
+            String digits = r.getContactNo() != null ? r.getContactNo().replaceAll("\\D", "") : "";
+            contact = digits.length() >= 7 ? digits : null;
+            email = r.getEmail() != null && !r.getEmail().trim().isEmpty() ? r.getEmail().trim().toLowerCase() : null;
+
+            String lastSound = phonetic(last);
+            String firstSound = firstSound(first);
+            List<String> k = new ArrayList<>(3);
+            if (!lastSound.isEmpty() && birth != null) k.add("L" + lastSound + "|" + birth.getYear());
+            if (!firstSound.isEmpty() && birth != null) k.add("F" + firstSound + "|" + birth);
+            if (!lastSound.isEmpty() && !firstSound.isEmpty()) k.add("N" + lastSound + "|" + firstSound);
+            keys = k.toArray(new String[0]);
+        }
+
+        // True when both share a scored key that comes before the given one in this entry's list
+        boolean sharesEarlierKey(Entry other, String key, Set<String> scored) {
+            for (String k : keys) {
+                if (k.equals(key)) return false;
+                if (!scored.contains(k)) continue;
+                for (String o : other.keys) {
+                    if (k.equals(o)) return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Every likely duplicate pair among the residents, best score first
+     * @param residents All residents to compare (e.g. ResidentModel.getAll())
+     * @param minScore Lowest score reported
+     */
+    public static List<Match> findAll(Collection<ResidentModel> residents, int minScore) {
+        Map<String, List<Entry>> blocks = new HashMap<>();
+        for (ResidentModel r : residents) {
+            Entry e = new Entry(r);
+            for (String key : e.keys) {
+                blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(e);
+            }
+        }
+        int skipped = 0;
+        List<Map.Entry<String, List<Entry>>> work = new ArrayList<>();
+        Set<String> scored = new HashSet<>();
+        for (Map.Entry<String, List<Entry>> block : blocks.entrySet()) {
+            int size = block.getValue().size();
+            if (size > MAX_BLOCK) {
+                skipped++;
+            } else if (size > 1) {
+                work.add(block);
+                scored.add(block.getKey());
+            }
+        }
+        if (skipped > 0) {
+            util.Logger.logWarning("Duplicate check skipped " + skipped + " blocks larger than " + MAX_BLOCK + " residents");
+        }
+
+        List<Match> matches = work.parallelStream()
+            .flatMap(block -> scoreBlock(block.getKey(), block.getValue(), scored, minScore).stream())
+            .collect(Collectors.toList());
+        matches.sort(Comparator.comparingInt(Match::getScore).reversed()
+            .thenComparingInt(m -> m.getFirst().getResidentId()));
+        return matches;
+    }
+
+    /**
+     * Candidates that the given (usually unsaved) resident may duplicate, best first
+     * @param resident Resident being checked; a candidate with its id is ignored
+     * @param candidates Residents to compare against (already narrowed down, e.g. by birth year)
+     * @param minScore Lowest score reported
+     */
+    public static List<Match> check(ResidentModel resident, Collection<ResidentModel> candidates, int minScore) {
+        Entry entry = new Entry(resident);
+        List<Match> matches = new ArrayList<>();
+        for (ResidentModel c : candidates) {
+            if (c.getResidentId() == resident.getResidentId()) continue;
+            int score = score(entry, new Entry(c), minScore);
+            if (score >= minScore) matches.add(new Match(resident, c, score));
+        }
+        matches.sort(Comparator.comparingInt(Match::getScore).reversed());
+        return matches;
+    }
+
+    /**
+     * Sound of a last name, as used in the blocks ("" if it has no letters)
+     */
+    public static String lastNameSound(String lastName) {
+        return phonetic(ResidentSearchIndex.normalize(lastName).replace(" ", ""));
+    }
+
+    /**
+     * Sound of the first word of a first name, as used in the blocks ("" if it has no letters)
+     */
+    public static String firstNameSound(String firstName) {
+        return firstSound(firstName(firstName));
+    }
+
+    // Scored keys are the blocks being compared; a pair is left to the first of them it shares
+    private static List<Match> scoreBlock(String key, List<Entry> block, Set<String> scored, int minScore) {
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < block.size(); i++) {
+            Entry a = block.get(i);
+            for (int j = i + 1; j < block.size(); j++) {
+                Entry b = block.get(j);
+                if (a.sharesEarlierKey(b, key, scored)) continue;
+                int score = score(a, b, minScore);
+                if (score < minScore) continue;
+                boolean ordered = a.resident.getResidentId() <= b.resident.getResidentId();
+                matches.add(ordered ? new Match(a.resident, b.resident, score) : new Match(b.resident, a.resident, score));
+            }
+        }
+        return matches;
+    }
+
+    private static int score(Entry a, Entry b, int minScore) {
+        boolean middles = !a.middle.isEmpty() && !b.middle.isEmpty();
+        double weight = middles ? 1.0 : 0.90;
+        double bonus = (a.contact != null && a.contact.equals(b.contact)) || (a.email != null && a.email.equals(b.email)) ? 0.1 : 0;
+        // Cheapest parts first; stop once even perfect names could not reach minScore
+        double total = 0.20 * birthSimilarity(a.birth, b.birth) + 0.35 * jaroWinkler(a.last, b.last);
+        if ((total + 0.35 + (middles ? 0.10 : 0)) / weight + bonus < minScore / 100.0) return 0;
+        total += 0.35 * nameSimilarity(a.first, b.first);
+        if (middles) total += 0.10 * middleSimilarity(a.middle, b.middle);
+        double score = total / weight;
+
+        if (a.suffix != null && b.suffix != null && !a.suffix.equals(b.suffix)) score *= 0.85;
+        String genderA = a.resident.getGender();
+        String genderB = b.resident.getGender();
+        if (genderA != null && genderB != null && !genderA.equalsIgnoreCase(genderB)) score *= 0.8;
+        score += bonus;
+        return (int) Math.round(Math.min(1.0, score) * 100);
+    }
+
+    // "Juan Carlos" and "Juan" are close: one name is the start of the other
+    private static double nameSimilarity(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) return 0;
+        if (!a.equals(b) && (a.startsWith(b + " ") || b.startsWith(a + " "))) return 0.92;
+        return jaroWinkler(a.replace(" ", ""), b.replace(" ", ""));
+    }
+
+    private static double middleSimilarity(String a, String b) {
+        String x = a.replace(".", "").replace(" ", "");
+        String y = b.replace(".", "").replace(" ", "");
+        if (x.isEmpty() || y.isEmpty()) return 0.5;
+        if (x.length() == 1 || y.length() == 1) return x.charAt(0) == y.charAt(0) ? 1.0 : 0.0;
+        return jaroWinkler(x, y);
+    }
+
+    private static double birthSimilarity(LocalDate a, LocalDate b) {
+        if (a == null || b == null) return 0.5;
+        if (a.equals(b)) return 1.0;
+        // Day and month swapped, or a one-digit slip in the day or month
+        if (a.getYear() == b.getYear()) {
+            if (a.getMonthValue() == b.getDayOfMonth() && a.getDayOfMonth() == b.getMonthValue()) return 0.8;
+            if (a.getMonthValue() == b.getMonthValue() || a.getDayOfMonth() == b.getDayOfMonth()) return 0.6;
+            return 0.3;
+        }
+        if (a.getMonthValue() == b.getMonthValue() && a.getDayOfMonth() == b.getDayOfMonth()
+                && Math.abs(a.getYear() - b.getYear()) == 1) {
+            return 0.6;
+        }
+        return 0;
+    }
+
+    /**
+     * Jaro-Winkler similarity, 0 (nothing alike) to 1 (equal)
+     */
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) return a.isEmpty() ? 0 : 1;
+        if (a.isEmpty() || b.isEmpty()) return 0;
+        int range = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] matchedA = new boolean[a.length()];
+        boolean[] matchedB = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - range);
+            int to = Math.min(b.length() - 1, i + range);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) return 0;
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (!matchedA[i]) continue;
+            while (!matchedB[j]) j++;
+            if (a.charAt(i) != b.charAt(j)) transpositions++;
+            j++;
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3.0;
+        int prefix = 0;
+        while (prefix < 4 && prefix < a.length() && prefix < b.length() && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    /**
+     * Sound of a (normalized) name: its first letter and the consonants that
+     * follow, with letters that sound alike in Filipino and Spanish names
+     * folded together (c/k/q, s/z/c before e or i, b/v, f/ph, silent h,
+     * repeated letters), at most six characters. "Dela Cruz" and "Delacruz",
+     * "Peña" and "Pena", "Vasquez" and "Basques" share a sound.
+     */
+    static String phonetic(String name) {
+        StringBuilder letters = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'a' && c <= 'z') letters.append(c);
+        }
+        String s = letters.toString();
+        StringBuilder code = new StringBuilder(KEY_LENGTH);
+        char previous = 0;
+        for (int i = 0; i < s.length() && code.length() < KEY_LENGTH; i++) {
+            char c = s.charAt(i);
+            char next = i + 1 < s.length() ? s.charAt(i + 1) : 0;
+            char mapped;
+            switch (c) {
+                case 'a': case 'e': case 'i': case 'o': case 'u': case 'y': case 'w':
+                    mapped = 'a';
+                    break;
+                case 'h':
+                    mapped = 0;
+                    break;
+                case 'c':
+                    mapped = next == 'e' || next == 'i' || next == 'y' ? 's' : 'k';
+                    break;
+                case 'q': case 'k': case 'g':
+                    mapped = 'k';
+                    break;
+                case 'z': case 'x':
+                    mapped = 's';
+                    break;
+                case 'v':
+                    mapped = 'b';
+                    break;
+                case 'p':
+                    mapped = next == 'h' ? 'f' : 'p';
+                    break;
+                case 'j':
+                    mapped = 'h';
+                    break;
+                default:
+                    mapped = c;
+            }
+            if (mapped == 0) continue;
+            if (code.length() == 0) {
+                // The first sound is kept even when it is a vowel
+                code.append(mapped == 'a' ? 'a' : mapped);
+            } else if (mapped != 'a' && mapped != previous) {
+                code.append(mapped);
+            }
+            previous = mapped;
+        }
+        return code.toString();
+    }
+
+    private static String firstSound(String first) {
+        return phonetic(first.isEmpty() ? "" : first.split(" ")[0]);
+    }
+
+    // First name with the common "Ma." abbreviation written out
+    private static String firstName(String value) {
+        String name = ResidentSearchIndex.normalize(value);
+        if (name.equals("ma") || name.equals("ma.") || name.startsWith("ma ") || name.startsWith("ma. ")) {
+            name = "maria" + name.substring(name.startsWith("ma.") ? 3 : 2);
+        }
+        return name.replace(".", "");
+    }
+
+    // "Jr", "Jr." and "junior" are the same suffix; null when there is none
+    private static String suffixKey(String value) {
+        String s = ResidentSearchIndex.normalize(value).replace(".", "");
+        if (s.isEmpty()) return null;
+        if (s.equals("junior")) return "jr";
+        if (s.equals("senior")) return "sr";
+        return s;
+    }
+}
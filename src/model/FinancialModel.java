@@ -0,0 +1,102 @@
+package model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
+import db.DbConnection;
+
+/**
+ * Model class for Financial transaction data operations
+ * Handles read operations for the financial_transactions ledger
+ */
+public class FinancialModel {
+
+    /**
+     * The ledger as the Financial panel browses it, a page at a time
+     * (indexes and FULLTEXT from migration_panel_query_indexes.sql)
+     */
+    public static final QueryTable QUERY = new QueryTable("financial_transactions", "transaction_id",
+            "transaction_id", "transaction_date", "transaction_type", "category", "amount", "description", "payment_method")
+        .filterable("transaction_type", "payment_method", "transaction_date")
+        .sortable("transaction_date", "transaction_type", "category", "amount")
+        .fullText("category", "description")
+        .prefixSearch("category", "payment_method");
+
+    /**
+     * Data class representing a financial transaction
+     */
+    public static class Transaction {
+        private int transactionId;
+        private Timestamp transactionDate;
+        private String transactionType;
+        private String category;
+        private double amount;
+        private String description;
+        private String paymentMethod;
+
+        public Transaction(int transactionId, Timestamp transactionDate, String transactionType,
+                           String category, double amount, String description, String paymentMethod) {
+            this.transactionId = transactionId;
+            this.transactionDate = transactionDate;
+            this.transactionType = transactionType;
+            this.category = category;
+            this.amount = amount;
+            this.description = description;
+            this.paymentMethod = paymentMethod;
+        }
+
+        // Getters
+        public int getTransactionId() { return transactionId; }
+        public Timestamp getTransactionDate() { return transactionDate; }
+        public String getTransactionType() { return transactionType; }
+        public String getCategory() { return category; }
+        public double getAmount() { return amount; }
+        public String getDescription() { return description; }
+        public String getPaymentMethod() { return paymentMethod; }
+    }
+
+    /**
+     * Get all transactions, newest first
+     * @return List of Transaction objects
+     */
+    public static List<Transaction> getAllTransactions() {
+        List<Transaction> transactions = new ArrayList<>();
+
+        try (Connection conn = DbConnection.getConnection()) {
+            String sql = "SELECT transaction_id, transaction_date, transaction_type, category, " +
+                        "amount, description, payment_method " +
+                        "FROM financial_transactions " +
+                        "ORDER BY transaction_date DESC, transaction_id DESC";
+
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                transactions.add(new Transaction(
+                    rs.getInt("transaction_id"),
+                    rs.getTimestamp("transaction_date"),
+                    rs.getString("transaction_type"),
+                    rs.getString("category"),
+                    rs.getDouble("amount"),
+                    rs.getString("description"),
+                    rs.getString("payment_method")
+                ));
+            }
+        } catch (SQLException e) {
+            util.Logger.logError("FinancialModel", "Error loading transactions", e);
+            throw new RuntimeException("Failed to load transactions: " + e.getMessage(), e);
+        }
+
+        return transactions;
+    }
+
+    /**
+     * Load all transactions without blocking the caller
+     * @return Future of getAllTransactions()
+     */
+    public static CompletableFuture<List<Transaction>> getAllTransactionsAsync() {
+        return DataAccessExecutor.supply(FinancialModel::getAllTransactions);
+    }
+}
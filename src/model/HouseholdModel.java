@@ -1,9 +1,11 @@
 package model;
 
+import db.DataAccessExecutor;
 import db.DbConnection;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class HouseholdModel {
     private int householdId;
@@ -14,6 +16,41 @@ public class HouseholdModel {
     private Timestamp createdAt;
     private Timestamp updatedAt;
 
+    // member_count, household_head_id and head_name are maintained from residents
+    // (see migration_household_summary.sql); the head is the earliest-added member
+    /**
+     * Households as the Households panel browses them, a page at a time, from
+     * the maintained summary columns (indexes and FULLTEXT from
+     * migration_household_query_indexes.sql)
+     */
+    public static final QueryTable QUERY = new QueryTable("households", "household_id",
+            "household_id", "family_no", "head_name", "address", "income", "member_count")
+        .filterable("family_no")
+        .sortable("family_no", "head_name", "income", "member_count")
+        .fullText("head_name", "address")
+        .prefixSearch("head_name", "address");
+
+    private static final String LISTING_SQL = "SELECT household_id, family_no, head_name, address, income, member_count FROM households ORDER BY household_id";
+    private static final String LOCK_HOUSEHOLD_SQL = "SELECT household_id FROM households WHERE household_id = ? FOR UPDATE";
+    private static final String MEMBER_SUMMARY_SQL =
+        "SELECT c.member_count, r.resident_id, r.first_name, r.middle_name, r.last_name " +
+        "FROM (SELECT COUNT(*) AS member_count, MIN(resident_id) AS head_id FROM residents WHERE household_id = ?) c " +
+        "LEFT JOIN residents r ON r.resident_id = c.head_id";
+    // updated_at = updated_at keeps summary maintenance from bumping the household's timestamp
+    private static final String UPDATE_SUMMARY_SQL = "UPDATE households SET member_count = ?, household_head_id = ?, head_name = ?, updated_at = updated_at WHERE household_id = ?";
+    private static final String REBUILD_SUMMARY_SQL =
+        "UPDATE households h " +
+        "LEFT JOIN (SELECT household_id, COUNT(*) AS member_count, MIN(resident_id) AS head_id " +
+        "           FROM residents WHERE household_id IS NOT NULL GROUP BY household_id) m " +
+        "       ON m.household_id = h.household_id " +
+        "LEFT JOIN residents r ON r.resident_id = m.head_id " +
+        "SET h.member_count = COALESCE(m.member_count, 0), h.household_head_id = m.head_id, " +
+        "    h.head_name = NULLIF(CONCAT_WS(' ', NULLIF(r.first_name, ''), NULLIF(r.middle_name, ''), NULLIF(r.last_name, '')), ''), " +
+        "    h.updated_at = h.updated_at";
+    private static final String MEMBER_IDS_SQL = "SELECT resident_id FROM residents WHERE household_id = ? FOR UPDATE";
+    private static final String DELETE_MEMBERS_SQL = "DELETE FROM residents WHERE household_id = ?";
+    private static final String DELETE_SQL = "DELETE FROM households WHERE household_id = ?";
+
     public HouseholdModel() {}
 
     public HouseholdModel(int householdId, int familyNo, Integer householdHeadId, String address, double income) {
@@ -27,7 +64,7 @@ public class HouseholdModel {
     public static List<HouseholdModel> getAll() {
         List<HouseholdModel> list = new ArrayList<>();
         String sql = "SELECT household_id, family_no, household_head_id, address, income, created_at, updated_at FROM households ORDER BY family_no";
-        try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 HouseholdModel h = new HouseholdModel();
                 h.setHouseholdId(rs.getInt("household_id"));
@@ -46,17 +83,74 @@ public class HouseholdModel {
         return list;
     }
 
+    /**
+     * Load all households without blocking the caller
+     * @return Future of getAll()
+     */
+    public static CompletableFuture<List<HouseholdModel>> getAllAsync() {
+        return DataAccessExecutor.supply(HouseholdModel::getAll);
+    }
+
+    /**
+     * Row shown in the household listing: household plus head name and member count
+     */
+    public static class Summary {
+        private final int householdId;
+        private final int familyNo;
+        private final String headName;
+        private final String address;
+        private final double income;
+        private final int memberCount;
+
+        public Summary(int householdId, int familyNo, String headName, String address, double income, int memberCount) {
+            this.householdId = householdId;
+            this.familyNo = familyNo;
+            this.headName = headName;
+            this.address = address;
+            this.income = income;
+            this.memberCount = memberCount;
+        }
+
+        public int getHouseholdId() { return householdId; }
+        public int getFamilyNo() { return familyNo; }
+        public String getHeadName() { return headName; }
+        public String getAddress() { return address; }
+        public double getIncome() { return income; }
+        public int getMemberCount() { return memberCount; }
+    }
+
+    /**
+     * Read the whole listing on an existing connection (for
+     * tools.HouseholdListingBenchmark; the panel pages through QUERY). Member count and head come
+     * from the maintained summary columns, so this is one scan of households.
+     */
+    public static List<Summary> getSummaries(Connection conn) throws SQLException {
+        List<Summary> list = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(LISTING_SQL); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(new Summary(
+                    rs.getInt("household_id"),
+                    rs.getInt("family_no"),
+                    rs.getString("head_name"),
+                    rs.getString("address"),
+                    rs.getDouble("income"),
+                    rs.getInt("member_count")
+                ));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Insert the household. Head and member count start empty and are filled
+     * in as residents are added.
+     */
     public boolean create() {
-        String sql = "INSERT INTO households (family_no, household_head_id, address, income) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO households (family_no, address, income) VALUES (?, ?, ?)";
         try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, this.familyNo);
-            if (this.householdHeadId == null) {
-                ps.setNull(2, Types.INTEGER);
-            } else {
-                ps.setInt(2, this.householdHeadId);
-            }
-            ps.setString(3, this.address);
-            ps.setDouble(4, this.income);
+            ps.setString(2, this.address);
+            ps.setDouble(3, this.income);
             int rows = ps.executeUpdate();
             if (rows > 0) {
                 try (ResultSet rs = ps.getGeneratedKeys()) {
@@ -70,18 +164,16 @@ public class HouseholdModel {
         return false;
     }
 
+    /**
+     * Update the household's own fields. The head is derived from its members.
+     */
     public boolean update() {
-        String sql = "UPDATE households SET family_no=?, household_head_id=?, address=?, income=? WHERE household_id=?";
+        String sql = "UPDATE households SET family_no=?, address=?, income=? WHERE household_id=?";
         try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, this.familyNo);
-            if (this.householdHeadId == null) {
-                ps.setNull(2, Types.INTEGER);
-            } else {
-                ps.setInt(2, this.householdHeadId);
-            }
-            ps.setString(3, this.address);
-            ps.setDouble(4, this.income);
-            ps.setInt(5, this.householdId);
+            ps.setString(2, this.address);
+            ps.setDouble(3, this.income);
+            ps.setInt(4, this.householdId);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -90,8 +182,7 @@ public class HouseholdModel {
     }
 
     public boolean delete() {
-        String sql = "DELETE FROM households WHERE household_id=?";
-        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
             ps.setInt(1, this.householdId);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -100,6 +191,143 @@ public class HouseholdModel {
         return false;
     }
 
+    /**
+     * Delete a household together with all of its members in one transaction
+     * @param householdId Household to remove
+     * @return Number of member residents deleted
+     * @throws SQLException if either delete fails (nothing is removed)
+     */
+    public static int deleteWithMembers(int householdId) throws SQLException {
+        try (Connection conn = DbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Household row first, in the same order ResidentModel takes its locks
+                if (lockHouseholds(conn, householdId).isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+                // Member ids, so the in-memory resident indexes can drop them after the commit
+                List<Integer> memberIds = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(MEMBER_IDS_SQL)) {
+                    ps.setInt(1, householdId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) memberIds.add(rs.getInt(1));
+                    }
+                }
+                int membersDeleted;
+                try (PreparedStatement ps = conn.prepareStatement(DELETE_MEMBERS_SQL)) {
+                    ps.setInt(1, householdId);
+                    membersDeleted = ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+                    ps.setInt(1, householdId);
+                    ps.executeUpdate();
+                }
+                conn.commit();
+                for (int id : memberIds) {
+                    ResidentSearchIndex.getInstance().remove(id);
+                    AgeBracketIndex.getInstance().remove(id);
+                }
+                return membersDeleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Row-lock the given households (in id order, so concurrent edits cannot
+     * deadlock). Call before touching their residents so a later
+     * refreshSummaries does not have to upgrade a foreign-key share lock.
+     * @return The ids that still exist
+     */
+    static java.util.SortedSet<Integer> lockHouseholds(Connection conn, Integer... householdIds) throws SQLException {
+        java.util.SortedSet<Integer> ids = new java.util.TreeSet<>();
+        for (Integer id : householdIds) {
+            if (id != null) ids.add(id);
+        }
+        java.util.Iterator<Integer> it = ids.iterator();
+        while (it.hasNext()) {
+            try (PreparedStatement lock = conn.prepareStatement(LOCK_HOUSEHOLD_SQL)) {
+                lock.setInt(1, it.next());
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next()) it.remove(); // household is gone, nothing to maintain
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Recompute member_count and head for the given households. Must run in
+     * the same transaction as the resident change that made them stale.
+     * @param conn Connection with an open transaction
+     * @param householdIds Affected households (nulls and duplicates ignored)
+     */
+    static void refreshSummaries(Connection conn, Integer... householdIds) throws SQLException {
+        for (int id : lockHouseholds(conn, householdIds)) {
+            int memberCount = 0;
+            Integer headId = null;
+            String headName = null;
+            try (PreparedStatement ps = conn.prepareStatement(MEMBER_SUMMARY_SQL)) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        memberCount = rs.getInt("member_count");
+                        int rid = rs.getInt("resident_id");
+                        if (!rs.wasNull()) {
+                            headId = rid;
+                            headName = joinName(rs.getString("first_name"), rs.getString("middle_name"), rs.getString("last_name"));
+                        }
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_SUMMARY_SQL)) {
+                ps.setInt(1, memberCount);
+                if (headId == null) {
+                    ps.setNull(2, Types.INTEGER);
+                } else {
+                    ps.setInt(2, headId);
+                }
+                ps.setString(3, headName);
+                ps.setInt(4, id);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Recompute the summary columns of every household from residents
+     * @return Number of household rows touched
+     * @throws SQLException if the rebuild fails
+     */
+    public static int rebuildSummaries() throws SQLException {
+        try (Connection conn = DbConnection.getConnection()) {
+            return rebuildSummaries(conn);
+        }
+    }
+
+    /**
+     * Rebuild on an existing connection (one set-based UPDATE, no per-row subqueries)
+     */
+    public static int rebuildSummaries(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(REBUILD_SUMMARY_SQL)) {
+            return ps.executeUpdate();
+        }
+    }
+
+    private static String joinName(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (part == null || part.trim().isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(part.trim());
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
     // Getters and Setters
     public int getHouseholdId() { return householdId; }
     public void setHouseholdId(int householdId) { this.householdId = householdId; }
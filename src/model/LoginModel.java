@@ -3,14 +3,33 @@ package model;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.sql.*;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import crypto.PasswordHashing;
 import db.DbConnection;
+import db.SchemaMetadata;
 
-public class LoginModel {
+public class LoginModel implements AutoCloseable {
+
+    // Target time for one password hash; calibrate() picks the iteration count for it
+    private static final long HASH_TARGET_MS = Long.getLong("password.targetMs", 250L);
+
+    // Password hashing is CPU-bound: one worker per core, kept off the EDT and the DB pool
+    private static final AtomicInteger AUTH_THREADS = new AtomicInteger();
+    private static final ExecutorService AUTH_POOL = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread t = new Thread(r, "auth-worker-" + AUTH_THREADS.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
 
     private Connection connection;
+    // Only connections borrowed by this model are returned to the pool on close()
+    private final boolean ownsConnection;
+    private LoginThrottle.ThrottledException refusal;
 
     public LoginModel() {
         try {
@@ -20,51 +39,102 @@ public class LoginModel {
             e.printStackTrace();
             this.connection = null;
         }
+        this.ownsConnection = true;
     }
 
     public LoginModel(Connection connection) {
         this.connection = connection;
+        this.ownsConnection = false;
     }
 
-    // Helper: get set of column names for users table in current catalog
-    private Set<String> getUsersTableColumns() throws SQLException {
-        Set<String> cols = new HashSet<>();
-        String catalog = safeGetCatalog(connection);
-        String sql = "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'users'";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, catalog);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    cols.add(rs.getString(1));
-                }
+    /**
+     * Return the borrowed connection to the pool
+     */
+    @Override
+    public void close() {
+        if (ownsConnection && connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
+            connection = null;
         }
-        return cols;
     }
 
-    // Helper: return first existing candidate column name or null
-    private String firstExistingColumnName(Set<String> existingCols, String... candidates) {
-        for (String c : candidates) {
-            if (existingCols.contains(c)) return c;
-        }
-        return null;
+    /**
+     * Pick the password hash cost for this machine in the background.
+     * Call once at startup; logins before it finishes use the default cost.
+     */
+    public static void calibrateAsync() {
+        AUTH_POOL.execute(() -> {
+            int iterations = PasswordHashing.calibrate(HASH_TARGET_MS);
+            util.Logger.logInfo(String.format("Password hashing calibrated to %,d iterations (~%d ms)", iterations, HASH_TARGET_MS));
+        });
+    }
+
+    /**
+     * Run a task on the authentication workers
+     */
+    public static <T> CompletableFuture<T> supplyAsync(java.util.concurrent.Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, AUTH_POOL);
+    }
+
+    /**
+     * Check credentials on the authentication workers
+     * @return Future of the signed-in user, or null if the credentials were rejected;
+     *         fails with LoginThrottle.ThrottledException when the attempt was throttled
+     */
+    public static CompletableFuture<User> loginAsync(String usernameOrEmail, String password) {
+        return supplyAsync(() -> {
+            try (LoginModel loginModel = new LoginModel()) {
+                if (!loginModel.hasConnection()) {
+                    throw new SQLException("Cannot connect to database");
+                }
+                if (!loginModel.login(usernameOrEmail, password)) {
+                    if (loginModel.getRefusal() != null) throw loginModel.getRefusal();
+                    return null;
+                }
+            }
+            User user = new UserModel().getUserByUsernameOrEmail(usernameOrEmail);
+            // Compile role permissions here so the dashboard's checks need no queries
+            try {
+                Permissions.preload();
+            } catch (RuntimeException e) {
+                // Already logged; each role is then loaded on its first check
+            }
+            return user;
+        });
     }
 
     public boolean login(String usernameOrEmail, String password) {
+        refusal = null;
         if (connection == null) {
             System.err.println("[ERROR] No database connection.");
             return false;
         }
 
-        try {
-            Set<String> cols = getUsersTableColumns();
+        LoginThrottle throttle = LoginThrottle.getInstance();
+        LoginThrottle.Decision decision = throttle.tryAcquire(usernameOrEmail, getLocalIpAddress());
+        if (!decision.isAllowed()) {
+            refusal = new LoginThrottle.ThrottledException("Too many login attempts", decision.getRetryAfterMillis());
+            util.Logger.logWarning("Login throttled for " + usernameOrEmail + ", retry in " + decision.getRetryAfterMillis() + " ms");
+            return false;
+        }
 
-            // Prefer these names in order
-            String hashedCol = firstExistingColumnName(cols, "hashed_password", "password_hash", "passwordHash", "password");
-            String saltCol = firstExistingColumnName(cols, "salt", "password_salt", "passwordSalt");
+        try {
+            SchemaMetadata.UserColumns cols = SchemaMetadata.usersColumns(connection);
+            String hashedCol = cols.getHashColumn();
+            String saltCol = cols.getSaltColumn();
 
-            if (hashedCol == null || saltCol == null) {
-                System.err.println("[ERROR] Required password columns not found in users table. Found: " + cols);
+            if (!cols.hasPasswordColumns()) {
+                System.err.println("[ERROR] Required password columns not found in users table. Found: " + cols.getColumns());
                 return false;
             }
 
@@ -78,6 +148,8 @@ public class LoginModel {
 
                 if (!rs.next()) {
                     System.err.println("[ERROR] No user found for: " + usernameOrEmail);
+                    // Counts too, so guessing account names is throttled like guessing passwords
+                    throttle.recordFailure(usernameOrEmail);
                     return false;
                 }
 
@@ -101,9 +173,24 @@ public class LoginModel {
                     return false;
                 }
 
-                boolean ok = PasswordHashing.verifyPassword(password, storedSalt, storedHash);
+                if (!throttle.acquireHashSlot()) {
+                    refusal = new LoginThrottle.ThrottledException("Too many logins in progress", 1000);
+                    util.Logger.logWarning("Login for " + usernameOrEmail + " refused: all hash slots busy");
+                    return false;
+                }
+                boolean ok;
+                try {
+                    ok = PasswordHashing.verifyPassword(password, storedSalt, storedHash);
+                    if (ok && PasswordHashing.needsRehash(storedHash)) {
+                        upgradeHash(userId, hashedCol, saltCol, password);
+                    }
+                } finally {
+                    throttle.releaseHashSlot();
+                }
 
                 if (ok) {
+                    throttle.recordSuccess(usernameOrEmail);
+
                     // (Optional session logic)
                     UserModel um = new UserModel();
                     um.logUserActivity(userId, "User logged in", getLocalIpAddress());
@@ -111,16 +198,19 @@ public class LoginModel {
                     return true;
                 } else {
                     System.err.println("[ERROR] Incorrect password.");
+                    throttle.recordFailure(usernameOrEmail);
                     return false;
                 }
 
             } catch (SQLSyntaxErrorException se) {
+                SchemaMetadata.invalidateOn(connection, se);
                 System.err.println("[SQL ERROR] Syntax error during user lookup. Catalog: " + safeGetCatalog(connection));
                 se.printStackTrace();
                 return false;
             }
 
         } catch (SQLException e) {
+            SchemaMetadata.invalidateOn(connection, e);
             System.err.println("[SQL ERROR] During login:");
             e.printStackTrace();
             return false;
@@ -128,6 +218,31 @@ public class LoginModel {
             System.err.println("[PBKDF2 ERROR] Failed to verify password:");
             e.printStackTrace();
             return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Why the last login() call was refused without checking the password,
+     * or null if it was not throttled
+     */
+    public LoginThrottle.ThrottledException getRefusal() {
+        return refusal;
+    }
+
+    // Re-hash at the current cost after a successful login; failure only means it is retried next time
+    private void upgradeHash(String userId, String hashedCol, String saltCol, String password) {
+        String sql = "UPDATE users SET " + hashedCol + " = ?, " + saltCol + " = ? WHERE user_id = ?";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            String salt = PasswordHashing.generateSalt();
+            ps.setString(1, PasswordHashing.hashPassword(password, salt));
+            ps.setString(2, salt);
+            ps.setString(3, userId);
+            ps.executeUpdate();
+        } catch (SQLException | NoSuchAlgorithmException | InvalidKeySpecException e) {
+            util.Logger.logError("Upgrading password hash for user " + userId, e);
         }
     }
 
@@ -161,13 +276,12 @@ public class LoginModel {
         if (connection == null) return false;
 
         try {
-            Set<String> cols = getUsersTableColumns();
-            String hashedCol = firstExistingColumnName(cols, "hashed_password", "password_hash", "passwordHash", "password");
-            String saltCol = firstExistingColumnName(cols, "salt", "password_salt", "passwordSalt");
-
-            if (hashedCol == null || saltCol == null) {
+            SchemaMetadata.UserColumns cols = SchemaMetadata.usersColumns(connection);
+            if (!cols.hasPasswordColumns()) {
                 return false;
             }
+            String hashedCol = cols.getHashColumn();
+            String saltCol = cols.getSaltColumn();
 
             String sql = "SELECT " + hashedCol + " AS hashed_password, " + saltCol + " AS salt FROM users WHERE username = ? OR email = ?";
 
@@ -184,6 +298,7 @@ public class LoginModel {
                 }
             }
         } catch (SQLException e) {
+            SchemaMetadata.invalidateOn(connection, e);
             e.printStackTrace();
         }
         return false;
@@ -195,14 +310,13 @@ public class LoginModel {
         if (connection == null) return false;
 
         try {
-            Set<String> cols = getUsersTableColumns();
-            String hashedCol = firstExistingColumnName(cols, "hashed_password", "password_hash", "passwordHash", "password");
-            String saltCol = firstExistingColumnName(cols, "salt", "password_salt", "passwordSalt");
-
-            if (hashedCol == null || saltCol == null) {
-                System.err.println("[ERROR] Required password columns not found for update. Columns found: " + cols);
+            SchemaMetadata.UserColumns cols = SchemaMetadata.usersColumns(connection);
+            if (!cols.hasPasswordColumns()) {
+                System.err.println("[ERROR] Required password columns not found for update. Columns found: " + cols.getColumns());
                 return false;
             }
+            String hashedCol = cols.getHashColumn();
+            String saltCol = cols.getSaltColumn();
 
             String sqlSelect = "SELECT user_id FROM users WHERE username = ? OR email = ?";
 
@@ -217,17 +331,9 @@ public class LoginModel {
                     String salt = PasswordHashing.generateSalt();
                     String hash = PasswordHashing.hashPassword(newPassword, salt);
 
-                    // Build update to set whichever columns exist (set both if both exist)
-                    StringBuilder updateSql = new StringBuilder("UPDATE users SET ");
-                    boolean first = true;
-                    if (cols.contains("hashed_password") || cols.contains("password_hash") || cols.contains("passwordHash") || cols.contains("password")) {
-                        updateSql.append(hashedCol + " = ?");
-                        first = false;
-                    }
-                    if (!first) updateSql.append(", ");
-                    updateSql.append(saltCol + " = ? WHERE user_id = ?");
+                    String updateSql = "UPDATE users SET " + hashedCol + " = ?, " + saltCol + " = ? WHERE user_id = ?";
 
-                    try (PreparedStatement pu = connection.prepareStatement(updateSql.toString())) {
+                    try (PreparedStatement pu = connection.prepareStatement(updateSql)) {
                         pu.setString(1, hash);
                         pu.setString(2, salt);
                         pu.setString(3, userId);
@@ -241,6 +347,7 @@ public class LoginModel {
                 }
             }
         } catch (SQLException e) {
+            SchemaMetadata.invalidateOn(connection, e);
             System.err.println("[ERROR] Failed to update password:");
             e.printStackTrace();
         }
@@ -0,0 +1,271 @@
+package model;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limiting in front of the password check, so repeated or scripted
+ * attempts cannot keep every core busy with PBKDF2.
+ *
+ * Every attempt takes a token from a bucket for the account and one for the
+ * source address. After login.freeFailures failed attempts on an account it
+ * is refused for a delay that doubles with each further failure, up to
+ * login.maxDelayMs; a successful login clears it. The buckets are immutable
+ * states swapped with compareAndSet, so checking one never takes a lock.
+ * Separately, at most one hash per core runs at a time; an attempt that
+ * cannot get a slot within login.hashWaitMs is rejected as busy.
+ */
+public class LoginThrottle {
+
+    private static final int ACCOUNT_BURST = Integer.getInteger("login.accountBurst", 5);
+    private static final int ACCOUNT_PER_MINUTE = Integer.getInteger("login.accountPerMinute", 5);
+    private static final int SOURCE_BURST = Integer.getInteger("login.sourceBurst", 20);
+    private static final int SOURCE_PER_MINUTE = Integer.getInteger("login.sourcePerMinute", 30);
+    private static final int FREE_FAILURES = Integer.getInteger("login.freeFailures", 3);
+    private static final long BASE_DELAY_MS = Long.getLong("login.baseDelayMs", 1000L);
+    private static final long MAX_DELAY_MS = Long.getLong("login.maxDelayMs", 15 * 60_000L);
+    private static final long HASH_WAIT_MS = Long.getLong("login.hashWaitMs", 2000L);
+    private static final int HASH_SLOTS = Integer.getInteger("login.hashSlots",
+        Runtime.getRuntime().availableProcessors());
+    // Idle, fully refilled buckets are swept once the maps grow past this
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private static final LoginThrottle INSTANCE = new LoginThrottle();
+
+    public static LoginThrottle getInstance() {
+        return INSTANCE;
+    }
+
+    private final Map<String, AtomicReference<Bucket>> accounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicReference<Bucket>> sources = new ConcurrentHashMap<>();
+    private final Semaphore hashSlots = new Semaphore(HASH_SLOTS);
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private LoginThrottle() {}
+
+    /**
+     * Token bucket plus failure backoff; never modified, replaced as a whole
+     */
+    private static final class Bucket {
+        final double tokens;
+        final long refilledAt;     // nanoTime
+        final int failures;
+        final long blockedUntil;   // nanoTime, 0 when not blocked
+
+        Bucket(double tokens, long refilledAt, int failures, long blockedUntil) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+            this.failures = failures;
+            this.blockedUntil = blockedUntil;
+        }
+
+        Bucket refill(long now, int burst, int perMinute) {
+            double added = Math.max(0, now - refilledAt) * perMinute / 60e9;
+            return new Bucket(Math.min(burst, tokens + added), now, failures, blockedUntil);
+        }
+
+        boolean idle(long now, int burst, int perMinute) {
+            return failures == 0 && refill(now, burst, perMinute).tokens >= burst;
+        }
+    }
+
+    /**
+     * Result of asking to attempt a login
+     */
+    public static class Decision {
+        private static final Decision ALLOWED = new Decision(0);
+        private final long retryAfterMillis;
+
+        private Decision(long retryAfterMillis) {
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public boolean isAllowed() { return retryAfterMillis == 0; }
+        /** How long to wait before trying again (0 when allowed) */
+        public long getRetryAfterMillis() { return retryAfterMillis; }
+    }
+
+    /**
+     * Thrown by LoginModel.loginAsync when an attempt was refused before the
+     * password was checked
+     */
+    public static class ThrottledException extends Exception {
+        private final long retryAfterMillis;
+
+        public ThrottledException(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() { return retryAfterMillis; }
+    }
+
+    /**
+     * Counters since startup
+     */
+    public static class Stats {
+        private final long allowed;
+        private final long throttled;
+        private final long rejected;
+        private final long failures;
+        private final int hashesRunning;
+        private final int trackedAccounts;
+
+        Stats(long allowed, long throttled, long rejected, long failures, int hashesRunning, int trackedAccounts) {
+            this.allowed = allowed;
+            this.throttled = throttled;
+            this.rejected = rejected;
+            this.failures = failures;
+            this.hashesRunning = hashesRunning;
+            this.trackedAccounts = trackedAccounts;
+        }
+
+        public long getAllowed() { return allowed; }
+        /** Attempts refused by a bucket or a failure delay */
+        public long getThrottled() { return throttled; }
+        /** Attempts refused because every hash slot stayed busy */
+        public long getRejected() { return rejected; }
+        public long getFailures() { return failures; }
+        public int getHashesRunning() { return hashesRunning; }
+        public int getTrackedAccounts() { return trackedAccounts; }
+
+        @Override
+        public String toString() {
+            return String.format("allowed=%d throttled=%d rejected=%d failures=%d hashing=%d accounts=%d",
+                allowed, throttled, rejected, failures, hashesRunning, trackedAccounts);
+        }
+    }
+
+    /**
+     * Take a token for the account and the source, unless either is out of
+     * tokens or the account is in a failure delay. Nothing is taken when the
+     * attempt is refused, so a throttled source cannot drain the account.
+     */
+    public Decision tryAcquire(String account, String source) {
+        long now = System.nanoTime();
+        String accountKey = normalize(account);
+        String sourceKey = normalize(source);
+        sweepIfLarge(now);
+
+        long wait = take(accounts, accountKey, now, ACCOUNT_BURST, ACCOUNT_PER_MINUTE);
+        if (wait == 0) {
+            wait = take(sources, sourceKey, now, SOURCE_BURST, SOURCE_PER_MINUTE);
+            if (wait > 0) {
+                refund(accounts, accountKey, ACCOUNT_BURST);
+            }
+        }
+        if (wait > 0) {
+            throttled.increment();
+            return new Decision(wait);
+        }
+        allowed.increment();
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Count a failed attempt; past FREE_FAILURES the account is refused for
+     * BASE_DELAY_MS, doubling with each further failure
+     */
+    public void recordFailure(String account) {
+        failures.increment();
+        AtomicReference<Bucket> ref = bucket(accounts, normalize(account), System.nanoTime(), ACCOUNT_BURST);
+        while (true) {
+            Bucket b = ref.get();
+            long now = System.nanoTime();
+            int failed = b.failures + 1;
+            long blockedUntil = b.blockedUntil;
+            if (failed > FREE_FAILURES) {
+                int doublings = Math.min(30, failed - FREE_FAILURES - 1);
+                long delayMs = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << doublings);
+                blockedUntil = now + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            }
+            if (ref.compareAndSet(b, new Bucket(b.tokens, b.refilledAt, failed, blockedUntil))) return;
+        }
+    }
+
+    /**
+     * Clear the account's failures and delay after a successful login
+     */
+    public void recordSuccess(String account) {
+        AtomicReference<Bucket> ref = accounts.get(normalize(account));
+        if (ref == null) return;
+        while (true) {
+            Bucket b = ref.get();
+            if (ref.compareAndSet(b, new Bucket(b.tokens, b.refilledAt, 0, 0))) return;
+        }
+    }
+
+    /**
+     * Wait up to login.hashWaitMs for a hash slot
+     * @return false if none freed up (the attempt should be refused as busy)
+     */
+    public boolean acquireHashSlot() throws InterruptedException {
+        if (hashSlots.tryAcquire(HASH_WAIT_MS, TimeUnit.MILLISECONDS)) return true;
+        rejected.increment();
+        return false;
+    }
+
+    public void releaseHashSlot() {
+        hashSlots.release();
+    }
+
+    public Stats getStats() {
+        return new Stats(allowed.sum(), throttled.sum(), rejected.sum(), failures.sum(),
+            HASH_SLOTS - hashSlots.availablePermits(), accounts.size());
+    }
+
+    // Milliseconds to wait, or 0 once a token was taken
+    private long take(Map<String, AtomicReference<Bucket>> map, String key, long now, int burst, int perMinute) {
+        AtomicReference<Bucket> ref = bucket(map, key, now, burst);
+        while (true) {
+            Bucket b = ref.get();
+            if (b.blockedUntil != 0 && b.blockedUntil - now > 0) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(b.blockedUntil - now));
+            }
+            Bucket refilled = b.refill(now, burst, perMinute);
+            if (refilled.tokens < 1) {
+                double missing = 1 - refilled.tokens;
+                return Math.max(1, (long) Math.ceil(missing * 60_000 / perMinute));
+            }
+            Bucket next = new Bucket(refilled.tokens - 1, now, b.failures, b.blockedUntil);
+            if (ref.compareAndSet(b, next)) return 0;
+        }
+    }
+
+    // Give back a token taken for an attempt that was then refused
+    private static void refund(Map<String, AtomicReference<Bucket>> map, String key, int burst) {
+        AtomicReference<Bucket> ref = map.get(key);
+        if (ref == null) return;
+        while (true) {
+            Bucket b = ref.get();
+            Bucket next = new Bucket(Math.min(burst, b.tokens + 1), b.refilledAt, b.failures, b.blockedUntil);
+            if (ref.compareAndSet(b, next)) return;
+        }
+    }
+
+    private static AtomicReference<Bucket> bucket(Map<String, AtomicReference<Bucket>> map, String key, long now, int burst) {
+        return map.computeIfAbsent(key, k -> new AtomicReference<>(new Bucket(burst, now, 0, 0)));
+    }
+
+    private void sweepIfLarge(long now) {
+        if (accounts.size() > SWEEP_THRESHOLD) {
+            accounts.values().removeIf(ref -> ref.get().idle(now, ACCOUNT_BURST, ACCOUNT_PER_MINUTE));
+        }
+        if (sources.size() > SWEEP_THRESHOLD) {
+            sources.values().removeIf(ref -> ref.get().idle(now, SOURCE_BURST, SOURCE_PER_MINUTE));
+        }
+    }
+
+    private static String normalize(String key) {
+        return key == null ? "" : key.trim().toLowerCase(Locale.ROOT);
+    }
+}
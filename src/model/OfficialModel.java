@@ -3,6 +3,8 @@ package model;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import db.DbConnection;
 
 /**
@@ -52,8 +54,8 @@ public class OfficialModel {
             String sql = "SELECT id, position_title, full_name, image_path, display_order, is_active " +
                         "FROM barangay_officials ORDER BY display_order";
             
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
                 officials.add(new Official(
@@ -72,6 +74,14 @@ public class OfficialModel {
         
         return officials;
     }
+
+    /**
+     * Load all officials without blocking the caller
+     * @return Future of getAllOfficials()
+     */
+    public static CompletableFuture<List<Official>> getAllOfficialsAsync() {
+        return DataAccessExecutor.supply(OfficialModel::getAllOfficials);
+    }
     
     /**
      * Get official by ID
@@ -0,0 +1,62 @@
+package model;
+
+import java.util.EnumSet;
+import java.util.Locale;
+
+/**
+ * Things a role may be allowed to do. A role's permissions column lists
+ * them by key ("residents.delete") or by name (DELETE_RESIDENT), separated
+ * by commas or spaces; "residents.*" grants every permission of one
+ * area, and "*" on its own (the whole value) grants everything. See
+ * Permissions for how they are checked.
+ */
+public enum Permission {
+    VIEW_RESIDENTS("residents.view"),
+    EDIT_RESIDENT("residents.edit"),
+    DELETE_RESIDENT("residents.delete"),
+    VIEW_HOUSEHOLDS("households.view"),
+    EDIT_HOUSEHOLD("households.edit"),
+    DELETE_HOUSEHOLD("households.delete"),
+    VIEW_PROJECTS("projects.view"),
+    EDIT_PROJECTS("projects.edit"),
+    VIEW_FINANCIAL("financial.view"),
+    EDIT_FINANCIAL("financial.edit"),
+    VIEW_OFFICIALS("officials.view"),
+    VIEW_BLOTTER("blotter.view"),
+    MANAGE_USERS("users.manage"),
+    MANAGE_ROLES("roles.manage"),
+    VIEW_ACTIVITY_LOG("logs.view"),
+    EXPORT_DATA("data.export");
+
+    private final String key;
+
+    Permission(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /** Bit of this permission in a compiled role mask */
+    long bit() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Permissions named by one token of a permissions string ("*" is only
+     * accepted as the whole value, see Permissions.compile)
+     * @return Empty set if the token is not recognised
+     */
+    static EnumSet<Permission> match(String token) {
+        String t = token.trim().toLowerCase(Locale.ROOT);
+        EnumSet<Permission> matched = EnumSet.noneOf(Permission.class);
+        String area = t.endsWith(".*") ? t.substring(0, t.length() - 1) : null;
+        for (Permission p : values()) {
+            if (area != null ? p.key.startsWith(area) : p.key.equals(t) || p.name().equalsIgnoreCase(t)) {
+                matched.add(p);
+            }
+        }
+        return matched;
+    }
+}
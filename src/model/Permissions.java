@@ -0,0 +1,154 @@
+package model;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Permission checks against each role's permissions column, compiled once
+ * into a 64-bit mask (one bit per Permission) and cached by role ID, so a
+ * check is a map lookup and a bit test with no query.
+ *
+ * A role whose permissions column is empty, or holds no recognised token
+ * (the free-form text the column held before it was evaluated), falls back
+ * to the access it had before: Administrator (1) everything, Staff (2)
+ * residents, projects and financial records but not household changes or
+ * administration, any other role nothing.
+ *
+ * The cache is filled on first use or by preload(); whoever changes a role
+ * (RoleModel, RolesPanel) calls invalidate(). Checks for the user of the
+ * current session use the mask cached on that Session.
+ */
+public class Permissions {
+
+    private static final String ADMIN_ROLE = "1";
+    private static final String STAFF_ROLE = "2";
+    private static final long ALL = mask(EnumSet.allOf(Permission.class));
+    private static final long STAFF_DEFAULT = mask(EnumSet.of(
+        Permission.VIEW_RESIDENTS, Permission.EDIT_RESIDENT, Permission.DELETE_RESIDENT,
+        Permission.VIEW_HOUSEHOLDS,
+        Permission.VIEW_PROJECTS, Permission.EDIT_PROJECTS,
+        Permission.VIEW_FINANCIAL, Permission.EDIT_FINANCIAL,
+        Permission.EXPORT_DATA));
+
+    // role_id -> compiled mask
+    private static final Map<String, Long> MASKS = new ConcurrentHashMap<>();
+
+    private Permissions() {}
+
+    /**
+     * True if the user's role grants the permission (false for no user)
+     */
+    public static boolean hasPermission(User user, Permission permission) {
+        if (user == null) return false;
+        SessionManager.Session session = SessionManager.getInstance().currentSession();
+        if (session != null && session.getUser() == user) {
+            return session.hasPermission(permission);
+        }
+        return (maskOf(user.getRoleId()) & permission.bit()) != 0;
+    }
+
+    /**
+     * True if the user's role grants at least one of the permissions
+     */
+    public static boolean hasAny(User user, Permission... permissions) {
+        for (Permission p : permissions) {
+            if (hasPermission(user, p)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Permissions granted to a role
+     */
+    public static EnumSet<Permission> forRole(String roleId) {
+        long mask = maskOf(roleId);
+        EnumSet<Permission> granted = EnumSet.noneOf(Permission.class);
+        for (Permission p : Permission.values()) {
+            if ((mask & p.bit()) != 0) granted.add(p);
+        }
+        return granted;
+    }
+
+    /**
+     * Compile every role with one query (call off the EDT, e.g. right after login)
+     */
+    public static void preload() {
+        for (RoleModel.Role role : RoleModel.getAllRoles()) {
+            MASKS.put(role.getRoleId(), compile(role.getRoleId(), role.getPermissions()));
+        }
+    }
+
+    /**
+     * Drop a role's compiled mask; the next check reloads it
+     */
+    public static void invalidate(String roleId) {
+        if (roleId == null) return;
+        MASKS.remove(roleId);
+        SessionManager.getInstance().invalidatePermissions(roleId);
+    }
+
+    /**
+     * Drop every compiled mask (roles added or removed)
+     */
+    public static void invalidateAll() {
+        MASKS.clear();
+        SessionManager.getInstance().invalidatePermissions(null);
+    }
+
+    /**
+     * Parse a permissions string; unknown tokens are logged and ignored.
+     * With no recognised token at all the role keeps its legacy default.
+     */
+    static long compile(String roleId, String permissions) {
+        if (permissions == null || permissions.trim().isEmpty()) {
+            return legacyDefault(roleId);
+        }
+        if (permissions.trim().equals("*")) {
+            return ALL;
+        }
+        long mask = 0L;
+        boolean recognised = false;
+        for (String token : permissions.split("[,;\\s]+")) {
+            if (token.isEmpty()) continue;
+            EnumSet<Permission> matched = Permission.match(token);
+            if (matched.isEmpty()) {
+                util.Logger.logWarning("Role " + roleId + ": unknown permission '" + token + "' ignored");
+            } else {
+                recognised = true;
+            }
+            mask |= mask(matched);
+        }
+        if (!recognised) {
+            util.Logger.logWarning("Role " + roleId + ": no recognised permission, using the default access");
+            return legacyDefault(roleId);
+        }
+        return mask;
+    }
+
+    private static long legacyDefault(String roleId) {
+        return ADMIN_ROLE.equals(roleId) ? ALL : STAFF_ROLE.equals(roleId) ? STAFF_DEFAULT : 0L;
+    }
+
+    static long maskOf(String roleId) {
+        if (roleId == null) return 0L;
+        Long mask = MASKS.get(roleId);
+        if (mask != null) return mask;
+        RoleModel.Role role = RoleModel.getRoleById(roleId);
+        if (role == null) {
+            // Missing role or lookup failed: use the default without caching it
+            return compile(roleId, null);
+        }
+        long compiled = compile(roleId, role.getPermissions());
+        MASKS.put(roleId, compiled);
+        return compiled;
+    }
+
+    private static long mask(EnumSet<Permission> permissions) {
+        long mask = 0L;
+        for (Permission p : permissions) {
+            mask |= p.bit();
+        }
+        return mask;
+    }
+}
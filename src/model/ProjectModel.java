@@ -0,0 +1,21 @@
+package model;
+
+/**
+ * Model class for barangay projects (the barangay_projects table).
+ * The Projects panel edits rows with its own statements; browsing goes
+ * through QUERY.
+ */
+public class ProjectModel {
+
+    /**
+     * Projects as the Projects panel browses them, a page at a time
+     * (indexes and FULLTEXT from migration_panel_query_indexes.sql)
+     */
+    public static final QueryTable QUERY = new QueryTable("barangay_projects", "project_id",
+            "project_id", "project_name", "project_status", "start_date", "end_date", "proponent",
+            "total_budget", "progress_percentage")
+        .filterable("project_status")
+        .sortable("project_name", "project_status", "start_date", "end_date")
+        .fullText("project_name", "proponent")
+        .prefixSearch("project_name", "proponent");
+}
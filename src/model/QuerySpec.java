@@ -0,0 +1,136 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a panel wants to see from a table: search text, field conditions,
+ * sort order and page size. A QueryTable turns it into parameterized SQL,
+ * so only the rows on screen are ever read.
+ *
+ * Specs are immutable (every with/order method returns a new one), so a
+ * spec handed to a background query can never change under it.
+ */
+public class QuerySpec {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    /** How a condition compares its column with the value */
+    public enum Operator {
+        EQUALS("="), AT_LEAST(">="), BELOW("<"), STARTS_WITH("LIKE");
+
+        private final String sql;
+
+        Operator(String sql) {
+            this.sql = sql;
+        }
+
+        String sql() {
+            return sql;
+        }
+    }
+
+    /**
+     * One condition on a column
+     */
+    public static class Condition {
+        private final String column;
+        private final Operator operator;
+        private final Object value;
+
+        Condition(String column, Operator operator, Object value) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public String getColumn() { return column; }
+        public Operator getOperator() { return operator; }
+        public Object getValue() { return value; }
+    }
+
+    /**
+     * One sort key
+     */
+    public static class Sort {
+        private final String column;
+        private final boolean descending;
+
+        Sort(String column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        public String getColumn() { return column; }
+        public boolean isDescending() { return descending; }
+    }
+
+    private final String search;
+    private final List<Condition> conditions;
+    private final List<Sort> sorts;
+    private final int pageSize;
+
+    public QuerySpec() {
+        this(null, Collections.emptyList(), Collections.emptyList(), DEFAULT_PAGE_SIZE);
+    }
+
+    private QuerySpec(String search, List<Condition> conditions, List<Sort> sorts, int pageSize) {
+        this.search = search;
+        this.conditions = conditions;
+        this.sorts = sorts;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Words every row must contain (null or empty for none)
+     */
+    public QuerySpec withSearch(String text) {
+        String trimmed = text != null && !text.trim().isEmpty() ? text.trim() : null;
+        return new QuerySpec(trimmed, conditions, sorts, pageSize);
+    }
+
+    /**
+     * Add a condition; a null or empty value adds nothing, so an "All"
+     * choice in a combo box can be passed straight through
+     */
+    public QuerySpec with(String column, Operator operator, Object value) {
+        if (value == null || "".equals(value)) return this;
+        List<Condition> more = new ArrayList<>(conditions);
+        more.add(new Condition(column, operator, value));
+        return new QuerySpec(search, Collections.unmodifiableList(more), sorts, pageSize);
+    }
+
+    /** Shorthand for with(column, EQUALS, value) */
+    public QuerySpec with(String column, Object value) {
+        return with(column, Operator.EQUALS, value);
+    }
+
+    /**
+     * Sort by a column, after any sort keys already given
+     */
+    public QuerySpec thenOrderBy(String column, boolean descending) {
+        List<Sort> more = new ArrayList<>(sorts);
+        more.add(new Sort(column, descending));
+        return new QuerySpec(search, conditions, Collections.unmodifiableList(more), pageSize);
+    }
+
+    /**
+     * Sort by a column only, replacing the current order
+     */
+    public QuerySpec orderBy(String column, boolean descending) {
+        return new QuerySpec(search, conditions, Collections.singletonList(new Sort(column, descending)), pageSize);
+    }
+
+    /**
+     * Rows fetched per query when the spec is shown in a SpecTableModel
+     */
+    public QuerySpec withPageSize(int pageSize) {
+        return new QuerySpec(search, conditions, sorts, Math.max(1, pageSize));
+    }
+
+    public String getSearch() { return search; }
+    public List<Condition> getConditions() { return conditions; }
+    public List<Sort> getSorts() { return sorts; }
+    public int getPageSize() { return pageSize; }
+}
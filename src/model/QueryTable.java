@@ -0,0 +1,343 @@
+package model;
+
+import db.DbConnection;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A table a panel can browse with a QuerySpec. The spec is compiled to one
+ * parameterized statement per request: conditions and search in the WHERE
+ * clause, the sort keys (plus the id, so the order is total) in ORDER BY, and
+ * a keyset seek past the last row shown instead of an OFFSET, so every page
+ * is an index range read however deep the user scrolls.
+ *
+ * Rows come back as Object[] in the order of the selected columns. Column
+ * names in a spec are checked against what the table allows to be filtered,
+ * sorted or searched; they are never taken from user input as SQL.
+ *
+ * Search words of three or more characters go through MATCH ... AGAINST on
+ * the FULLTEXT columns (word prefixes, in boolean mode); shorter words, and
+ * tables without a FULLTEXT index, match the start of a searchable column.
+ * A table with its own search rules overrides search() (ResidentModel.QUERY).
+ */
+public class QueryTable {
+
+    // InnoDB's innodb_ft_min_token_size: shorter words are not in a FULLTEXT index
+    private static final int MIN_FULLTEXT_WORD = 3;
+
+    private final String table;
+    private final String idColumn;
+    private final String[] columns;
+    private final Set<String> filterable = new HashSet<>();
+    private final Set<String> sortable = new HashSet<>();
+    private String[] fullText = new String[0];
+    private String[] prefixSearch = new String[0];
+
+    /**
+     * @param table Table name
+     * @param idColumn Unique, non-null column breaking ties in every order
+     * @param columns Selected columns; a row holds their values in this order
+     */
+    public QueryTable(String table, String idColumn, String... columns) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.columns = columns;
+        sortable.add(idColumn);
+    }
+
+    /** Columns conditions may name */
+    public QueryTable filterable(String... names) {
+        filterable.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    /** Columns a spec may sort by; each should lead an index */
+    public QueryTable sortable(String... names) {
+        sortable.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    /** Columns of the table's FULLTEXT index, exactly as the index lists them */
+    public QueryTable fullText(String... names) {
+        fullText = names;
+        return this;
+    }
+
+    /** Columns whose start is matched by short search words (or all words without FULLTEXT) */
+    public QueryTable prefixSearch(String... names) {
+        prefixSearch = names;
+        return this;
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /** Position of a column in a row, or -1 */
+    public int indexOf(String column) {
+        return Arrays.asList(columns).indexOf(column);
+    }
+
+    public boolean isSortable(String column) {
+        return sortable.contains(column);
+    }
+
+    /**
+     * Rows after a keyset position, in the spec's order
+     * @param after keyOf() the last row already shown, or null for the first page
+     * @param limit Page size
+     * @throws SQLException if the query fails
+     */
+    public List<Object[]> getPageAfter(Object[] after, QuerySpec spec, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", selectColumns(spec)))
+            .append(" FROM ").append(table);
+        where(sql, params, spec, after);
+        orderBy(sql, spec);
+        sql.append(" LIMIT ?");
+        params.add(limit);
+
+        List<Object[]> rows = new ArrayList<>(limit);
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = prepare(conn, sql, params);
+             ResultSet rs = ps.executeQuery()) {
+            int total = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                // Selected columns first, then any sort key that is not displayed
+                Object[] row = new Object[total];
+                for (int c = 0; c < total; c++) {
+                    row[c] = value(rs.getObject(c + 1));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Keyset position of the row at an offset, for jumping to a page without
+     * reading the pages before it
+     * @return The key, or null past the end
+     * @throws SQLException if the query fails
+     */
+    public Object[] getKeyAt(int offset, QuerySpec spec) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        List<String> keys = keyColumns(spec);
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", keys)).append(" FROM ").append(table);
+        where(sql, params, spec, null);
+        orderBy(sql, spec);
+        sql.append(" LIMIT 1 OFFSET ?");
+        params.add(offset);
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = prepare(conn, sql, params);
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) return null;
+            Object[] key = new Object[keys.size()];
+            for (int k = 0; k < key.length; k++) {
+                key[k] = value(rs.getObject(k + 1));
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Number of rows matching the spec's search and conditions
+     * @throws SQLException if the query fails
+     */
+    public int getCount(QuerySpec spec) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(table);
+        where(sql, params, spec, null);
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = prepare(conn, sql, params);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Keyset position of a row returned by getPageAfter() for the same spec
+     */
+    public Object[] keyOf(Object[] row, QuerySpec spec) {
+        List<String> keys = keyColumns(spec);
+        List<String> selected = selectColumns(spec);
+        Object[] key = new Object[keys.size()];
+        for (int k = 0; k < key.length; k++) {
+            key[k] = row[selected.indexOf(keys.get(k))];
+        }
+        return key;
+    }
+
+    // Sort keys then the id
+    private List<String> keyColumns(QuerySpec spec) {
+        List<String> keys = new ArrayList<>();
+        for (QuerySpec.Sort sort : spec.getSorts()) {
+            if (!sortable.contains(sort.getColumn())) {
+                throw new IllegalArgumentException("Cannot sort " + table + " by " + sort.getColumn());
+            }
+            if (!keys.contains(sort.getColumn())) keys.add(sort.getColumn());
+        }
+        if (!keys.contains(idColumn)) keys.add(idColumn);
+        return keys;
+    }
+
+    // Displayed columns, then key columns that are not displayed
+    private List<String> selectColumns(QuerySpec spec) {
+        List<String> selected = new ArrayList<>(Arrays.asList(columns));
+        for (String key : keyColumns(spec)) {
+            if (!selected.contains(key)) selected.add(key);
+        }
+        return selected;
+    }
+
+    private boolean[] keyDescending(QuerySpec spec) {
+        List<String> keys = keyColumns(spec);
+        boolean[] descending = new boolean[keys.size()];
+        List<QuerySpec.Sort> sorts = spec.getSorts();
+        for (int k = 0; k < keys.size(); k++) {
+            // The id follows the direction of the first sort key
+            descending[k] = !sorts.isEmpty() && sorts.get(0).isDescending();
+            for (QuerySpec.Sort sort : sorts) {
+                if (sort.getColumn().equals(keys.get(k))) {
+                    descending[k] = sort.isDescending();
+                    break;
+                }
+            }
+        }
+        return descending;
+    }
+
+    private void orderBy(StringBuilder sql, QuerySpec spec) {
+        List<String> keys = keyColumns(spec);
+        boolean[] descending = keyDescending(spec);
+        sql.append(" ORDER BY ");
+        for (int k = 0; k < keys.size(); k++) {
+            if (k > 0) sql.append(", ");
+            sql.append(keys.get(k)).append(descending[k] ? " DESC" : "");
+        }
+    }
+
+    private void where(StringBuilder sql, List<Object> params, QuerySpec spec, Object[] after) {
+        List<String> parts = new ArrayList<>();
+        for (QuerySpec.Condition c : spec.getConditions()) {
+            if (!filterable.contains(c.getColumn())) {
+                throw new IllegalArgumentException("Cannot filter " + table + " by " + c.getColumn());
+            }
+            parts.add(c.getColumn() + " " + c.getOperator().sql() + " ?");
+            params.add(c.getOperator() == QuerySpec.Operator.STARTS_WITH ? likePrefix(c.getValue().toString()) : c.getValue());
+        }
+        if (spec.getSearch() != null) {
+            search(parts, params, spec.getSearch());
+        }
+        if (after != null) {
+            parts.add(seek(params, keyColumns(spec), keyDescending(spec), after));
+        }
+        if (!parts.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", parts));
+        }
+    }
+
+    /**
+     * Add the WHERE conditions (and their parameters) for the search text
+     */
+    protected void search(List<String> parts, List<Object> params, String text) {
+        StringBuilder against = new StringBuilder();
+        for (String word : words(text)) {
+            if (fullText.length > 0 && word.length() >= MIN_FULLTEXT_WORD) {
+                if (against.length() > 0) against.append(' ');
+                against.append('+').append(word).append('*');
+            } else {
+                String[] searchColumns = prefixSearch.length > 0 ? prefixSearch : fullText;
+                if (searchColumns.length == 0) continue;
+                StringBuilder any = new StringBuilder("(");
+                for (int c = 0; c < searchColumns.length; c++) {
+                    if (c > 0) any.append(" OR ");
+                    any.append(searchColumns[c]).append(" LIKE ?");
+                    params.add(likePrefix(word));
+                }
+                parts.add(any.append(')').toString());
+            }
+        }
+        if (against.length() > 0) {
+            parts.add("MATCH(" + String.join(", ", fullText) + ") AGAINST (? IN BOOLEAN MODE)");
+            params.add(against.toString());
+        }
+    }
+
+    // "After" in the (key1, key2, ..., id) order: key1 past the value, or key1 equal and key2 past, ...
+    // NULLs sort first ascending and last descending, as MySQL orders them
+    private static String seek(List<Object> params, List<String> keys, boolean[] descending, Object[] after) {
+        List<String> alternatives = new ArrayList<>();
+        StringBuilder equalSoFar = new StringBuilder();
+        List<Object> equalParams = new ArrayList<>();
+        for (int k = 0; k < keys.size(); k++) {
+            String column = keys.get(k);
+            Object value = after[k];
+            String past;
+            List<Object> pastParams = new ArrayList<>();
+            if (value == null) {
+                past = descending[k] ? null : column + " IS NOT NULL";
+            } else if (descending[k] && k < keys.size() - 1) {
+                past = "(" + column + " < ? OR " + column + " IS NULL)";
+                pastParams.add(value);
+            } else if (descending[k]) {
+                // The id, last in the key, is never NULL
+                past = column + " < ?";
+                pastParams.add(value);
+            } else {
+                past = column + " > ?";
+                pastParams.add(value);
+            }
+            if (past != null) {
+                alternatives.add("(" + equalSoFar + past + ")");
+                params.addAll(equalParams);
+                params.addAll(pastParams);
+            }
+            if (value == null) {
+                equalSoFar.append(column).append(" IS NULL AND ");
+            } else {
+                equalSoFar.append(column).append(" = ? AND ");
+                equalParams.add(value);
+            }
+        }
+        return alternatives.isEmpty() ? "1 = 0" : "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    private static PreparedStatement prepare(Connection conn, StringBuilder sql, List<Object> params) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql.toString());
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+        return ps;
+    }
+
+    // Words of the search text; boolean-mode operators and LIKE wildcards are dropped
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    private static String likePrefix(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    // Driver types that do not bind back as a parameter the same way become JDBC ones
+    private static Object value(Object value) {
+        if (value instanceof LocalDateTime) return Timestamp.valueOf((LocalDateTime) value);
+        if (value instanceof LocalDate) return Date.valueOf((LocalDate) value);
+        return value;
+    }
+}
@@ -1,9 +1,11 @@
 package model;
 
+import db.DataAccessExecutor;
 import db.DbConnection;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class ResidentModel {
     private int residentId;
@@ -18,6 +20,38 @@ public class ResidentModel {
     private String contactNo;
     private String email;
 
+    // Fixed SQL, kept constant so pooled connections reuse the prepared statements
+    private static final String COLUMNS = "resident_id, household_id, first_name, middle_name, last_name, suffix, birth_date, age, gender, contact_no, email";
+    private static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM residents ORDER BY last_name, first_name";
+    // Fields a search matches, as in ResidentSearchIndex
+    private static final String[] SEARCH_COLUMNS = {"first_name", "middle_name", "last_name", "suffix", "contact_no", "email"};
+    // Search words shorter than this match the start of a word, longer ones anywhere (as in the index)
+    private static final int MIN_INFIX_WORD = 3;
+    // Searches matching more residents than this fall back from the index's ID list to SQL
+    private static final int INDEX_MAX_IDS = Integer.getInteger("resident.indexMaxIds", 5000);
+    // ID lists are padded to one of a few sizes so searches share statement texts
+    private static final int MIN_ID_BUCKET = 16;
+    private static final String INSERT_SQL = "INSERT INTO residents (household_id, first_name, middle_name, last_name, suffix, birth_date, age, gender, contact_no, email, last_name_sound, first_name_sound) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE residents SET household_id=?, first_name=?, middle_name=?, last_name=?, suffix=?, birth_date=?, age=?, gender=?, contact_no=?, email=?, last_name_sound=?, first_name_sound=? WHERE resident_id=?";
+    private static final String DELETE_SQL = "DELETE FROM residents WHERE resident_id=?";
+    private static final int BATCH_SIZE = Integer.getInteger("resident.batchSize", 500);
+    private static final String[] SUFFIXES = {"Jr.", "Sr.", "II", "III", "IV", "V"};
+    private static final java.util.regex.Pattern EMAIL_PATTERN =
+        java.util.regex.Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final java.util.List<String> GENDERS = java.util.Arrays.asList("Male", "Female", "Other");
+    // Residents a new record could duplicate: those sharing one of its DuplicateResidentFinder blocks
+    // (last name sound + birth year, first name sound + birth date, both sounds), each half an index
+    // range on the stored sounds; DuplicateResidentFinder does the fuzzy part
+    private static final String DUPLICATE_CANDIDATES_SQL =
+        "SELECT " + COLUMNS + " FROM residents WHERE last_name_sound = ? AND birth_date BETWEEN ? AND ?"
+        + " UNION SELECT " + COLUMNS + " FROM residents WHERE first_name_sound = ? AND birth_date = ?"
+        + " UNION SELECT " + COLUMNS + " FROM residents WHERE last_name_sound = ? AND first_name_sound = ?";
+    private static final String NAME_SOUNDS_SQL = "SELECT resident_id, first_name, last_name, first_name_sound, last_name_sound FROM residents";
+    // updated_at = updated_at: storing a derived column is not a change to the resident
+    private static final String UPDATE_NAME_SOUNDS_SQL =
+        "UPDATE residents SET last_name_sound = ?, first_name_sound = ?, updated_at = updated_at WHERE resident_id = ?";
+    private static final String LOCK_HOUSEHOLD_ID_SQL = "SELECT household_id FROM residents WHERE resident_id=? FOR UPDATE";
+
     public ResidentModel() {}
 
     public ResidentModel(int residentId, Integer householdId, String firstName, String middleName, String lastName, String suffix, Date birthDate, int age, String gender, String contactNo, String email) {
@@ -38,24 +72,9 @@ public class ResidentModel {
 
     public static List<ResidentModel> getAll() {
         List<ResidentModel> list = new ArrayList<>();
-        String sql = "SELECT resident_id, household_id, first_name, middle_name, last_name, suffix, birth_date, age, gender, contact_no, email FROM residents ORDER BY last_name, first_name";
-        try (Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(SELECT_ALL_SQL); ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                ResidentModel r = new ResidentModel();
-                r.setResidentId(rs.getInt("resident_id"));
-                // Handle nullable household_id
-                int hId = rs.getInt("household_id");
-                r.setHouseholdId(rs.wasNull() ? null : hId);
-                r.setFirstName(rs.getString("first_name"));
-                r.setMiddleName(rs.getString("middle_name"));
-                r.setLastName(rs.getString("last_name"));
-                r.setSuffix(rs.getString("suffix"));
-                r.setBirthDate(rs.getDate("birth_date"));
-                r.setAge(rs.getInt("age"));
-                r.setGender(rs.getString("gender"));
-                r.setContactNo(rs.getString("contact_no"));
-                r.setEmail(rs.getString("email"));
-                list.add(r);
+                list.add(fromRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -63,33 +82,156 @@ public class ResidentModel {
         return list;
     }
 
+    /**
+     * Load all residents without blocking the caller
+     * @return Future of getAll()
+     */
+    public static CompletableFuture<List<ResidentModel>> getAllAsync() {
+        return DataAccessExecutor.supply(ResidentModel::getAll);
+    }
+
+    /**
+     * Residents for a SpecTableModel: paged, sorted and counted in SQL, with
+     * a search matched by the same rules as ResidentSearchIndex (see
+     * SearchFilter). Sortable columns each lead an index; the default order
+     * is last_name, first_name (idx_residents_name_keyset).
+     */
+    public static final QueryTable QUERY = new QueryTable("residents", "resident_id",
+            "resident_id", "household_id", "first_name", "middle_name", "last_name", "birth_date", "age",
+            "gender", "contact_no", "email") {
+        @Override
+        protected void search(List<String> parts, List<Object> params, String text) {
+            SearchFilter filter = searchFilter(text);
+            if (filter != null) {
+                parts.add(filter.sql);
+                params.addAll(filter.params);
+            }
+        }
+    }.sortable("household_id", "first_name", "last_name", "birth_date");
+
+    /**
+     * A search as a WHERE condition and its parameters. With the index loaded
+     * and current it is resident_id IN the index's matches; before that, if
+     * the index could not check for changes, or when it matches more than
+     * resident.indexMaxIds, the same rules run in SQL: every word must match
+     * a field, words of three or more characters anywhere in it and shorter
+     * ones at the start of one of its words.
+     */
+    private static final class SearchFilter {
+        final String sql;
+        final List<Object> params;
+
+        SearchFilter(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = params;
+        }
+
+        int bind(PreparedStatement ps, int index) throws SQLException {
+            for (Object p : params) {
+                ps.setObject(index++, p);
+            }
+            return index;
+        }
+    }
+
+    // Null for no search
+    private static SearchFilter searchFilter(String search) {
+        if (search == null || search.trim().isEmpty()) return null;
+        int[] ids = indexedIds(search);
+        List<Object> params = new ArrayList<>();
+        if (ids != null) {
+            if (ids.length == 0) return new SearchFilter("1 = 0", params);
+            int bucket = MIN_ID_BUCKET;
+            while (bucket < ids.length) bucket <<= 1;
+            StringBuilder sql = new StringBuilder("resident_id IN (");
+            for (int i = 0; i < bucket; i++) {
+                sql.append(i > 0 ? ", ?" : "?");
+                // Pad with the last ID; repeating it does not change the result
+                params.add(ids[Math.min(i, ids.length - 1)]);
+            }
+            return new SearchFilter(sql.append(')').toString(), params);
+        }
+        String normalized = ResidentSearchIndex.normalize(search);
+        if (normalized.isEmpty()) return null;
+        StringBuilder sql = new StringBuilder();
+        for (String word : normalized.split(" ")) {
+            boolean infix = word.length() >= MIN_INFIX_WORD;
+            Object pattern = infix
+                ? "%" + word.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%"
+                : "(^|[^[:alnum:]])" + word.replace(".", "[.]");
+            if (sql.length() > 0) sql.append(" AND ");
+            sql.append('(');
+            for (int c = 0; c < SEARCH_COLUMNS.length; c++) {
+                if (c > 0) sql.append(" OR ");
+                sql.append(SEARCH_COLUMNS[c]).append(infix ? " LIKE ?" : " REGEXP ?");
+                params.add(pattern);
+            }
+            sql.append(')');
+        }
+        return new SearchFilter(sql.toString(), params);
+    }
+
+    /**
+     * Residents matching a search according to ResidentSearchIndex, or null
+     * when the index has not loaded, cannot check for changes, or matches
+     * too many to list (search in SQL)
+     */
+    private static int[] indexedIds(String search) {
+        ResidentSearchIndex index = ResidentSearchIndex.getInstance();
+        try {
+            index.refreshIfStale();
+        } catch (SQLException e) {
+            util.Logger.logWarning("Resident search index could not check for changes, searching in SQL: " + e.getMessage());
+            return null;
+        }
+        return index.matchingIds(search, INDEX_MAX_IDS);
+    }
+
+    private static ResidentModel fromRow(ResultSet rs) throws SQLException {
+        ResidentModel r = new ResidentModel();
+        r.setResidentId(rs.getInt("resident_id"));
+        // Handle nullable household_id
+        int hId = rs.getInt("household_id");
+        r.setHouseholdId(rs.wasNull() ? null : hId);
+        r.setFirstName(rs.getString("first_name"));
+        r.setMiddleName(rs.getString("middle_name"));
+        r.setLastName(rs.getString("last_name"));
+        r.setSuffix(rs.getString("suffix"));
+        r.setBirthDate(rs.getDate("birth_date"));
+        r.setAge(rs.getInt("age"));
+        r.setGender(rs.getString("gender"));
+        r.setContactNo(rs.getString("contact_no"));
+        r.setEmail(rs.getString("email"));
+        return r;
+    }
+
+    // Writes run in a transaction with the household summary maintenance
+    // (HouseholdModel.refreshSummaries) so member counts never drift.
+
     public boolean create() {
         // Auto-calculate age from birthdate
         calculateAndSetAge();
         
-        String sql = "INSERT INTO residents (household_id, first_name, middle_name, last_name, suffix, birth_date, age, gender, contact_no, email) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            // Handle nullable household_id
-            if (this.householdId == null) {
-                ps.setNull(1, Types.INTEGER);
-            } else {
-                ps.setInt(1, this.householdId);
-            }
-            ps.setString(2, this.firstName);
-            ps.setString(3, this.middleName);
-            ps.setString(4, this.lastName);
-            ps.setString(5, this.suffix);
-            ps.setDate(6, this.birthDate);
-            ps.setInt(7, this.age);
-            ps.setString(8, this.gender);
-            ps.setString(9, this.contactNo);
-            ps.setString(10, this.email);
-            int rows = ps.executeUpdate();
-            if (rows > 0) {
+        try (Connection conn = DbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                HouseholdModel.lockHouseholds(conn, this.householdId);
+                bindFields(ps);
+                if (ps.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
                 try (ResultSet rs = ps.getGeneratedKeys()) {
                     if (rs.next()) this.residentId = rs.getInt(1);
                 }
+                HouseholdModel.refreshSummaries(conn, this.householdId);
+                conn.commit();
+                ResidentSearchIndex.getInstance().put(this);
+                AgeBracketIndex.getInstance().put(this);
                 return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -101,25 +243,27 @@ public class ResidentModel {
         // Auto-calculate age from birthdate
         calculateAndSetAge();
         
-        String sql = "UPDATE residents SET household_id=?, first_name=?, middle_name=?, last_name=?, suffix=?, birth_date=?, age=?, gender=?, contact_no=?, email=? WHERE resident_id=?";
-        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            // Handle nullable household_id
-            if (this.householdId == null) {
-                ps.setNull(1, Types.INTEGER);
-            } else {
-                ps.setInt(1, this.householdId);
+        try (Connection conn = DbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                Integer previousHousehold = lockHouseholdId(conn, this.residentId);
+                HouseholdModel.lockHouseholds(conn, previousHousehold, this.householdId);
+                bindFields(ps);
+                ps.setInt(13, this.residentId);
+                if (ps.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                // Name changes can alter the head's display name, so always refresh
+                HouseholdModel.refreshSummaries(conn, previousHousehold, this.householdId);
+                conn.commit();
+                ResidentSearchIndex.getInstance().put(this);
+                AgeBracketIndex.getInstance().put(this);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-            ps.setString(2, this.firstName);
-            ps.setString(3, this.middleName);
-            ps.setString(4, this.lastName);
-            ps.setString(5, this.suffix);
-            ps.setDate(6, this.birthDate);
-            ps.setInt(7, this.age);
-            ps.setString(8, this.gender);
-            ps.setString(9, this.contactNo);
-            ps.setString(10, this.email);
-            ps.setInt(11, this.residentId);
-            return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -127,16 +271,240 @@ public class ResidentModel {
     }
 
     public boolean delete() {
-        String sql = "DELETE FROM residents WHERE resident_id=?";
-        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, this.residentId);
-            return ps.executeUpdate() > 0;
+        try (Connection conn = DbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+                Integer previousHousehold = lockHouseholdId(conn, this.residentId);
+                HouseholdModel.lockHouseholds(conn, previousHousehold);
+                ps.setInt(1, this.residentId);
+                if (ps.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                HouseholdModel.refreshSummaries(conn, previousHousehold);
+                conn.commit();
+                ResidentSearchIndex.getInstance().remove(this.residentId);
+                AgeBracketIndex.getInstance().remove(this.residentId);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return false;
     }
 
+    /**
+     * Insert many residents using JDBC batching, with the default batch size
+     * (-Dresident.batchSize, 500)
+     * @see #createAll(List, int)
+     */
+    public static int createAll(List<ResidentModel> residents) throws SQLException {
+        return createAll(residents, BATCH_SIZE);
+    }
+
+    /**
+     * Insert many residents using JDBC batching. Each chunk of batchSize rows
+     * is its own transaction together with the summary refresh of the
+     * households it touches, so a failure only loses the failing chunk.
+     * Ages are calculated and generated ids are set on the passed objects.
+     * @param residents Residents to insert
+     * @param batchSize Rows per batch and per transaction
+     * @return Number of residents inserted
+     * @throws SQLException if a chunk fails; earlier chunks stay committed
+     */
+    public static int createAll(List<ResidentModel> residents, int batchSize) throws SQLException {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        int inserted = 0;
+        try (Connection conn = DbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            for (int from = 0; from < residents.size(); from += batchSize) {
+                List<ResidentModel> chunk = residents.subList(from, Math.min(residents.size(), from + batchSize));
+                Integer[] households = new Integer[chunk.size()];
+                for (int i = 0; i < chunk.size(); i++) {
+                    households[i] = chunk.get(i).householdId;
+                }
+                try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    HouseholdModel.lockHouseholds(conn, households);
+                    for (ResidentModel r : chunk) {
+                        r.calculateAndSetAge();
+                        r.bindFields(ps);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < chunk.size() && rs.next(); i++) {
+                            chunk.get(i).residentId = rs.getInt(1);
+                        }
+                    }
+                    HouseholdModel.refreshSummaries(conn, households);
+                    conn.commit();
+                    inserted += chunk.size();
+                    for (ResidentModel r : chunk) {
+                        ResidentSearchIndex.getInstance().put(r);
+                        AgeBracketIndex.getInstance().put(r);
+                    }
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Check the fields the resident forms require
+     * @return null if valid, otherwise a message naming the first problem
+     */
+    public String validate() {
+        if (firstName == null || firstName.trim().isEmpty()) return "First Name is required";
+        if (lastName == null || lastName.trim().isEmpty()) return "Last Name is required";
+        if (birthDate == null) return "Birthdate is required";
+        if (birthDate.getTime() > System.currentTimeMillis()) return "Birthdate cannot be in the future";
+        if (gender == null || !GENDERS.contains(gender)) return "Gender must be Male, Female or Other";
+        if (email != null && !email.isEmpty() && !EMAIL_PATTERN.matcher(email).matches()) return "Invalid email: " + email;
+        return null;
+    }
+
+    /**
+     * Residents already registered who are probably this person, for a
+     * warning before create() saves a double registration
+     * @return Likely duplicates, best first (empty if none or the lookup failed)
+     */
+    public List<DuplicateResidentFinder.Match> findPossibleDuplicates() {
+        List<ResidentModel> candidates = new ArrayList<>();
+        String lastSound = emptyToNull(DuplicateResidentFinder.lastNameSound(lastName));
+        String firstSound = emptyToNull(DuplicateResidentFinder.firstNameSound(firstName));
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(DUPLICATE_CANDIDATES_SQL)) {
+            // A missing sound or birth date binds NULL, so that block matches nothing
+            ps.setString(1, lastSound);
+            if (birthDate != null) {
+                int year = birthDate.toLocalDate().getYear();
+                ps.setDate(2, Date.valueOf(java.time.LocalDate.of(year, 1, 1)));
+                ps.setDate(3, Date.valueOf(java.time.LocalDate.of(year, 12, 31)));
+            } else {
+                ps.setNull(2, Types.DATE);
+                ps.setNull(3, Types.DATE);
+            }
+            ps.setString(4, firstSound);
+            if (birthDate != null) {
+                ps.setDate(5, birthDate);
+            } else {
+                ps.setNull(5, Types.DATE);
+            }
+            ps.setString(6, lastSound);
+            ps.setString(7, firstSound);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    candidates.add(fromRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            util.Logger.logError("Duplicate resident check", e.getMessage(), e);
+        }
+        return DuplicateResidentFinder.check(this, candidates, DuplicateResidentFinder.MIN_SCORE);
+    }
+
+    /**
+     * Recompute the stored name sounds (last_name_sound, first_name_sound)
+     * that findPossibleDuplicates() reads, for rows saved before they existed
+     * or by plain SQL
+     * @return Number of residents whose sounds changed
+     * @throws SQLException if reading or a batch fails; earlier batches stay committed
+     */
+    public static int rebuildNameSounds() throws SQLException {
+        List<Object[]> changes = new ArrayList<>();
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(NAME_SOUNDS_SQL)) {
+            ps.setFetchSize(5000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String last = emptyToNull(DuplicateResidentFinder.lastNameSound(rs.getString("last_name")));
+                    String first = emptyToNull(DuplicateResidentFinder.firstNameSound(rs.getString("first_name")));
+                    if (!java.util.Objects.equals(last, rs.getString("last_name_sound"))
+                            || !java.util.Objects.equals(first, rs.getString("first_name_sound"))) {
+                        changes.add(new Object[] {last, first, rs.getInt("resident_id")});
+                    }
+                }
+            }
+        }
+        try (Connection conn = DbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_NAME_SOUNDS_SQL)) {
+                for (int i = 0; i < changes.size(); i++) {
+                    Object[] c = changes.get(i);
+                    ps.setString(1, (String) c[0]);
+                    ps.setString(2, (String) c[1]);
+                    ps.setInt(3, (Integer) c[2]);
+                    ps.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0 || i == changes.size() - 1) {
+                        ps.executeBatch();
+                        conn.commit();
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return changes.size();
+    }
+
+    /**
+     * Canonical form of a name suffix: blank becomes null and the usual
+     * suffixes get their standard spelling ("jr" -> "Jr.", "iii" -> "III")
+     */
+    public static String normalizeSuffix(String suffix) {
+        if (suffix == null || suffix.trim().isEmpty()) return null;
+        String trimmed = suffix.trim();
+        String bare = trimmed.endsWith(".") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+        for (String known : SUFFIXES) {
+            String knownBare = known.endsWith(".") ? known.substring(0, known.length() - 1) : known;
+            if (knownBare.equalsIgnoreCase(bare)) return known;
+        }
+        return trimmed;
+    }
+
+    private void bindFields(PreparedStatement ps) throws SQLException {
+        // Handle nullable household_id
+        if (this.householdId == null) {
+            ps.setNull(1, Types.INTEGER);
+        } else {
+            ps.setInt(1, this.householdId);
+        }
+        ps.setString(2, this.firstName);
+        ps.setString(3, this.middleName);
+        ps.setString(4, this.lastName);
+        ps.setString(5, normalizeSuffix(this.suffix));
+        ps.setDate(6, this.birthDate);
+        ps.setInt(7, this.age);
+        ps.setString(8, this.gender);
+        ps.setString(9, this.contactNo);
+        ps.setString(10, this.email);
+        ps.setString(11, emptyToNull(DuplicateResidentFinder.lastNameSound(this.lastName)));
+        ps.setString(12, emptyToNull(DuplicateResidentFinder.firstNameSound(this.firstName)));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Current household of a resident, row-locked until the transaction ends
+     */
+    private static Integer lockHouseholdId(Connection conn, int residentId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(LOCK_HOUSEHOLD_ID_SQL)) {
+            ps.setInt(1, residentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                int id = rs.getInt(1);
+                return rs.wasNull() ? null : id;
+            }
+        }
+    }
+
     /**
      * Calculate age from birthdate to current date
      * @param birthDate The birthdate
@@ -144,21 +512,7 @@ public class ResidentModel {
      */
     public static int calculateAge(Date birthDate) {
         if (birthDate == null) return 0;
-        
-        java.util.Calendar birthCal = java.util.Calendar.getInstance();
-        birthCal.setTime(birthDate);
-        
-        java.util.Calendar today = java.util.Calendar.getInstance();
-        
-        int age = today.get(java.util.Calendar.YEAR) - birthCal.get(java.util.Calendar.YEAR);
-        
-        // Check if birthday hasn't occurred yet this year
-        if (today.get(java.util.Calendar.MONTH) < birthCal.get(java.util.Calendar.MONTH) ||
-            (today.get(java.util.Calendar.MONTH) == birthCal.get(java.util.Calendar.MONTH) &&
-             today.get(java.util.Calendar.DAY_OF_MONTH) < birthCal.get(java.util.Calendar.DAY_OF_MONTH))) {
-            age--;
-        }
-        
+        int age = AgeBracketIndex.age((int) birthDate.toLocalDate().toEpochDay(), (int) java.time.LocalDate.now().toEpochDay());
         return age < 0 ? 0 : age;
     }
     
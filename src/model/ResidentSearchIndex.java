@@ -0,0 +1,830 @@
+package model;
+
+import db.DataAccessExecutor;
+import db.DbConnection;
+import java.sql.*;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index over resident first, middle and last name, suffix, contact
+ * number and email, so finding a resident by part of a name or number needs
+ * no LIKE '%x%' scan.
+ *
+ * Values are lowercased with accents and punctuation removed (phone numbers
+ * keep only digits) and split into words (see normalize()). Each distinct word of each field is
+ * a term with the list of residents using it; terms are found through their
+ * trigrams plus two padded grams at the word start, so query words of three
+ * or more characters match anywhere in a word and shorter ones match word
+ * prefixes. Names repeat a lot, so there are far fewer terms than residents.
+ *
+ * All words of a query must match (AND). Hits are ranked exact word, then
+ * prefix, then infix, with name fields ahead of contact and email, and by
+ * name within a rank; a one-word search stops once it has enough hits.
+ *
+ * loadAsync() builds the index on several cores after sign-in; ResidentModel
+ * keeps it current on create, update and delete. Saves made from other
+ * workstations are picked up by refreshIfStale(), which ResidentModel calls
+ * before each indexed search: residents whose updated_at moved since the
+ * last check are re-read, and deletions are found by comparing counts.
+ * Until it has loaded, isReady() is false and callers use SQL instead.
+ */
+public class ResidentSearchIndex {
+
+    private static final String LOAD_SQL =
+        "SELECT resident_id, first_name, middle_name, last_name, suffix, contact_no, email FROM residents";
+    private static final String DELTA_SQL = LOAD_SQL + " WHERE updated_at >= ?";
+    private static final String CHECK_SQL = "SELECT CURRENT_TIMESTAMP, COUNT(*) FROM residents";
+    private static final String IDS_SQL = "SELECT resident_id FROM residents";
+    private static final int FETCH_SIZE = 5000;
+    // Longest a search may use the index without checking the database for changes
+    private static final long REFRESH_MS = Long.getLong("resident.indexRefreshMs", 15_000L);
+    // Changes are re-read from this far before the last check, so a save committed
+    // late (updated_at set when its statement ran, not when it committed) is still seen
+    private static final long REFRESH_OVERLAP_MS = 60_000L;
+    private static final int BUILD_CHUNK = 8192;
+    private static final char WORD_START = '\u0002';
+    // Added to a word's match score, by field: first, middle, last, suffix, contact, email
+    private static final int[] FIELD_WEIGHT = {8, 4, 10, 2, 0, 0};
+    private static final int EXACT = 100, PREFIX = 70, INFIX = 40;
+    private static final Comparator<Doc> BY_NAME = Comparator.comparing(d -> d.sortName);
+
+    private static final ResidentSearchIndex INSTANCE = new ResidentSearchIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Slot -> indexed resident; a removed or replaced resident leaves a null slot behind
+    private Doc[] docs = new Doc[0];
+    private int slotCount;
+    private int deadSlots;
+    private Map<Integer, Integer> slotById = new HashMap<>();
+    // Term id -> term; terms are never dropped until the next rebuild
+    private List<Term> terms = new ArrayList<>();
+    private Map<String, Integer> termIds = new HashMap<>();
+    // Gram -> ascending ids of the terms containing it
+    private GramMap grams = new GramMap();
+    private boolean ready;
+    // Changes made while a load is running, replayed once it is installed
+    private List<Runnable> pending;
+    private CompletableFuture<Integer> loading;
+    // Database time the loaded contents are current as of (null if not loaded from the database)
+    private volatile Timestamp checkedAt;
+    private volatile long checkedAtMillis;
+    private final Object refreshLock = new Object();
+
+    private ResidentSearchIndex() {}
+
+    public static ResidentSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * One search result
+     */
+    public static class Hit {
+        private final int residentId;
+        private final String name;
+        private final int score;
+
+        Hit(int residentId, String name, int score) {
+            this.residentId = residentId;
+            this.name = name;
+            this.score = score;
+        }
+
+        public int getResidentId() { return residentId; }
+        /** "Last, First Middle Suffix" as stored */
+        public String getName() { return name; }
+        /** Higher is a better match */
+        public int getScore() { return score; }
+    }
+
+    // A resident as indexed: its words, field by field
+    private static final class Doc {
+        final int residentId;
+        final String name;
+        final String sortName;
+        final String[][] words;
+        int[] termIds;
+
+        Doc(ResidentModel r) {
+            residentId = r.getResidentId();
+            name = displayName(r);
+            sortName = name.toLowerCase(Locale.ROOT);
+            words = new String[][] {
+                words(r.getFirstName()), words(r.getMiddleName()), words(r.getLastName()),
+                words(r.getSuffix()), digits(r.getContactNo()), words(r.getEmail())
+            };
+        }
+    }
+
+    // A distinct word of one field and the slots of the residents using it
+    private static final class Term {
+        final String word;
+        final int field;
+        final IntList slots = new IntList();
+
+        Term(String word, int field) {
+            this.word = word;
+            this.field = field;
+        }
+    }
+
+    // Growable int array; id lists stay ascending by adding in order
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        // Add unless it is the last value already (a word repeating a gram, a resident repeating a word)
+        void addIfNew(int value) {
+            if (size == 0 || values[size - 1] != value) add(value);
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+
+    // Open-addressing map from a packed gram (never 0) to its term list
+    private static final class GramMap {
+        long[] keys = new long[1024];
+        IntList[] lists = new IntList[1024];
+        int size;
+
+        IntList get(long gram) {
+            int mask = keys.length - 1;
+            for (int i = hash(gram) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == gram) return lists[i];
+                if (keys[i] == 0) return null;
+            }
+        }
+
+        IntList getOrAdd(long gram) {
+            int mask = keys.length - 1;
+            int i = hash(gram) & mask;
+            for (; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == gram) return lists[i];
+            }
+            keys[i] = gram;
+            IntList list = lists[i] = new IntList();
+            if (++size * 2 > keys.length) grow();
+            return list;
+        }
+
+        void merge(GramMap other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.keys[i] != 0) getOrAdd(other.keys[i]).addAll(other.lists[i]);
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            IntList[] oldLists = lists;
+            keys = new long[oldKeys.length * 2];
+            lists = new IntList[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                lists[i] = oldLists[j];
+            }
+        }
+
+        private static int hash(long gram) {
+            long h = gram * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /** True once the index has loaded */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Residents in the index */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Load every resident and build the index in the background (once;
+     * later calls share the same load)
+     * @return Future of the number of residents indexed
+     */
+    public synchronized CompletableFuture<Integer> loadAsync() {
+        if (loading == null || loading.isCompletedExceptionally()) {
+            loading = DataAccessExecutor.supply(() -> {
+                // Capture changes from here on, so saves made while reading are not lost
+                beginCapture();
+                Timestamp startedAt = (Timestamp) check()[0];
+                List<ResidentModel> residents = loadResidents();
+                install(residents);
+                checkedAt = startedAt;
+                checkedAtMillis = System.currentTimeMillis();
+                util.Logger.logInfo("Resident search index built: " + residents.size() + " residents");
+                return residents.size();
+            });
+            loading.exceptionally(e -> {
+                util.Logger.logError("ResidentSearchIndex", "Failed to build resident search index",
+                    e instanceof Exception ? (Exception) e : new Exception(e));
+                return null;
+            });
+        }
+        return loading;
+    }
+
+    /**
+     * Replace the index contents with the given residents, building it on
+     * several cores
+     */
+    public void rebuild(Collection<ResidentModel> residents) {
+        beginCapture();
+        install(residents);
+        checkedAt = null;
+    }
+
+    /**
+     * Apply saves made from other workstations, if the last check is older
+     * than resident.indexRefreshMs. Call off the EDT; concurrent callers wait
+     * for one refresh instead of each running their own.
+     * @throws SQLException if the changes could not be read (search in SQL instead)
+     */
+    public void refreshIfStale() throws SQLException {
+        if (checkedAt == null || System.currentTimeMillis() - checkedAtMillis < REFRESH_MS) return;
+        synchronized (refreshLock) {
+            Timestamp since = checkedAt;
+            if (since == null || System.currentTimeMillis() - checkedAtMillis < REFRESH_MS) return;
+            Object[] check = check();
+            Timestamp now = (Timestamp) check[0];
+            long count = (Long) check[1];
+            List<ResidentModel> changed;
+            try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(DELTA_SQL)) {
+                ps.setTimestamp(1, new Timestamp(since.getTime() - REFRESH_OVERLAP_MS));
+                changed = readResidents(ps);
+            }
+            for (ResidentModel r : changed) {
+                put(r);
+            }
+            // Rows deleted elsewhere leave no trace in updated_at; only look for them when the counts differ
+            int removed = 0;
+            if (size() != count) {
+                removed = removeMissing();
+            }
+            checkedAt = now;
+            checkedAtMillis = System.currentTimeMillis();
+            if (!changed.isEmpty() || removed > 0) {
+                util.Logger.logInfo("Resident search index refreshed: " + changed.size() + " changed, " + removed + " removed");
+            }
+        }
+    }
+
+    /**
+     * Add or replace a resident (after it was saved)
+     */
+    public void put(ResidentModel resident) {
+        Doc doc = new Doc(resident);
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(() -> putLocked(doc));
+            if (ready) putLocked(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a resident (after it was deleted)
+     */
+    public void remove(int residentId) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(() -> removeLocked(residentId));
+            if (ready) removeLocked(residentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches first
+     * @param query Words to find (every word must match)
+     * @param limit Maximum number of hits
+     * @return Ranked hits; empty for a blank query or before the index has loaded
+     */
+    public List<Hit> search(String query, int limit) {
+        String[] tokens = words(query);
+        List<Hit> hits = new ArrayList<>();
+        if (tokens.length == 0 || limit <= 0) return hits;
+        lock.readLock().lock();
+        try {
+            Matches[] matches = matchAll(tokens);
+            if (matches == null) return hits;
+            IntList found = new IntList();
+            IntList foundScores = new IntList();
+            collect(matches, limit, Integer.MAX_VALUE, found, foundScores);
+
+            // Pick the best limit without sorting everything: find the lowest score that
+            // still makes the cut, then take that score's lowest (first by name) slots
+            int maxScore = 0;
+            for (int i = 0; i < foundScores.size; i++) maxScore = Math.max(maxScore, foundScores.values[i]);
+            int[] perScore = new int[maxScore + 1];
+            for (int i = 0; i < foundScores.size; i++) perScore[foundScores.values[i]]++;
+            int cutoff = maxScore;
+            int above = 0;
+            while (cutoff > 0 && above + perScore[cutoff] < limit) above += perScore[cutoff--];
+            BitSet tied = new BitSet(slotCount);
+            for (int i = 0; i < found.size; i++) {
+                int score = foundScores.values[i];
+                if (score > cutoff) {
+                    Doc doc = docs[found.values[i]];
+                    hits.add(new Hit(doc.residentId, doc.name, score));
+                } else if (score == cutoff) {
+                    tied.set(found.values[i]);
+                }
+            }
+            for (int slot = tied.nextSetBit(0); slot >= 0 && hits.size() < limit; slot = tied.nextSetBit(slot + 1)) {
+                hits.add(new Hit(docs[slot].residentId, docs[slot].name, cutoff));
+            }
+            hits.sort((a, b) -> a.score != b.score ? Integer.compare(b.score, a.score) : a.name.compareToIgnoreCase(b.name));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of every resident matching the query, unranked
+     * @param max Give up (return null) when more than this many match
+     * @return The IDs, or null if the index has not loaded yet, the query has
+     *         nothing it can match on (only punctuation) or matches over max
+     */
+    public int[] matchingIds(String query, int max) {
+        String[] tokens = words(query);
+        lock.readLock().lock();
+        try {
+            if (!ready || tokens.length == 0) return null;
+            Matches[] matches = matchAll(tokens);
+            if (matches == null) return new int[0];
+            IntList found = new IntList();
+            if (!collect(matches, Integer.MAX_VALUE, max, found, new IntList())) return null;
+            int[] ids = new int[found.size];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = docs[found.values[i]].residentId;
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void beginCapture() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void install(Collection<ResidentModel> residents) {
+        // Slots in name order, so hits of equal rank come out sorted by walking a term's slots
+        Doc[] built = residents.parallelStream().map(Doc::new).sorted(BY_NAME).toArray(Doc[]::new);
+        Map<Integer, Integer> slots = new HashMap<>(built.length * 2);
+        for (int slot = 0; slot < built.length; slot++) {
+            Integer previous = slots.put(built[slot].residentId, slot);
+            if (previous != null) built[previous] = null;
+        }
+        List<Term> builtTerms = new ArrayList<>();
+        Map<String, Integer> builtIds = new HashMap<>();
+        for (int slot = 0; slot < built.length; slot++) {
+            if (built[slot] != null) addTerms(built[slot], slot, builtTerms, builtIds);
+        }
+        GramMap builtGrams = buildGrams(builtTerms);
+
+        lock.writeLock().lock();
+        try {
+            docs = built;
+            slotCount = built.length;
+            deadSlots = built.length - slots.size();
+            slotById = slots;
+            terms = builtTerms;
+            termIds = builtIds;
+            grams = builtGrams;
+            ready = true;
+            List<Runnable> changes = pending;
+            pending = null;
+            if (changes != null) changes.forEach(Runnable::run);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(Doc doc) {
+        removeLocked(doc.residentId);
+        if (slotCount == docs.length) docs = Arrays.copyOf(docs, Math.max(16, slotCount * 3 / 2));
+        int slot = slotCount++;
+        docs[slot] = doc;
+        slotById.put(doc.residentId, slot);
+        int firstNew = terms.size();
+        addTerms(doc, slot, terms, termIds);
+        for (int id = firstNew; id < terms.size(); id++) {
+            int termId = id;
+            forEachGram(terms.get(id).word, gram -> grams.getOrAdd(gram).addIfNew(termId));
+        }
+    }
+
+    private void removeLocked(int residentId) {
+        Integer slot = slotById.remove(residentId);
+        if (slot == null) return;
+        docs[slot] = null;
+        deadSlots++;
+        // Terms still list removed slots; start over once they are the majority
+        if (deadSlots > 10_000 && deadSlots > slotById.size()) {
+            Doc[] live = Arrays.stream(docs, 0, slotCount).filter(d -> d != null).sorted(BY_NAME).toArray(Doc[]::new);
+            List<Term> liveTerms = new ArrayList<>();
+            Map<String, Integer> liveIds = new HashMap<>();
+            slotById = new HashMap<>(live.length * 2);
+            for (int s = 0; s < live.length; s++) {
+                slotById.put(live[s].residentId, s);
+                addTerms(live[s], s, liveTerms, liveIds);
+            }
+            docs = live;
+            slotCount = live.length;
+            deadSlots = 0;
+            terms = liveTerms;
+            termIds = liveIds;
+            grams = buildGrams(liveTerms);
+        }
+    }
+
+    private static void addTerms(Doc doc, int slot, List<Term> terms, Map<String, Integer> termIds) {
+        int count = 0;
+        for (String[] field : doc.words) count += field.length;
+        int[] ids = new int[count];
+        int n = 0;
+        for (int f = 0; f < doc.words.length; f++) {
+            for (String word : doc.words[f]) {
+                String key = (char) ('0' + f) + word;
+                Integer id = termIds.get(key);
+                if (id == null) {
+                    id = terms.size();
+                    terms.add(new Term(word, f));
+                    termIds.put(key, id);
+                }
+                terms.get(id).slots.addIfNew(slot);
+                ids[n++] = id;
+            }
+        }
+        doc.termIds = ids;
+    }
+
+    // Each chunk of terms is indexed on its own core, then the chunks are appended in order
+    private static GramMap buildGrams(List<Term> terms) {
+        int chunks = (terms.size() + BUILD_CHUNK - 1) / BUILD_CHUNK;
+        GramMap[] parts = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            GramMap part = new GramMap();
+            int end = Math.min(terms.size(), (chunk + 1) * BUILD_CHUNK);
+            for (int id = chunk * BUILD_CHUNK; id < end; id++) {
+                int termId = id;
+                forEachGram(terms.get(id).word, gram -> part.getOrAdd(gram).addIfNew(termId));
+            }
+            return part;
+        }).toArray(GramMap[]::new);
+        GramMap merged = new GramMap();
+        for (GramMap part : parts) {
+            merged.merge(part);
+        }
+        return merged;
+    }
+
+    // Terms matching each query word, or null when some word matches none
+    private Matches[] matchAll(String[] tokens) {
+        Matches[] matches = new Matches[tokens.length];
+        for (int t = 0; t < tokens.length; t++) {
+            matches[t] = matchTerms(tokens[t]);
+            if (matches[t].size == 0) return null;
+        }
+        return matches;
+    }
+
+    // Terms matching one query word (ascending ids) and the score each gives
+    private static final class Matches {
+        final IntList termIds = new IntList();
+        final IntList scores = new IntList();
+        int size;
+
+        void add(int termId, int score) {
+            termIds.add(termId);
+            scores.add(score);
+            size++;
+        }
+
+        int scoreOf(int termId) {
+            int i = Arrays.binarySearch(termIds.values, 0, size, termId);
+            return i >= 0 ? scores.values[i] : 0;
+        }
+    }
+
+    private Matches matchTerms(String token) {
+        Matches matched = new Matches();
+        long[] needed = queryGrams(token);
+        IntList[] lists = new IntList[needed.length];
+        for (int i = 0; i < needed.length; i++) {
+            lists[i] = grams.get(needed[i]);
+            if (lists[i] == null) return matched;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(l -> l.size));
+        IntList smallest = lists[0];
+        // Lists are ascending, so each one is searched forward from where the last term was found
+        int[] cursors = new int[lists.length];
+        for (int i = 0; i < smallest.size; i++) {
+            int termId = smallest.values[i];
+            boolean all = true;
+            for (int l = 1; l < lists.length && all; l++) {
+                IntList other = lists[l];
+                int c = cursors[l];
+                if (c < other.size && other.values[c] < termId) {
+                    // Gallop ahead, then binary search the last step
+                    int lo = c;
+                    int step = 1;
+                    while (lo + step < other.size && other.values[lo + step] < termId) {
+                        lo += step;
+                        step <<= 1;
+                    }
+                    int pos = Arrays.binarySearch(other.values, lo + 1, Math.min(lo + step + 1, other.size), termId);
+                    c = pos >= 0 ? pos : -pos - 1;
+                }
+                cursors[l] = c;
+                all = c < other.size && other.values[c] == termId;
+            }
+            if (!all) continue;
+            Term term = terms.get(termId);
+            int quality = quality(term.word, token);
+            if (quality > 0) matched.add(termId, quality + FIELD_WEIGHT[term.field]);
+        }
+        return matched;
+    }
+
+    /**
+     * Residents matching every query word, with their scores. Includes at
+     * least the best limit of them (ties by name), not necessarily all.
+     * @return false if more than max were found (collecting stopped)
+     */
+    private boolean collect(Matches[] matches, int limit, int max, IntList found, IntList foundScores) {
+        BitSet seen = new BitSet(slotCount);
+        if (matches.length == 1) {
+            // One word: walk its terms from the highest score down and stop early
+            Matches matched = matches[0];
+            // Only a handful of distinct scores exist, so take the terms level by level
+            int[] levels = IntStream.of(Arrays.copyOf(matched.scores.values, matched.size)).distinct().sorted().toArray();
+            for (int level = levels.length - 1; level >= 0 && found.size < limit; level--) {
+                BitSet levelSlots = new BitSet(slotCount);
+                for (int m = 0; m < matched.size; m++) {
+                    if (matched.scores.values[m] != levels[level]) continue;
+                    IntList slots = terms.get(matched.termIds.values[m]).slots;
+                    for (int i = 0; i < slots.size; i++) {
+                        levelSlots.set(slots.values[i]);
+                    }
+                }
+                levelSlots.andNot(seen);
+                // Slots are in name order (residents added since the load come last), so the
+                // lowest ones are the level's best
+                for (int slot = levelSlots.nextSetBit(0); slot >= 0 && found.size < limit; slot = levelSlots.nextSetBit(slot + 1)) {
+                    if (docs[slot] == null) continue;
+                    if (found.size == max) return false;
+                    found.add(slot);
+                    foundScores.add(levels[level]);
+                }
+                seen.or(levelSlots);
+            }
+            return true;
+        }
+        // Several words: walk the residents of the rarest word and check the others
+        long[] sizes = new long[matches.length];
+        int rarest = 0;
+        for (int t = 0; t < matches.length; t++) {
+            for (int m = 0; m < matches[t].size; m++) sizes[t] += terms.get(matches[t].termIds.values[m]).slots.size;
+            if (sizes[t] < sizes[rarest]) rarest = t;
+        }
+        // Each word's best score per slot, spread from its term lists; a word far broader
+        // than the rarest one is instead looked up per resident
+        byte[][] best = new byte[matches.length][];
+        for (int t = 0; t < matches.length; t++) {
+            if (t != rarest && sizes[t] > 8 * sizes[rarest]) continue;
+            best[t] = new byte[slotCount];
+            for (int m = 0; m < matches[t].size; m++) {
+                int score = matches[t].scores.values[m];
+                IntList slots = terms.get(matches[t].termIds.values[m]).slots;
+                for (int i = 0; i < slots.size; i++) {
+                    if (score > best[t][slots.values[i]]) best[t][slots.values[i]] = (byte) score;
+                }
+            }
+        }
+        for (int m = 0; m < matches[rarest].size; m++) {
+            IntList slots = terms.get(matches[rarest].termIds.values[m]).slots;
+            for (int i = 0; i < slots.size; i++) {
+                int slot = slots.values[i];
+                if (docs[slot] == null || seen.get(slot)) continue;
+                seen.set(slot);
+                int score = score(slot, matches, best);
+                if (score == 0) continue;
+                if (found.size == max) return false;
+                found.add(slot);
+                foundScores.add(score);
+            }
+        }
+        return true;
+    }
+
+    // Sum over query words of the best score the resident has, 0 if a word has none
+    private int score(int slot, Matches[] matches, byte[][] best) {
+        int total = 0;
+        for (int t = 0; t < matches.length; t++) {
+            int wordBest = 0;
+            if (best[t] != null) {
+                wordBest = best[t][slot];
+            } else {
+                for (int termId : docs[slot].termIds) {
+                    wordBest = Math.max(wordBest, matches[t].scoreOf(termId));
+                }
+            }
+            if (wordBest == 0) return 0;
+            total += wordBest;
+        }
+        return total;
+    }
+
+    private static int quality(String word, String token) {
+        if (word.startsWith(token)) return word.length() == token.length() ? EXACT : PREFIX;
+        return token.length() >= 3 && word.contains(token) ? INFIX : 0;
+    }
+
+    private interface GramSink {
+        void accept(long gram);
+    }
+
+    // Grams stored for a word: two padded start grams, then every trigram
+    private static void forEachGram(String word, GramSink sink) {
+        String padded = WORD_START + "" + WORD_START + word;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            sink.accept(pack(padded, i));
+        }
+    }
+
+    // Grams a query word needs: its trigrams, or its padded start gram when shorter than three
+    private static long[] queryGrams(String token) {
+        if (token.length() < 3) {
+            String padded = (token.length() == 1 ? WORD_START + "" + WORD_START : WORD_START + "") + token;
+            return new long[] {pack(padded, 0)};
+        }
+        long[] needed = new long[token.length() - 2];
+        for (int i = 0; i < needed.length; i++) {
+            needed[i] = pack(token, i);
+        }
+        return needed;
+    }
+
+    private static long pack(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static String[] words(String value) {
+        String normalized = normalize(value);
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static String[] digits(String value) {
+        if (value == null) return new String[0];
+        String d = value.replaceAll("\\D", "");
+        return d.isEmpty() ? new String[0] : new String[] {d};
+    }
+
+    /**
+     * Lowercase without accents or punctuation (letters, digits, '.' and '_'
+     * are kept), words separated by single spaces. Space, comma, slash,
+     * hyphen and '@' separate words, so "Santos-Reyes" is two words and an
+     * email is its name and its domain.
+     */
+    static String normalize(String value) {
+        if (value == null) return "";
+        String source = value;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                source = Normalizer.normalize(value, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        StringBuilder sb = new StringBuilder(source.length());
+        boolean space = false;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '.' || c == '_') {
+                if (space && sb.length() > 0) sb.append(' ');
+                space = false;
+                sb.append(Character.toLowerCase(c));
+            } else if (Character.isWhitespace(c) || c == ',' || c == '/' || c == '-' || c == '@') {
+                space = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String displayName(ResidentModel r) {
+        StringBuilder sb = new StringBuilder();
+        if (r.getLastName() != null) sb.append(r.getLastName());
+        sb.append(", ");
+        if (r.getFirstName() != null) sb.append(r.getFirstName());
+        if (r.getMiddleName() != null && !r.getMiddleName().isEmpty()) sb.append(' ').append(r.getMiddleName());
+        if (r.getSuffix() != null && !r.getSuffix().isEmpty()) sb.append(' ').append(r.getSuffix());
+        return sb.toString();
+    }
+
+    // Database time and resident count
+    private static Object[] check() throws SQLException {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(CHECK_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return new Object[] {rs.getTimestamp(1), rs.getLong(2)};
+        }
+    }
+
+    // Drop indexed residents that are no longer in the table
+    private int removeMissing() throws SQLException {
+        Set<Integer> present = new HashSet<>();
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(IDS_SQL)) {
+            ps.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) present.add(rs.getInt(1));
+            }
+        }
+        List<Integer> missing = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Integer id : slotById.keySet()) {
+                if (!present.contains(id)) missing.add(id);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int id : missing) {
+            remove(id);
+        }
+        return missing.size();
+    }
+
+    private static List<ResidentModel> loadResidents() throws SQLException {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(LOAD_SQL)) {
+            return readResidents(ps);
+        }
+    }
+
+    private static List<ResidentModel> readResidents(PreparedStatement ps) throws SQLException {
+        List<ResidentModel> list = new ArrayList<>();
+        ps.setFetchSize(FETCH_SIZE);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ResidentModel r = new ResidentModel();
+                r.setResidentId(rs.getInt("resident_id"));
+                r.setFirstName(rs.getString("first_name"));
+                r.setMiddleName(rs.getString("middle_name"));
+                r.setLastName(rs.getString("last_name"));
+                r.setSuffix(rs.getString("suffix"));
+                r.setContactNo(rs.getString("contact_no"));
+                r.setEmail(rs.getString("email"));
+                list.add(r);
+            }
+        }
+        return list;
+    }
+}
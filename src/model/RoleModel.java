@@ -3,6 +3,8 @@ package model;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import db.DbConnection;
 
 /**
@@ -45,8 +47,8 @@ public class RoleModel {
             String sql = "SELECT role_id, role_name, description, permissions " +
                         "FROM roles ORDER BY role_id";
             
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ResultSet rs = ps.executeQuery();
             
             while (rs.next()) {
                 roles.add(new Role(
@@ -63,6 +65,14 @@ public class RoleModel {
         
         return roles;
     }
+
+    /**
+     * Load all roles without blocking the caller
+     * @return Future of getAllRoles()
+     */
+    public static CompletableFuture<List<Role>> getAllRolesAsync() {
+        return DataAccessExecutor.supply(RoleModel::getAllRoles);
+    }
     
     /**
      * Get role by ID
@@ -108,6 +118,7 @@ public class RoleModel {
             ps.setString(3, permissions);
             
             int result = ps.executeUpdate();
+            Permissions.invalidateAll();
             util.Logger.logCRUDOperation("CREATE", "Role", roleName, 
                 "Description: " + description);
             
@@ -137,6 +148,7 @@ public class RoleModel {
             ps.setString(4, roleId);
             
             int result = ps.executeUpdate();
+            Permissions.invalidate(roleId);
             util.Logger.logCRUDOperation("UPDATE", "Role", roleId, roleName);
             
             return result > 0;
@@ -163,6 +175,7 @@ public class RoleModel {
             ps.setString(1, roleId);
             
             int result = ps.executeUpdate();
+            Permissions.invalidate(roleId);
             util.Logger.logCRUDOperation("DELETE", "Role", roleId, "");
             
             return result > 0;
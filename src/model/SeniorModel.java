@@ -1,9 +1,11 @@
 package model;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import db.DbConnection;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 
 /**
  * Model class for Senior Citizen data operations
@@ -37,29 +39,17 @@ public class SeniorModel {
     }
     
     /**
-     * Get all senior citizens (residents aged 60+)
+     * Get all senior citizens (residents aged 60+ by birth date), oldest first
      * @return List of Senior objects
      */
     public static List<Senior> getAllSeniors() {
         List<Senior> seniors = new ArrayList<>();
-        
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT resident_id, CONCAT(first_name, ' ', last_name) as name, " +
-                        "age, gender, contact_no " +
-                        "FROM residents WHERE age >= 60 " +
-                        "ORDER BY age DESC";
-            
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            while (rs.next()) {
-                seniors.add(new Senior(
-                    rs.getInt("resident_id"),
-                    rs.getString("name"),
-                    rs.getInt("age"),
-                    rs.getString("gender"),
-                    rs.getString("contact_no")
-                ));
+        try {
+            AgeBracketIndex.getInstance().ensureLoaded();
+            List<AgeBracketIndex.Member> members = AgeBracketIndex.getInstance().members(AgeBracketIndex.Bracket.SENIOR);
+            members.sort(Comparator.comparingInt(AgeBracketIndex.Member::getAge).reversed());
+            for (AgeBracketIndex.Member m : members) {
+                seniors.add(new Senior(m.getResidentId(), m.getName(), m.getAge(), m.getGender(), m.getContactNo()));
             }
         } catch (SQLException e) {
             util.Logger.logError("SeniorModel", "Error loading seniors", e);
@@ -68,20 +58,23 @@ public class SeniorModel {
         
         return seniors;
     }
+
+    /**
+     * Load all senior citizens without blocking the caller
+     * @return Future of getAllSeniors()
+     */
+    public static CompletableFuture<List<Senior>> getAllSeniorsAsync() {
+        return DataAccessExecutor.supply(SeniorModel::getAllSeniors);
+    }
     
     /**
      * Get total count of senior citizens
      * @return Number of seniors in the system
      */
     public static int getSeniorsCount() {
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT COUNT(*) as count FROM residents WHERE age >= 60";
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
+        try {
+            AgeBracketIndex.getInstance().ensureLoaded();
+            return AgeBracketIndex.getInstance().count(AgeBracketIndex.Bracket.SENIOR);
         } catch (SQLException e) {
             util.Logger.logError("SeniorModel", "Error getting seniors count", e);
         }
@@ -1,36 +1,266 @@
 package model;
 
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Signed-in sessions, keyed by a random token.
+ *
+ * Several sessions can be open at once (a kiosk and an admin on one
+ * terminal, or a headless service). Which one is "current" is decided per
+ * thread: code running for a specific session wraps itself in runAs(), and
+ * every other thread (the EDT, background workers) sees the default session,
+ * the one the desktop login opened. Lookups are a ThreadLocal or volatile
+ * read and a ConcurrentHashMap get, so Logger can ask for the current user
+ * on every line without taking a lock.
+ *
+ * Sessions not used for session.idleMinutes (default 30) are closed by a
+ * background sweep; expiry listeners are told about each one. Only real use
+ * counts: get(token) and Session.touch() (ui.SessionWatcher calls it on
+ * every key and mouse event while a signed-in frame is open). Looking up the current session, as Logger does for
+ * every line, does not keep a session alive.
+ *
+ * Each session also caches its user's compiled permission mask, so checks
+ * for the current user (Permissions.hasPermission) are one bit test. It is
+ * compiled when the session opens and again after its role changes.
+ */
 public class SessionManager {
-    private static SessionManager instance;
-    private User currentUser;
 
-    private SessionManager() {}
+    private static final long IDLE_MS = TimeUnit.MINUTES.toMillis(Long.getLong("session.idleMinutes", 30L));
+    // lastAccess is only rewritten when it is at least this old, so hot paths don't keep writing it
+    private static final long TOUCH_GRANULARITY_MS = 1000;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final SessionManager instance = new SessionManager();
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ThreadLocal<Session> bound = new ThreadLocal<>();
+    private final List<Consumer<Session>> expiryListeners = new CopyOnWriteArrayList<>();
+    private volatile Session defaultSession;
+
+    /**
+     * One signed-in user
+     */
+    public static class Session {
+        private final String token;
+        private final User user;
+        private final long createdAt;
+        private volatile long lastAccess;
+        // Compiled role mask (see Permissions), null after the role changed until the next check
+        private volatile Long permissions;
+
+        Session(String token, User user) {
+            this.token = token;
+            this.user = user;
+            this.createdAt = System.currentTimeMillis();
+            this.lastAccess = createdAt;
+        }
+
+        public String getToken() { return token; }
+        public User getUser() { return user; }
+        public long getCreatedAt() { return createdAt; }
+        public long getLastAccess() { return lastAccess; }
+
+        /**
+         * Mark the session as used now (resets its idle time)
+         */
+        public void touch() {
+            long now = System.currentTimeMillis();
+            if (now - lastAccess >= TOUCH_GRANULARITY_MS) {
+                lastAccess = now;
+            }
+        }
+
+        /**
+         * True if the session's role grants the permission
+         */
+        public boolean hasPermission(Permission permission) {
+            Long mask = permissions;
+            if (mask == null) {
+                mask = Permissions.maskOf(user.getRoleId());
+                permissions = mask;
+            }
+            return (mask & permission.bit()) != 0;
+        }
+
+        boolean isIdle(long now) {
+            return now - lastAccess > IDLE_MS;
+        }
+    }
+
+    private SessionManager() {
+        ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(60_000, IDLE_MS / 4));
+        reaper.scheduleWithFixedDelay(this::expireIdle, period, period, TimeUnit.MILLISECONDS);
+    }
 
-    public static synchronized SessionManager getInstance() {
-        if (instance == null) instance = new SessionManager();
+    public static SessionManager getInstance() {
         return instance;
     }
 
+    /**
+     * Start a session for a user who has just authenticated
+     * @return The new session; pass its token to get()/close() or the session to runAs()
+     */
+    public Session open(User user) {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), user);
+        session.permissions = Permissions.maskOf(user.getRoleId());
+        sessions.put(session.getToken(), session);
+        return session;
+    }
+
+    /**
+     * Live session for a token (touching it), or null if unknown or expired
+     */
+    public Session get(String token) {
+        if (token == null) return null;
+        Session session = sessions.get(token);
+        if (session == null) return null;
+        if (session.isIdle(System.currentTimeMillis())) {
+            expire(session);
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * End a session and record the logout
+     */
+    public void close(String token) {
+        Session session = token != null ? sessions.remove(token) : null;
+        if (session == null) return;
+        if (defaultSession == session) defaultSession = null;
+        try {
+            new UserModel().logUserActivity(session.getUser().getUserId(), "User logged out", "127.0.0.1");
+            // Make sure the session's audit trail is stored before the next user signs in
+            AuditLogWriter.getInstance().flush(2000);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Run a task with the session as the current one on this thread
+     */
+    public void runAs(Session session, Runnable task) {
+        Session previous = bound.get();
+        bound.set(session);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) bound.set(previous); else bound.remove();
+        }
+    }
+
+    /**
+     * The session this thread acts for: the one bound by runAs(), otherwise
+     * the default session. Null when nobody is signed in. Does not touch it.
+     */
+    public Session currentSession() {
+        Session session = bound.get();
+        if (session == null) session = defaultSession;
+        if (session == null || !sessions.containsKey(session.getToken())) return null;
+        return session;
+    }
+
+    /**
+     * Drop the cached permissions of sessions with the role (every session
+     * for null); they are compiled again on the next check
+     */
+    void invalidatePermissions(String roleId) {
+        for (Session session : sessions.values()) {
+            if (roleId == null || roleId.equals(session.getUser().getRoleId())) {
+                session.permissions = null;
+            }
+        }
+    }
+
+    /**
+     * Called (on the reaper thread) with each session closed for being idle
+     */
+    public void addExpiryListener(Consumer<Session> listener) {
+        expiryListeners.add(listener);
+    }
+
+    public void removeExpiryListener(Consumer<Session> listener) {
+        expiryListeners.remove(listener);
+    }
+
+    /**
+     * Snapshot of the open sessions
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    /**
+     * Open a session for the user and make it the default one (the desktop
+     * login); null signs the default session out without recording it
+     */
     public void setCurrentUser(User user) {
-        this.currentUser = user;
+        Session previous = defaultSession;
+        if (previous != null) sessions.remove(previous.getToken());
+        defaultSession = user != null ? open(user) : null;
     }
 
     public User getCurrentUser() {
-        return currentUser;
+        Session session = currentSession();
+        return session != null ? session.getUser() : null;
     }
 
     public boolean isAuthenticated() {
-        return currentUser != null;
+        return currentSession() != null;
     }
 
+    /**
+     * End the current session (the default session only when it is the
+     * current one; close() clears it then)
+     */
     public void logout() {
-        if (currentUser != null) {
+        Session session = currentSession();
+        if (session != null) {
+            close(session.getToken());
+        }
+    }
+
+    private void expireIdle() {
+        long now = System.currentTimeMillis();
+        for (Session session : sessions.values()) {
+            if (session.isIdle(now)) {
+                expire(session);
+            }
+        }
+    }
+
+    private void expire(Session session) {
+        // Only the thread that removes it reports it
+        if (!sessions.remove(session.getToken(), session)) return;
+        if (defaultSession == session) defaultSession = null;
+        new UserModel().logUserActivity(session.getUser().getUserId(), "Session expired", "127.0.0.1");
+        util.Logger.logInfo("Session of " + session.getUser().getUsername() + " expired after "
+            + TimeUnit.MILLISECONDS.toMinutes(IDLE_MS) + " idle minutes");
+        for (Consumer<Session> listener : expiryListeners) {
             try {
-                new UserModel().logUserActivity(currentUser.getUserId(), "User logged out", "127.0.0.1");
-            } catch (Exception e) {
+                listener.accept(session);
+            } catch (RuntimeException e) {
                 e.printStackTrace();
             }
         }
-        currentUser = null;
     }
 }
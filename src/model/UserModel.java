@@ -1,39 +1,38 @@
 package model;
 
 import db.DbConnection;
+import db.SchemaMetadata;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserModel {
-    private Connection conn;
-
-    public UserModel() {
-        try {
-            this.conn = DbConnection.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            this.conn = null;
-        }
-    }
+    // Connections are borrowed per call so a UserModel never pins a pooled connection
+    public UserModel() {}
 
     public User getUserByUsernameOrEmail(String usernameOrEmail) {
-        if (conn == null) return null;
         String sql = "SELECT * FROM users WHERE username = ? OR email = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, usernameOrEmail);
-            stmt.setString(2, usernameOrEmail);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new User(
-                    rs.getString("user_id"),
-                    rs.getString("username"),
-                    rs.getString("hashed_password"),
-                    rs.getString("fullname"),
-                    rs.getString("email"),
-                    rs.getString("role_id"),
-                    rs.getString("status")
-                );
+        try (Connection conn = DbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                // The hash column name differs between older schemas
+                String hashCol = SchemaMetadata.usersColumns(conn).getHashColumn();
+                stmt.setString(1, usernameOrEmail);
+                stmt.setString(2, usernameOrEmail);
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    return new User(
+                        rs.getString("user_id"),
+                        rs.getString("username"),
+                        hashCol != null ? rs.getString(hashCol) : null,
+                        rs.getString("fullname"),
+                        rs.getString("email"),
+                        rs.getString("role_id"),
+                        rs.getString("status")
+                    );
+                }
+            } catch (SQLException e) {
+                SchemaMetadata.invalidateOn(conn, e);
+                throw e;
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -41,59 +40,18 @@ public class UserModel {
         return null;
     }
 
-    public boolean logUserActivity(String userId, String action, String ipAddress) {
-        if (conn == null) {
-            util.Logger.logError("Log user activity", "Database connection is null", null);
-            return false;
-        }
-        
-        String sql = "INSERT INTO user_logs (user_id, action, ip_address) VALUES (?, ?, ?)";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, userId);
-            stmt.setString(2, action);
-            stmt.setString(3, ipAddress);
-            boolean success = stmt.executeUpdate() > 0;
-            
-            if (success) {
-                // Also log to user.log file
-                try {
-                    // Get username for better logging
-                    String username = getUsernameById(userId);
-                    util.Logger.logUserActivity(username != null ? username : userId, action, "IP: " + ipAddress);
-                } catch (Exception e) {
-                    // Don't fail the database insert if file logging fails
-                    System.err.println("Failed to write to user.log: " + e.getMessage());
-                }
-            }
-            
-            return success;
-        } catch (SQLException e) {
-            util.Logger.logDatabaseError(sql, e);
-            e.printStackTrace();
-            return false;
-        }
-    }
-    
     /**
-     * Get username by user ID
+     * Record a user action in user_logs (and user.log). The insert is done in
+     * the background by AuditLogWriter, so this never waits on the database.
+     * @return false if the record had to be dropped because the audit queue is full
      */
-    private String getUsernameById(String userId) {
-        if (conn == null) return null;
-        String sql = "SELECT username FROM users WHERE user_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) return rs.getString("username");
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
+    public boolean logUserActivity(String userId, String action, String ipAddress) {
+        return AuditLogWriter.getInstance().log(userId, action, ipAddress);
     }
 
     public String getRoleName(String roleId) {
-        if (conn == null) return null;
         String sql = "SELECT role_name FROM roles WHERE role_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, roleId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) return rs.getString("role_name");
@@ -105,9 +63,8 @@ public class UserModel {
 
     public List<String[]> getRecentLogs(int limit) {
         List<String[]> out = new ArrayList<>();
-        if (conn == null) return out;
         String sql = "SELECT log_id, user_id, action, log_time, ip_address FROM user_logs ORDER BY log_time DESC LIMIT ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, limit);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
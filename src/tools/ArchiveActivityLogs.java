@@ -0,0 +1,41 @@
+package tools;
+
+import model.ActivityLogArchiver;
+import model.DataExporter;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Moves old user_logs rows to monthly gzip archives in small chunks.
+ * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.ArchiveActivityLogs [days] [--partitions months]
+ *   days        archive entries older than this many days (default 30)
+ *   --partitions only add monthly partitions up to this many months ahead, then exit
+ * Use -Darchive.dir=..., -Darchive.chunkSize=... to change where and how much per chunk.
+ */
+public class ArchiveActivityLogs {
+    public static void main(String[] args) {
+        try {
+            if (args.length >= 2 && "--partitions".equals(args[0])) {
+                int added = ActivityLogArchiver.addPartitions(Integer.parseInt(args[1]));
+                System.out.println("Added " + added + " partition(s)");
+                for (ActivityLogArchiver.Partition p : ActivityLogArchiver.getPartitions()) {
+                    System.out.printf("  %-10s < %-10s ~%,d rows%n", p.getName(),
+                        p.getEnd() == null ? "MAXVALUE" : p.getEnd(), p.getEstimatedRows());
+                }
+                return;
+            }
+
+            int days = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+            DataExporter.Progress done = ActivityLogArchiver.archiveOlderThan(days, p -> System.out.printf(
+                "\r%,d / %,d rows  %,.0f rows/s", p.getRows(), p.getTotalRows(), p.getRowsPerSecond()));
+            System.out.printf("%nArchived %,d log entries older than %d days in %.1f s%n",
+                done.getRows(), days, done.getElapsedMillis() / 1000.0);
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: ArchiveActivityLogs [days] | --partitions <monthsAhead>");
+            System.exit(2);
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package tools;
+
+import model.DataExporter;
+import java.io.*;
+import java.sql.SQLException;
+
+/**
+ * Command-line export of a table to CSV or JSON Lines.
+ * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.ExportData <dataset> <csv|jsonl> <outputFile|->
+ * Datasets: residents, households, financial_transactions, blotter_incidents.
+ * An output name ending in ".gz" is gzip-compressed; "-" writes to standard output.
+ */
+public class ExportData {
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: ExportData <residents|households|financial_transactions|blotter_incidents> <csv|jsonl> <outputFile|->");
+            System.exit(2);
+        }
+        DataExporter.Dataset dataset;
+        DataExporter.Format format;
+        try {
+            dataset = DataExporter.Dataset.fromName(args[0]);
+            format = DataExporter.Format.valueOf(args[1].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        // Progress goes to stderr so stdout can carry the data
+        DataExporter.ProgressListener progress = p -> System.err.printf("\r%,d / %,d rows  %,.0f rows/s",
+            p.getRows(), p.getTotalRows(), p.getRowsPerSecond());
+        try {
+            DataExporter.Progress done;
+            if ("-".equals(args[2])) {
+                done = DataExporter.export(dataset, format, System.out, progress);
+            } else {
+                done = DataExporter.export(dataset, format, new File(args[2]), progress);
+            }
+            System.err.printf("%nExported %,d %s rows in %.1f s%n", done.getRows(), dataset, done.getElapsedMillis() / 1000.0);
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
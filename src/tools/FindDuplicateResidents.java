@@ -0,0 +1,44 @@
+package tools;
+
+import model.DuplicateResidentFinder;
+import model.ResidentModel;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Lists residents who were probably registered twice, most likely pairs first.
+ * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.FindDuplicateResidents [minScore] [report.csv]
+ * minScore is 0-100 (default resident.duplicateMinScore, 85). The report is
+ * written as CSV to the given file, or to standard output.
+ */
+public class FindDuplicateResidents {
+    public static void main(String[] args) {
+        int minScore = args.length > 0 ? Integer.parseInt(args[0]) : DuplicateResidentFinder.MIN_SCORE;
+        long start = System.nanoTime();
+        List<ResidentModel> residents = ResidentModel.getAll();
+        List<DuplicateResidentFinder.Match> matches = DuplicateResidentFinder.findAll(residents, minScore);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+
+        try (PrintWriter out = args.length > 1
+                ? new PrintWriter(new OutputStreamWriter(new FileOutputStream(args[1]), StandardCharsets.UTF_8))
+                : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            out.println("score,resident_id,name,birth_date,duplicate_id,duplicate_name,duplicate_birth_date");
+            for (DuplicateResidentFinder.Match m : matches) {
+                out.println(m.getScore() + "," + row(m.getFirst()) + "," + row(m.getSecond()));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.err.println(matches.size() + " possible duplicate pair(s) among " + residents.size()
+            + " residents in " + ms + " ms.");
+    }
+
+    private static String row(ResidentModel r) {
+        String name = r.getLastName() + ", " + r.getFirstName()
+            + (r.getMiddleName() != null && !r.getMiddleName().isEmpty() ? " " + r.getMiddleName() : "")
+            + (r.getSuffix() != null ? " " + r.getSuffix() : "");
+        return r.getResidentId() + ",\"" + name.replace("\"", "\"\"") + "\"," + (r.getBirthDate() != null ? r.getBirthDate() : "");
+    }
+}
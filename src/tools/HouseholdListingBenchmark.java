@@ -0,0 +1,169 @@
+package tools;
+
+import db.DbConnection;
+import model.HouseholdModel;
+import java.sql.*;
+import java.util.Arrays;
+
+/**
+ * Compares the old correlated-subquery household listing with the maintained
+ * summary listing on generated data.
+ * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.HouseholdListingBenchmark [households] [membersPerHousehold] [schema]
+ * Defaults: 50000 households, 4 members each, schema bench_barangay_biga.
+ * The schema is created, filled, measured and dropped again; it must start with
+ * "bench_" and must not be the configured database, which is never touched.
+ */
+public class HouseholdListingBenchmark {
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 7;
+    private static final int ROWS_PER_INSERT = 1000;
+    // Only schemas with this prefix are ever dropped
+    private static final String SCHEMA_PREFIX = "bench_";
+
+    // The listing query HouseholdPanel ran before the summary columns existed
+    private static final String LEGACY_LISTING_SQL =
+        "SELECT h.household_id, h.family_no, " +
+        "CONCAT(COALESCE(r.first_name, ''), ' ', COALESCE(r.middle_name, ''), ' ', COALESCE(r.last_name, '')) AS head_name, " +
+        "h.address, h.income, " +
+        "(SELECT COUNT(*) FROM residents r2 WHERE r2.household_id = h.household_id) as member_count " +
+        "FROM households h " +
+        "LEFT JOIN residents r ON h.household_id = r.household_id AND r.resident_id = " +
+        "(SELECT MIN(r3.resident_id) FROM residents r3 WHERE r3.household_id = h.household_id) " +
+        "ORDER BY h.household_id";
+
+    public static void main(String[] args) {
+        int households = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int members = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String schema = args.length > 2 ? args[2] : SCHEMA_PREFIX + "barangay_biga";
+        if (!schema.matches(SCHEMA_PREFIX + "[a-z0-9_]{1,58}")) {
+            System.err.println("Schema name must start with \"" + SCHEMA_PREFIX
+                + "\" followed by lowercase letters, digits or underscores (64 characters at most)");
+            System.exit(2);
+        }
+        String quoted = "`" + schema + "`";
+
+        try (Connection conn = DbConnection.getConnection()) {
+            String originalCatalog = conn.getCatalog();
+            if (schema.equalsIgnoreCase(originalCatalog)) {
+                System.err.println("Refusing to use the configured database " + originalCatalog + " as the benchmark schema");
+                System.exit(2);
+            }
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP DATABASE IF EXISTS " + quoted);
+                st.execute("CREATE DATABASE " + quoted);
+            }
+            conn.setCatalog(schema);
+            try {
+                createTables(conn);
+                long seedStart = System.nanoTime();
+                seed(conn, households, members);
+                System.out.printf("Seeded %,d households / %,d residents in %d ms%n",
+                    households, (long) households * members, (System.nanoTime() - seedStart) / 1_000_000);
+
+                long rebuildStart = System.nanoTime();
+                HouseholdModel.rebuildSummaries(conn);
+                System.out.printf("Summary rebuild: %d ms%n", (System.nanoTime() - rebuildStart) / 1_000_000);
+
+                long legacy = median(() -> runLegacy(conn));
+                long summary = median(() -> HouseholdModel.getSummaries(conn).size());
+                System.out.printf("Correlated subqueries: median %d ms over %d runs%n", legacy, MEASURED_RUNS);
+                System.out.printf("Maintained summary:    median %d ms over %d runs%n", summary, MEASURED_RUNS);
+                if (summary > 0) {
+                    System.out.printf("Speed-up: %.1fx%n", (double) legacy / summary);
+                }
+            } finally {
+                conn.setCatalog(originalCatalog);
+                try (Statement st = conn.createStatement()) {
+                    st.execute("DROP DATABASE IF EXISTS " + quoted);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void createTables(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE households (" +
+                "household_id INT(11) NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "family_no INT(11) NOT NULL, " +
+                "household_head_id INT(11) NULL, " +
+                "head_name VARCHAR(255) NULL, " +
+                "address VARCHAR(255) NOT NULL, " +
+                "income DECIMAL(12,2) NULL DEFAULT 0.00, " +
+                "member_count INT(11) NOT NULL DEFAULT 0, " +
+                "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+                "INDEX idx_household_head_id (household_head_id))");
+            st.execute("CREATE TABLE residents (" +
+                "resident_id INT(11) NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "household_id INT(11) NULL, " +
+                "first_name VARCHAR(100) NOT NULL, " +
+                "middle_name VARCHAR(100) NULL, " +
+                "last_name VARCHAR(100) NOT NULL, " +
+                "INDEX idx_residents_household_member (household_id, resident_id))");
+        }
+    }
+
+    private static void seed(Connection conn, int households, int members) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement()) {
+            StringBuilder sql = new StringBuilder();
+            for (int h = 1; h <= households; h++) {
+                sql.append(sql.length() == 0 ? "INSERT INTO households (household_id, family_no, address, income) VALUES " : ",")
+                   .append('(').append(h).append(',').append(h).append(",'Purok ").append(h % 7 + 1)
+                   .append("',").append(10_000 + h % 40_000).append(')');
+                if (h % ROWS_PER_INSERT == 0 || h == households) {
+                    st.executeUpdate(sql.toString());
+                    sql.setLength(0);
+                }
+            }
+            long total = (long) households * members;
+            for (long i = 0; i < total; i++) {
+                long householdId = i / members + 1;
+                sql.append(sql.length() == 0 ? "INSERT INTO residents (household_id, first_name, middle_name, last_name) VALUES " : ",")
+                   .append('(').append(householdId).append(",'First").append(i)
+                   .append("','M','Last").append(householdId).append("')");
+                if ((i + 1) % ROWS_PER_INSERT == 0 || i == total - 1) {
+                    st.executeUpdate(sql.toString());
+                    sql.setLength(0);
+                }
+            }
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static int runLegacy(Connection conn) throws SQLException {
+        int rows = 0;
+        try (PreparedStatement ps = conn.prepareStatement(LEGACY_LISTING_SQL); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                rs.getString("head_name");
+                rs.getInt("member_count");
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private interface Query {
+        int run() throws SQLException;
+    }
+
+    private static long median(Query query) throws SQLException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.run();
+        }
+        long[] times = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            times[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        return times[MEASURED_RUNS / 2];
+    }
+}
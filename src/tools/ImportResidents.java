@@ -0,0 +1,385 @@
+package tools;
+
+import db.DbConnection;
+import model.HouseholdModel;
+import model.ResidentModel;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Command-line bulk import of households and residents from a CSV file.
+ * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.ImportResidents <file.csv> [batchSize] [workers]
+ *
+ * The first line is a header. Required columns: first_name, last_name, birth_date (yyyy-MM-dd), gender.
+ * Optional: family_no, address, income, middle_name, suffix, contact_no, email.
+ * Rows with the same family_no go into one household, which is reused if it already exists
+ * and created otherwise; rows without family_no are imported without a household.
+ *
+ * The file is streamed: lines are parsed and validated on worker threads while a single
+ * writer inserts validated chunks with ResidentModel.createAll. A chunk the database refuses
+ * is retried row by row, so only the failing rows are rejected. Rejected rows are written
+ * to <file>.rejects.csv with their line number and reason.
+ */
+public class ImportResidents {
+
+    private static final String FIND_HOUSEHOLD_SQL = "SELECT household_id FROM households WHERE family_no = ? ORDER BY household_id LIMIT 1";
+    private static final List<String> REQUIRED = Arrays.asList("first_name", "last_name", "birth_date", "gender");
+
+    /** One validated CSV row */
+    private static class Row {
+        final long lineNo;
+        final String raw;
+        final ResidentModel resident;
+        final Integer familyNo;
+        final String address;
+        final double income;
+
+        Row(long lineNo, String raw, ResidentModel resident, Integer familyNo, String address, double income) {
+            this.lineNo = lineNo;
+            this.raw = raw;
+            this.resident = resident;
+            this.familyNo = familyNo;
+            this.address = address;
+            this.income = income;
+        }
+    }
+
+    /** Worker output for one chunk of lines */
+    private static class ParsedChunk {
+        final List<Row> rows = new ArrayList<>();
+        final List<String> rejects = new ArrayList<>();
+    }
+
+    private final Map<String, Integer> columns;
+    private final int batchSize;
+    private final Map<Integer, Integer> householdIds = new HashMap<>();
+    private final PrintWriter rejectsOut;
+    private long imported = 0;
+    private long rejected = 0;
+
+    private ImportResidents(Map<String, Integer> columns, int batchSize, PrintWriter rejectsOut) {
+        this.columns = columns;
+        this.batchSize = batchSize;
+        this.rejectsOut = rejectsOut;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: ImportResidents <file.csv> [batchSize] [workers]");
+            System.exit(2);
+        }
+        File input = new File(args[0]);
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        File rejectsFile = new File(input.getPath() + ".rejects.csv");
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "csv-parser");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        long lines = 0;
+        ImportResidents importer = null;
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8));
+             PrintWriter rejectsOut = new PrintWriter(new OutputStreamWriter(new FileOutputStream(rejectsFile), StandardCharsets.UTF_8))) {
+            String header = in.readLine();
+            if (header == null) {
+                System.err.println("Empty file: " + input);
+                System.exit(3);
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = parseCsvLine(stripBom(header));
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : REQUIRED) {
+                if (!columns.containsKey(required)) {
+                    System.err.println("Missing required column: " + required);
+                    System.exit(3);
+                }
+            }
+            rejectsOut.println("line,reason,row");
+            importer = new ImportResidents(columns, batchSize, rejectsOut);
+
+            // Parsed chunks are written in file order; the deque bounds how far parsing runs ahead
+            Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            List<Long> lineNos = new ArrayList<>(batchSize);
+            List<String> chunk = new ArrayList<>(batchSize);
+            long lineNo = 1;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                long firstLine = lineNo;
+                // A quoted field may span lines: keep reading until the quotes balance
+                while (countQuotes(line) % 2 != 0) {
+                    String next = in.readLine();
+                    if (next == null) break;
+                    lineNo++;
+                    line = line + "\n" + next;
+                }
+                if (line.trim().isEmpty()) continue;
+                lines++;
+                chunk.add(line);
+                lineNos.add(firstLine);
+                if (chunk.size() == batchSize) {
+                    inFlight.add(importer.submit(pool, chunk, lineNos));
+                    chunk = new ArrayList<>(batchSize);
+                    lineNos = new ArrayList<>(batchSize);
+                    while (inFlight.size() > workers * 2) {
+                        importer.write(inFlight.poll().get());
+                        importer.progress(start);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inFlight.add(importer.submit(pool, chunk, lineNos));
+            }
+            while (!inFlight.isEmpty()) {
+                importer.write(inFlight.poll().get());
+                importer.progress(start);
+            }
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = Math.max(0.001, (System.nanoTime() - start) / 1e9);
+        System.out.println();
+        System.out.printf("Read %,d rows in %.1f s: %,d imported, %,d rejected (%.0f rows/s)%n",
+            lines, seconds, importer.imported, importer.rejected, importer.imported / seconds);
+        if (importer.rejected > 0) {
+            System.out.println("Rejected rows: " + rejectsFile.getPath());
+        } else {
+            rejectsFile.delete();
+        }
+    }
+
+    private Future<ParsedChunk> submit(ExecutorService pool, List<String> chunk, List<Long> lineNos) {
+        return pool.submit(() -> {
+            ParsedChunk parsed = new ParsedChunk();
+            for (int i = 0; i < chunk.size(); i++) {
+                long lineNo = lineNos.get(i);
+                String raw = chunk.get(i);
+                try {
+                    parsed.rows.add(parse(lineNo, raw));
+                } catch (IllegalArgumentException e) {
+                    parsed.rejects.add(rejectLine(lineNo, e.getMessage(), raw));
+                }
+            }
+            return parsed;
+        });
+    }
+
+    private Row parse(long lineNo, String raw) {
+        List<String> fields = parseCsvLine(raw);
+        ResidentModel r = new ResidentModel();
+        r.setFirstName(field(fields, "first_name"));
+        r.setMiddleName(field(fields, "middle_name"));
+        r.setLastName(field(fields, "last_name"));
+        r.setSuffix(ResidentModel.normalizeSuffix(field(fields, "suffix")));
+        r.setGender(capitalize(field(fields, "gender")));
+        r.setContactNo(field(fields, "contact_no"));
+        r.setEmail(field(fields, "email"));
+
+        String birth = field(fields, "birth_date");
+        if (birth != null) {
+            try {
+                r.setBirthDate(java.sql.Date.valueOf(LocalDate.parse(birth)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid birth_date (expected yyyy-MM-dd): " + birth);
+            }
+        }
+        String problem = r.validate();
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        r.calculateAndSetAge();
+
+        Integer familyNo = null;
+        String familyText = field(fields, "family_no");
+        if (familyText != null) {
+            try {
+                familyNo = Integer.parseInt(familyText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid family_no: " + familyText);
+            }
+            if (familyNo <= 0) throw new IllegalArgumentException("family_no must be positive");
+        }
+        double income = 0;
+        String incomeText = field(fields, "income");
+        if (incomeText != null) {
+            try {
+                income = Double.parseDouble(incomeText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid income: " + incomeText);
+            }
+            if (income < 0) throw new IllegalArgumentException("income cannot be negative");
+        }
+        return new Row(lineNo, raw, r, familyNo, field(fields, "address"), income);
+    }
+
+    /**
+     * Resolve households and insert one parsed chunk (writer thread only)
+     */
+    private void write(ParsedChunk parsed) {
+        for (String reject : parsed.rejects) {
+            rejectsOut.println(reject);
+        }
+        rejected += parsed.rejects.size();
+
+        List<Row> ready = new ArrayList<>(parsed.rows.size());
+        for (Row row : parsed.rows) {
+            if (row.familyNo != null) {
+                try {
+                    Integer householdId = resolveHousehold(row);
+                    if (householdId == null) {
+                        rejectsOut.println(rejectLine(row.lineNo, "Could not create household " + row.familyNo, row.raw));
+                        rejected++;
+                        continue;
+                    }
+                    row.resident.setHouseholdId(householdId);
+                } catch (SQLException e) {
+                    rejectsOut.println(rejectLine(row.lineNo, "Household lookup failed: " + e.getMessage(), row.raw));
+                    rejected++;
+                    continue;
+                }
+            }
+            ready.add(row);
+        }
+        if (ready.isEmpty()) return;
+
+        for (int from = 0; from < ready.size(); from += batchSize) {
+            insert(ready.subList(from, Math.min(ready.size(), from + batchSize)));
+        }
+    }
+
+    /**
+     * Insert rows in one transaction; if that fails, insert them one by one
+     * so only the rows that fail themselves are rejected
+     */
+    private void insert(List<Row> rows) {
+        List<ResidentModel> residents = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            residents.add(row.resident);
+        }
+        try {
+            imported += ResidentModel.createAll(residents, rows.size());
+        } catch (SQLException e) {
+            if (rows.size() == 1) {
+                Row row = rows.get(0);
+                rejectsOut.println(rejectLine(row.lineNo, "Insert failed: " + e.getMessage(), row.raw));
+                rejected++;
+                return;
+            }
+            util.Logger.logWarning("ImportResidents: batch insert failed at line " + rows.get(0).lineNo
+                + " (" + e.getMessage() + "), retrying its " + rows.size() + " rows one by one");
+            for (Row row : rows) {
+                insert(Collections.singletonList(row));
+            }
+        }
+    }
+
+    private Integer resolveHousehold(Row row) throws SQLException {
+        Integer cached = householdIds.get(row.familyNo);
+        if (cached != null) return cached;
+
+        try (Connection conn = DbConnection.getConnection(); PreparedStatement ps = conn.prepareStatement(FIND_HOUSEHOLD_SQL)) {
+            ps.setInt(1, row.familyNo);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    householdIds.put(row.familyNo, rs.getInt(1));
+                    return rs.getInt(1);
+                }
+            }
+        }
+        if (row.address == null) {
+            throw new SQLException("address is required to create household " + row.familyNo);
+        }
+        HouseholdModel h = new HouseholdModel(0, row.familyNo, null, row.address, row.income);
+        if (!h.create()) return null;
+        householdIds.put(row.familyNo, h.getHouseholdId());
+        return h.getHouseholdId();
+    }
+
+    private void progress(long start) {
+        double seconds = Math.max(0.001, (System.nanoTime() - start) / 1e9);
+        System.out.printf("\r%,d imported, %,d rejected, %.0f rows/s", imported, rejected, imported / seconds);
+    }
+
+    private String field(List<String> fields, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String capitalize(String value) {
+        if (value == null) return null;
+        return value.substring(0, 1).toUpperCase(Locale.ROOT) + value.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String rejectLine(long lineNo, String reason, String raw) {
+        return lineNo + "," + quote(reason) + "," + quote(raw);
+    }
+
+    private static String quote(String value) {
+        return "\"" + (value == null ? "" : value.replace("\"", "\"\"")) + "\"";
+    }
+
+    private static String stripBom(String s) {
+        return s.startsWith("\uFEFF") ? s.substring(1) : s;
+    }
+
+    private static int countQuotes(String s) {
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '"') n++;
+        }
+        return n;
+    }
+
+    /**
+     * Split one CSV record (RFC 4180 quoting, "" as an escaped quote)
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,86 @@
+package tools;
+
+import crypto.PasswordHashing;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Measures password hashing throughput: the original SecretKeyFactory path
+ * against PasswordHashing, on 1 up to N threads, at the legacy cost.
+ * Then reports the iteration count calibrate() picks for the target latency.
+ * Usage: java -cp bin tools.PasswordHashBenchmark [seconds per run] [max threads] [target ms]
+ * Defaults: 3 seconds, one thread per core, 250 ms. No database needed.
+ */
+public class PasswordHashBenchmark {
+
+    private static final int LEGACY_ITERATIONS = 65536;
+
+    private interface Hasher {
+        void hash(String password, String salt) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : cores;
+        long targetMs = args.length > 2 ? Long.parseLong(args[2]) : 250;
+
+        System.out.printf("%d cores, %d s per run, %,d iterations%n", cores, seconds, PasswordHashing.getIterations());
+        System.out.println("threads  legacy h/s  current h/s  current h/s/thread");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double legacy = throughput(PasswordHashBenchmark::legacyHash, threads, seconds);
+            double current = throughput(PasswordHashing::hashPassword, threads, seconds);
+            System.out.printf("%7d  %10.1f  %11.1f  %18.1f%n", threads, legacy, current, current / threads);
+            if (threads < maxThreads && threads * 2 > maxThreads) threads = maxThreads / 2;
+        }
+
+        long start = System.nanoTime();
+        int calibrated = PasswordHashing.calibrate(targetMs);
+        System.out.printf("calibrate(%d ms) -> %,d iterations (took %d ms)%n",
+            targetMs, calibrated, (System.nanoTime() - start) / 1_000_000);
+        String salt = PasswordHashing.generateSalt();
+        start = System.nanoTime();
+        PasswordHashing.hashPassword("benchmark", salt);
+        System.out.printf("one hash at that cost: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Hashes per second across all threads
+    private static double throughput(Hasher hasher, int threads, int seconds) throws Exception {
+        String salt = PasswordHashing.generateSalt();
+        hasher.hash("warmup", salt);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long start = System.nanoTime();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                int done = 0;
+                while (System.nanoTime() < deadline) {
+                    hasher.hash("password" + done, salt);
+                    done++;
+                }
+                return done;
+            }));
+        }
+        long total = 0;
+        for (Future<Integer> f : results) {
+            total += f.get();
+        }
+        pool.shutdown();
+        return total * 1e9 / (System.nanoTime() - start);
+    }
+
+    // PasswordHashing before the cached-Mac rewrite: a provider lookup and key object per hash
+    private static void legacyHash(String password, String salt) throws Exception {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), Base64.getDecoder().decode(salt), LEGACY_ITERATIONS, 256);
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        Base64.getEncoder().encodeToString(factory.generateSecret(spec).getEncoded());
+    }
+}
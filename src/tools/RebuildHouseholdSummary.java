@@ -0,0 +1,24 @@
+package tools;
+
+import model.HouseholdModel;
+import java.sql.*;
+
+/**
+ * Recomputes the maintained household summary columns (member_count,
+ * household_head_id, head_name) from the residents table.
+ * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.RebuildHouseholdSummary
+ * Run it after importing residents with plain SQL or if the listing ever looks out of step.
+ */
+public class RebuildHouseholdSummary {
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        try {
+            int rows = HouseholdModel.rebuildSummaries();
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Household summary rebuilt: " + rows + " household(s) changed in " + ms + " ms.");
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package tools;
+
+import model.ResidentModel;
+import java.sql.*;
+
+/**
+ * Recomputes the stored resident name sounds (last_name_sound,
+ * first_name_sound) that the duplicate check on a new resident looks up.
+ * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.RebuildResidentNameSounds
+ * Run it once after migration_resident_name_sounds.sql, and after importing residents with plain SQL.
+ */
+public class RebuildResidentNameSounds {
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        try {
+            int rows = ResidentModel.rebuildNameSounds();
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Resident name sounds rebuilt: " + rows + " resident(s) changed in " + ms + " ms.");
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
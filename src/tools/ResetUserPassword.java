@@ -1,6 +1,7 @@
 package tools;
 
 import db.DbConnection;
+import db.SchemaMetadata;
 import crypto.PasswordHashing;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
@@ -9,7 +10,7 @@ import java.sql.*;
 /**
  * Simple command-line utility to set a new password for a user.
  * Usage: java -cp bin;path\to\mysql-connector-java.jar tools.ResetUserPassword <username> <newPassword>
- * This will generate a random salt, PBKDF2-hash the password and update `users` table's salt and hashed_password columns.
+ * This will generate a random salt, PBKDF2-hash the password and update the salt and password hash columns of `users` (whichever names the schema uses).
  */
 public class ResetUserPassword {
     public static void main(String[] args) {
@@ -21,24 +22,22 @@ public class ResetUserPassword {
         String newPassword = args[1];
 
         try (Connection conn = DbConnection.getConnection()) {
-            // Ensure salt column exists
-            DatabaseMetaData md = conn.getMetaData();
-            boolean hasSalt = false;
-            try (ResultSet cols = md.getColumns(null, null, "users", "salt")) {
-                if (cols != null && cols.next()) hasSalt = true;
-            }
-
-            if (!hasSalt) {
+            // Same column lookup the login uses (cached per database)
+            SchemaMetadata.UserColumns cols = SchemaMetadata.usersColumns(conn);
+            if (cols.getSaltColumn() == null) {
                 System.err.println("ERROR: 'users' table does not have 'salt' column. Add it first:");
                 System.err.println("ALTER TABLE users ADD COLUMN salt VARCHAR(255) DEFAULT NULL;");
                 System.exit(3);
             }
+            if (cols.getHashColumn() == null) {
+                System.err.println("ERROR: 'users' table has no password hash column. Found: " + cols.getColumns());
+                System.exit(3);
+            }
 
             String salt = PasswordHashing.generateSalt();
             String hash = PasswordHashing.hashPassword(newPassword, salt);
 
-            // store PBKDF2 hash into `password_hash` column (schema uses password_hash)
-            String sql = "UPDATE users SET password_hash = ?, salt = ? WHERE username = ? OR email = ?";
+            String sql = "UPDATE users SET " + cols.getHashColumn() + " = ?, " + cols.getSaltColumn() + " = ? WHERE username = ? OR email = ?";
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setString(1, hash);
                 ps.setString(2, salt);
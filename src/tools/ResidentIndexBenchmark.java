@@ -0,0 +1,71 @@
+package tools;
+
+import model.ResidentModel;
+import model.ResidentSearchIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures ResidentSearchIndex build time and lookup latency on generated
+ * residents. No database is needed.
+ * Usage: java -cp bin tools.ResidentIndexBenchmark [residents] [lookupsPerQuery]
+ * Defaults: 200000 residents, 2000 lookups per query.
+ */
+public class ResidentIndexBenchmark {
+
+    private static final String[] FIRST = {"Juan", "Maria", "José", "Ana", "Pedro", "Rosa", "Miguel", "Carmen",
+        "Antonio", "Luz", "Ramon", "Teresita", "Roberto", "Josefina", "Eduardo", "Corazon", "Fernando", "Lourdes"};
+    private static final String[] LAST = {"Dela Cruz", "Santos", "Reyes", "Garcia", "Mendoza", "Bautista", "Villanueva",
+        "Ramos", "Aquino", "Castillo", "Peña", "Navarro", "Torres", "Flores", "Gonzales", "Domingo", "Mercado", "Salazar"};
+    private static final String[] SUFFIX = {null, null, null, null, "Jr.", "Sr.", "III"};
+    private static final String[] QUERIES = {"juan", "dela cruz", "pena", "ma", "lourdes salaz", "0917123", "jr", "gmail", "zzzz"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        Random random = new Random(42);
+        List<ResidentModel> residents = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            ResidentModel r = new ResidentModel();
+            r.setResidentId(i);
+            r.setFirstName(FIRST[random.nextInt(FIRST.length)]);
+            r.setMiddleName(LAST[random.nextInt(LAST.length)]);
+            r.setLastName(LAST[random.nextInt(LAST.length)] + (random.nextInt(4) == 0 ? "-" + random.nextInt(1000) : ""));
+            r.setSuffix(SUFFIX[random.nextInt(SUFFIX.length)]);
+            r.setContactNo(String.format("09%02d-%03d-%04d", random.nextInt(100), random.nextInt(1000), random.nextInt(10000)));
+            r.setEmail(random.nextBoolean() ? r.getFirstName().toLowerCase() + i + "@gmail.com" : null);
+            residents.add(r);
+        }
+
+        ResidentSearchIndex index = ResidentSearchIndex.getInstance();
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            index.rebuild(residents);
+            System.out.printf("Build %d: %,d residents in %d ms%n", run + 1, index.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+
+        System.out.printf("%-16s %10s %12s %12s%n", "query", "matches", "search(20)", "all ids");
+        for (String query : QUERIES) {
+            int matches = index.matchingIds(query, Integer.MAX_VALUE).length;
+            double top = medianMicros(lookups, () -> index.search(query, 20).size());
+            double all = medianMicros(lookups, () -> index.matchingIds(query, Integer.MAX_VALUE).length);
+            System.out.printf("%-16s %,10d %9.1f us %9.1f us%n", query, matches, top, all);
+        }
+    }
+
+    private static double medianMicros(int runs, java.util.function.IntSupplier task) {
+        long[] times = new long[runs];
+        int sink = 0;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            sink += task.getAsInt();
+            times[i] = System.nanoTime() - start;
+        }
+        if (sink == -1) System.out.println();
+        Arrays.sort(times);
+        return times[runs / 2] / 1000.0;
+    }
+}
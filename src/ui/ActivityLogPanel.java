@@ -1,20 +1,29 @@
 package ui;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.sql.*;
-import db.DbConnection;
-import util.DateTimeFormatter;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
+import model.ActivityLogModel;
+import model.DataExporter;
 import theme.Theme;
 
 public class ActivityLogPanel extends JPanel {
+    // parseDate result for text that is not (yet) a date
+    private static final Timestamp INVALID = new Timestamp(0);
+
     private JTable table;
-    private DefaultTableModel model;
+    // Pages entries in as the table scrolls; filters run in SQL
+    private LazyActivityLogTableModel model;
+    // Follows new entries while "Live" is ticked
+    private LiveActivityLogTableModel liveModel;
+    private JCheckBox chkLive;
     private JButton btnRefresh, btnClear;
-    private JTextField txtSearch;
-    private TableRowSorter<DefaultTableModel> sorter;
+    private JTextField txtUser, txtAction, txtFrom, txtTo;
+    private JLabel lblCount;
 
     public ActivityLogPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -30,9 +39,14 @@ public class ActivityLogPanel extends JPanel {
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         topPanel.setBackground(Theme.PRIMARY_LIGHT);
         
-        JLabel lblSearch = new JLabel("Search:");
-        lblSearch.setForeground(Theme.TEXT_PRIMARY);
-        txtSearch = new JTextField(30);
+        txtUser = new JTextField(10);
+        txtUser.setToolTipText("Username or user ID");
+        txtAction = new JTextField(14);
+        txtAction.setToolTipText("Action starts with...");
+        txtFrom = new JTextField(8);
+        txtFrom.setToolTipText("yyyy-MM-dd");
+        txtTo = new JTextField(8);
+        txtTo.setToolTipText("yyyy-MM-dd (inclusive)");
         
         btnRefresh = new JButton("🔄 Refresh");
         btnClear = new JButton("🗑 Clear Old Logs");
@@ -40,10 +54,26 @@ public class ActivityLogPanel extends JPanel {
         styleButton(btnRefresh);
         styleButton(btnClear);
         
-        topPanel.add(lblSearch);
-        topPanel.add(txtSearch);
+        topPanel.add(label("User:"));
+        topPanel.add(txtUser);
+        topPanel.add(label("Action:"));
+        topPanel.add(txtAction);
+        topPanel.add(label("From:"));
+        topPanel.add(txtFrom);
+        topPanel.add(label("To:"));
+        topPanel.add(txtTo);
+        chkLive = new JCheckBox("Live");
+        chkLive.setOpaque(false);
+        chkLive.setForeground(Theme.TEXT_PRIMARY);
+        chkLive.setToolTipText("Show new entries as they are logged");
+
         topPanel.add(btnRefresh);
         topPanel.add(btnClear);
+        topPanel.add(chkLive);
+
+        lblCount = new JLabel("Loading activity logs...");
+        lblCount.setForeground(Theme.TEXT_SECONDARY);
+        topPanel.add(lblCount);
         
         // Combine title and toolbar
         JPanel headerPanel = new JPanel(new BorderLayout());
@@ -54,40 +84,57 @@ public class ActivityLogPanel extends JPanel {
         add(headerPanel, BorderLayout.NORTH);
         
         // Table with username column
-        model = new DefaultTableModel(
-            new String[]{"Log ID", "Username", "User ID", "Action", "Time", "IP Address"}, 0) {
-            @Override 
-            public boolean isCellEditable(int r, int c) {
-                return false;
-            }
-        };
+        model = new LazyActivityLogTableModel();
+        model.setCountListener(count -> lblCount.setText(count == 0
+            ? "No activity logs found"
+            : String.format("%,d entries", count)));
         
         table = new JTable(model);
-        sorter = new TableRowSorter<>(model);
-        table.setRowSorter(sorter);
-        
-        // Set column widths
-        table.getColumnModel().getColumn(0).setPreferredWidth(60);   // Log ID
-        table.getColumnModel().getColumn(1).setPreferredWidth(120);  // Username
-        table.getColumnModel().getColumn(2).setPreferredWidth(80);   // User ID
-        table.getColumnModel().getColumn(3).setPreferredWidth(200);  // Action
-        table.getColumnModel().getColumn(4).setPreferredWidth(150);  // Time
-        table.getColumnModel().getColumn(5).setPreferredWidth(120);  // IP
+        setColumnWidths();
         
         add(new JScrollPane(table), BorderLayout.CENTER);
+
+        liveModel = new LiveActivityLogTableModel(table);
+        liveModel.setStatusListener(lblCount::setText);
         
         // Event handlers
         btnRefresh.addActionListener(e -> loadLogs());
         btnClear.addActionListener(e -> clearOldLogs());
+        chkLive.addActionListener(e -> setLive(chkLive.isSelected()));
         
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        SearchScheduler.debounce(this::search, txtUser, txtAction, txtFrom, txtTo);
         
         loadLogs();
     }
+
+    private void setColumnWidths() {
+        table.getColumnModel().getColumn(0).setPreferredWidth(60);   // Log ID
+        table.getColumnModel().getColumn(1).setPreferredWidth(120);  // Username
+        table.getColumnModel().getColumn(2).setPreferredWidth(80);   // User ID
+        table.getColumnModel().getColumn(3).setPreferredWidth(200);  // Action
+        table.getColumnModel().getColumn(4).setPreferredWidth(150);  // Time
+        table.getColumnModel().getColumn(5).setPreferredWidth(120);  // IP
+    }
+
+    /**
+     * Switch between the paged browser and the live tail
+     */
+    private void setLive(boolean live) {
+        if (live) {
+            table.setModel(liveModel);
+        } else {
+            liveModel.stop();
+            table.setModel(model);
+        }
+        setColumnWidths();
+        loadLogs();
+    }
+
+    private JLabel label(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(Theme.TEXT_PRIMARY);
+        return label;
+    }
     
     private void styleButton(JButton b) {
         b.setBackground(Theme.PRIMARY);
@@ -97,89 +144,76 @@ public class ActivityLogPanel extends JPanel {
         b.setCursor(new Cursor(Cursor.HAND_CURSOR));
     }
     
+    // Filters are applied in SQL so only matching pages are fetched
     private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
+        loadLogs();
+    }
+
+    private void loadLogs() {
+        Timestamp from = parseDate(txtFrom, 0);
+        Timestamp to = parseDate(txtTo, 1);
+        // Wait for a complete date rather than querying on every keystroke
+        if (from == INVALID || to == INVALID) return;
+        lblCount.setText("Loading activity logs...");
+        ActivityLogModel.LogFilter filter = new ActivityLogModel.LogFilter(txtUser.getText(), txtAction.getText(), from, to);
+        if (chkLive.isSelected()) {
+            liveModel.start(filter);
         } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
+            model.refresh(filter);
         }
     }
 
-    private void loadLogs() {
-        model.setRowCount(0);
-        try (Connection conn = DbConnection.getConnection()) {
-            // Join with users table to get username
-            String sql = "SELECT ul.log_id, ul.user_id, u.username, ul.action, ul.log_time, ul.ip_address " +
-                        "FROM user_logs ul " +
-                        "LEFT JOIN users u ON ul.user_id = u.user_id " +
-                        "ORDER BY ul.log_time DESC LIMIT 500";
-            
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            boolean hasData = false;
-            while (rs.next()) {
-                hasData = true;
-                String username = rs.getString("username");
-                if (username == null || username.isEmpty()) {
-                    username = "Unknown";
-                }
-                
-                Timestamp logTime = rs.getTimestamp("log_time");
-                String formattedTime = DateTimeFormatter.formatDateTime(logTime);
-                
-                model.addRow(new Object[]{
-                    rs.getInt("log_id"),
-                    username,
-                    rs.getString("user_id"),
-                    rs.getString("action"),
-                    formattedTime,
-                    rs.getString("ip_address")
-                });
-            }
-            
-            if (!hasData) {
-                model.addRow(new Object[]{"", "No activity logs found", "", "User actions will appear here", "", ""});
-            }
-        } catch (SQLException e) {
-            util.Logger.logError("Loading activity logs", "Failed to load activity logs from database", e);
-            JOptionPane.showMessageDialog(this, 
-                "Error loading logs: " + e.getMessage(), 
-                "DB Error", 
-                JOptionPane.ERROR_MESSAGE);
+    /**
+     * Start of the day typed into a field (plus extraDays), null when empty,
+     * INVALID when it is not a yyyy-MM-dd date
+     */
+    private Timestamp parseDate(JTextField field, int extraDays) {
+        String text = field.getText().trim();
+        field.setForeground(Theme.TEXT_PRIMARY);
+        if (text.isEmpty()) return null;
+        try {
+            return Timestamp.valueOf(LocalDate.parse(text).plusDays(extraDays).atStartOfDay());
+        } catch (DateTimeParseException e) {
+            field.setForeground(Color.RED);
+            return INVALID;
         }
     }
     
     private void clearOldLogs() {
         int confirm = JOptionPane.showConfirmDialog(this,
-            "This will delete logs older than 30 days. Continue?",
+            "This will move logs older than 30 days to the archive folder. Continue?",
             "Confirm Clear",
             JOptionPane.YES_NO_OPTION,
             JOptionPane.WARNING_MESSAGE);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection conn = DbConnection.getConnection()) {
-                String sql = "DELETE FROM user_logs WHERE log_time < DATE_SUB(NOW(), INTERVAL 30 DAY)";
-                Statement st = conn.createStatement();
-                int deleted = st.executeUpdate(sql);
-                
-                util.Logger.logUserActivity("CLEAR_LOGS", 
-                    String.format("Deleted %d old log entries", deleted));
-                
+            btnClear.setEnabled(false);
+            btnClear.setText("Archiving...");
+            CompletableFuture<DataExporter.Progress> archiving = ActivityLogModel.clearOldLogsAsync(
+                p -> SwingUtilities.invokeLater(() -> btnClear.setText(String.format("Archiving... %,d / %,d (%,.0f rows/s)",
+                    p.getRows(), p.getTotalRows(), p.getRowsPerSecond()))));
+            DataAccessExecutor.onEdt(archiving, done -> {
+                resetClearButton();
                 JOptionPane.showMessageDialog(this,
-                    String.format("Deleted %d old log entries", deleted),
+                    String.format("Archived %,d old log entries in %.1f s", done.getRows(), done.getElapsedMillis() / 1000.0),
                     "Success",
                     JOptionPane.INFORMATION_MESSAGE);
-                
                 loadLogs();
-            } catch (SQLException e) {
-                util.Logger.logError("Clearing old logs", "Failed to clear old logs", e);
+            }, error -> {
+                resetClearButton();
+                util.Logger.logError("Clearing old logs", "Failed to clear old logs",
+                    error instanceof Exception ? (Exception) error : new Exception(error));
                 JOptionPane.showMessageDialog(this,
-                    "Error clearing logs: " + e.getMessage(),
+                    "Error clearing logs: " + error.getMessage(),
                     "DB Error",
                     JOptionPane.ERROR_MESSAGE);
-            }
+                loadLogs();
+            });
         }
     }
+
+    private void resetClearButton() {
+        btnClear.setEnabled(true);
+        btnClear.setText("🗑 Clear Old Logs");
+    }
 }
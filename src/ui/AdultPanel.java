@@ -5,6 +5,8 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import model.AdultModel;
 import model.SessionManager;
 import model.User;
@@ -16,6 +18,7 @@ public class AdultPanel extends JPanel {
     private JButton btnRefresh;
     private JTextField txtSearch;
     private TableRowSorter<DefaultTableModel> sorter;
+    private CompletableFuture<List<AdultModel.Adult>> pendingLoad;
 
     public AdultPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -63,24 +66,11 @@ public class AdultPanel extends JPanel {
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         btnRefresh.addActionListener(e -> loadAdults());
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        new TableSearch(txtSearch, sorter);
 
         loadAdults();
     }
     
-    private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
     private void styleButton(JButton b) {
         b.setBackground(Theme.PRIMARY);
         b.setForeground(Color.WHITE);
@@ -90,11 +80,17 @@ public class AdultPanel extends JPanel {
     }
 
     private void loadAdults() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+        }
         model.setRowCount(0);
-        
-        try {
-            List<AdultModel.Adult> adults = AdultModel.getAllAdults();
-            
+        model.addRow(new Object[]{"", "Loading adults...", "", "", "", ""});
+        btnRefresh.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        pendingLoad = AdultModel.getAllAdultsAsync();
+        DataAccessExecutor.onEdt(pendingLoad, adults -> {
+            finishLoading();
             if (adults.isEmpty()) {
                 model.addRow(new Object[]{"", "No adults found", "Add residents through Households", "", "", ""});
             } else {
@@ -109,12 +105,19 @@ public class AdultPanel extends JPanel {
                     });
                 }
             }
-        } catch (Exception e) {
+        }, error -> {
+            finishLoading();
             JOptionPane.showMessageDialog(this, 
-                "Error loading adults: " + e.getMessage(), 
+                "Error loading adults: " + error.getMessage(), 
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
-        }
+        });
+    }
+
+    private void finishLoading() {
+        model.setRowCount(0);
+        btnRefresh.setEnabled(true);
+        setCursor(Cursor.getDefaultCursor());
     }
 
 }
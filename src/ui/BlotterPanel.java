@@ -1,20 +1,21 @@
 package ui;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.*;
 import java.sql.*;
 import db.DbConnection;
+import model.BlotterModel;
+import model.DataExporter;
+import model.QuerySpec;
 import theme.Theme;
 
 public class BlotterPanel extends JPanel {
     private JTable table;
-    private DefaultTableModel model;
-    private JButton btnAdd, btnEdit, btnDelete, btnRefresh;
+    private SpecTableModel model;
+    private JButton btnAdd, btnEdit, btnDelete, btnRefresh, btnExport;
     private JTextField txtSearch;
-    private TableRowSorter<DefaultTableModel> sorter;
+    private JComboBox<String> cboStatusFilter;
 
     public BlotterPanel(){
         setLayout(new BorderLayout(10,10));
@@ -29,12 +30,17 @@ public class BlotterPanel extends JPanel {
         
         JLabel lblSearch = new JLabel("Search:");
         txtSearch = new JTextField(30);
-        btnRefresh = new JButton("🔄 Refresh"); btnAdd = new JButton("+ Add"); btnEdit = new JButton("✏ Edit"); btnDelete = new JButton("🗑 Delete");
-        style(btnRefresh); style(btnAdd); style(btnEdit); style(btnDelete);
+        btnRefresh = new JButton("🔄 Refresh"); btnAdd = new JButton("+ Add"); btnEdit = new JButton("✏ Edit"); btnDelete = new JButton("🗑 Delete"); btnExport = new JButton("⬇ Export");
+        style(btnRefresh); style(btnAdd); style(btnEdit); style(btnDelete); style(btnExport);
         
+        cboStatusFilter = new JComboBox<>(new String[]{"All","Pending","Under Investigation","For Mediation","Resolved","Closed","Escalated"});
+
         top.add(lblSearch);
         top.add(txtSearch);
+        top.add(new JLabel("Status:"));
+        top.add(cboStatusFilter);
         top.add(btnRefresh); top.add(btnAdd); top.add(btnEdit); top.add(btnDelete);
+        if (ExportDialog.canExport(DataExporter.Dataset.BLOTTER_INCIDENTS)) top.add(btnExport);
         
         // Combine title and toolbar
         JPanel headerPanel = new JPanel(new BorderLayout());
@@ -42,51 +48,34 @@ public class BlotterPanel extends JPanel {
         headerPanel.add(top, BorderLayout.CENTER);
         add(headerPanel, BorderLayout.NORTH);
 
-        model = new DefaultTableModel(new String[]{"ID","Case#","Type","Date","Time","Location","Complainant","Respondent","Status"},0){ @Override public boolean isCellEditable(int r,int c){return false;} };
+        // Paged, searched and sorted in SQL (BlotterModel.QUERY)
+        model = new SpecTableModel(BlotterModel.QUERY,
+            new String[]{"ID","Case#","Type","Date","Time","Location","Complainant","Respondent","Status"}, "incidents");
         table = new JTable(model);
-        sorter = new TableRowSorter<>(model);
-        table.setRowSorter(sorter);
+        model.sortOnHeaderClick(table);
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         btnRefresh.addActionListener(e->loadIncidents());
+        btnExport.addActionListener(e->ExportDialog.show(this, DataExporter.Dataset.BLOTTER_INCIDENTS));
         btnAdd.addActionListener(e->openDialog(null));
         btnEdit.addActionListener(e->{ int r = table.getSelectedRow(); if (r==-1){ JOptionPane.showMessageDialog(this,"Select incident"); return;} openDialog((Integer)table.getValueAt(r,0)); });
         btnDelete.addActionListener(e->deleteSelected());
         
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        SearchScheduler.debounce(this::loadIncidents, txtSearch);
+        cboStatusFilter.addActionListener(e->loadIncidents());
 
         loadIncidents();
     }
     
-    private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
     private void style(JButton b){ b.setBackground(Theme.PRIMARY); b.setForeground(Color.WHITE); b.setFocusPainted(false); b.setBorderPainted(false); }
 
+    // Newest first unless a header was clicked; only the visible page is read
     private void loadIncidents(){
-        model.setRowCount(0);
-        try (Connection conn = DbConnection.getConnection()){
-            String sql = "SELECT incident_id, case_number, incident_type, incident_date, incident_time, incident_location, complainant_name, respondent_name, incident_status FROM blotter_incidents ORDER BY incident_date DESC";
-            Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql);
-            boolean hasData = false;
-            while (rs.next()){
-                hasData = true;
-                model.addRow(new Object[]{ rs.getInt("incident_id"), rs.getString("case_number"), rs.getString("incident_type"), rs.getDate("incident_date"), rs.getTime("incident_time"), rs.getString("incident_location"), rs.getString("complainant_name"), rs.getString("respondent_name"), rs.getString("incident_status") });
-            }
-            if (!hasData) {
-                model.addRow(new Object[]{"", "No incidents found", "Click 'Add' to create a new incident", "", "", "", "", "", ""});
-            }
-        } catch (SQLException e){ JOptionPane.showMessageDialog(this, "Error loading incidents: "+e.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE); }
+        String status = (String) cboStatusFilter.getSelectedItem();
+        model.search(new QuerySpec()
+            .withSearch(txtSearch.getText())
+            .with("incident_status", "All".equals(status) ? null : status)
+            .orderBy("incident_date", true));
     }
 
     private void openDialog(Integer id){
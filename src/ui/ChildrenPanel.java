@@ -5,9 +5,9 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import model.ChildrenModel;
-import model.SessionManager;
-import model.User;
 import theme.Theme;
 
 public class ChildrenPanel extends JPanel {
@@ -16,18 +16,12 @@ public class ChildrenPanel extends JPanel {
     private JButton btnRefresh;
     private JTextField txtSearch;
     private TableRowSorter<DefaultTableModel> sorter;
-    private boolean isStaff = false;
+    private CompletableFuture<List<ChildrenModel.Child>> pendingLoad;
 
     public ChildrenPanel() {
         setLayout(new BorderLayout(10, 10));
         setBackground(Theme.PRIMARY_LIGHT);
 
-        // Check if user is staff (role_id = 2)
-        User current = SessionManager.getInstance().getCurrentUser();
-        if (current != null && "2".equals(current.getRoleId())) {
-            isStaff = true;
-        }
-
         // Panel title
         JLabel titleLabel = new JLabel("👶 Children (Under 18 years)");
         titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
@@ -74,24 +68,11 @@ public class ChildrenPanel extends JPanel {
 
         btnRefresh.addActionListener(e -> loadChildren());
         
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        new TableSearch(txtSearch, sorter);
 
         loadChildren();
     }
     
-    private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
     private void styleButton(JButton b) {
         b.setBackground(Theme.PRIMARY);
         b.setForeground(Color.WHITE);
@@ -101,11 +82,17 @@ public class ChildrenPanel extends JPanel {
     }
 
     private void loadChildren() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+        }
         model.setRowCount(0);
-        
-        try {
-            List<ChildrenModel.Child> children = ChildrenModel.getAllChildren();
-            
+        model.addRow(new Object[]{"", "Loading children...", "", ""});
+        btnRefresh.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        pendingLoad = ChildrenModel.getAllChildrenAsync();
+        DataAccessExecutor.onEdt(pendingLoad, children -> {
+            finishLoading();
             if (children.isEmpty()) {
                 model.addRow(new Object[]{"", "No children found", "Add residents through Households", ""});
             } else {
@@ -118,11 +105,18 @@ public class ChildrenPanel extends JPanel {
                     });
                 }
             }
-        } catch (Exception e) {
+        }, error -> {
+            finishLoading();
             JOptionPane.showMessageDialog(this, 
-                "Error loading children: " + e.getMessage(), 
+                "Error loading children: " + error.getMessage(), 
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
-        }
+        });
+    }
+
+    private void finishLoading() {
+        model.setRowCount(0);
+        btnRefresh.setEnabled(true);
+        setCursor(Cursor.getDefaultCursor());
     }
 }
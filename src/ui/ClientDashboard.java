@@ -36,7 +36,8 @@ public class ClientDashboard extends JFrame {
 		contentPane = new JPanel();
 		contentPane.setBorder(new EmptyBorder(5, 5, 5, 5));
 		setContentPane(contentPane);
-
+		// Keep the session alive while in use, back to Login when it expires
+		SessionWatcher.watch(this);
 	}
 
 }
@@ -1,9 +1,14 @@
 package ui;
 import javax.swing.*;
 import java.awt.*;
-import java.sql.*;
 import java.awt.event.*;
-import db.DbConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import model.DashboardStatsService;
+import model.Permission;
+import model.Permissions;
+import model.ResidentSearchIndex;
 import model.SessionManager;
 import model.User;
 import model.UserModel;
@@ -11,6 +16,10 @@ import theme.Theme;
 
 public class Dashboard extends JFrame {
     private JPanel sidePanel, mainPanel;
+    // Updates the home cards whenever the stats service publishes a new snapshot
+    private Consumer<DashboardStatsService.Snapshot> statsListener;
+    // Keeps the session alive while the user works and returns to Login when it expires
+    private SessionWatcher sessionWatcher;
     private JButton btnHome, btnProducts, btnSuppliers, btnTransactions, btnLogout, btnReports, btnResidents, btnHouseholds, btnUsers, btnLogs, btnChildren, btnSenior, btnAdult, btnRoles;
 
     public static void main(String[] args) {
@@ -42,10 +51,7 @@ public class Dashboard extends JFrame {
         sidePanel.setBackground(new Color(44,44,44)); // dark sidebar
         sidePanel.setBorder(BorderFactory.createEmptyBorder(20, 10, 20, 10));
 
-        // Check user role
         User current = SessionManager.getInstance().getCurrentUser();
-        boolean isAdmin = (current != null && "1".equals(current.getRoleId()));
-        boolean isStaff = (current != null && "2".equals(current.getRoleId()));
 
         // Create buttons
         btnHome = createMenuButton("Home", e -> showHomePanel());
@@ -76,45 +82,33 @@ public class Dashboard extends JFrame {
             }
         });
 
-        // Build menu based on role
-        if (isAdmin) {
-            // Admin sees everything
-            sidePanel.setLayout(new GridLayout(15, 1, 8, 8));
-            sidePanel.add(btnHome);
-            sidePanel.add(btnResidents);
-            sidePanel.add(btnHouseholds);
-            sidePanel.add(btnChildren);
-            sidePanel.add(btnSenior);
-            sidePanel.add(btnAdult);
-            sidePanel.add(btnProducts);
-            sidePanel.add(btnSuppliers);
-            sidePanel.add(btnTransactions);
-            sidePanel.add(btnReports);
-            sidePanel.add(btnUsers);
-            sidePanel.add(btnRoles);
-            sidePanel.add(btnLogs);
-            sidePanel.add(new JPanel()); // Spacer
-            sidePanel.add(btnLogout);
-        } else if (isStaff) {
-            // Staff sees limited menu
-            sidePanel.setLayout(new GridLayout(10, 1, 8, 8));
-            sidePanel.add(btnHome);
-            sidePanel.add(btnResidents);
-            sidePanel.add(btnHouseholds);
-            sidePanel.add(btnChildren);
-            sidePanel.add(btnSenior);
-            sidePanel.add(btnAdult);
-            sidePanel.add(btnProducts);
-            sidePanel.add(btnReports);
-            sidePanel.add(new JPanel()); // Spacer
-            sidePanel.add(btnLogout);
-        } else {
-            // Default/fallback menu
-            sidePanel.setLayout(new GridLayout(3, 1, 8, 8));
-            sidePanel.add(btnHome);
-            sidePanel.add(new JPanel()); // Spacer
-            sidePanel.add(btnLogout);
+        // Build menu from the role's permissions
+        List<JButton> menu = new ArrayList<>();
+        menu.add(btnHome);
+        boolean residents = Permissions.hasPermission(current, Permission.VIEW_RESIDENTS);
+        if (residents) menu.add(btnResidents);
+        if (Permissions.hasPermission(current, Permission.VIEW_HOUSEHOLDS)) menu.add(btnHouseholds);
+        if (residents) {
+            menu.add(btnChildren);
+            menu.add(btnSenior);
+            menu.add(btnAdult);
+            // Resident search uses the index once it has loaded in the background
+            ResidentSearchIndex.getInstance().loadAsync();
         }
+        if (Permissions.hasPermission(current, Permission.VIEW_PROJECTS)) menu.add(btnProducts);
+        if (Permissions.hasPermission(current, Permission.VIEW_OFFICIALS)) menu.add(btnSuppliers);
+        if (Permissions.hasPermission(current, Permission.VIEW_BLOTTER)) menu.add(btnTransactions);
+        if (Permissions.hasPermission(current, Permission.VIEW_FINANCIAL)) menu.add(btnReports);
+        if (Permissions.hasPermission(current, Permission.MANAGE_USERS)) menu.add(btnUsers);
+        if (Permissions.hasPermission(current, Permission.MANAGE_ROLES)) menu.add(btnRoles);
+        if (Permissions.hasPermission(current, Permission.VIEW_ACTIVITY_LOG)) menu.add(btnLogs);
+
+        sidePanel.setLayout(new GridLayout(menu.size() + 2, 1, 8, 8));
+        for (JButton b : menu) {
+            sidePanel.add(b);
+        }
+        sidePanel.add(new JPanel()); // Spacer
+        sidePanel.add(btnLogout);
 
         // Main Panel
         mainPanel = new JPanel(new BorderLayout());
@@ -126,6 +120,25 @@ public class Dashboard extends JFrame {
 
         // Show home panel by default
         showHomePanel();
+        watchSession();
+    }
+
+    private void watchSession() {
+        sessionWatcher = SessionWatcher.watch(this);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                stopWatching();
+            }
+        });
+    }
+
+    private void stopWatching() {
+        unwatchStats();
+        if (sessionWatcher != null) {
+            sessionWatcher.stop();
+            sessionWatcher = null;
+        }
     }
 
     private JButton createMenuButton(String text, ActionListener listener) {
@@ -177,20 +190,21 @@ public class Dashboard extends JFrame {
         statsGrid.setBackground(Theme.PRIMARY_LIGHT);
         statsGrid.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-        // Row 1
-        statsGrid.add(createStatCard("Total Households", loadTotalHouseholds()));
-        statsGrid.add(createStatCard("Total Residents", loadTotalResidents()));
-        statsGrid.add(createStatCard("Total Projects", loadTotalProjects()));
-
-        // Row 2
-        statsGrid.add(createStatCard("Children (0-17)", loadTotalChildren()));
-        statsGrid.add(createStatCard("Adults (18-59)", loadTotalAdults()));
-        statsGrid.add(createStatCard("Seniors (60+)", loadTotalSeniors()));
-
-        // Row 3
-        statsGrid.add(createStatCard("Active Projects", loadActiveProjects()));
-        statsGrid.add(createStatCard("Total Users", loadTotalUsers()));
-        statsGrid.add(createStatCard("Total Officials", loadTotalOfficials()));
+        // Cards render from the last cached snapshot and update when a fresher one arrives
+        String[] titles = {
+            // Row 1
+            "Total Households", "Total Residents", "Total Projects",
+            // Row 2
+            "Children (0-17)", "Adults (18-59)", "Seniors (60+)",
+            // Row 3
+            "Active Projects", "Total Users", "Total Officials"
+        };
+        JLabel[] values = new JLabel[titles.length];
+        for (int i = 0; i < titles.length; i++) {
+            values[i] = new JLabel("…");
+            statsGrid.add(createStatCard(titles[i], values[i]));
+        }
+        watchStats(values);
 
         homePanel.add(headerPanel, BorderLayout.NORTH);
         homePanel.add(statsGrid, BorderLayout.CENTER);
@@ -204,7 +218,38 @@ public class Dashboard extends JFrame {
         return SessionManager.getInstance().getCurrentUser() != null;
     }
 
-    private JPanel createStatCard(String title, int value) {
+    private void watchStats(JLabel[] values) {
+        DashboardStatsService stats = DashboardStatsService.getInstance();
+        unwatchStats();
+        statsListener = snapshot -> showStats(values, snapshot);
+        stats.addListener(statsListener);
+
+        DashboardStatsService.Snapshot snapshot = stats.getSnapshot();
+        if (snapshot != null) {
+            showStats(values, snapshot);
+        }
+    }
+
+    // Stops the periodic stats refresh while the home cards are not showing
+    private void unwatchStats() {
+        if (statsListener != null) {
+            DashboardStatsService.getInstance().removeListener(statsListener);
+            statsListener = null;
+        }
+    }
+
+    private void showStats(JLabel[] values, DashboardStatsService.Snapshot s) {
+        int[] counts = {
+            s.getTotalHouseholds(), s.getTotalResidents(), s.getTotalProjects(),
+            s.getChildren(), s.getAdults(), s.getSeniors(),
+            s.getActiveProjects(), s.getActiveUsers(), s.getActiveOfficials()
+        };
+        for (int i = 0; i < values.length; i++) {
+            values[i].setText(String.valueOf(counts[i]));
+        }
+    }
+
+    private JPanel createStatCard(String title, JLabel valueLabel) {
         JPanel card = new JPanel(new BorderLayout(5, 5));
         card.setBackground(Theme.PRIMARY_LIGHT);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -216,7 +261,6 @@ public class Dashboard extends JFrame {
         titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
         titleLabel.setForeground(Theme.PRIMARY);
 
-        JLabel valueLabel = new JLabel(String.valueOf(value));
         valueLabel.setFont(new Font("Arial", Font.BOLD, 24));
         valueLabel.setForeground(Theme.PRIMARY);
 
@@ -226,159 +270,8 @@ public class Dashboard extends JFrame {
         return card;
     }
 
-    private void loadCategoryStats(JPanel panel) {
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT project_category AS category, COUNT(*) as count FROM barangay_projects GROUP BY project_category";
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-
-            while (rs.next()) {
-                String category = rs.getString("category");
-                int count = rs.getInt("count");
-
-                JPanel categoryRow = new JPanel(new BorderLayout(10, 0));
-                categoryRow.setBackground(Theme.PRIMARY_LIGHT);
-
-                JLabel categoryLabel = new JLabel(category);
-                categoryLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-                categoryLabel.setForeground(Theme.PRIMARY);
-
-                JLabel countLabel = new JLabel(String.valueOf(count));
-                countLabel.setFont(new Font("Arial", Font.BOLD, 14));
-                countLabel.setForeground(Theme.PRIMARY);
-
-                categoryRow.add(categoryLabel, BorderLayout.WEST);
-                categoryRow.add(countLabel, BorderLayout.EAST);
-
-                panel.add(categoryRow);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading category statistics: " + e.getMessage(),
-                "Database Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private int loadTotalProjects() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM barangay_projects");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadTotalResidents() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM residents");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadTotalHouseholds() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM households");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadTotalChildren() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM residents WHERE age < 18");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadTotalAdults() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM residents WHERE age >= 18 AND age < 60");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadTotalSeniors() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM residents WHERE age >= 60");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadActiveProjects() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM barangay_projects WHERE project_status = 'In Progress' OR project_status = 'Active'");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadTotalUsers() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM users WHERE status = 'Active'");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private int loadTotalOfficials() {
-        try (Connection conn = DbConnection.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM barangay_officials WHERE is_active = 'Yes'");
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
     private void showProductsPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new ProductPanel());
         mainPanel.revalidate();
@@ -386,6 +279,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showSuppliersPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         // show Barangay Officials panel instead of supplier wording
         mainPanel.add(new OfficialsPanel());
@@ -394,6 +288,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showTransactionsPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         // show Blotter/Incidents panel
         mainPanel.add(new BlotterPanel());
@@ -402,6 +297,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showReportsPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         // show Financial panel
         mainPanel.add(new FinancialPanel());
@@ -410,6 +306,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showResidentsPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new ui.ResidentPanel());
         mainPanel.revalidate();
@@ -417,6 +314,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showHouseholdsPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new ui.HouseholdPanel());
         mainPanel.revalidate();
@@ -424,6 +322,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showUsersPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new UsersPanel());
         mainPanel.revalidate();
@@ -431,6 +330,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showRolesPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new RolesPanel());
         mainPanel.revalidate();
@@ -438,6 +338,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showLogsPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new ActivityLogPanel());
         mainPanel.revalidate();
@@ -445,6 +346,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showChildrenPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new ChildrenPanel());
         mainPanel.revalidate();
@@ -452,6 +354,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showSeniorPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new SeniorPanel());
         mainPanel.revalidate();
@@ -459,6 +362,7 @@ public class Dashboard extends JFrame {
     }
 
     private void showAdultPanel() {
+        unwatchStats();
         mainPanel.removeAll();
         mainPanel.add(new AdultPanel());
         mainPanel.revalidate();
@@ -475,6 +379,8 @@ public class Dashboard extends JFrame {
         );
 
         if (confirm == JOptionPane.YES_OPTION) {
+            stopWatching();
+
             // Log out via SessionManager to record logout
             SessionManager.getInstance().logout();
 
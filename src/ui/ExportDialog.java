@@ -0,0 +1,181 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
+import model.DataExporter;
+import model.Permission;
+import model.Permissions;
+import model.SessionManager;
+import model.User;
+import theme.Theme;
+
+/**
+ * Lets the user export a table to CSV or JSON Lines (optionally gzipped).
+ * The export streams in the background; the dialog shows rows written and
+ * throughput and can cancel it. Exporting needs the data.export permission,
+ * and only datasets the current user may view are offered.
+ */
+public class ExportDialog extends JDialog {
+    private final JComboBox<DataExporter.Dataset> cboDataset = new JComboBox<>();
+    private final JComboBox<DataExporter.Format> cboFormat = new JComboBox<>(DataExporter.Format.values());
+    private final JCheckBox chkGzip = new JCheckBox("Compress (.gz)");
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+    private final JLabel lblStatus = new JLabel(" ");
+    private final JButton btnExport = new JButton("Export...");
+    private final JButton btnClose = new JButton("Close");
+    private CompletableFuture<DataExporter.Progress> running;
+
+    /**
+     * True if the current user may export the dataset
+     */
+    public static boolean canExport(DataExporter.Dataset dataset) {
+        User current = SessionManager.getInstance().getCurrentUser();
+        return Permissions.hasPermission(current, Permission.EXPORT_DATA)
+            && Permissions.hasPermission(current, dataset.getViewPermission());
+    }
+
+    /**
+     * Open the dialog with a dataset preselected
+     */
+    public static void show(Component parent, DataExporter.Dataset dataset) {
+        if (!canExport(dataset)) {
+            util.ErrorHandler.showWarning(parent, "You do not have permission to export " + dataset + ".");
+            return;
+        }
+        ExportDialog dialog = new ExportDialog(SwingUtilities.getWindowAncestor(parent), dataset);
+        dialog.setVisible(true);
+    }
+
+    private ExportDialog(Window owner, DataExporter.Dataset dataset) {
+        super(owner, "Export Data", ModalityType.APPLICATION_MODAL);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                close();
+            }
+        });
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 10, 10));
+        form.setBorder(BorderFactory.createEmptyBorder(15, 15, 5, 15));
+        for (DataExporter.Dataset d : DataExporter.Dataset.values()) {
+            if (canExport(d)) cboDataset.addItem(d);
+        }
+        cboDataset.setSelectedItem(dataset);
+        form.add(new JLabel("Data:"));
+        form.add(cboDataset);
+        form.add(new JLabel("Format:"));
+        form.add(cboFormat);
+        form.add(new JLabel(""));
+        form.add(chkGzip);
+
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        JPanel status = new JPanel(new BorderLayout(5, 5));
+        status.setBorder(BorderFactory.createEmptyBorder(5, 15, 5, 15));
+        status.add(progressBar, BorderLayout.NORTH);
+        status.add(lblStatus, BorderLayout.CENTER);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        styleButton(btnExport);
+        styleButton(btnClose);
+        buttons.add(btnExport);
+        buttons.add(btnClose);
+
+        btnExport.addActionListener(e -> chooseAndExport());
+        btnClose.addActionListener(e -> close());
+
+        JPanel wrapper = new JPanel(new BorderLayout());
+        wrapper.add(form, BorderLayout.NORTH);
+        wrapper.add(status, BorderLayout.CENTER);
+        wrapper.add(buttons, BorderLayout.SOUTH);
+        getContentPane().add(wrapper);
+        setSize(420, 250);
+        setLocationRelativeTo(owner);
+    }
+
+    private void styleButton(JButton b) {
+        b.setBackground(Theme.PRIMARY);
+        b.setForeground(Color.WHITE);
+        b.setFocusPainted(false);
+        b.setBorderPainted(false);
+        b.setCursor(new Cursor(Cursor.HAND_CURSOR));
+    }
+
+    private void chooseAndExport() {
+        DataExporter.Dataset dataset = (DataExporter.Dataset) cboDataset.getSelectedItem();
+        DataExporter.Format format = (DataExporter.Format) cboFormat.getSelectedItem();
+        // Checked again: the session may have changed since the dialog opened
+        if (dataset == null || !canExport(dataset)) {
+            util.ErrorHandler.showWarning(this, "You do not have permission to export " + dataset + ".");
+            return;
+        }
+        String suffix = "." + format.getExtension() + (chkGzip.isSelected() ? ".gz" : "");
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(dataset.getTable() + "_" + java.time.LocalDate.now() + suffix));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File target = chooser.getSelectedFile();
+        if (!target.getName().endsWith(suffix)) {
+            target = new File(target.getParentFile(), target.getName() + suffix);
+        }
+        if (target.exists() && JOptionPane.showConfirmDialog(this, "Overwrite " + target.getName() + "?",
+                "Confirm", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        setRunning(true);
+        progressBar.setValue(0);
+        progressBar.setString("Starting...");
+        lblStatus.setText("Exporting " + dataset + " to " + target.getName());
+
+        File file = target;
+        running = DataAccessExecutor.supply(() -> DataExporter.export(dataset, format, file,
+            p -> SwingUtilities.invokeLater(() -> showProgress(p))));
+        DataAccessExecutor.onEdt(running, done -> {
+            setRunning(false);
+            showProgress(done);
+            lblStatus.setText(String.format("Exported %,d rows to %s", done.getRows(), file.getName()));
+            util.Logger.logUserActivity("Exported " + dataset, String.format("%,d rows, %s", done.getRows(), file.getName()));
+        }, error -> {
+            setRunning(false);
+            progressBar.setString("Failed");
+            lblStatus.setText(" ");
+            util.ErrorHandler.showError(this, "exporting " + dataset,
+                error instanceof Exception ? (Exception) error : new Exception(error));
+        });
+    }
+
+    private void showProgress(DataExporter.Progress p) {
+        if (running == null) return;
+        long total = Math.max(1, p.getTotalRows());
+        progressBar.setValue((int) (p.getRows() * 1000 / total));
+        progressBar.setString(String.format("%,d / %,d rows", p.getRows(), p.getTotalRows()));
+        lblStatus.setText(String.format("%,.0f rows/s, %.1f s elapsed", p.getRowsPerSecond(), p.getElapsedMillis() / 1000.0));
+    }
+
+    private void setRunning(boolean isRunning) {
+        btnExport.setEnabled(!isRunning);
+        cboDataset.setEnabled(!isRunning);
+        cboFormat.setEnabled(!isRunning);
+        chkGzip.setEnabled(!isRunning);
+        btnClose.setText(isRunning ? "Cancel" : "Close");
+        setCursor(isRunning ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    private void close() {
+        if (running != null && !running.isDone()) {
+            // Interrupts the export; the partial file is removed by DataExporter
+            running.cancel(true);
+            running = null;
+            setRunning(false);
+            progressBar.setString("Cancelled");
+            lblStatus.setText(" ");
+            return;
+        }
+        dispose();
+    }
+}
@@ -1,8 +1,11 @@
 package ui;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import model.DataExporter;
+import model.FinancialModel;
+import model.Permission;
+import model.Permissions;
+import model.QuerySpec;
 import model.SessionManager;
 import model.User;
 import java.awt.*;
@@ -16,11 +19,10 @@ import theme.Theme;
 
 public class FinancialPanel extends JPanel {
     private JTable table;
-    private DefaultTableModel model;
-    private JButton btnRefresh, btnAdd, btnEdit, btnDelete;
+    private SpecTableModel model;
+    private JButton btnRefresh, btnAdd, btnEdit, btnDelete, btnExport;
     private JTextField txtSearch;
     private JComboBox<String> cboFilterType;
-    private TableRowSorter<DefaultTableModel> sorter;
 
     public FinancialPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -50,11 +52,13 @@ public class FinancialPanel extends JPanel {
         btnAdd = new JButton("➕ Add Transaction");
         btnEdit = new JButton("✏️ Edit");
         btnDelete = new JButton("🗑️ Delete");
+        btnExport = new JButton("⬇ Export");
         
         styleButton(btnRefresh);
         styleButton(btnAdd);
         styleButton(btnEdit);
         styleButton(btnDelete);
+        styleButton(btnExport);
         
         top.add(lblSearch);
         top.add(txtSearch);
@@ -64,14 +68,11 @@ public class FinancialPanel extends JPanel {
         top.add(btnAdd);
         top.add(btnEdit);
         top.add(btnDelete);
+        if (ExportDialog.canExport(DataExporter.Dataset.FINANCIAL_TRANSACTIONS)) top.add(btnExport);
 
         // Check user permissions
         User current = SessionManager.getInstance().getCurrentUser();
-        boolean canModify = false;
-        if (current != null) {
-            String role = current.getRoleId();
-            canModify = "1".equals(role) || "2".equals(role);
-        }
+        boolean canModify = Permissions.hasPermission(current, Permission.EDIT_FINANCIAL);
         btnAdd.setEnabled(canModify);
         btnEdit.setEnabled(canModify);
         btnDelete.setEnabled(canModify);
@@ -83,18 +84,25 @@ public class FinancialPanel extends JPanel {
         headerPanel.add(top, BorderLayout.CENTER);
         add(headerPanel, BorderLayout.NORTH);
 
-        // Table with sorter
-        model = new DefaultTableModel(
-            new String[]{"ID", "Date & Time", "Type", "Category", "Amount", "Description", "Method"}, 0) {
+        // Table paged, searched and sorted in SQL (FinancialModel.QUERY)
+        model = new SpecTableModel(FinancialModel.QUERY,
+            new String[]{"ID", "Date & Time", "Type", "Category", "Amount", "Description", "Method"},
+            "financial transactions") {
             @Override
-            public boolean isCellEditable(int r, int c) {
-                return false;
+            protected Object valueOf(Object[] row, int column) {
+                Object value = row[column];
+                if (column == 1) {
+                    return value instanceof Timestamp ? DateTimeFormatter.formatDateTime12H((Timestamp) value) : "N/A";
+                }
+                if (column == 4 && value instanceof Number) {
+                    return String.format("₱%.2f", ((Number) value).doubleValue());
+                }
+                return value;
             }
         };
         
         table = new JTable(model);
-        sorter = new TableRowSorter<>(model);
-        table.setRowSorter(sorter);
+        model.sortOnHeaderClick(table);
         
         // Set column widths
         table.getColumnModel().getColumn(0).setPreferredWidth(50);   // ID
@@ -109,6 +117,7 @@ public class FinancialPanel extends JPanel {
 
         // Event listeners
         btnRefresh.addActionListener(e -> loadTransactions());
+        btnExport.addActionListener(e -> ExportDialog.show(this, DataExporter.Dataset.FINANCIAL_TRANSACTIONS));
         btnAdd.addActionListener(e -> openDialog(null));
         btnEdit.addActionListener(e -> {
             int r = table.getSelectedRow();
@@ -121,15 +130,9 @@ public class FinancialPanel extends JPanel {
         });
         btnDelete.addActionListener(e -> deleteSelected());
         
-        // Search listener
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
-        
-        // Filter listener
-        cboFilterType.addActionListener(e -> search());
+        // Search and type filter run in SQL
+        SearchScheduler.debounce(this::loadTransactions, txtSearch);
+        cboFilterType.addActionListener(e -> loadTransactions());
 
         loadTransactions();
     }
@@ -142,60 +145,13 @@ public class FinancialPanel extends JPanel {
         b.setCursor(new Cursor(Cursor.HAND_CURSOR));
     }
     
-    private void search() {
-        String text = txtSearch.getText().trim();
-        String filterType = (String) cboFilterType.getSelectedItem();
-        
-        RowFilter<DefaultTableModel, Object> rf = null;
-        
-        try {
-            if (!text.isEmpty() && !"All".equals(filterType)) {
-                // Both search and filter
-                RowFilter<DefaultTableModel, Object> searchFilter = RowFilter.regexFilter("(?i)" + text);
-                RowFilter<DefaultTableModel, Object> typeFilter = RowFilter.regexFilter("(?i)" + filterType, 2); // Column 2 is Type
-                rf = RowFilter.andFilter(java.util.Arrays.asList(searchFilter, typeFilter));
-            } else if (!text.isEmpty()) {
-                // Search only
-                rf = RowFilter.regexFilter("(?i)" + text);
-            } else if (!"All".equals(filterType)) {
-                // Filter only
-                rf = RowFilter.regexFilter("(?i)" + filterType, 2); // Column 2 is Type
-            }
-        } catch (java.util.regex.PatternSyntaxException e) {
-            return;
-        }
-        
-        sorter.setRowFilter(rf);
-    }
-
+    // Newest first unless a header was clicked; only the visible page is read
     private void loadTransactions() {
-        model.setRowCount(0);
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT transaction_id, transaction_date, transaction_type, category, " +
-                        "amount, description, payment_method " +
-                        "FROM financial_transactions " +
-                        "ORDER BY transaction_date DESC, transaction_id DESC";
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            
-            while (rs.next()) {
-                Timestamp timestamp = rs.getTimestamp("transaction_date");
-                String formattedDateTime = timestamp != null ? 
-                    DateTimeFormatter.formatDateTime12H(timestamp) : "N/A";
-                
-                model.addRow(new Object[]{
-                    rs.getInt("transaction_id"),
-                    formattedDateTime,
-                    rs.getString("transaction_type"),
-                    rs.getString("category"),
-                    String.format("₱%.2f", rs.getDouble("amount")),
-                    rs.getString("description"),
-                    rs.getString("payment_method")
-                });
-            }
-        } catch (SQLException e) {
-            ErrorHandler.showError(this, "loading financial transactions", e);
-        }
+        String filterType = (String) cboFilterType.getSelectedItem();
+        model.search(new QuerySpec()
+            .withSearch(txtSearch.getText())
+            .with("transaction_type", "All".equals(filterType) ? null : filterType)
+            .orderBy("transaction_date", true));
     }
 
     private void openDialog(Integer id) {
@@ -2,9 +2,12 @@ package ui;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import model.DataExporter;
 import model.HouseholdModel;
 import model.ResidentModel;
+import model.Permission;
+import model.Permissions;
+import model.QuerySpec;
 import model.SessionManager;
 import model.User;
 import java.awt.*;
@@ -15,21 +18,24 @@ import theme.Theme;
 
 public class HouseholdPanel extends JPanel {
     private JTable table;
-    private DefaultTableModel tableModel;
+    private SpecTableModel tableModel;
     private JTextField txtSearch;
-    private JButton btnAdd, btnEdit, btnDelete, btnRefresh, btnManageMembers;
-    private TableRowSorter<DefaultTableModel> sorter;
-    private boolean isStaff = false;
+    private JButton btnAdd, btnEdit, btnDelete, btnRefresh, btnManageMembers, btnExport;
+    private boolean canEdit = false;
+    private boolean canDelete = false;
+    private boolean canEditMembers = false;
+    private boolean canDeleteMembers = false;
 
     public HouseholdPanel() {
         setLayout(new BorderLayout(10, 10));
         setBackground(Theme.PRIMARY_LIGHT);
 
-        // Check if user is staff
         User current = SessionManager.getInstance().getCurrentUser();
-        if (current != null && "2".equals(current.getRoleId())) {
-            isStaff = true;
-        }
+        canEdit = Permissions.hasPermission(current, Permission.EDIT_HOUSEHOLD);
+        canEditMembers = Permissions.hasPermission(current, Permission.EDIT_RESIDENT);
+        canDeleteMembers = Permissions.hasPermission(current, Permission.DELETE_RESIDENT);
+        // Deleting a household deletes its members too
+        canDelete = Permissions.hasPermission(current, Permission.DELETE_HOUSEHOLD) && canDeleteMembers;
 
         // Panel title
         JLabel titleLabel = new JLabel("🏠 Household Management");
@@ -49,12 +55,14 @@ public class HouseholdPanel extends JPanel {
         btnEdit = new JButton("✏ Edit Household");
         btnDelete = new JButton("🗑 Delete Household");
         btnManageMembers = new JButton("👥 Manage Members");
+        btnExport = new JButton("⬇ Export");
 
         styleButton(btnRefresh);
         styleButton(btnAdd);
         styleButton(btnEdit);
         styleButton(btnDelete);
         styleButton(btnManageMembers);
+        styleButton(btnExport);
 
         top.add(lblSearch);
         top.add(txtSearch);
@@ -64,14 +72,13 @@ public class HouseholdPanel extends JPanel {
         top.add(btnEdit);
         top.add(btnManageMembers);
         top.add(btnDelete);
+        if (ExportDialog.canExport(DataExporter.Dataset.HOUSEHOLDS)) top.add(btnExport);
 
-        // Staff can only view
-        if (isStaff) {
-            btnAdd.setEnabled(false);
-            btnEdit.setEnabled(false);
-            btnDelete.setEnabled(false);
-            btnManageMembers.setEnabled(false);
-        }
+        // Roles without edit permission can only view
+        btnAdd.setEnabled(canEdit);
+        btnEdit.setEnabled(canEdit);
+        btnManageMembers.setEnabled(canEdit);
+        btnDelete.setEnabled(canDelete);
 
         // Combine title and toolbar
         JPanel headerPanel = new JPanel(new BorderLayout());
@@ -80,21 +87,34 @@ public class HouseholdPanel extends JPanel {
         headerPanel.add(top, BorderLayout.CENTER);
         add(headerPanel, BorderLayout.NORTH);
 
-        // Table
-        tableModel = new DefaultTableModel(
-            new Object[]{"ID", "Family No", "Head", "Address", "Income", "Members"}, 0) {
-            public boolean isCellEditable(int row, int column) { return false; }
+        // Paged, searched and sorted in SQL (HouseholdModel.QUERY)
+        tableModel = new SpecTableModel(HouseholdModel.QUERY,
+            new String[]{"ID", "Family No", "Head", "Address", "Income", "Members"}, "households") {
+            @Override
+            protected Object valueOf(Object[] row, int column) {
+                Object value = row[column];
+                // Show placeholder if no head assigned yet
+                if (column == 2 && (value == null || value.toString().trim().isEmpty())) {
+                    return "Not assigned yet";
+                }
+                return value;
+            }
+
+            @Override
+            protected int loadingColumn() {
+                return 2;
+            }
         };
 
         table = new JTable(tableModel);
-        sorter = new TableRowSorter<>(tableModel);
-        table.setRowSorter(sorter);
+        tableModel.sortOnHeaderClick(table);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         // Event handlers
         btnRefresh.addActionListener(e -> loadHouseholds());
+        btnExport.addActionListener(e -> ExportDialog.show(this, DataExporter.Dataset.HOUSEHOLDS));
         btnAdd.addActionListener(e -> openHouseholdDialog(null));
         btnEdit.addActionListener(e -> {
             int row = table.getSelectedRow();
@@ -116,11 +136,7 @@ public class HouseholdPanel extends JPanel {
             openMembersDialog(id);
         });
 
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        SearchScheduler.debounce(this::loadHouseholds, txtSearch);
 
         loadHouseholds();
     }
@@ -133,55 +149,16 @@ public class HouseholdPanel extends JPanel {
         b.setCursor(new Cursor(Cursor.HAND_CURSOR));
     }
 
-    private void search() {
+    // A number is looked up as a family number, anything else searches head and address
+    private void loadHouseholds() {
         String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
+        QuerySpec spec = new QuerySpec().orderBy("family_no", false);
+        if (text.matches("\\d{1,9}")) {
+            spec = spec.with("family_no", Integer.valueOf(text));
         } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
-    private void loadHouseholds() {
-        tableModel.setRowCount(0);
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT h.household_id, h.family_no, " +
-                        "CONCAT(COALESCE(r.first_name, ''), ' ', COALESCE(r.middle_name, ''), ' ', COALESCE(r.last_name, '')) AS head_name, " +
-                        "h.address, h.income, " +
-                        "(SELECT COUNT(*) FROM residents r2 WHERE r2.household_id = h.household_id) as member_count " +
-                        "FROM households h " +
-                        "LEFT JOIN residents r ON h.household_id = r.household_id AND r.resident_id = " +
-                        "(SELECT MIN(r3.resident_id) FROM residents r3 WHERE r3.household_id = h.household_id) " +
-                        "ORDER BY h.household_id";
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            boolean hasData = false;
-            while (rs.next()) {
-                hasData = true;
-                String headName = rs.getString("head_name");
-                
-                // Show placeholder if no head assigned yet
-                if (headName == null || headName.trim().isEmpty()) {
-                    headName = "Not assigned yet";
-                } else {
-                    headName = headName.trim();
-                }
-                
-                tableModel.addRow(new Object[]{
-                    rs.getInt("household_id"),
-                    rs.getInt("family_no"),
-                    headName,
-                    rs.getString("address"),
-                    rs.getDouble("income"),
-                    rs.getInt("member_count")
-                });
-            }
-            if (!hasData) {
-                tableModel.addRow(new Object[]{"", "", "No households found", "Click 'Add Household' to create a new household", "", ""});
-            }
-        } catch (SQLException e) {
-            util.ErrorHandler.showError(this, "loading households", e);
+            spec = spec.withSearch(text);
         }
+        tableModel.search(spec);
     }
 
     private void openHouseholdDialog(Integer id) {
@@ -369,6 +346,10 @@ public class HouseholdPanel extends JPanel {
         styleButton(btnDeleteMember);
         styleButton(btnClose);
 
+        btnAddMember.setEnabled(canEditMembers);
+        btnEditMember.setEnabled(canEditMembers);
+        btnDeleteMember.setEnabled(canDeleteMembers);
+
         btnPanel.add(btnAddMember);
         btnPanel.add(btnEditMember);
         btnPanel.add(btnDeleteMember);
@@ -405,6 +386,7 @@ public class HouseholdPanel extends JPanel {
             openMemberDialog(householdId, memberId, loadMembers);
         });
         btnDeleteMember.addActionListener(e -> {
+            if (!canDeleteMembers) return;
             int row = membersTable.getSelectedRow();
             if (row == -1) {
                 JOptionPane.showMessageDialog(dialog, "Select a member to delete");
@@ -431,6 +413,7 @@ public class HouseholdPanel extends JPanel {
     }
 
     private void openMemberDialog(int householdId, Integer memberId, Runnable refreshCallback) {
+        if (!canEditMembers) return;
         boolean isEdit = memberId != null;
         JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), isEdit ? "Edit Member" : "Add Member", true);
 
@@ -557,54 +540,16 @@ public class HouseholdPanel extends JPanel {
         final boolean finalIsFirstMember = isFirstMember;
         btnSave.addActionListener(ae -> {
             try {
-                // Validate all required fields
+                // Read the form; ResidentModel.validate() checks it below
                 String firstName = txtFirst.getText().trim();
                 String middleName = txtMiddle.getText().trim();
                 String lastName = txtLast.getText().trim();
                 String contact = txtContact.getText().trim();
                 String email = txtEmail.getText().trim();
                 
-                // Check required fields
-                if (firstName.isEmpty()) {
-                    util.ErrorHandler.showValidationError(dialog, "First Name");
-                    txtFirst.requestFocus();
-                    return;
-                }
-                
-                if (lastName.isEmpty()) {
-                    util.ErrorHandler.showValidationError(dialog, "Last Name");
-                    txtLast.requestFocus();
-                    return;
-                }
-                
-                // Validate birthdate
                 java.util.Date spinnerDate = (java.util.Date) spinBirth.getValue();
-                if (spinnerDate == null) {
-                    util.ErrorHandler.showValidationError(dialog, "Birthdate");
-                    return;
-                }
-                
-                // Check if birthdate is in the future
-                if (spinnerDate.after(new java.util.Date())) {
-                    util.ErrorHandler.showError(dialog, "Birthdate cannot be in the future.\nPlease select a valid date.");
-                    return;
-                }
-                
-                // Validate gender selection
                 String gender = (String) cboGender.getSelectedItem();
-                if (gender == null || gender.isEmpty()) {
-                    util.ErrorHandler.showValidationError(dialog, "Gender");
-                    return;
-                }
-                
-                // Email validation (if provided)
-                if (!email.isEmpty() && !email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$")) {
-                    util.ErrorHandler.showFormatError(dialog, "Email", "valid email (e.g., user@example.com)");
-                    txtEmail.requestFocus();
-                    return;
-                }
-                
-                // All validation passed, proceed with save
+
                 ResidentModel r = isEdit ? null : new ResidentModel();
                 if (isEdit) {
                     for (ResidentModel rm : ResidentModel.getAll()) {
@@ -626,13 +571,37 @@ public class HouseholdPanel extends JPanel {
                 
                 // Get suffix from combobox
                 String suffix = (String) cboSuffix.getSelectedItem();
-                r.setSuffix(suffix != null && !suffix.trim().isEmpty() ? suffix.trim() : null);
+                r.setSuffix(ResidentModel.normalizeSuffix(suffix));
                 
-                r.setBirthDate(new Date(spinnerDate.getTime()));
+                r.setBirthDate(spinnerDate != null ? new Date(spinnerDate.getTime()) : null);
                 r.setGender(gender);
                 r.setContactNo(contact);
                 r.setEmail(email);
 
+                // Same rules as the CSV importer (ResidentModel.validate)
+                String problem = r.validate();
+                if (problem != null) {
+                    util.ErrorHandler.showError(dialog, problem + ".");
+                    return;
+                }
+
+                // Warn before registering someone who is probably already a resident
+                if (!isEdit) {
+                    java.util.List<model.DuplicateResidentFinder.Match> duplicates = r.findPossibleDuplicates();
+                    if (!duplicates.isEmpty()) {
+                        StringBuilder message = new StringBuilder("This person may already be registered:\n");
+                        for (int i = 0; i < Math.min(5, duplicates.size()); i++) {
+                            ResidentModel existing = duplicates.get(i).getSecond();
+                            message.append(String.format("\n  #%d %s, %s %s (born %s)", existing.getResidentId(),
+                                existing.getLastName(), existing.getFirstName(),
+                                existing.getMiddleName() != null ? existing.getMiddleName() : "",
+                                existing.getBirthDate() != null ? existing.getBirthDate() : "unknown"));
+                        }
+                        message.append("\n\nSave as a new resident anyway?");
+                        if (!util.ErrorHandler.confirm(dialog, message.toString(), "Possible Duplicate")) return;
+                    }
+                }
+
                 boolean success = isEdit ? r.update() : r.create();
                 if (success) {
                     // Log the operation
@@ -668,6 +637,7 @@ public class HouseholdPanel extends JPanel {
     }
 
     private void deleteHousehold() {
+        if (!canDelete) return;
         int row = table.getSelectedRow();
         if (row == -1) {
             JOptionPane.showMessageDialog(this, "Select a household to delete");
@@ -682,16 +652,9 @@ public class HouseholdPanel extends JPanel {
             JOptionPane.YES_NO_OPTION);
             
         if (confirm == JOptionPane.YES_OPTION) {
-            try (Connection conn = DbConnection.getConnection()) {
-                // Delete members first
-                PreparedStatement ps = conn.prepareStatement("DELETE FROM residents WHERE household_id = ?");
-                ps.setInt(1, id);
-                int membersDeleted = ps.executeUpdate();
-                
-                // Delete household
-                ps = conn.prepareStatement("DELETE FROM households WHERE household_id = ?");
-                ps.setInt(1, id);
-                ps.executeUpdate();
+            try {
+                // Members and household go together or not at all
+                int membersDeleted = HouseholdModel.deleteWithMembers(id);
                 
                 // Log user activity
                 util.Logger.logCRUDOperation("DELETE", "Household", String.valueOf(id),
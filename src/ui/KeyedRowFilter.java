@@ -0,0 +1,277 @@
+package ui;
+
+import javax.swing.RowFilter;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableModel;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Row filter for a TableRowSorter that matches literal text, not regular
+ * expressions. Every row has a search key, its cells lowercased with accents
+ * removed ("Peña" matches "pena"), kept in step with row inserts, updates and
+ * deletes; a key is built the first time a search needs it (off the EDT when
+ * the search goes through snapshot()), so loading a table nobody searches
+ * costs nothing. A query is split on whitespace and a row matches when
+ * its key contains every token (AND); an optional column condition works the
+ * same way on one cell.
+ *
+ * include() tests the key directly, which is already cheap. For large tables
+ * the match can also be computed up front, off the EDT and on several cores
+ * (snapshot() / Snapshot.run() / apply()), so the sorter only looks up bits.
+ *
+ * Create it after the JTable, so its model listener runs before the sorter's.
+ */
+public class KeyedRowFilter extends RowFilter<TableModel, Integer> {
+
+    // Above this many rows a precomputed match is split across cores
+    private static final int PARALLEL_ROWS = Integer.getInteger("search.parallelRows", 50_000);
+    // Separates cells in a key so a token never matches across two cells
+    private static final char CELL_SEPARATOR = '\u0000';
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final TableModel model;
+    private final List<String> keys = new ArrayList<>();
+    private String[] tokens = NO_TOKENS;
+    private int column = -1;
+    private String[] columnTokens = NO_TOKENS;
+    // Bumped on every row or query change; a precomputed match only counts for its version
+    private int version;
+    // Bumped on row changes only; keys built by a snapshot are kept while it is unchanged
+    private int rowsVersion;
+    private BitSet matches;
+    private int matchesVersion = -1;
+
+    public KeyedRowFilter(TableModel model) {
+        this.model = model;
+        rebuild();
+        model.addTableModelListener(this::modelChanged);
+    }
+
+    /**
+     * Set the text to match (empty matches every row)
+     */
+    public void setQuery(String text) {
+        tokens = tokenize(text);
+        version++;
+    }
+
+    /**
+     * Also require one column to contain the given text
+     * @param column Model column, or -1 for none
+     */
+    public void setColumnQuery(int column, String text) {
+        this.column = column;
+        columnTokens = column < 0 ? NO_TOKENS : tokenize(text);
+        version++;
+    }
+
+    /** True when some condition is set */
+    public boolean isActive() {
+        return tokens.length > 0 || columnTokens.length > 0;
+    }
+
+    @Override
+    public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+        int row = entry.getIdentifier();
+        if (matchesVersion == version) {
+            return matches.get(row);
+        }
+        return matches(keyAt(row), tokens, column, columnTokens);
+    }
+
+    /**
+     * Capture the keys and query (on the EDT) so the match can run elsewhere;
+     * rows without a key yet only have their cell values copied
+     */
+    public Snapshot snapshot() {
+        String[] snapshotKeys = keys.toArray(new String[0]);
+        Object[][] cells = null;
+        int columns = model.getColumnCount();
+        for (int r = 0; r < snapshotKeys.length; r++) {
+            if (snapshotKeys[r] != null) continue;
+            if (cells == null) cells = new Object[snapshotKeys.length][];
+            Object[] row = new Object[columns];
+            for (int c = 0; c < columns; c++) {
+                row[c] = model.getValueAt(r, c);
+            }
+            cells[r] = row;
+        }
+        return new Snapshot(snapshotKeys, cells, tokens, column, columnTokens, version, rowsVersion);
+    }
+
+    /**
+     * Use a precomputed match (and the keys its snapshot built)
+     * @return false if rows or the query changed since the snapshot (no match applied)
+     */
+    public boolean apply(Snapshot snapshot, BitSet result) {
+        if (snapshot.rowsVersion == rowsVersion && snapshot.cells != null) {
+            for (int r = 0; r < snapshot.keys.length; r++) {
+                if (keys.get(r) == null) keys.set(r, snapshot.keys[r]);
+            }
+        }
+        if (snapshot.version != version) return false;
+        matches = result;
+        matchesVersion = version;
+        return true;
+    }
+
+    /**
+     * Keys and query at one moment; run() can be called from any thread
+     */
+    public static class Snapshot {
+        private final String[] keys;
+        // Cell values of rows whose key still has to be built (null when none)
+        private final Object[][] cells;
+        private final String[] tokens;
+        private final int column;
+        private final String[] columnTokens;
+        private final int version;
+        private final int rowsVersion;
+
+        Snapshot(String[] keys, Object[][] cells, String[] tokens, int column, String[] columnTokens,
+                 int version, int rowsVersion) {
+            this.keys = keys;
+            this.cells = cells;
+            this.tokens = tokens;
+            this.column = column;
+            this.columnTokens = columnTokens;
+            this.version = version;
+            this.rowsVersion = rowsVersion;
+        }
+
+        /**
+         * Rows (model indexes) that match, on several cores for large tables
+         */
+        public BitSet run() {
+            BitSet result = new BitSet(keys.length);
+            if (keys.length >= PARALLEL_ROWS) {
+                int[] rows = IntStream.range(0, keys.length).parallel()
+                    .filter(r -> matches(key(r), tokens, column, columnTokens))
+                    .toArray();
+                for (int r : rows) {
+                    result.set(r);
+                }
+            } else {
+                for (int r = 0; r < keys.length; r++) {
+                    if ((r & 4095) == 0 && Thread.currentThread().isInterrupted()) break; // superseded
+                    if (matches(key(r), tokens, column, columnTokens)) result.set(r);
+                }
+            }
+            return result;
+        }
+
+        private String key(int row) {
+            if (keys[row] == null) keys[row] = keyOf(cells[row]);
+            return keys[row];
+        }
+    }
+
+    private void modelChanged(TableModelEvent e) {
+        version++;
+        rowsVersion++;
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            rebuild();
+            return;
+        }
+        switch (e.getType()) {
+            case TableModelEvent.INSERT:
+                keys.addAll(Math.min(first, keys.size()), Collections.nCopies(last - first + 1, null));
+                break;
+            case TableModelEvent.DELETE:
+                keys.subList(Math.min(first, keys.size()), Math.min(last + 1, keys.size())).clear();
+                break;
+            default:
+                for (int r = first; r <= last && r < keys.size(); r++) {
+                    keys.set(r, null);
+                }
+        }
+        if (keys.size() != model.getRowCount()) {
+            // Events did not describe the change exactly; start over
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        keys.clear();
+        keys.addAll(Collections.nCopies(model.getRowCount(), null));
+    }
+
+    private String keyAt(int row) {
+        String key = row < keys.size() ? keys.get(row) : null;
+        if (key == null) {
+            Object[] cells = new Object[model.getColumnCount()];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = model.getValueAt(row, c);
+            }
+            key = keyOf(cells);
+            if (row < keys.size()) keys.set(row, key);
+        }
+        return key;
+    }
+
+    private static String keyOf(Object[] cells) {
+        StringBuilder key = new StringBuilder();
+        for (int c = 0; c < cells.length; c++) {
+            if (c > 0) key.append(CELL_SEPARATOR);
+            if (cells[c] != null) key.append(normalize(cells[c].toString()));
+        }
+        return key.toString();
+    }
+
+    private static boolean matches(String key, String[] tokens, int column, String[] columnTokens) {
+        for (String token : tokens) {
+            if (!key.contains(token)) return false;
+        }
+        if (columnTokens.length > 0) {
+            String cell = cell(key, column);
+            for (String token : columnTokens) {
+                if (!cell.contains(token)) return false;
+            }
+        }
+        return true;
+    }
+
+    // One cell of a key
+    private static String cell(String key, int column) {
+        int start = 0;
+        for (int c = 0; c < column; c++) {
+            start = key.indexOf(CELL_SEPARATOR, start);
+            if (start < 0) return "";
+            start++;
+        }
+        int end = key.indexOf(CELL_SEPARATOR, start);
+        return end < 0 ? key.substring(start) : key.substring(start, end);
+    }
+
+    private static String[] tokenize(String text) {
+        if (text == null) return NO_TOKENS;
+        String normalized = normalize(text).trim();
+        return normalized.isEmpty() ? NO_TOKENS : normalized.split("\\s+");
+    }
+
+    /**
+     * Lowercase with accents removed, the form keys and queries are compared in
+     */
+    static String normalize(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0x7F) {
+                String decomposed = Normalizer.normalize(s, Normalizer.Form.NFD);
+                StringBuilder stripped = new StringBuilder(decomposed.length());
+                for (int j = 0; j < decomposed.length(); j++) {
+                    char c = decomposed.charAt(j);
+                    if (Character.getType(c) != Character.NON_SPACING_MARK) stripped.append(c);
+                }
+                return stripped.toString().toLowerCase(Locale.ROOT);
+            }
+        }
+        return s.toLowerCase(Locale.ROOT);
+    }
+}
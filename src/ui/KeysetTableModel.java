@@ -0,0 +1,252 @@
+package ui;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+import db.DataAccessExecutor;
+
+/**
+ * Table model that pages rows in from the database as the table scrolls.
+ * Only the pages the JTable actually asks for are fetched (keyset-paged, so
+ * every page is an index seek) and at most MAX_PAGES are kept in memory;
+ * scrolled-away pages are dropped and re-fetched on demand.
+ *
+ * Subclasses supply the queries; they run off the EDT with the filter that
+ * was current when the page was requested. A page that fails to load is not
+ * fetched again on every repaint: it waits RETRY_DELAY_MS, doubling with each
+ * failure, and a refresh() starts over.
+ *
+ * @param <R> Row type
+ * @param <K> Keyset position (the sort key of a row)
+ * @param <F> Filter passed to refresh()
+ */
+public abstract class KeysetTableModel<R, K, F> extends AbstractTableModel {
+
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int MAX_PAGES = 8;
+    // A page that failed to load is retried after this, doubling per failure up to MAX_RETRY_DELAY_MS
+    private static final long RETRY_DELAY_MS = 1000L;
+    private static final long MAX_RETRY_DELAY_MS = 30_000L;
+
+    private final String[] columns;
+    private final String what;
+    private int pageSize;
+    // Loaded pages, least recently used evicted first
+    private final Map<Integer, List<R>> pages = new LinkedHashMap<Integer, List<R>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<R>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    // Start key of every page seen so far (page n starts after the last row of page n-1)
+    private final Map<Integer, K> pageStartKeys = new HashMap<>();
+    private final Map<Integer, CompletableFuture<List<R>>> pending = new HashMap<>();
+    // Pages whose last fetch failed in this generation: failure count and when to try again
+    private final Map<Integer, long[]> failed = new HashMap<>();
+    private CompletableFuture<Integer> pendingCount;
+
+    private int rowCount = 0;
+    private F filter;
+    // Bumped on every refresh so results from an older query are discarded
+    private int generation = 0;
+    private IntConsumer countListener;
+
+    /**
+     * @param columns Column headers
+     * @param what What the rows are, for error messages ("residents")
+     */
+    protected KeysetTableModel(String[] columns, String what) {
+        this(columns, what, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param pageSize Rows fetched per query
+     */
+    protected KeysetTableModel(String[] columns, String what, int pageSize) {
+        this.columns = columns;
+        this.what = what;
+        this.pageSize = pageSize;
+    }
+
+    /** Number of rows matching the filter */
+    protected abstract int fetchCount(F filter) throws Exception;
+
+    /** Up to limit rows following the key (from the start when after is null) */
+    protected abstract List<R> fetchPageAfter(K after, F filter, int limit) throws Exception;
+
+    /** Key of the row at a position, or null past the end */
+    protected abstract K fetchKeyAt(int offset, F filter) throws Exception;
+
+    /** Sort key of a loaded row */
+    protected abstract K keyOf(R row);
+
+    /** Cell value of a loaded row */
+    protected abstract Object valueOf(R row, int column);
+
+    /**
+     * Rows fetched per query for a filter (the constructor's page size unless
+     * the filter carries its own)
+     */
+    protected int pageSizeFor(F filter) {
+        return pageSize;
+    }
+
+    /**
+     * Called on the EDT with the total row count after each refresh
+     */
+    public void setCountListener(IntConsumer countListener) {
+        this.countListener = countListener;
+    }
+
+    /**
+     * Drop everything and start over with a new filter
+     */
+    public void refresh(F filter) {
+        generation++;
+        for (CompletableFuture<?> f : pending.values()) {
+            f.cancel(true);
+        }
+        pending.clear();
+        if (pendingCount != null) {
+            pendingCount.cancel(true);
+        }
+        pages.clear();
+        pageStartKeys.clear();
+        failed.clear();
+        this.filter = filter;
+        pageSize = Math.max(1, pageSizeFor(filter));
+        rowCount = 0;
+        fireTableDataChanged();
+
+        int gen = generation;
+        pendingCount = DataAccessExecutor.supply(() -> fetchCount(filter));
+        DataAccessExecutor.onEdt(pendingCount, count -> {
+            if (gen != generation) return;
+            rowCount = count;
+            fireTableDataChanged();
+            if (countListener != null) countListener.accept(count);
+        }, error -> util.Logger.logError("Loading " + what + " count", error.getMessage(), asException(error)));
+    }
+
+    /**
+     * Filter of the last refresh
+     */
+    public F getFilter() {
+        return filter;
+    }
+
+    /**
+     * Row at a model index, or null if its page is not loaded yet
+     */
+    public R getRowAt(int row) {
+        List<R> page = pages.get(row / pageSize);
+        int index = row % pageSize;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int pageNo = row / pageSize;
+        List<R> page = pages.get(pageNo);
+        if (page == null) {
+            boolean waiting = !requestPage(pageNo);
+            return column == loadingColumn() ? (waiting ? "Could not load" : "Loading...") : "";
+        }
+        int index = row % pageSize;
+        if (index >= page.size()) {
+            return "";
+        }
+        return valueOf(page.get(index), column);
+    }
+
+    /** Column that shows "Loading..." while a page is fetched */
+    protected int loadingColumn() {
+        return 0;
+    }
+
+    // False while the page is waiting to retry after a failure (repaints do not re-query)
+    private boolean requestPage(int pageNo) {
+        if (pending.containsKey(pageNo)) return true;
+        long[] failure = failed.get(pageNo);
+        if (failure != null && System.currentTimeMillis() < failure[1]) return false;
+
+        int gen = generation;
+        F currentFilter = filter;
+        K knownStart = pageStartKeys.get(pageNo);
+        CompletableFuture<List<R>> future = DataAccessExecutor.supply(() -> {
+            K start = knownStart;
+            if (pageNo > 0 && start == null) {
+                // Jumped past unseen pages: look up the boundary key from the index
+                start = fetchKeyAt(pageNo * pageSize - 1, currentFilter);
+                if (start == null) return Collections.<R>emptyList();
+            }
+            return fetchPageAfter(start, currentFilter, pageSize);
+        });
+        pending.put(pageNo, future);
+
+        DataAccessExecutor.onEdt(future, rows -> {
+            if (gen != generation) return;
+            pending.remove(pageNo);
+            failed.remove(pageNo);
+            pages.put(pageNo, rows);
+            if (!rows.isEmpty()) {
+                pageStartKeys.put(pageNo + 1, keyOf(rows.get(rows.size() - 1)));
+            }
+            repaintPage(pageNo);
+        }, error -> {
+            if (gen != generation) return;
+            pending.remove(pageNo);
+            long[] previous = failed.get(pageNo);
+            int failures = previous == null ? 1 : (int) previous[0] + 1;
+            long delay = Math.min(MAX_RETRY_DELAY_MS, RETRY_DELAY_MS << Math.min(failures - 1, 16));
+            failed.put(pageNo, new long[] {failures, System.currentTimeMillis() + delay});
+            util.Logger.logError("Loading " + what + " page " + pageNo + " (attempt " + failures + ")",
+                error.getMessage(), asException(error));
+            repaintPage(pageNo);
+            // Repaint once the delay is over so a visible page tries again by itself
+            javax.swing.Timer retry = new javax.swing.Timer((int) delay, e -> {
+                if (gen == generation) repaintPage(pageNo);
+            });
+            retry.setRepeats(false);
+            retry.start();
+        });
+        return true;
+    }
+
+    private void repaintPage(int pageNo) {
+        int first = pageNo * pageSize;
+        int last = Math.min(rowCount, first + pageSize) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    private static Exception asException(Throwable t) {
+        return t instanceof Exception ? (Exception) t : new Exception(t);
+    }
+}
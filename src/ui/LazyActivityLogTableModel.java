@@ -0,0 +1,58 @@
+package ui;
+
+import java.util.List;
+import model.ActivityLogModel;
+import util.DateTimeFormatter;
+
+/**
+ * Activity log entries, newest first, paged in as the table scrolls
+ * (see KeysetTableModel). Filtering is done in SQL.
+ */
+public class LazyActivityLogTableModel
+        extends KeysetTableModel<ActivityLogModel.ActivityLog, ActivityLogModel.PageKey, ActivityLogModel.LogFilter> {
+
+    private static final String[] COLUMNS = {"Log ID", "Username", "User ID", "Action", "Time", "IP Address"};
+
+    public LazyActivityLogTableModel() {
+        super(COLUMNS, "activity logs");
+    }
+
+    @Override
+    protected int fetchCount(ActivityLogModel.LogFilter filter) throws Exception {
+        return ActivityLogModel.getCount(filter);
+    }
+
+    @Override
+    protected List<ActivityLogModel.ActivityLog> fetchPageAfter(ActivityLogModel.PageKey after,
+            ActivityLogModel.LogFilter filter, int limit) throws Exception {
+        return ActivityLogModel.getPageAfter(after, filter, limit);
+    }
+
+    @Override
+    protected ActivityLogModel.PageKey fetchKeyAt(int offset, ActivityLogModel.LogFilter filter) throws Exception {
+        return ActivityLogModel.getKeyAt(offset, filter);
+    }
+
+    @Override
+    protected ActivityLogModel.PageKey keyOf(ActivityLogModel.ActivityLog log) {
+        return ActivityLogModel.PageKey.of(log);
+    }
+
+    @Override
+    protected int loadingColumn() {
+        return 1;
+    }
+
+    @Override
+    protected Object valueOf(ActivityLogModel.ActivityLog log, int column) {
+        switch (column) {
+            case 0: return log.getLogId();
+            case 1: return log.getUsername();
+            case 2: return log.getUserId();
+            case 3: return log.getAction();
+            case 4: return DateTimeFormatter.formatDateTime(log.getLogTime());
+            case 5: return log.getIpAddress();
+            default: return "";
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package ui;
+
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import db.DataAccessExecutor;
+import model.ActivityLogModel;
+import util.DateTimeFormatter;
+
+/**
+ * Live view of the newest activity log entries. After one initial load it
+ * only asks the database for rows past the highest log_id it has seen, adds
+ * them at the top and drops the oldest once WINDOW rows are held. Polling
+ * starts at MIN_INTERVAL_MS, doubles up to MAX_INTERVAL_MS while nothing new
+ * arrives, and is skipped while the table is not on screen.
+ */
+public class LiveActivityLogTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"Log ID", "Username", "User ID", "Action", "Time", "IP Address"};
+    private static final int WINDOW = Integer.getInteger("activityLog.tailWindow", 1000);
+    private static final int POLL_LIMIT = 500;
+    private static final int MIN_INTERVAL_MS = 1000;
+    private static final int MAX_INTERVAL_MS = 30_000;
+
+    // Oldest first; row 0 of the table is the last element
+    private final List<ActivityLogModel.ActivityLog> rows = new ArrayList<>();
+    private final Timer timer;
+    private final java.awt.Component view;
+    private ActivityLogModel.LogFilter filter = ActivityLogModel.LogFilter.none();
+    private CompletableFuture<List<ActivityLogModel.ActivityLog>> inFlight;
+    private int lastLogId;
+    private int interval = MIN_INTERVAL_MS;
+    // Bumped on start/stop so a poll from an older run is discarded
+    private int generation;
+    private Consumer<String> statusListener;
+
+    /**
+     * @param view Component showing the table; polling pauses while it is not showing
+     */
+    public LiveActivityLogTableModel(java.awt.Component view) {
+        this.view = view;
+        timer = new Timer(MIN_INTERVAL_MS, e -> poll());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Called on the EDT with a short status line after each poll
+     */
+    public void setStatusListener(Consumer<String> statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    /**
+     * Load the newest entries matching the filter and start following new ones
+     */
+    public void start(ActivityLogModel.LogFilter filter) {
+        stop();
+        this.filter = filter;
+        int gen = generation;
+        ActivityLogModel.LogFilter f = filter;
+        inFlight = DataAccessExecutor.supply(() -> ActivityLogModel.getPageAfter(null, f, WINDOW));
+        DataAccessExecutor.onEdt(inFlight, newestFirst -> {
+            if (gen != generation) return;
+            inFlight = null;
+            List<ActivityLogModel.ActivityLog> loaded = new ArrayList<>(newestFirst);
+            Collections.reverse(loaded);
+            rows.clear();
+            rows.addAll(loaded);
+            lastLogId = 0;
+            for (ActivityLogModel.ActivityLog log : loaded) {
+                lastLogId = Math.max(lastLogId, log.getLogId());
+            }
+            fireTableDataChanged();
+            status(String.format("Live: %,d latest entries", rows.size()));
+            schedule(MIN_INTERVAL_MS);
+        }, error -> {
+            if (gen != generation) return;
+            inFlight = null;
+            util.Logger.logError("Loading live activity log", error.getMessage(), asException(error));
+            schedule(MAX_INTERVAL_MS);
+        });
+    }
+
+    /**
+     * Stop polling (the rows already shown stay)
+     */
+    public void stop() {
+        generation++;
+        timer.stop();
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+    }
+
+    private void poll() {
+        if (!view.isShowing()) {
+            // Hidden behind another panel: check again later without querying
+            schedule(interval);
+            return;
+        }
+        int gen = generation;
+        int after = lastLogId;
+        ActivityLogModel.LogFilter f = filter;
+        inFlight = DataAccessExecutor.supply(() -> ActivityLogModel.getNewerThan(after, f, POLL_LIMIT));
+        DataAccessExecutor.onEdt(inFlight, added -> {
+            if (gen != generation) return;
+            inFlight = null;
+            if (added.isEmpty()) {
+                // Idle: back off
+                schedule(Math.min(MAX_INTERVAL_MS, interval * 2));
+                return;
+            }
+            append(added);
+            status(String.format("Live: %,d new, updated %s", added.size(),
+                DateTimeFormatter.getCurrentDateTime()));
+            // Activity: keep polling at the fastest rate
+            schedule(MIN_INTERVAL_MS);
+        }, error -> {
+            if (gen != generation) return;
+            inFlight = null;
+            util.Logger.logError("Polling activity log", error.getMessage(), asException(error));
+            schedule(MAX_INTERVAL_MS);
+        });
+    }
+
+    private void append(List<ActivityLogModel.ActivityLog> added) {
+        for (ActivityLogModel.ActivityLog log : added) {
+            lastLogId = Math.max(lastLogId, log.getLogId());
+        }
+        int overflow = rows.size() + added.size() - WINDOW;
+        if (overflow > 0) {
+            int removed = Math.min(overflow, rows.size());
+            rows.subList(0, removed).clear();
+            // Oldest rows are at the bottom of the table
+            int bottom = rows.size() + removed - 1;
+            fireTableRowsDeleted(bottom - removed + 1, bottom);
+        }
+        List<ActivityLogModel.ActivityLog> kept = added.size() > WINDOW
+            ? added.subList(added.size() - WINDOW, added.size())
+            : added;
+        rows.addAll(kept);
+        fireTableRowsInserted(0, kept.size() - 1);
+    }
+
+    private void schedule(int delay) {
+        interval = delay;
+        timer.setInitialDelay(delay);
+        timer.restart();
+    }
+
+    private void status(String text) {
+        if (statusListener != null) statusListener.accept(text);
+    }
+
+    public ActivityLogModel.ActivityLog getRowAt(int row) {
+        return rows.get(rows.size() - 1 - row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        ActivityLogModel.ActivityLog log = getRowAt(row);
+        switch (column) {
+            case 0: return log.getLogId();
+            case 1: return log.getUsername();
+            case 2: return log.getUserId();
+            case 3: return log.getAction();
+            case 4: return DateTimeFormatter.formatDateTime(log.getLogTime());
+            case 5: return log.getIpAddress();
+            default: return "";
+        }
+    }
+
+    private static Exception asException(Throwable t) {
+        return t instanceof Exception ? (Exception) t : new Exception(t);
+    }
+}
@@ -5,11 +5,14 @@ import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.border.*;
 import model.LoginModel;
+import model.LoginThrottle;
+import model.Permission;
+import model.Permissions;
 import model.SessionManager;
 import model.User;
-import model.UserModel;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import theme.Theme;
 
 public class Login extends JFrame {
@@ -19,8 +22,11 @@ public class Login extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JCheckBox showPasswordCheckbox;
+    private JButton btnLogin;
 
     public static void main(String[] args) {
+        // Runs on the auth workers while the window opens
+        LoginModel.calibrateAsync();
         EventQueue.invokeLater(() -> {
             try {
                 Login frame = new Login();
@@ -84,7 +90,7 @@ public class Login extends JFrame {
         });
         contentPane.add(showPasswordCheckbox);
 
-        JButton btnLogin = new JButton("Login");
+        btnLogin = new JButton("Login");
         btnLogin.setFont(new Font("Arial", Font.BOLD, 14));
         btnLogin.setBounds(180, 180, 180, 40);
         btnLogin.setBackground(Theme.PRIMARY);
@@ -133,103 +139,146 @@ public class Login extends JFrame {
                     JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (!btnLogin.isEnabled()) return; // a sign-in is already running
 
-        LoginModel loginModel = new LoginModel();
+        setBusy(true);
+        // Database and password hashing run on the auth workers; dialogs stay on the EDT
+        CompletableFuture<Boolean> needsReset = LoginModel.supplyAsync(() -> {
+            // Closing the model hands its connection back to the pool
+            try (LoginModel loginModel = new LoginModel()) {
+                if (!loginModel.hasConnection()) {
+                    throw new SQLException("Cannot connect to database. Please check configuration.");
+                }
+                return loginModel.userNeedsPasswordReset(usernameOrEmail);
+            }
+        });
+        DataAccessExecutor.onEdt(needsReset, reset -> {
+            if (reset) {
+                setNewPassword(usernameOrEmail);
+            } else {
+                authenticate(usernameOrEmail, password);
+            }
+        }, this::showLoginError);
+    }
 
-        if (!loginModel.hasConnection()) {
-            JOptionPane.showMessageDialog(this,
-                    "Cannot connect to database. Please check configuration.",
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
+    // Password reset flow
+    private void setNewPassword(String usernameOrEmail) {
+        JPanel panel = new JPanel(new GridLayout(0, 1));
+        JPasswordField pwd1 = new JPasswordField();
+        JPasswordField pwd2 = new JPasswordField();
+        panel.add(new JLabel("Set a new password for your account:"));
+        panel.add(new JLabel("Password:")); panel.add(pwd1);
+        panel.add(new JLabel("Confirm Password:")); panel.add(pwd2);
+        int res = JOptionPane.showConfirmDialog(this, panel, "Set Password",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (res != JOptionPane.OK_OPTION) {
+            setBusy(false);
             return;
         }
 
-        try {
-            // Password reset flow
-            if (loginModel.userNeedsPasswordReset(usernameOrEmail)) {
-                JPanel panel = new JPanel(new GridLayout(0, 1));
-                JPasswordField pwd1 = new JPasswordField();
-                JPasswordField pwd2 = new JPasswordField();
-                panel.add(new JLabel("Set a new password for your account:"));
-                panel.add(new JLabel("Password:")); panel.add(pwd1);
-                panel.add(new JLabel("Confirm Password:")); panel.add(pwd2);
-                int res = JOptionPane.showConfirmDialog(this, panel, "Set Password",
-                        JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
-                if (res != JOptionPane.OK_OPTION) return;
-
-                String p1 = new String(pwd1.getPassword());
-                String p2 = new String(pwd2.getPassword());
-                if (p1.isEmpty() || !p1.equals(p2)) {
-                    JOptionPane.showMessageDialog(this,
-                            "Passwords do not match or are empty.", "Password Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-
-                boolean ok = loginModel.setUserPassword(usernameOrEmail, p1);
-                if (!ok) {
-                    JOptionPane.showMessageDialog(this,
-                            "Failed to set password. Contact admin.", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                password = p1;
-            }
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
-            ex.printStackTrace();
+        String p1 = new String(pwd1.getPassword());
+        String p2 = new String(pwd2.getPassword());
+        if (p1.isEmpty() || !p1.equals(p2)) {
             JOptionPane.showMessageDialog(this,
-                    "Error setting password: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    "Passwords do not match or are empty.", "Password Error", JOptionPane.ERROR_MESSAGE);
+            setBusy(false);
             return;
         }
 
-        // Login attempt
-        boolean success = loginModel.login(usernameOrEmail, password);
-
-        if (success) {
-            // Set current user in session
-            User currentUser = new UserModel().getUserByUsernameOrEmail(usernameOrEmail);
-            SessionManager.getInstance().setCurrentUser(currentUser);
-
-            // Log successful login
-            util.Logger.logAuthenticationAttempt(currentUser.getUsername(), true, "127.0.0.1");
-            
+        CompletableFuture<Boolean> saved = LoginModel.supplyAsync(() -> {
+            try (LoginModel loginModel = new LoginModel()) {
+                return loginModel.setUserPassword(usernameOrEmail, p1);
+            }
+        });
+        DataAccessExecutor.onEdt(saved, ok -> {
+            if (!ok) {
+                setBusy(false);
+                JOptionPane.showMessageDialog(this,
+                        "Failed to set password. Contact admin.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            authenticate(usernameOrEmail, p1);
+        }, error -> {
+            setBusy(false);
+            error.printStackTrace();
             JOptionPane.showMessageDialog(this,
-                    "Login successful! Welcome " + currentUser.getFullname(), 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-
-            // Open dashboard based on role
-            String roleId = currentUser.getRoleId();
-            
-            if ("1".equals(roleId)) {
-                // Admin - Full access to Dashboard
-                util.Logger.logInfo("Admin user " + currentUser.getUsername() + " accessed full dashboard");
-                new Dashboard().setVisible(true);
-            } else if ("2".equals(roleId)) {
-                // Staff - Limited access to Dashboard
-                // The Dashboard already checks role and shows limited menu
-                util.Logger.logInfo("Staff user " + currentUser.getUsername() + " accessed limited dashboard");
-                new Dashboard().setVisible(true);
+                    "Error setting password: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    // Login attempt
+    private void authenticate(String usernameOrEmail, String password) {
+        DataAccessExecutor.onEdt(LoginModel.loginAsync(usernameOrEmail, password), currentUser -> {
+            setBusy(false);
+            if (currentUser != null) {
+                openDashboard(currentUser);
             } else {
-                // Other roles - ClientDashboard (if exists) or default Dashboard
-                try {
-                    util.Logger.logInfo("User " + currentUser.getUsername() + " accessed client dashboard");
-                    new ClientDashboard().setVisible(true);
-                } catch (Exception ex) {
-                    // If ClientDashboard doesn't work, use regular Dashboard
-                    util.Logger.logWarning("ClientDashboard not available, using default Dashboard for " + currentUser.getUsername());
-                    new Dashboard().setVisible(true);
-                }
+                // Log failed login attempt
+                util.Logger.logAuthenticationAttempt(usernameOrEmail, false, "127.0.0.1");
+                util.Logger.logWarning("Failed login attempt for username/email: " + usernameOrEmail);
+                
+                JOptionPane.showMessageDialog(this,
+                        "Invalid username or password!", "Login Error", JOptionPane.ERROR_MESSAGE);
+                passwordField.setText("");
+                passwordField.requestFocus();
             }
+        }, this::showLoginError);
+    }
 
-            dispose(); // close login window
+    private void openDashboard(User currentUser) {
+        // Set current user in session
+        SessionManager.getInstance().setCurrentUser(currentUser);
+
+        // Log successful login
+        util.Logger.logAuthenticationAttempt(currentUser.getUsername(), true, "127.0.0.1");
+        
+        JOptionPane.showMessageDialog(this,
+                "Login successful! Welcome " + currentUser.getFullname(), 
+                "Success", 
+                JOptionPane.INFORMATION_MESSAGE);
+
+        // Open the staff dashboard for any role that can see a records panel
+        if (Permissions.hasAny(currentUser, Permission.VIEW_RESIDENTS, Permission.VIEW_HOUSEHOLDS,
+                Permission.VIEW_PROJECTS, Permission.VIEW_FINANCIAL, Permission.MANAGE_USERS)) {
+            util.Logger.logInfo("User " + currentUser.getUsername() + " accessed dashboard with " + Permissions.forRole(currentUser.getRoleId()));
+            new Dashboard().setVisible(true);
         } else {
-            // Log failed login attempt
-            util.Logger.logAuthenticationAttempt(usernameOrEmail, false, "127.0.0.1");
-            util.Logger.logWarning("Failed login attempt for username/email: " + usernameOrEmail);
-            
+            // Other roles - ClientDashboard (if exists) or default Dashboard
+            try {
+                util.Logger.logInfo("User " + currentUser.getUsername() + " accessed client dashboard");
+                new ClientDashboard().setVisible(true);
+            } catch (Exception ex) {
+                // If ClientDashboard doesn't work, use regular Dashboard
+                util.Logger.logWarning("ClientDashboard not available, using default Dashboard for " + currentUser.getUsername());
+                new Dashboard().setVisible(true);
+            }
+        }
+
+        dispose(); // close login window
+    }
+
+    private void showLoginError(Throwable error) {
+        setBusy(false);
+        if (error instanceof LoginThrottle.ThrottledException) {
+            long seconds = Math.max(1, (((LoginThrottle.ThrottledException) error).getRetryAfterMillis() + 999) / 1000);
             JOptionPane.showMessageDialog(this,
-                    "Invalid username or password!", "Login Error", JOptionPane.ERROR_MESSAGE);
-            passwordField.setText("");
-            passwordField.requestFocus();
+                    error.getMessage() + ". Please try again in " + seconds + " second" + (seconds == 1 ? "" : "s") + ".",
+                    "Login Error",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        error.printStackTrace();
+        JOptionPane.showMessageDialog(this,
+                "Cannot connect to database. Please check configuration.",
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void setBusy(boolean busy) {
+        btnLogin.setEnabled(!busy);
+        btnLogin.setText(busy ? "Signing in..." : "Login");
+        usernameField.setEnabled(!busy);
+        passwordField.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
     }
 }
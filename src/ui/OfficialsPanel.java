@@ -55,24 +55,11 @@ public class OfficialsPanel extends JPanel {
         btnUpdate.addActionListener(e -> { int r = table.getSelectedRow(); if (r==-1){ JOptionPane.showMessageDialog(this,"Select an official"); return;} openDialog((Integer)table.getValueAt(r,0)); });
         btnDelete.addActionListener(e -> deleteSelected());
         
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        new TableSearch(txtSearch, sorter);
 
         loadOfficials();
     }
     
-    private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
     private void style(JButton b){ b.setBackground(Theme.PRIMARY); b.setForeground(Color.WHITE); b.setFocusPainted(false); b.setBorderPainted(false); }
 
     private void loadOfficials(){
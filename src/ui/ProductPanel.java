@@ -5,6 +5,10 @@ import java.awt.*;
 import java.awt.event.*;
 import java.sql.*;
 import db.DbConnection;
+import model.Permission;
+import model.Permissions;
+import model.ProjectModel;
+import model.QuerySpec;
 import model.SessionManager;
 import model.User;
 import java.text.ParseException;
@@ -17,10 +21,9 @@ import theme.Theme;
  */
 public class ProductPanel extends JPanel {
     private JTable table;
-    private DefaultTableModel model;
+    private SpecTableModel model;
     private JTextField txtSearch;
     private JButton btnAdd, btnUpdate, btnDelete, btnRefresh, btnSearch;
-    private TableRowSorter<DefaultTableModel> sorter;
 
     public ProductPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -52,20 +55,19 @@ public class ProductPanel extends JPanel {
 
         add(top, BorderLayout.NORTH);
 
-        // Table
-        model = new DefaultTableModel(new String[]{"ID","Name","Status","Start Date","End Date","Proponent","Budget","Progress"}, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        // Table: paged, searched and sorted in SQL (ProjectModel.QUERY)
+        model = new SpecTableModel(ProjectModel.QUERY,
+            new String[]{"ID","Name","Status","Start Date","End Date","Proponent","Budget","Progress"}, "projects");
         table = new JTable(model);
-        sorter = new TableRowSorter<>(model);
-        table.setRowSorter(sorter);
+        model.sortOnHeaderClick(table);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         // Event handlers
         btnRefresh.addActionListener(e -> loadProjects());
-        btnSearch.addActionListener(e -> searchProjects());
-        txtSearch.addActionListener(e -> searchProjects());
+        btnSearch.addActionListener(e -> loadProjects());
+        txtSearch.addActionListener(e -> loadProjects());
+        SearchScheduler.debounce(this::loadProjects, txtSearch);
         btnAdd.addActionListener(e -> openProjectDialog(null));
         btnUpdate.addActionListener(e -> {
             int row = table.getSelectedRow();
@@ -75,13 +77,9 @@ public class ProductPanel extends JPanel {
         });
         btnDelete.addActionListener(e -> deleteProject());
 
-        // Privilege: only Admin or Staff can modify
+        // Privilege: roles with the projects.edit permission can modify
         User current = SessionManager.getInstance().getCurrentUser();
-        boolean canModify = false;
-        if (current != null) {
-            String role = current.getRoleId();
-            if ("1".equals(role) || "2".equals(role)) canModify = true;
-        }
+        boolean canModify = Permissions.hasPermission(current, Permission.EDIT_PROJECTS);
         btnAdd.setEnabled(canModify);
         btnUpdate.setEnabled(canModify);
         btnDelete.setEnabled(canModify);
@@ -97,54 +95,9 @@ public class ProductPanel extends JPanel {
         b.setCursor(new Cursor(Cursor.HAND_CURSOR));
     }
 
+    // Only the visible page is read; the search box matches whole words or their start
     private void loadProjects() {
-        model.setRowCount(0);
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT project_id, project_name, project_status, start_date, end_date, proponent, total_budget, progress_percentage FROM barangay_projects ORDER BY project_id";
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
-            while (rs.next()) {
-                model.addRow(new Object[]{
-                    rs.getInt("project_id"),
-                    rs.getString("project_name"),
-                    rs.getString("project_status"),
-                    rs.getDate("start_date"),
-                    rs.getDate("end_date"),
-                    rs.getString("proponent"),
-                    rs.getDouble("total_budget"),
-                    rs.getInt("progress_percentage")
-                });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading projects: "+e.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void searchProjects() {
-        String term = txtSearch.getText().trim();
-        if (term.isEmpty()) { loadProjects(); return; }
-        model.setRowCount(0);
-        try (Connection conn = DbConnection.getConnection()) {
-            String sql = "SELECT project_id, project_name, project_status, start_date, end_date, proponent, total_budget, progress_percentage FROM barangay_projects WHERE project_name LIKE ? OR proponent LIKE ? ORDER BY project_id";
-            PreparedStatement ps = conn.prepareStatement(sql);
-            String t = "%"+term+"%";
-            ps.setString(1,t); ps.setString(2,t);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                model.addRow(new Object[]{
-                    rs.getInt("project_id"),
-                    rs.getString("project_name"),
-                    rs.getString("project_status"),
-                    rs.getDate("start_date"),
-                    rs.getDate("end_date"),
-                    rs.getString("proponent"),
-                    rs.getDouble("total_budget"),
-                    rs.getInt("progress_percentage")
-                });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error searching projects: "+e.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
-        }
+        model.search(new QuerySpec().withSearch(txtSearch.getText()));
     }
 
     private void openProjectDialog(Integer projectId) {
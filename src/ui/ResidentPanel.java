@@ -1,19 +1,19 @@
 package ui;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
-import model.ResidentModel;
 import java.awt.*;
-import java.util.List;
+import model.DataExporter;
+import model.QuerySpec;
+import model.ResidentModel;
 import theme.Theme;
 
 public class ResidentPanel extends JPanel {
     private JTable residentTable;
-    private DefaultTableModel tableModel;
-    private JButton btnRefresh;
+    // Pages residents in as the table scrolls; search and header sorts run in SQL
+    private SpecTableModel tableModel;
+    private JButton btnRefresh, btnExport;
     private JTextField txtSearch;
-    private TableRowSorter<DefaultTableModel> sorter;
+    private JLabel lblCount;
 
     public ResidentPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -34,16 +34,23 @@ public class ResidentPanel extends JPanel {
         txtSearch = new JTextField(30);
         btnRefresh = new JButton("🔄 Refresh");
         styleButton(btnRefresh);
+        btnExport = new JButton("⬇ Export");
+        styleButton(btnExport);
 
         topPanel.add(lblSearch);
         topPanel.add(txtSearch);
         topPanel.add(btnRefresh);
+        if (ExportDialog.canExport(DataExporter.Dataset.RESIDENTS)) topPanel.add(btnExport);
         
         JLabel lblNote = new JLabel("(Manage residents through Households)");
         lblNote.setForeground(Theme.TEXT_SECONDARY);
         lblNote.setFont(new Font("Arial", Font.ITALIC, 11));
         topPanel.add(lblNote);
 
+        lblCount = new JLabel("Loading residents...");
+        lblCount.setForeground(Theme.TEXT_SECONDARY);
+        topPanel.add(lblCount);
+
         // Combine title and toolbar
         JPanel headerPanel = new JPanel(new BorderLayout());
         headerPanel.setBackground(Theme.PRIMARY_LIGHT);
@@ -52,29 +59,34 @@ public class ResidentPanel extends JPanel {
         add(headerPanel, BorderLayout.NORTH);
 
         // Table setup
-        tableModel = new DefaultTableModel(
-            new Object[] {"ID", "Household", "First Name", "Middle", "Last", "Birthdate", "Age", "Gender", "Contact", "Email"}, 
-            0
-        ) {
-            public boolean isCellEditable(int row, int column) {
-                return false;
+        tableModel = new SpecTableModel(ResidentModel.QUERY,
+            new String[]{"ID", "Household", "First Name", "Middle", "Last", "Birthdate", "Age", "Gender", "Contact", "Email"},
+            "residents") {
+            @Override
+            protected Object valueOf(Object[] row, int column) {
+                return column == 1 && row[column] == null ? "N/A" : row[column];
+            }
+
+            @Override
+            protected int loadingColumn() {
+                return 2;
             }
         };
+        tableModel.setCountListener(count -> lblCount.setText(count == 0
+            ? "No residents found - add residents through Households"
+            : String.format("%,d residents", count)));
 
         residentTable = new JTable(tableModel);
-        sorter = new TableRowSorter<>(tableModel);
-        residentTable.setRowSorter(sorter);
+        tableModel.sortOnHeaderClick(residentTable);
         
         JScrollPane scrollPane = new JScrollPane(residentTable);
         add(scrollPane, BorderLayout.CENTER);
 
         // Event listeners
         btnRefresh.addActionListener(e -> loadResidents());
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        btnExport.addActionListener(e -> ExportDialog.show(this, DataExporter.Dataset.RESIDENTS));
+        // One query once typing pauses, not one per keystroke
+        SearchScheduler.debounce(this::search, txtSearch);
 
         loadResidents();
     }
@@ -87,35 +99,16 @@ public class ResidentPanel extends JPanel {
         b.setCursor(new Cursor(Cursor.HAND_CURSOR));
     }
     
+    // Search is applied in SQL so only matching pages are fetched
     private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
+        loadResidents();
     }
 
     private void loadResidents() {
-        tableModel.setRowCount(0);
-        List<ResidentModel> residents = ResidentModel.getAll();
-        if (residents.isEmpty()) {
-            tableModel.addRow(new Object[]{"", "", "No residents found", "Add residents through Households", "", "", "", "", "", ""});
-        } else {
-            for (ResidentModel residentItem : residents) {
-                tableModel.addRow(new Object[] {
-                    residentItem.getResidentId(),
-                    residentItem.getHouseholdId() != null ? residentItem.getHouseholdId() : "N/A",
-                    residentItem.getFirstName(),
-                    residentItem.getMiddleName(),
-                    residentItem.getLastName(),
-                    residentItem.getBirthDate(),
-                    residentItem.getAge(),
-                    residentItem.getGender(),
-                    residentItem.getContactNo(),
-                    residentItem.getEmail()
-                });
-            }
-        }
+        lblCount.setText("Loading residents...");
+        tableModel.search(new QuerySpec()
+            .withSearch(txtSearch.getText())
+            .orderBy("last_name", false)
+            .thenOrderBy("first_name", false));
     }
 }
@@ -3,6 +3,8 @@ package ui;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
+import model.Permission;
+import model.Permissions;
 import model.SessionManager;
 import model.User;
 import java.awt.*;
@@ -89,19 +91,7 @@ public class RolesPanel extends JPanel {
         });
         btnDelete.addActionListener(e -> deleteRole());
 
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) {
-                search();
-            }
-
-            public void removeUpdate(javax.swing.event.DocumentEvent e) {
-                search();
-            }
-
-            public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                search();
-            }
-        });
+        new TableSearch(txtSearch, sorter);
 
         loadRoles();
     }
@@ -114,15 +104,6 @@ public class RolesPanel extends JPanel {
         b.setCursor(new Cursor(Cursor.HAND_CURSOR));
     }
 
-    private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
     private void loadRoles() {
         tableModel.setRowCount(0);
         try (Connection conn = DbConnection.getConnection()) {
@@ -154,9 +135,13 @@ public class RolesPanel extends JPanel {
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         JTextField txtRoleName = new JTextField();
+        JTextField txtPermissions = new JTextField(25);
+        txtPermissions.setToolTipText(permissionsHelp());
 
         panel.add(new JLabel("Role Name:*"));
         panel.add(txtRoleName);
+        panel.add(new JLabel("Permissions:"));
+        panel.add(txtPermissions);
         
         if (isEdit) {
             try (Connection conn = DbConnection.getConnection()) {
@@ -165,6 +150,7 @@ public class RolesPanel extends JPanel {
                 ResultSet rs = ps.executeQuery();
                 if (rs.next()) {
                     txtRoleName.setText(rs.getString("role_name"));
+                    txtPermissions.setText(rs.getString("permissions"));
                 }
             } catch (SQLException e) {
                 JOptionPane.showMessageDialog(this, "Error loading role: " + e.getMessage());
@@ -182,6 +168,7 @@ public class RolesPanel extends JPanel {
         btnSave.addActionListener(ae -> {
             // Validate required fields
             String roleName = txtRoleName.getText().trim();
+            String permissions = txtPermissions.getText().trim();
             
             if (roleName.isEmpty()) {
                 JOptionPane.showMessageDialog(dialog, "Role Name is required!", "Validation Error", JOptionPane.ERROR_MESSAGE);
@@ -191,17 +178,22 @@ public class RolesPanel extends JPanel {
             
             try (Connection conn = DbConnection.getConnection()) {
                 if (!isEdit) {
-                    String sql = "INSERT INTO roles (role_name) VALUES (?)";
+                    String sql = "INSERT INTO roles (role_name, permissions) VALUES (?, ?)";
                     PreparedStatement ps = conn.prepareStatement(sql);
                     ps.setString(1, roleName);
+                    ps.setString(2, permissions.isEmpty() ? null : permissions);
                     ps.executeUpdate();
+                    Permissions.invalidateAll();
                     JOptionPane.showMessageDialog(dialog, "✓ Role added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 } else {
-                    String sql = "UPDATE roles SET role_name=? WHERE role_id=?";
+                    String sql = "UPDATE roles SET role_name=?, permissions=? WHERE role_id=?";
                     PreparedStatement ps = conn.prepareStatement(sql);
                     ps.setString(1, roleName);
-                    ps.setString(2, roleId);
+                    ps.setString(2, permissions.isEmpty() ? null : permissions);
+                    ps.setString(3, roleId);
                     ps.executeUpdate();
+                    // Users of this role pick up the change on their next check
+                    Permissions.invalidate(roleId);
                     JOptionPane.showMessageDialog(dialog, "✓ Role updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 }
                 dialog.dispose();
@@ -222,6 +214,16 @@ public class RolesPanel extends JPanel {
         dialog.setVisible(true);
     }
 
+    // Tooltip listing the permission keys a role can be given
+    private static String permissionsHelp() {
+        StringBuilder help = new StringBuilder("<html>Comma-separated, empty for the default access.<br>"
+            + "* for everything, area.* (e.g. residents.*) for one area:<br>");
+        for (Permission p : Permission.values()) {
+            help.append("&nbsp;&nbsp;").append(p.getKey()).append("<br>");
+        }
+        return help.append("</html>").toString();
+    }
+
     private void deleteRole() {
         int row = table.getSelectedRow();
         if (row == -1) {
@@ -242,6 +244,7 @@ public class RolesPanel extends JPanel {
                 PreparedStatement ps = conn.prepareStatement("DELETE FROM roles WHERE role_id = ?");
                 ps.setString(1, roleId);
                 ps.executeUpdate();
+                Permissions.invalidate(roleId);
                 JOptionPane.showMessageDialog(this, "Role deleted");
                 loadRoles();
             } catch (SQLException e) {
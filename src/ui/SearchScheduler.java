@@ -0,0 +1,122 @@
+package ui;
+
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import db.DataAccessExecutor;
+
+/**
+ * Runs searches typed into a field without doing the work per keystroke.
+ * submit() waits until input has been quiet for the debounce delay, then
+ * runs the search off the EDT; a newer submit cancels the one still running
+ * and only the latest result is handed to the apply callback (on the EDT).
+ * All methods are called on the EDT.
+ *
+ * @param <T> Search result
+ */
+public class SearchScheduler<T> {
+
+    public static final int DEFAULT_DELAY_MS = Integer.getInteger("search.debounceMs", 250);
+
+    private final Timer timer;
+    private Callable<T> pendingSearch;
+    private Consumer<T> pendingApply;
+    private CompletableFuture<T> inFlight;
+    private Consumer<Throwable> errorHandler;
+    // Bumped per started search so an older result is never applied
+    private int generation;
+
+    public SearchScheduler() {
+        this(DEFAULT_DELAY_MS);
+    }
+
+    public SearchScheduler(int delayMs) {
+        timer = new Timer(delayMs, e -> start());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Called on the EDT when the latest search fails (by default it is only logged)
+     */
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Run the search once input settles, replacing any search not applied yet
+     * @param search Runs off the EDT; should not touch Swing components
+     * @param apply Receives the result on the EDT, unless a newer search superseded it
+     */
+    public void submit(Callable<T> search, Consumer<T> apply) {
+        pendingSearch = search;
+        pendingApply = apply;
+        timer.restart();
+    }
+
+    /**
+     * Like submit() but without waiting for the debounce delay
+     */
+    public void submitNow(Callable<T> search, Consumer<T> apply) {
+        pendingSearch = search;
+        pendingApply = apply;
+        timer.stop();
+        start();
+    }
+
+    /**
+     * Drop the pending search and cancel the running one
+     */
+    public void cancel() {
+        timer.stop();
+        pendingSearch = null;
+        pendingApply = null;
+        generation++;
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+    }
+
+    private void start() {
+        Callable<T> search = pendingSearch;
+        Consumer<T> apply = pendingApply;
+        if (search == null) return;
+        cancel();
+        int gen = generation;
+        CompletableFuture<T> future = DataAccessExecutor.supply(search);
+        inFlight = future;
+        DataAccessExecutor.onEdt(future, result -> {
+            if (gen != generation) return;
+            inFlight = null;
+            apply.accept(result);
+        }, error -> {
+            if (gen != generation) return;
+            inFlight = null;
+            util.Logger.logError("Search", error.getMessage(),
+                error instanceof Exception ? (Exception) error : new Exception(error));
+            if (errorHandler != null) errorHandler.accept(error);
+        });
+    }
+
+    /**
+     * Call action on the EDT once the fields have stopped changing for the
+     * debounce delay (for searches that are already asynchronous, such as
+     * refreshing a paged table model)
+     */
+    public static void debounce(Runnable action, JTextComponent... fields) {
+        Timer timer = new Timer(DEFAULT_DELAY_MS, e -> action.run());
+        timer.setRepeats(false);
+        DocumentListener restart = new DocumentListener() {
+            public void changedUpdate(DocumentEvent e) { timer.restart(); }
+            public void removeUpdate(DocumentEvent e) { timer.restart(); }
+            public void insertUpdate(DocumentEvent e) { timer.restart(); }
+        };
+        for (JTextComponent field : fields) {
+            field.getDocument().addDocumentListener(restart);
+        }
+    }
+}
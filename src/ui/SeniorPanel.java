@@ -5,6 +5,8 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import db.DataAccessExecutor;
 import model.SeniorModel;
 import model.SessionManager;
 import model.User;
@@ -16,6 +18,7 @@ public class SeniorPanel extends JPanel {
     private JButton btnRefresh;
     private JTextField txtSearch;
     private TableRowSorter<DefaultTableModel> sorter;
+    private CompletableFuture<List<SeniorModel.Senior>> pendingLoad;
 
     public SeniorPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -63,24 +66,11 @@ public class SeniorPanel extends JPanel {
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         btnRefresh.addActionListener(e -> loadSeniors());
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { search(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { search(); }
-        });
+        new TableSearch(txtSearch, sorter);
 
         loadSeniors();
     }
     
-    private void search() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
     private void styleButton(JButton b) {
         b.setBackground(Theme.PRIMARY);
         b.setForeground(Color.WHITE);
@@ -90,11 +80,17 @@ public class SeniorPanel extends JPanel {
     }
 
     private void loadSeniors() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+        }
         model.setRowCount(0);
-        
-        try {
-            List<SeniorModel.Senior> seniors = SeniorModel.getAllSeniors();
-            
+        model.addRow(new Object[]{"", "Loading senior citizens...", "", "", ""});
+        btnRefresh.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        pendingLoad = SeniorModel.getAllSeniorsAsync();
+        DataAccessExecutor.onEdt(pendingLoad, seniors -> {
+            finishLoading();
             if (seniors.isEmpty()) {
                 model.addRow(new Object[]{"", "No senior citizens found", "Add residents through Households", "", ""});
             } else {
@@ -108,12 +104,19 @@ public class SeniorPanel extends JPanel {
                     });
                 }
             }
-        } catch (Exception e) {
+        }, error -> {
+            finishLoading();
             JOptionPane.showMessageDialog(this, 
-                "Error loading seniors: " + e.getMessage(), 
+                "Error loading seniors: " + error.getMessage(), 
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
-        }
+        });
+    }
+
+    private void finishLoading() {
+        model.setRowCount(0);
+        btnRefresh.setEnabled(true);
+        setCursor(Cursor.getDefaultCursor());
     }
 
 }
@@ -0,0 +1,80 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.function.Consumer;
+import model.SessionManager;
+import model.User;
+
+/**
+ * Keeps the signed-in session alive while the user works in a frame and
+ * returns to Login when it expires. Every frame opened after login starts
+ * one with watch(); it stops when the frame is disposed.
+ */
+public class SessionWatcher {
+
+    private final JFrame frame;
+    private final User user;
+    private AWTEventListener activity;
+    private Consumer<SessionManager.Session> expiry;
+
+    private SessionWatcher(JFrame frame, User user) {
+        this.frame = frame;
+        this.user = user;
+    }
+
+    /**
+     * Watch the current user's session for a frame (does nothing when nobody is signed in)
+     */
+    public static SessionWatcher watch(JFrame frame) {
+        SessionWatcher watcher = new SessionWatcher(frame, SessionManager.getInstance().getCurrentUser());
+        if (watcher.user != null) watcher.start();
+        return watcher;
+    }
+
+    private void start() {
+        // Any key or mouse event in the application counts as activity
+        activity = e -> {
+            SessionManager.Session session = SessionManager.getInstance().currentSession();
+            if (session != null) session.touch();
+        };
+        Toolkit.getDefaultToolkit().addAWTEventListener(activity,
+            AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK);
+        expiry = session -> {
+            if (session.getUser() != user) return;
+            SwingUtilities.invokeLater(() -> {
+                if (!frame.isDisplayable()) return;
+                stop();
+                JOptionPane.showMessageDialog(frame,
+                    "Your session expired after a period of inactivity. Please log in again.",
+                    "Session Expired", JOptionPane.INFORMATION_MESSAGE);
+                new Login().setVisible(true);
+                frame.dispose();
+            });
+        };
+        SessionManager.getInstance().addExpiryListener(expiry);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                stop();
+            }
+        });
+    }
+
+    /**
+     * Stop watching (before logging out, or when the frame closes)
+     */
+    public void stop() {
+        if (activity != null) {
+            Toolkit.getDefaultToolkit().removeAWTEventListener(activity);
+            activity = null;
+        }
+        if (expiry != null) {
+            SessionManager.getInstance().removeExpiryListener(expiry);
+            expiry = null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ui;
+
+import javax.swing.JTable;
+import javax.swing.table.TableColumn;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import model.QuerySpec;
+import model.QueryTable;
+
+/**
+ * Table model for any QueryTable: rows are paged in as the table scrolls
+ * (see KeysetTableModel), and searching, filtering and sorting all happen
+ * in SQL. Table columns are the QueryTable's selected columns, in order.
+ *
+ * Panels call search() with the spec built from their toolbar; a sort
+ * chosen by clicking a column header is kept across searches. Each search
+ * fetches rows in pages of the spec's page size.
+ */
+public class SpecTableModel extends KeysetTableModel<Object[], Object[], QuerySpec> {
+
+    private final QueryTable query;
+    private final String[] headers;
+    private QuerySpec requested = new QuerySpec();
+    // Column picked in the header (model index), or -1 for the spec's own order
+    private int sortColumn = -1;
+    private boolean sortDescending;
+
+    /**
+     * @param query Table and columns to show
+     * @param headers Column headers, one per selected column
+     * @param what What the rows are, for error messages ("projects")
+     */
+    public SpecTableModel(QueryTable query, String[] headers, String what) {
+        super(headers, what, QuerySpec.DEFAULT_PAGE_SIZE);
+        this.query = query;
+        this.headers = headers.clone();
+    }
+
+    /**
+     * Show the rows matching a spec (sorted by the clicked column, if any)
+     */
+    public void search(QuerySpec spec) {
+        requested = spec;
+        if (sortColumn >= 0) {
+            spec = spec.orderBy(query.getColumns()[sortColumn], sortDescending);
+        }
+        refresh(spec);
+    }
+
+    /**
+     * Run the last search again (after an add, edit or delete)
+     */
+    public void reload() {
+        search(requested);
+    }
+
+    /**
+     * Sort in SQL when a header is clicked: ascending first, then descending.
+     * Columns the QueryTable cannot sort by are left alone.
+     */
+    public void sortOnHeaderClick(JTable table) {
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int viewColumn = table.columnAtPoint(e.getPoint());
+                if (viewColumn < 0) return;
+                int column = table.convertColumnIndexToModel(viewColumn);
+                if (!query.isSortable(query.getColumns()[column])) return;
+                sortDescending = column == sortColumn && !sortDescending;
+                sortColumn = column;
+                for (int c = 0; c < table.getColumnModel().getColumnCount(); c++) {
+                    TableColumn tc = table.getColumnModel().getColumn(c);
+                    int modelColumn = tc.getModelIndex();
+                    tc.setHeaderValue(modelColumn == sortColumn
+                        ? headers[modelColumn] + (sortDescending ? " ▼" : " ▲") : headers[modelColumn]);
+                }
+                table.getTableHeader().repaint();
+                reload();
+            }
+        });
+    }
+
+    @Override
+    protected int pageSizeFor(QuerySpec spec) {
+        return spec.getPageSize();
+    }
+
+    @Override
+    protected int fetchCount(QuerySpec spec) throws Exception {
+        return query.getCount(spec);
+    }
+
+    @Override
+    protected List<Object[]> fetchPageAfter(Object[] after, QuerySpec spec, int limit) throws Exception {
+        return query.getPageAfter(after, spec, limit);
+    }
+
+    @Override
+    protected Object[] fetchKeyAt(int offset, QuerySpec spec) throws Exception {
+        return query.getKeyAt(offset, spec);
+    }
+
+    @Override
+    protected Object[] keyOf(Object[] row) {
+        return query.keyOf(row, getFilter());
+    }
+
+    @Override
+    protected Object valueOf(Object[] row, int column) {
+        return row[column];
+    }
+
+    @Override
+    protected int loadingColumn() {
+        return 1;
+    }
+}
@@ -125,25 +125,12 @@ public class SupplierPanel extends JPanel {
         btnSearch.addActionListener(e -> searchSuppliers());
         
         // Add live search
-        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { performLiveSearch(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { performLiveSearch(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { performLiveSearch(); }
-        });
+        new TableSearch(txtSearch, sorter);
         
         // Add search on enter key
         txtSearch.addActionListener(e -> searchSuppliers());
     }
     
-    private void performLiveSearch() {
-        String text = txtSearch.getText().trim();
-        if (text.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-        }
-    }
-
     private void styleButton(JButton button) {
         button.setBackground(new Color(70, 130, 180));
         button.setForeground(Color.WHITE);
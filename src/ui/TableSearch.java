@@ -0,0 +1,80 @@
+package ui;
+
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+import javax.swing.text.JTextComponent;
+import java.util.BitSet;
+
+/**
+ * Live search box for a table whose rows are all in its model. Typing
+ * updates a KeyedRowFilter (literal, case- and accent-insensitive, every
+ * word must appear); once typing pauses the match is computed off the EDT
+ * and the sorter only looks up the result. When the table is reloaded the
+ * current search is run again.
+ */
+public class TableSearch {
+
+    private final JTextComponent field;
+    private final TableRowSorter<? extends TableModel> sorter;
+    private final KeyedRowFilter filter;
+    private final SearchScheduler<BitSet> scheduler = new SearchScheduler<>();
+    // Debounces keystrokes and model events; the snapshot is taken when it fires
+    private final Timer settle = new Timer(SearchScheduler.DEFAULT_DELAY_MS, e -> search(true));
+
+    public TableSearch(JTextComponent field, TableRowSorter<? extends TableModel> sorter) {
+        this.field = field;
+        this.sorter = sorter;
+        this.filter = new KeyedRowFilter(sorter.getModel());
+        settle.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void changedUpdate(DocumentEvent e) { search(false); }
+            public void removeUpdate(DocumentEvent e) { search(false); }
+            public void insertUpdate(DocumentEvent e) { search(false); }
+        });
+        sorter.getModel().addTableModelListener(e -> {
+            if (filter.isActive()) search(false);
+        });
+    }
+
+    /**
+     * Also require one column to contain a text (e.g. a type chosen in a combo box)
+     * @param column Model column
+     * @param text Text to match, or null/empty to drop the condition
+     */
+    public void setColumnFilter(int column, String text) {
+        filter.setColumnQuery(column, text);
+        search(true);
+    }
+
+    /**
+     * Run the current search again right away
+     */
+    public void refresh() {
+        search(true);
+    }
+
+    private void search(boolean now) {
+        filter.setQuery(field.getText());
+        if (!filter.isActive()) {
+            settle.stop();
+            scheduler.cancel();
+            sorter.setRowFilter(null);
+            return;
+        }
+        if (!now) {
+            settle.restart();
+            return;
+        }
+        settle.stop();
+        KeyedRowFilter.Snapshot snapshot = filter.snapshot();
+        scheduler.submitNow(snapshot::run, matches -> {
+            // Stale when rows changed meanwhile; the model listener has queued a new search
+            if (filter.apply(snapshot, matches)) {
+                sorter.setRowFilter(filter);
+            }
+        });
+    }
+}
@@ -0,0 +1,393 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer behind Logger. Callers only stamp the time and drop the
+ * message into a bounded lock-free ring buffer; one daemon thread formats the
+ * timestamp and appends to user.log / error.log through writers that stay
+ * open until the file is rotated (see LogRotator).
+ *
+ * Settings (system properties):
+ *   log.bufferSize      ring capacity, rounded up to a power of two (8192)
+ *   log.flush           message | batch | interval (batch)
+ *   log.flushIntervalMs flush period for the interval policy (1000)
+ *   log.whenFull        block | drop (block)
+ */
+final class AsyncLogWriter {
+
+    enum Target {
+        USER("logs/user.log"), ERROR("logs/error.log");
+
+        final String file;
+
+        Target(String file) {
+            this.file = file;
+        }
+    }
+
+    enum FlushPolicy { MESSAGE, BATCH, INTERVAL }
+
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final DateTimeFormatter TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final FlushPolicy FLUSH_POLICY = FlushPolicy.valueOf(
+        System.getProperty("log.flush", "batch").trim().toUpperCase());
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("log.flushIntervalMs", 1000L);
+    private static final boolean DROP_WHEN_FULL = "drop".equalsIgnoreCase(System.getProperty("log.whenFull", "block"));
+
+    private static final AsyncLogWriter INSTANCE = new AsyncLogWriter(Integer.getInteger("log.bufferSize", 8192));
+
+    static AsyncLogWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /** One queued message, or a control action run on the writer thread */
+    private static final class Entry {
+        final Target target;
+        final long time;
+        final String text;
+        final Runnable control;
+
+        Entry(Target target, long time, String text, Runnable control) {
+            this.target = target;
+            this.time = time;
+            this.text = text;
+            this.control = control;
+        }
+    }
+
+    private final RingBuffer<Entry> buffer;
+    private final LogRotator rotator = new LogRotator();
+    private final Writer[] writers = new Writer[Target.values().length];
+    private final boolean[] dirty = new boolean[Target.values().length];
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private long lastFlush = System.currentTimeMillis();
+    private long cachedSecond = -1;
+    private String cachedStamp;
+
+    private AsyncLogWriter(int capacity) {
+        new File("logs").mkdirs();
+        buffer = new RingBuffer<>(capacity);
+        thread = new Thread(this::run, "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        ShutdownSequence.register(ShutdownSequence.Phase.LOGGING, () -> shutdown(5000));
+    }
+
+    /**
+     * Queue a line (without timestamp) for a log file. Never does file I/O on the caller.
+     */
+    void append(Target target, String text) {
+        enqueue(new Entry(target, System.currentTimeMillis(), text, null));
+    }
+
+    /**
+     * Write out everything queued so far and wait until it is on disk (bounded wait)
+     */
+    void flush() {
+        runOnWriter(() -> {
+            for (int i = 0; i < writers.length; i++) {
+                flushWriter(i);
+            }
+        });
+    }
+
+    /**
+     * Run an action on the writer thread after everything queued before it, and wait for it
+     */
+    void runOnWriter(Runnable action) {
+        if (!running || Thread.currentThread() == thread) {
+            synchronized (this) {
+                action.run();
+            }
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        enqueue(new Entry(null, 0, null, () -> {
+            try {
+                action.run();
+            } finally {
+                done.countDown();
+            }
+        }));
+        try {
+            done.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writer for a target, opened on first use. Only call from the writer thread
+     * (or from runOnWriter actions).
+     */
+    Writer writerFor(Target target) throws IOException {
+        int i = target.ordinal();
+        if (writers[i] == null) {
+            Path path = Paths.get(target.file);
+            writers[i] = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+            rotator.opened(target);
+        }
+        return writers[i];
+    }
+
+    /**
+     * Close a target's writer so the next write reopens the file (writer thread only)
+     */
+    void closeWriter(Target target) {
+        int i = target.ordinal();
+        if (writers[i] != null) {
+            try {
+                writers[i].close();
+            } catch (IOException e) {
+                System.err.println("Failed to close log file: " + target.file);
+            }
+            writers[i] = null;
+            dirty[i] = false;
+        }
+    }
+
+    /**
+     * Archive the live file now and start a fresh one (writer thread only)
+     */
+    void rotate(Target target) {
+        closeWriter(target);
+        rotator.rotate(target);
+    }
+
+    /**
+     * Live and archived files of a log that may hold messages between two instants
+     */
+    List<Path> segmentsFor(Target target, long from, long to) {
+        return rotator.segmentsFor(target, from, to);
+    }
+
+    private void enqueue(Entry entry) {
+        if (!running) {
+            // Writer has stopped (JVM shutting down): write directly
+            synchronized (this) {
+                handle(entry);
+                for (int i = 0; i < writers.length; i++) flushWriter(i);
+            }
+            return;
+        }
+        while (!buffer.offer(entry)) {
+            if (DROP_WHEN_FULL && entry.control == null) {
+                dropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(100_000);
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            int n = 0;
+            Entry entry;
+            synchronized (this) {
+                while (n < MAX_BATCH && (entry = buffer.poll()) != null) {
+                    handle(entry);
+                    n++;
+                }
+                reportDropped();
+                if (n > 0 && FLUSH_POLICY == FlushPolicy.BATCH) {
+                    flushAll();
+                } else if (FLUSH_POLICY == FlushPolicy.INTERVAL
+                        && System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL_MS) {
+                    flushAll();
+                }
+            }
+            if (n == 0) {
+                if (!running) break;
+                parked = true;
+                if (buffer.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+        synchronized (this) {
+            Entry entry;
+            while ((entry = buffer.poll()) != null) {
+                handle(entry);
+            }
+            reportDropped();
+            for (Target t : Target.values()) {
+                closeWriter(t);
+            }
+        }
+    }
+
+    private void handle(Entry entry) {
+        if (entry.control != null) {
+            try {
+                entry.control.run();
+            } catch (RuntimeException e) {
+                // Keep the writer thread alive whatever a control action does
+                e.printStackTrace();
+            }
+            return;
+        }
+        try {
+            // Approximate on-disk size: "[yyyy-MM-dd HH:mm:ss] " plus the text
+            int length = 22 + entry.text.length();
+            if (writers[entry.target.ordinal()] == null) {
+                writerFor(entry.target);
+            }
+            if (rotator.needsRotation(entry.target, entry.time, length)) {
+                rotate(entry.target);
+            }
+            Writer w = writerFor(entry.target);
+            w.write('[');
+            w.write(stamp(entry.time));
+            w.write("] ");
+            w.write(entry.text);
+            dirty[entry.target.ordinal()] = true;
+            rotator.written(entry.target, entry.time, length);
+            if (FLUSH_POLICY == FlushPolicy.MESSAGE) {
+                flushWriter(entry.target.ordinal());
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write to log file: " + entry.target.file);
+            e.printStackTrace();
+            closeWriter(entry.target);
+        }
+    }
+
+    private void reportDropped() {
+        long n = dropped.getAndSet(0);
+        if (n > 0) {
+            handle(new Entry(Target.ERROR, System.currentTimeMillis(),
+                String.format("WARNING: %d log message(s) dropped, log buffer was full%n", n), null));
+        }
+    }
+
+    private void flushAll() {
+        for (int i = 0; i < writers.length; i++) {
+            flushWriter(i);
+        }
+        lastFlush = System.currentTimeMillis();
+    }
+
+    private void flushWriter(int i) {
+        if (writers[i] != null && dirty[i]) {
+            try {
+                writers[i].flush();
+            } catch (IOException e) {
+                System.err.println("Failed to flush log file: " + Target.values()[i].file);
+            }
+            dirty[i] = false;
+        }
+    }
+
+    // Same-second messages share one formatted timestamp
+    private String stamp(long millis) {
+        long second = millis / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedStamp = TIMESTAMP.format(Instant.ofEpochMilli(millis));
+        }
+        return cachedStamp;
+    }
+
+    /**
+     * Stop accepting queued work, drain what is left and close the files
+     */
+    void shutdown(long timeoutMs) {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rotator.shutdown(timeoutMs);
+    }
+
+    /**
+     * Bounded multi-producer / single-consumer queue. Each slot carries a
+     * sequence number so producers claim slots with one CAS and the consumer
+     * never takes a lock.
+     */
+    static final class RingBuffer<E> {
+        private final int mask;
+        private final Object[] items;
+        private final AtomicLongArray sequence;
+        private final AtomicLong tail = new AtomicLong();
+        private long head; // consumer only
+
+        RingBuffer(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            mask = capacity - 1;
+            items = new Object[capacity];
+            sequence = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequence.set(i, i);
+            }
+        }
+
+        boolean offer(E item) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long diff = sequence.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        items[index] = item;
+                        sequence.set(index, pos + 1); // publish
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return false; // full
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        E poll() {
+            int index = (int) (head & mask);
+            if (sequence.get(index) != head + 1) {
+                return null;
+            }
+            E item = (E) items[index];
+            items[index] = null;
+            sequence.set(index, head + mask + 1); // free the slot for the next lap
+            head++;
+            return item;
+        }
+
+        boolean isEmpty() {
+            return sequence.get((int) (head & mask)) != head + 1;
+        }
+    }
+}
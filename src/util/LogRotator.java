@@ -0,0 +1,357 @@
+package util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rotates user.log and error.log by size and by calendar day.
+ * A rotated file is moved to logs/archive, gzipped on a background thread,
+ * and recorded in logs/archive/index.tsv with the time range it covers, so a
+ * date-range lookup only opens the segments that overlap it. Old segments
+ * are removed by age and by count.
+ *
+ * Settings (system properties):
+ *   log.maxBytes       rotate when the live file would exceed this (10 MB)
+ *   log.retentionDays  delete archived segments older than this (90)
+ *   log.maxArchives    keep at most this many segments per log (100)
+ */
+final class LogRotator {
+
+    private static final long MAX_BYTES = Long.getLong("log.maxBytes", 10L * 1024 * 1024);
+    private static final int RETENTION_DAYS = Integer.getInteger("log.retentionDays", 90);
+    private static final int MAX_ARCHIVES = Integer.getInteger("log.maxArchives", 100);
+
+    private static final Path ARCHIVE_DIR = Paths.get("logs", "archive");
+    private static final Path INDEX_FILE = ARCHIVE_DIR.resolve("index.tsv");
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZONE);
+    private static final DateTimeFormatter LINE_STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** An archived log file and the time range of the messages in it */
+    static final class Segment {
+        final String log;
+        final long first;
+        final long last;
+        final String file;
+
+        Segment(String log, long first, long last, String file) {
+            this.log = log;
+            this.first = first;
+            this.last = last;
+            this.file = file;
+        }
+
+        String toLine() {
+            return log + "\t" + first + "\t" + last + "\t" + file;
+        }
+
+        static Segment parse(String line) {
+            String[] parts = line.split("\t");
+            if (parts.length != 4) return null;
+            try {
+                return new Segment(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /** What is known about a live log file (writer thread only) */
+    private static final class LiveFile {
+        long first = -1;
+        long last = -1;
+        long bytes;
+        LocalDate day;
+    }
+
+    private final Map<AsyncLogWriter.Target, LiveFile> live = new EnumMap<>(AsyncLogWriter.Target.class);
+    // Gzip and retention run here so the log writer never waits on compression
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "log-compressor");
+        t.setDaemon(true);
+        return t;
+    });
+    private int sequence = 0;
+
+    LogRotator() {
+        try {
+            Files.createDirectories(ARCHIVE_DIR);
+        } catch (IOException e) {
+            System.err.println("Failed to create log archive directory: " + e.getMessage());
+        }
+        // Finish compressing anything a previous run left uncompressed
+        compressor.submit(this::compressPending);
+    }
+
+    /**
+     * Record the state of a live file that has just been opened for appending
+     */
+    void opened(AsyncLogWriter.Target target) {
+        LiveFile f = new LiveFile();
+        Path path = Paths.get(target.file);
+        try {
+            if (Files.exists(path) && Files.size(path) > 0) {
+                f.bytes = Files.size(path);
+                f.last = Files.getLastModifiedTime(path).toMillis();
+                f.first = firstTimestamp(path, f.last);
+                f.day = toDay(f.first);
+            }
+        } catch (IOException e) {
+            // unknown state: treat as empty, the next rotation will pick it up
+        }
+        live.put(target, f);
+    }
+
+    /**
+     * True if writing a message of this size at this time should start a new file
+     */
+    boolean needsRotation(AsyncLogWriter.Target target, long time, int length) {
+        LiveFile f = live.get(target);
+        if (f == null || f.bytes == 0) return false;
+        return f.bytes + length > MAX_BYTES || !toDay(time).equals(f.day);
+    }
+
+    /**
+     * Account for a message just written to the live file
+     */
+    void written(AsyncLogWriter.Target target, long time, int length) {
+        LiveFile f = live.get(target);
+        if (f == null) return;
+        if (f.first < 0) {
+            f.first = time;
+            f.day = toDay(time);
+        }
+        f.last = time;
+        f.bytes += length;
+    }
+
+    /**
+     * Move the (closed) live file into the archive and queue its compression.
+     * Call only after the target's writer has been closed.
+     */
+    void rotate(AsyncLogWriter.Target target) {
+        LiveFile f = live.remove(target);
+        Path path = Paths.get(target.file);
+        try {
+            if (!Files.exists(path) || Files.size(path) == 0) return;
+            long first = f != null && f.first >= 0 ? f.first : Files.getLastModifiedTime(path).toMillis();
+            long last = f != null && f.last >= 0 ? f.last : first;
+            String name;
+            Path archived;
+            do {
+                name = logName(target) + "-" + FILE_STAMP.format(Instant.ofEpochMilli(first))
+                    + "-" + (sequence++) + ".log";
+                archived = ARCHIVE_DIR.resolve(name);
+            } while (Files.exists(archived) || Files.exists(ARCHIVE_DIR.resolve(name + ".gz")));
+            Files.move(path, archived, StandardCopyOption.ATOMIC_MOVE);
+            Segment segment = new Segment(logName(target), first, last, name);
+            appendIndex(segment);
+            compressor.submit(() -> {
+                compress(segment);
+                applyRetention();
+            });
+        } catch (IOException e) {
+            System.err.println("Failed to rotate log file " + target.file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Files holding messages of a log between two instants, oldest first.
+     * Archived segments come from the index; the live file is included when it overlaps.
+     */
+    List<Path> segmentsFor(AsyncLogWriter.Target target, long from, long to) {
+        List<Path> result = new ArrayList<>();
+        String log = logName(target);
+        synchronized (this) {
+            for (Segment s : readIndex()) {
+                if (s.log.equals(log) && s.last >= from && s.first <= to) {
+                    Path p = ARCHIVE_DIR.resolve(s.file);
+                    if (Files.exists(p)) result.add(p);
+                }
+            }
+        }
+        Path current = Paths.get(target.file);
+        try {
+            if (Files.exists(current) && Files.getLastModifiedTime(current).toMillis() >= from) {
+                result.add(current);
+            }
+        } catch (IOException ignored) {
+            // live file vanished mid-rotation; archived copy is already listed
+        }
+        return result;
+    }
+
+    /**
+     * Open a segment for reading, decompressing archived ones
+     */
+    static BufferedReader open(Path segment) throws IOException {
+        InputStream in = Files.newInputStream(segment);
+        if (segment.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse the "[yyyy-MM-dd HH:mm:ss]" prefix of a log line, or -1 for continuation lines
+     */
+    static long lineTime(String line) {
+        if (line.length() < 21 || line.charAt(0) != '[' || line.charAt(20) != ']') return -1;
+        try {
+            return LocalDateTime.parse(line.substring(1, 20), LINE_STAMP).atZone(ZONE).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    void shutdown(long timeoutMs) {
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void compress(Segment segment) {
+        if (segment.file.endsWith(".gz")) return;
+        Path source = ARCHIVE_DIR.resolve(segment.file);
+        Path target = ARCHIVE_DIR.resolve(segment.file + ".gz");
+        Path partial = ARCHIVE_DIR.resolve(segment.file + ".gz.part");
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to compress log segment " + segment.file + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            replaceInIndex(segment.file, segment.file + ".gz");
+            Files.delete(source);
+        } catch (IOException e) {
+            System.err.println("Failed to finish compressing " + segment.file + ": " + e.getMessage());
+        }
+    }
+
+    private void compressPending() {
+        List<Segment> segments;
+        synchronized (this) {
+            segments = readIndex();
+        }
+        for (Segment s : segments) {
+            if (!s.file.endsWith(".gz") && Files.exists(ARCHIVE_DIR.resolve(s.file))) {
+                compress(s);
+            }
+        }
+        applyRetention();
+    }
+
+    private synchronized void applyRetention() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RETENTION_DAYS);
+        List<Segment> kept = new ArrayList<>();
+        Map<String, Integer> perLog = new HashMap<>();
+        List<Segment> all = readIndex();
+        // Newest first so the count limit keeps the most recent segments
+        all.sort((a, b) -> Long.compare(b.last, a.last));
+        boolean changed = false;
+        for (Segment s : all) {
+            int count = perLog.merge(s.log, 1, Integer::sum);
+            if (s.last < cutoff || count > MAX_ARCHIVES) {
+                try {
+                    Files.deleteIfExists(ARCHIVE_DIR.resolve(s.file));
+                } catch (IOException e) {
+                    System.err.println("Failed to delete old log segment " + s.file + ": " + e.getMessage());
+                }
+                changed = true;
+            } else {
+                kept.add(s);
+            }
+        }
+        if (changed) {
+            kept.sort(Comparator.comparingLong(s -> s.first));
+            writeIndex(kept);
+        }
+    }
+
+    private synchronized void appendIndex(Segment segment) {
+        List<Segment> segments = readIndex();
+        segments.add(segment);
+        writeIndex(segments);
+    }
+
+    private synchronized void replaceInIndex(String oldFile, String newFile) {
+        List<Segment> segments = readIndex();
+        for (int i = 0; i < segments.size(); i++) {
+            Segment s = segments.get(i);
+            if (s.file.equals(oldFile)) {
+                segments.set(i, new Segment(s.log, s.first, s.last, newFile));
+            }
+        }
+        writeIndex(segments);
+    }
+
+    private List<Segment> readIndex() {
+        List<Segment> segments = new ArrayList<>();
+        if (!Files.exists(INDEX_FILE)) return segments;
+        try {
+            for (String line : Files.readAllLines(INDEX_FILE, StandardCharsets.UTF_8)) {
+                Segment s = Segment.parse(line);
+                if (s != null) segments.add(s);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read log index: " + e.getMessage());
+        }
+        return segments;
+    }
+
+    // Write-then-rename so readers never see a half-written index
+    private void writeIndex(List<Segment> segments) {
+        Path tmp = ARCHIVE_DIR.resolve("index.tsv.tmp");
+        List<String> lines = new ArrayList<>(segments.size());
+        for (Segment s : segments) {
+            lines.add(s.toLine());
+        }
+        try {
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, INDEX_FILE, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Failed to write log index: " + e.getMessage());
+        }
+    }
+
+    private static long firstTimestamp(Path path, long fallback) {
+        try (BufferedReader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line = r.readLine();
+            long t = line != null ? lineTime(line) : -1;
+            return t >= 0 ? t : fallback;
+        } catch (IOException e) {
+            return fallback;
+        }
+    }
+
+    private static LocalDate toDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZONE).toLocalDate();
+    }
+
+    private static String logName(AsyncLogWriter.Target target) {
+        return target == AsyncLogWriter.Target.USER ? "user" : "error";
+    }
+}
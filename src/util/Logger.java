@@ -1,14 +1,12 @@
 package util;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
+import java.nio.file.Path;
 import java.util.Date;
+import java.util.function.Consumer;
 
 import model.SessionManager;
 import model.User;
@@ -16,20 +14,12 @@ import model.User;
 /**
  * Centralized logging utility for the application.
  * Handles both user activity logs (user.log) and error logs (error.log).
+ * Messages are queued and written by a background thread (see AsyncLogWriter),
+ * so logging never blocks on file I/O.
  */
 public class Logger {
     
-    private static final String USER_LOG_FILE = "logs/user.log";
-    private static final String ERROR_LOG_FILE = "logs/error.log";
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    
-    static {
-        // Ensure logs directory exists
-        File logsDir = new File("logs");
-        if (!logsDir.exists()) {
-            logsDir.mkdirs();
-        }
-    }
+    private static final AsyncLogWriter WRITER = AsyncLogWriter.getInstance();
     
     /**
      * Log user activity to user.log file
@@ -38,11 +28,10 @@ public class Logger {
      * @param details Additional details about the action
      */
     public static void logUserActivity(String username, String action, String details) {
-        String timestamp = DATE_FORMAT.format(new Date());
-        String logMessage = String.format("[%s] USER: %s | ACTION: %s | DETAILS: %s%n", 
-            timestamp, username, action, details);
+        String logMessage = String.format("USER: %s | ACTION: %s | DETAILS: %s%n", 
+            username, action, details);
         
-        writeToFile(USER_LOG_FILE, logMessage);
+        WRITER.append(AsyncLogWriter.Target.USER, logMessage);
     }
     
     /**
@@ -62,9 +51,8 @@ public class Logger {
      * @param exception The exception that occurred (can be null)
      */
     public static void logError(String errorMessage, Exception exception) {
-        String timestamp = DATE_FORMAT.format(new Date());
         StringBuilder logMessage = new StringBuilder();
-        logMessage.append(String.format("[%s] ERROR: %s%n", timestamp, errorMessage));
+        logMessage.append(String.format("ERROR: %s%n", errorMessage));
         
         if (exception != null) {
             logMessage.append(String.format("Exception: %s%n", exception.getClass().getName()));
@@ -79,7 +67,7 @@ public class Logger {
             logMessage.append("\n");
         }
         
-        writeToFile(ERROR_LOG_FILE, logMessage.toString());
+        WRITER.append(AsyncLogWriter.Target.ERROR, logMessage.toString());
     }
     
     /**
@@ -136,19 +124,10 @@ public class Logger {
     }
     
     /**
-     * Write message to specified log file
-     * @param filename The log file path
-     * @param message The message to write
+     * Block until every message logged so far has been written to disk
      */
-    private static synchronized void writeToFile(String filename, String message) {
-        try (FileWriter fw = new FileWriter(filename, true);
-             BufferedWriter bw = new BufferedWriter(fw);
-             PrintWriter out = new PrintWriter(bw)) {
-            out.print(message);
-        } catch (IOException e) {
-            System.err.println("Failed to write to log file: " + filename);
-            e.printStackTrace();
-        }
+    public static void flush() {
+        WRITER.flush();
     }
     
     /**
@@ -156,9 +135,7 @@ public class Logger {
      * @param message The info message
      */
     public static void logInfo(String message) {
-        String timestamp = DATE_FORMAT.format(new Date());
-        String logMessage = String.format("[%s] INFO: %s%n", timestamp, message);
-        writeToFile(USER_LOG_FILE, logMessage);
+        WRITER.append(AsyncLogWriter.Target.USER, String.format("INFO: %s%n", message));
     }
     
     /**
@@ -166,23 +143,54 @@ public class Logger {
      * @param message The warning message
      */
     public static void logWarning(String message) {
-        String timestamp = DATE_FORMAT.format(new Date());
-        String logMessage = String.format("[%s] WARNING: %s%n", timestamp, message);
-        writeToFile(ERROR_LOG_FILE, logMessage);
+        WRITER.append(AsyncLogWriter.Target.ERROR, String.format("WARNING: %s%n", message));
     }
     
     /**
-     * Clear log file contents (use with caution)
+     * Start a fresh log file. The old contents are archived (and later
+     * removed by the retention policy) rather than destroyed.
      * @param logType "user" or "error"
      */
     public static void clearLog(String logType) {
-        String filename = logType.equalsIgnoreCase("user") ? USER_LOG_FILE : ERROR_LOG_FILE;
-        try (FileWriter fw = new FileWriter(filename, false)) {
-            fw.write(""); // Clear file
-            logInfo(String.format("Log file cleared: %s", filename));
-        } catch (IOException e) {
-            System.err.println("Failed to clear log file: " + filename);
-            e.printStackTrace();
+        AsyncLogWriter.Target target = targetOf(logType);
+        // Rotate on the writer thread, after anything already queued for this file
+        WRITER.runOnWriter(() -> WRITER.rotate(target));
+        logInfo(String.format("Log file cleared: %s", target.file));
+    }
+    
+    /**
+     * Read the log entries written between two dates, oldest first. Only the
+     * archived segments whose time range overlaps are opened. Multi-line
+     * entries (stack traces) are passed on line by line after their header.
+     * @param logType "user" or "error"
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (inclusive)
+     * @param lineConsumer Receives each matching line
+     */
+    public static void readLogs(String logType, Date from, Date to, Consumer<String> lineConsumer) throws IOException {
+        AsyncLogWriter.Target target = targetOf(logType);
+        long fromMillis = from.getTime();
+        long toMillis = to.getTime();
+        flush();
+        for (Path segment : WRITER.segmentsFor(target, fromMillis, toMillis)) {
+            try (BufferedReader reader = LogRotator.open(segment)) {
+                boolean inRange = false;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    long time = LogRotator.lineTime(line);
+                    if (time >= 0) {
+                        if (time > toMillis) break;
+                        inRange = time >= fromMillis;
+                    }
+                    if (inRange) {
+                        lineConsumer.accept(line);
+                    }
+                }
+            }
         }
     }
+    
+    private static AsyncLogWriter.Target targetOf(String logType) {
+        return logType.equalsIgnoreCase("user") ? AsyncLogWriter.Target.USER : AsyncLogWriter.Target.ERROR;
+    }
 }
@@ -0,0 +1,64 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The application's one JVM shutdown hook. Components register a step for
+ * their phase when they start, and the steps run one after another in phase
+ * order: the audit writer drains into the database while the connection
+ * pool is still open, the pool closes next, and the log files are flushed
+ * and closed last so the earlier steps can still log.
+ *
+ * A component that never started registers nothing, so shutting down never
+ * starts one just to stop it.
+ */
+public final class ShutdownSequence {
+
+    /** Shutdown phases, in the order they run */
+    public enum Phase {
+        AUDIT, DATABASE, LOGGING
+    }
+
+    private static final Map<Phase, List<Runnable>> STEPS = new EnumMap<>(Phase.class);
+    private static boolean hookInstalled;
+
+    private ShutdownSequence() {}
+
+    /**
+     * Add a step to run at shutdown in the given phase
+     */
+    public static synchronized void register(Phase phase, Runnable step) {
+        if (!hookInstalled) {
+            try {
+                Runtime.getRuntime().addShutdownHook(new Thread(ShutdownSequence::run, "shutdown-sequence"));
+            } catch (IllegalStateException e) {
+                // Already shutting down: the component started too late to be stopped in order
+                return;
+            }
+            hookInstalled = true;
+        }
+        STEPS.computeIfAbsent(phase, p -> new ArrayList<>()).add(step);
+    }
+
+    private static void run() {
+        for (Phase phase : Phase.values()) {
+            // Read each phase only when it starts: an earlier step may start a
+            // component (the audit writer opening the pool) that registers here
+            List<Runnable> steps;
+            synchronized (ShutdownSequence.class) {
+                steps = new ArrayList<>(STEPS.getOrDefault(phase, new ArrayList<>()));
+            }
+            for (Runnable step : steps) {
+                try {
+                    step.run();
+                } catch (RuntimeException e) {
+                    // Keep going: a failed step must not stop the later ones
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}